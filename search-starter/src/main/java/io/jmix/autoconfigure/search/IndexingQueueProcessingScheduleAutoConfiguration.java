@@ -17,6 +17,7 @@
 package io.jmix.autoconfigure.search;
 
 import io.jmix.autoconfigure.search.job.IndexingQueueProcessingJob;
+import io.jmix.autoconfigure.search.job.WatermarkIndexingJob;
 import io.jmix.search.SearchConfiguration;
 import io.jmix.search.SearchProperties;
 import org.quartz.*;
@@ -59,4 +60,26 @@ public class IndexingQueueProcessingScheduleAutoConfiguration {
                 .withSchedule(CronScheduleBuilder.cronSchedule(cron))
                 .build();
     }
+
+    @Bean("search_WatermarkIndexingJob")
+    @ConditionalOnProperty(name = "jmix.search.watermark-indexing-entities")
+    JobDetail watermarkIndexingJob() {
+        return JobBuilder.newJob()
+                .ofType(WatermarkIndexingJob.class)
+                .storeDurably()
+                .withIdentity("WatermarkIndexing")
+                .build();
+    }
+
+    @Bean("search_WatermarkIndexingTrigger")
+    @ConditionalOnProperty(name = "jmix.search.watermark-indexing-entities")
+    Trigger watermarkIndexingTrigger() {
+        String cron = searchProperties.getWatermarkIndexingCron();
+        log.info("Schedule watermark indexing using default configuration with CRON expression '{}'", cron);
+        return TriggerBuilder.newTrigger()
+                .forJob(watermarkIndexingJob())
+                .startNow()
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron))
+                .build();
+    }
 }
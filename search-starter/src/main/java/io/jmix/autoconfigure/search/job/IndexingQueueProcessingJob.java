@@ -17,18 +17,24 @@
 package io.jmix.autoconfigure.search.job;
 
 import io.jmix.search.index.queue.IndexingQueueManager;
+import io.jmix.search.index.queue.QueueProcessingResult;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 public class IndexingQueueProcessingJob implements Job {
 
+    private static final Logger log = LoggerFactory.getLogger(IndexingQueueProcessingJob.class);
+
     @Autowired
     private IndexingQueueManager indexingQueueManager;
 
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
-        indexingQueueManager.processNextBatch();
+        QueueProcessingResult result = indexingQueueManager.processQueue();
+        log.debug("Indexing queue processing execution finished: {}", result);
     }
 }
@@ -18,11 +18,13 @@ package io.jmix.search;
 
 import io.jmix.core.Resources;
 import io.jmix.search.index.IndexSchemaManagementStrategy;
+import io.jmix.search.index.queue.IndexingWorkersMode;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConstructorBinding;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -46,6 +48,83 @@ public class SearchProperties {
      */
     protected final int searchReloadEntitiesBatchSize;
 
+    /**
+     * Max amount of batches of search result entity instances loaded concurrently within a single call,
+     * including the calling thread. Batches are loaded sequentially if a transaction is active.
+     */
+    protected final int searchReloadEntitiesConcurrency;
+
+    /**
+     * Max amount of threads loading batches of search result entity instances shared by all concurrent calls.
+     * When all of them are busy, batches are loaded by calling threads.
+     */
+    protected final int maxSearchReloadThreads;
+
+    /**
+     * Whether search result pages should be fetched with 'search_after' against point-in-time instead of 'from' offset.
+     * Keeps cost of deep pages the same as of the first one. Requires Elasticsearch 7.12+.
+     */
+    protected final boolean searchAfterPaginationEnabled;
+
+    /**
+     * How long point-in-time opened for search stays alive between requests of next pages.
+     */
+    protected final Duration searchPointInTimeKeepAlive;
+
+    /**
+     * Max amount of threads processing asynchronous searches and responses of multi-search.
+     * Steps exceeding this amount wait in queue.
+     */
+    protected final int maxAsyncSearchThreads;
+
+    /**
+     * Max factor page size is multiplied by when searching entities with row-level policies.
+     * Actual factor is based on observed share of hits accessible for current user. Value 1 disables over-fetching.
+     */
+    protected final int maxSearchOverFetchFactor;
+
+    /**
+     * Max amount of hits counted to determine total hits of search request.
+     * Search requests count hits only up to the end of the requested page plus one hit, which is enough to detect
+     * if more data is available. This property limits counting for deep pages.
+     */
+    protected final int maxTrackedTotalHits;
+
+    /**
+     * Whether row-level policies should be translated into filters of search request where possible.
+     * Properties such policies depend on are added to index mapping. Instances of entities with untranslatable
+     * policies are still verified by reloading from database.
+     */
+    protected final boolean rowLevelPoliciesTranslationEnabled;
+
+    /**
+     * Whether results of searches should be cached. Cached results are invalidated when indexes of searched entities
+     * are changed by this application instance. Changes made by other instances become visible after expiration.
+     */
+    protected final boolean searchResultCacheEnabled;
+
+    /**
+     * How long cached search result stays valid after creation.
+     */
+    protected final Duration searchResultCacheTtl;
+
+    /**
+     * Max amount of cached search results.
+     */
+    protected final int searchResultCacheMaxSize;
+
+    /**
+     * Whether values of all text fields should be copied into single catch-all field searched by built-in strategies
+     * instead of expanding query to every mapped field. Indexes should be recreated after change of this property.
+     */
+    protected final boolean catchAllFieldEnabled;
+
+    /**
+     * Analyzer of catch-all field. Text fields with other analyzer are queried along with catch-all field,
+     * so analysis specific for them still applies. Indexes should be recreated after change of this property.
+     */
+    protected final String catchAllFieldAnalyzer;
+
     /**
      * Amount of queue items processed in single batch.
      */
@@ -56,11 +135,82 @@ public class SearchProperties {
      */
     protected final int maxProcessedQueueItemsPerExecution;
 
+    /**
+     * Max wall-clock time of single queue processing execution. New batches are not dequeued after this time is spent.
+     * Zero means no limit.
+     */
+    protected final Duration maxQueueProcessingTimePerExecution;
+
+    /**
+     * The way of processing groups of dequeued items: 'sequential', 'platform-threads' or 'virtual-threads'.
+     */
+    protected final IndexingWorkersMode indexingWorkersMode;
+
+    /**
+     * Max amount of groups of dequeued items processed concurrently. Used by 'platform-threads' and 'virtual-threads'
+     * indexing workers modes.
+     */
+    protected final int maxConcurrentIndexingTasks;
+
     /**
      * Amount of entity instances enqueued in single batch during entity reindex process.
      */
     protected final int reindexEntityEnqueueBatchSize;
 
+    /**
+     * Amount of entity instances loaded and sent to index in single bulk request during direct reindex of entity.
+     */
+    protected final int reindexBatchSize;
+
+    /**
+     * Max amount of bulk requests executed concurrently during direct reindex of entity.
+     */
+    protected final int maxConcurrentReindexBulkRequests;
+
+    /**
+     * Interval of saving checkpoint of direct reindex. Checkpoint contains the last key of instances
+     * sent to index and allows to resume interrupted reindex.
+     */
+    protected final Duration reindexCheckpointInterval;
+
+    /**
+     * Duration after which checkpoint of direct reindex that hasn't been updated is considered as abandoned
+     * and reindex may be resumed by any application instance.
+     */
+    protected final Duration reindexCheckpointStaleTimeout;
+
+    /**
+     * Interval of reloading names of indexes being rebuilt by any application instance.
+     * Changes of entities are written into such indexes in addition to current ones, so rebuild waits this interval
+     * before filling the new index to let all instances start writing into it.
+     */
+    protected final Duration rebuildTargetsRefreshInterval;
+
+    /**
+     * Max amount of changed entity ids used as parameters of single query loading dependent entities.
+     */
+    protected final int dependentEntitiesLoadBatchSize;
+
+    /**
+     * Max amount of dependent entity instances enqueued for reindex after update of instance name of referenced entity.
+     * If exceeded, instance name is updated directly within existing index documents by update-by-query request.
+     * Ids of referenced instances are indexed next to their instance names only if this threshold is positive.
+     * Zero disables this behavior.
+     */
+    protected final int dependentEntitiesFanOutThreshold;
+
+    /**
+     * Max amount of ids of entity instances dependent on removed instances kept in memory within single transaction.
+     * Dependencies exceeding this limit are enqueued immediately.
+     */
+    protected final int maxRemovalDependenciesPerTransaction;
+
+    /**
+     * Max amount of indexing operations buffered within single transaction. Once it's exceeded, all buffered
+     * operations are enqueued immediately in the same transaction.
+     */
+    protected final int maxBufferedIndexingOperationsPerTransaction;
+
     /**
      * Whether automatic indexing of changed entities is enabled.
      */
@@ -106,17 +256,99 @@ public class SearchProperties {
      */
     protected final List<String> enqueueIndexAllOnStartupIndexRecreationEntities;
 
+    /**
+     * Whether instances of entities related to indexes created or recreated on startup should be indexed directly
+     * (see 'reindexEntity' operation of EntityIndexingManagementFacade) instead of being enqueued.
+     * Entities with composite primary key are always enqueued. Unlike enqueueing, direct reindex is checkpointed and
+     * resumed after restart of application.
+     */
+    protected final boolean directReindexOnStartupIndexRecreationEnabled;
+
+    /**
+     * Whether settings profile optimized for bulk loading (disabled refresh, no replicas, async translog) is applied
+     * to indexes during their full rebuild. Original settings are restored afterwards.
+     */
+    protected final boolean bulkLoadIndexSettingsEnabled;
+
+    /**
+     * Whether force merge should be performed after index rebuild with bulk load settings profile.
+     */
+    protected final boolean forceMergeAfterBulkLoadEnabled;
+
+    /**
+     * List of indexed entities with last-modified-date property which created and updated instances are indexed
+     * incrementally by high-water mark of last modification date instead of indexing queue.
+     * Deletions are still processed via indexing queue.
+     */
+    protected final List<String> watermarkIndexingEntities;
+
+    /**
+     * Overlap window subtracted from stored high-water mark on every incremental indexing execution.
+     * Covers instances committed later than instances with greater modification date (clock skew, long transactions).
+     */
+    protected final Duration watermarkIndexingClockSkew;
+
+    /**
+     * Amount of instances indexed in single batch during incremental indexing by high-water mark.
+     */
+    protected final int watermarkIndexingBatchSize;
+
+    /**
+     * Defines whether all existing instances are indexed on the first incremental indexing execution for entity
+     * without stored high-water mark. If disabled, high-water mark is initialized with current time and existing
+     * instances are expected to be indexed by regular reindex. Disabled by default.
+     */
+    protected final boolean watermarkIndexingInitialFullScanEnabled;
+
+    /**
+     * CRON expression that is used by default incremental indexing quartz scheduling configuration.
+     */
+    protected final String watermarkIndexingCron;
+
     public SearchProperties(
             @DefaultValue("100") int searchResultPageSize,
             @DefaultValue("100") int maxSearchPageCount,
             @DefaultValue("100") int searchReloadEntitiesBatchSize,
+            @DefaultValue("4") int searchReloadEntitiesConcurrency,
+            @DefaultValue("8") int maxSearchReloadThreads,
+            @DefaultValue("true") boolean searchAfterPaginationEnabled,
+            @DefaultValue("1m") Duration searchPointInTimeKeepAlive,
+            @DefaultValue("8") int maxAsyncSearchThreads,
+            @DefaultValue("10") int maxSearchOverFetchFactor,
+            @DefaultValue("10000") int maxTrackedTotalHits,
+            @DefaultValue("true") boolean rowLevelPoliciesTranslationEnabled,
+            @DefaultValue("false") boolean searchResultCacheEnabled,
+            @DefaultValue("30s") Duration searchResultCacheTtl,
+            @DefaultValue("1000") int searchResultCacheMaxSize,
+            @DefaultValue("false") boolean catchAllFieldEnabled,
+            @DefaultValue("standard") String catchAllFieldAnalyzer,
             @DefaultValue("100") int processQueueBatchSize,
             @DefaultValue("1000") int maxProcessedQueueItemsPerExecution,
+            @DefaultValue("0") Duration maxQueueProcessingTimePerExecution,
+            @DefaultValue("sequential") String indexingWorkersMode,
+            @DefaultValue("8") int maxConcurrentIndexingTasks,
             @DefaultValue("100") int reindexEntityEnqueueBatchSize,
+            @DefaultValue("500") int reindexBatchSize,
+            @DefaultValue("2") int maxConcurrentReindexBulkRequests,
+            @DefaultValue("30s") Duration reindexCheckpointInterval,
+            @DefaultValue("5m") Duration reindexCheckpointStaleTimeout,
+            @DefaultValue("10s") Duration rebuildTargetsRefreshInterval,
+            @DefaultValue("500") int dependentEntitiesLoadBatchSize,
+            @DefaultValue("0") int dependentEntitiesFanOutThreshold,
+            @DefaultValue("10000") int maxRemovalDependenciesPerTransaction,
+            @DefaultValue("10000") int maxBufferedIndexingOperationsPerTransaction,
             @DefaultValue("true") boolean changedEntitiesIndexingEnabled,
             @DefaultValue("true") boolean useDefaultIndexingQueueProcessingQuartzConfiguration,
             @DefaultValue("true") boolean enqueueIndexAllOnStartupIndexRecreationEnabled,
             @DefaultValue("") String enqueueIndexAllOnStartupIndexRecreationEntities,
+            @DefaultValue("false") boolean directReindexOnStartupIndexRecreationEnabled,
+            @DefaultValue("false") boolean bulkLoadIndexSettingsEnabled,
+            @DefaultValue("false") boolean forceMergeAfterBulkLoadEnabled,
+            @DefaultValue("") String watermarkIndexingEntities,
+            @DefaultValue("60s") Duration watermarkIndexingClockSkew,
+            @DefaultValue("100") int watermarkIndexingBatchSize,
+            @DefaultValue("false") boolean watermarkIndexingInitialFullScanEnabled,
+            @DefaultValue("0/30 * * * * ?") String watermarkIndexingCron,
             @DefaultValue("search_index_") String searchIndexNamePrefix,
             @DefaultValue("anyTermAnyField") String defaultSearchStrategy,
             @DefaultValue("create-or-recreate") String indexSchemaManagementStrategy,
@@ -125,9 +357,34 @@ public class SearchProperties {
         this.searchResultPageSize = searchResultPageSize;
         this.maxSearchPageCount = maxSearchPageCount;
         this.searchReloadEntitiesBatchSize = searchReloadEntitiesBatchSize;
+        this.searchReloadEntitiesConcurrency = searchReloadEntitiesConcurrency;
+        this.maxSearchReloadThreads = maxSearchReloadThreads;
+        this.searchAfterPaginationEnabled = searchAfterPaginationEnabled;
+        this.searchPointInTimeKeepAlive = searchPointInTimeKeepAlive;
+        this.maxAsyncSearchThreads = maxAsyncSearchThreads;
+        this.maxSearchOverFetchFactor = maxSearchOverFetchFactor;
+        this.maxTrackedTotalHits = maxTrackedTotalHits;
+        this.rowLevelPoliciesTranslationEnabled = rowLevelPoliciesTranslationEnabled;
+        this.searchResultCacheEnabled = searchResultCacheEnabled;
+        this.searchResultCacheTtl = searchResultCacheTtl;
+        this.searchResultCacheMaxSize = searchResultCacheMaxSize;
+        this.catchAllFieldEnabled = catchAllFieldEnabled;
+        this.catchAllFieldAnalyzer = catchAllFieldAnalyzer;
         this.processQueueBatchSize = processQueueBatchSize;
         this.maxProcessedQueueItemsPerExecution = maxProcessedQueueItemsPerExecution;
+        this.maxQueueProcessingTimePerExecution = maxQueueProcessingTimePerExecution;
+        this.indexingWorkersMode = IndexingWorkersMode.getByKey(indexingWorkersMode);
+        this.maxConcurrentIndexingTasks = maxConcurrentIndexingTasks;
         this.reindexEntityEnqueueBatchSize = reindexEntityEnqueueBatchSize;
+        this.reindexBatchSize = reindexBatchSize;
+        this.maxConcurrentReindexBulkRequests = maxConcurrentReindexBulkRequests;
+        this.reindexCheckpointInterval = reindexCheckpointInterval;
+        this.reindexCheckpointStaleTimeout = reindexCheckpointStaleTimeout;
+        this.rebuildTargetsRefreshInterval = rebuildTargetsRefreshInterval;
+        this.dependentEntitiesLoadBatchSize = dependentEntitiesLoadBatchSize;
+        this.dependentEntitiesFanOutThreshold = dependentEntitiesFanOutThreshold;
+        this.maxRemovalDependenciesPerTransaction = maxRemovalDependenciesPerTransaction;
+        this.maxBufferedIndexingOperationsPerTransaction = maxBufferedIndexingOperationsPerTransaction;
         this.changedEntitiesIndexingEnabled = changedEntitiesIndexingEnabled;
         this.useDefaultIndexingQueueProcessingQuartzConfiguration = useDefaultIndexingQueueProcessingQuartzConfiguration;
         this.indexingQueueProcessingCron = indexingQueueProcessingCron;
@@ -136,6 +393,14 @@ public class SearchProperties {
         this.elasticsearch = elasticsearch;
         this.enqueueIndexAllOnStartupIndexRecreationEnabled = enqueueIndexAllOnStartupIndexRecreationEnabled;
         this.enqueueIndexAllOnStartupIndexRecreationEntities = prepareStartupEnqueueingEntities(enqueueIndexAllOnStartupIndexRecreationEntities);
+        this.directReindexOnStartupIndexRecreationEnabled = directReindexOnStartupIndexRecreationEnabled;
+        this.bulkLoadIndexSettingsEnabled = bulkLoadIndexSettingsEnabled;
+        this.forceMergeAfterBulkLoadEnabled = forceMergeAfterBulkLoadEnabled;
+        this.watermarkIndexingEntities = prepareStartupEnqueueingEntities(watermarkIndexingEntities);
+        this.watermarkIndexingClockSkew = watermarkIndexingClockSkew;
+        this.watermarkIndexingBatchSize = watermarkIndexingBatchSize;
+        this.watermarkIndexingInitialFullScanEnabled = watermarkIndexingInitialFullScanEnabled;
+        this.watermarkIndexingCron = watermarkIndexingCron;
         this.searchIndexNamePrefix = searchIndexNamePrefix;
     }
 
@@ -160,6 +425,97 @@ public class SearchProperties {
         return searchReloadEntitiesBatchSize;
     }
 
+    /**
+     * @see #searchReloadEntitiesConcurrency
+     */
+    public int getSearchReloadEntitiesConcurrency() {
+        return searchReloadEntitiesConcurrency;
+    }
+
+    /**
+     * @see #maxSearchReloadThreads
+     */
+    public int getMaxSearchReloadThreads() {
+        return maxSearchReloadThreads;
+    }
+
+    /**
+     * @see #searchAfterPaginationEnabled
+     */
+    public boolean isSearchAfterPaginationEnabled() {
+        return searchAfterPaginationEnabled;
+    }
+
+    /**
+     * @see #searchPointInTimeKeepAlive
+     */
+    public Duration getSearchPointInTimeKeepAlive() {
+        return searchPointInTimeKeepAlive;
+    }
+
+    /**
+     * @see #maxAsyncSearchThreads
+     */
+    public int getMaxAsyncSearchThreads() {
+        return maxAsyncSearchThreads;
+    }
+
+    /**
+     * @see #maxSearchOverFetchFactor
+     */
+    public int getMaxSearchOverFetchFactor() {
+        return maxSearchOverFetchFactor;
+    }
+
+    /**
+     * @see #maxTrackedTotalHits
+     */
+    public int getMaxTrackedTotalHits() {
+        return maxTrackedTotalHits;
+    }
+
+    /**
+     * @see #rowLevelPoliciesTranslationEnabled
+     */
+    public boolean isRowLevelPoliciesTranslationEnabled() {
+        return rowLevelPoliciesTranslationEnabled;
+    }
+
+    /**
+     * @see #searchResultCacheEnabled
+     */
+    public boolean isSearchResultCacheEnabled() {
+        return searchResultCacheEnabled;
+    }
+
+    /**
+     * @see #searchResultCacheTtl
+     */
+    public Duration getSearchResultCacheTtl() {
+        return searchResultCacheTtl;
+    }
+
+    /**
+     * @see #searchResultCacheMaxSize
+     */
+    public int getSearchResultCacheMaxSize() {
+        return searchResultCacheMaxSize;
+    }
+
+    /**
+     * @see #catchAllFieldEnabled
+     */
+    public boolean isCatchAllFieldEnabled() {
+        return catchAllFieldEnabled;
+    }
+
+    /**
+     * @see #catchAllFieldAnalyzer
+     */
+    public String getCatchAllFieldAnalyzer() {
+        return catchAllFieldAnalyzer;
+    }
+
     /**
      * @see #processQueueBatchSize
      */
@@ -174,6 +530,27 @@ public class SearchProperties {
         return maxProcessedQueueItemsPerExecution;
     }
 
+    /**
+     * @see #maxQueueProcessingTimePerExecution
+     */
+    public Duration getMaxQueueProcessingTimePerExecution() {
+        return maxQueueProcessingTimePerExecution;
+    }
+
+    /**
+     * @see #indexingWorkersMode
+     */
+    public IndexingWorkersMode getIndexingWorkersMode() {
+        return indexingWorkersMode;
+    }
+
+    /**
+     * @see #maxConcurrentIndexingTasks
+     */
+    public int getMaxConcurrentIndexingTasks() {
+        return maxConcurrentIndexingTasks;
+    }
+
     /**
      * @see #reindexEntityEnqueueBatchSize
      */
@@ -181,6 +558,73 @@ public class SearchProperties {
         return reindexEntityEnqueueBatchSize;
     }
 
+    /**
+     * @see #reindexBatchSize
+     */
+    public int getReindexBatchSize() {
+        return reindexBatchSize;
+    }
+
+    /**
+     * @see #maxConcurrentReindexBulkRequests
+     */
+    public int getMaxConcurrentReindexBulkRequests() {
+        return maxConcurrentReindexBulkRequests;
+    }
+
+    /**
+     * @see #reindexCheckpointInterval
+     */
+    public Duration getReindexCheckpointInterval() {
+        return reindexCheckpointInterval;
+    }
+
+    /**
+     * @see #reindexCheckpointStaleTimeout
+     */
+    public Duration getReindexCheckpointStaleTimeout() {
+        return reindexCheckpointStaleTimeout;
+    }
+
+    /**
+     * @see #rebuildTargetsRefreshInterval
+     */
+    public Duration getRebuildTargetsRefreshInterval() {
+        return rebuildTargetsRefreshInterval;
+    }
+
+    /**
+     * @see #dependentEntitiesLoadBatchSize
+     */
+    public int getDependentEntitiesLoadBatchSize() {
+        return dependentEntitiesLoadBatchSize;
+    }
+
+    /**
+     * @see #dependentEntitiesFanOutThreshold
+     */
+    public int getDependentEntitiesFanOutThreshold() {
+        return dependentEntitiesFanOutThreshold;
+    }
+
+    /**
+     * @see #maxRemovalDependenciesPerTransaction
+     */
+    public int getMaxRemovalDependenciesPerTransaction() {
+        return maxRemovalDependenciesPerTransaction;
+    }
+
+    /**
+     * @see #maxBufferedIndexingOperationsPerTransaction
+     */
+    public int getMaxBufferedIndexingOperationsPerTransaction() {
+        return maxBufferedIndexingOperationsPerTransaction;
+    }
+
+    public boolean isReferenceIdIndexingEnabled() {
+        return dependentEntitiesFanOutThreshold > 0;
+    }
+
     /**
      * @see #changedEntitiesIndexingEnabled
      */
@@ -223,6 +667,62 @@ public class SearchProperties {
         return enqueueIndexAllOnStartupIndexRecreationEntities;
     }
 
+    /**
+     * @see #directReindexOnStartupIndexRecreationEnabled
+     */
+    public boolean isDirectReindexOnStartupIndexRecreationEnabled() {
+        return directReindexOnStartupIndexRecreationEnabled;
+    }
+
+    /**
+     * @see #bulkLoadIndexSettingsEnabled
+     */
+    public boolean isBulkLoadIndexSettingsEnabled() {
+        return bulkLoadIndexSettingsEnabled;
+    }
+
+    /**
+     * @see #forceMergeAfterBulkLoadEnabled
+     */
+    public boolean isForceMergeAfterBulkLoadEnabled() {
+        return forceMergeAfterBulkLoadEnabled;
+    }
+
+    /**
+     * @see #watermarkIndexingEntities
+     */
+    public List<String> getWatermarkIndexingEntities() {
+        return watermarkIndexingEntities;
+    }
+
+    /**
+     * @see #watermarkIndexingClockSkew
+     */
+    public Duration getWatermarkIndexingClockSkew() {
+        return watermarkIndexingClockSkew;
+    }
+
+    /**
+     * @see #watermarkIndexingBatchSize
+     */
+    public int getWatermarkIndexingBatchSize() {
+        return watermarkIndexingBatchSize;
+    }
+
+    /**
+     * @see #watermarkIndexingInitialFullScanEnabled
+     */
+    public boolean isWatermarkIndexingInitialFullScanEnabled() {
+        return watermarkIndexingInitialFullScanEnabled;
+    }
+
+    /**
+     * @see #watermarkIndexingCron
+     */
+    public String getWatermarkIndexingCron() {
+        return watermarkIndexingCron;
+    }
+
     /**
      * @see #defaultSearchStrategy
      */
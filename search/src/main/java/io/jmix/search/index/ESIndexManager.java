@@ -65,6 +65,49 @@ public interface ESIndexManager {
      */
     boolean recreateIndex(IndexConfiguration indexConfiguration);
 
+    /**
+     * Rebuilds search index without downtime using provided {@link IndexConfiguration}.
+     * <p>
+     * New version of physical index is created and filled in background while the current one keeps serving.
+     * All changes are written into both indexes during this process. After new version is completely filled,
+     * index alias is switched to it and previous version is dropped in single atomic operation.
+     *
+     * @param indexConfiguration index configuration
+     * @return true if rebuild has been started, false otherwise
+     */
+    boolean rebuildIndex(IndexConfiguration indexConfiguration);
+
+    /**
+     * Applies settings profile optimized for bulk loading to index: refresh is disabled, replicas are removed
+     * and translog is flushed asynchronously. Such index isn't suitable for searching until
+     * {@link #restoreSettingsAfterBulkLoad(IndexConfiguration, String)} is invoked.
+     *
+     * @param indexName name of index or alias
+     * @return true if settings were successfully applied, false otherwise
+     */
+    boolean applyBulkLoadSettings(String indexName);
+
+    /**
+     * Restores settings changed by {@link #applyBulkLoadSettings(String)} to values they had before bulk load,
+     * performs force merge if it's enabled and refreshes index. Values are saved within '_meta' of index mapping.
+     * If they haven't been saved, values defined in provided {@link IndexConfiguration} (or defaults if they
+     * aren't defined) are used.
+     *
+     * @param indexConfiguration index configuration
+     * @param indexName          name of index or alias
+     * @return true if settings were successfully restored, false otherwise
+     */
+    boolean restoreSettingsAfterBulkLoad(IndexConfiguration indexConfiguration, String indexName);
+
+    /**
+     * Checks if bulk load settings profile is currently applied to index related to provided
+     * {@link IndexConfiguration}, e.g. because bulk loading has been interrupted.
+     *
+     * @param indexConfiguration index configuration
+     * @return true if bulk load settings are applied, false otherwise
+     */
+    boolean isBulkLoadSettingsApplied(IndexConfiguration indexConfiguration);
+
     /**
      * Checks if index exists.
      *
@@ -16,6 +16,7 @@
 
 package io.jmix.search.index;
 
+import io.jmix.core.FetchPlan;
 import io.jmix.core.Id;
 
 import java.util.Collection;
@@ -57,6 +58,34 @@ public interface EntityIndexer {
      */
     IndexResult indexCollectionByEntityIds(Collection<Id<?>> entityIds);
 
+    /**
+     * Stores provided entity instances to index as is without reloading them.
+     * Instances should be loaded with fetch plan provided by {@link #getIndexingFetchPlan(IndexConfiguration)}.
+     *
+     * @param entityInstances loaded instances
+     * @return {@link IndexResult}
+     */
+    IndexResult indexLoadedCollection(Collection<Object> entityInstances);
+
+    /**
+     * Stores provided entity instances as is into provided physical index instead of index of their entity.
+     * Used to fill new version of index being rebuilt. Documents already present in that index aren't overwritten:
+     * they have been written by changes made during rebuild and are newer than provided instances.
+     *
+     * @param entityInstances instances loaded with fetch plan provided by {@link #getIndexingFetchPlan(IndexConfiguration)}
+     * @param targetIndexName name of physical index
+     * @return {@link IndexResult}
+     */
+    IndexResult indexLoadedCollection(Collection<Object> entityInstances, String targetIndexName);
+
+    /**
+     * Gets fetch plan containing all properties required to build index documents of provided index.
+     *
+     * @param indexConfiguration index configuration
+     * @return fetch plan
+     */
+    FetchPlan getIndexingFetchPlan(IndexConfiguration indexConfiguration);
+
     /**
      * Deletes provided entity instance from index.
      *
@@ -88,4 +117,16 @@ public interface EntityIndexer {
      * @return {@link IndexResult}
      */
     IndexResult deleteCollectionByEntityIds(Collection<Id<?>> entityIds);
+
+    /**
+     * Updates instance name of referenced entity instance within existing index documents of provided entity
+     * without reloading of indexed instances. Requires ids of referenced instances to be indexed
+     * (see 'jmix.search.dependentEntitiesFanOutThreshold'). Update is executed asynchronously, failures are logged.
+     *
+     * @param entityName         name of indexed entity
+     * @param referenceFieldName full name of index field representing to-one reference, e.g. 'customer.category'
+     * @param referenceId        ID of referenced entity instance
+     * @param instanceName       new instance name of referenced entity instance
+     */
+    void updateReferenceInstanceName(String entityName, String referenceFieldName, Id<?> referenceId, String instanceName);
 }
@@ -20,13 +20,16 @@ import io.jmix.core.Id;
 import io.jmix.core.IdSerialization;
 import io.jmix.core.security.Authenticated;
 import io.jmix.search.SearchProperties;
+import io.jmix.search.index.impl.StreamingReindexer;
 import io.jmix.search.index.mapping.IndexConfigurationManager;
 import io.jmix.search.index.queue.IndexingQueueManager;
+import io.jmix.search.index.queue.QueueProcessingResult;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jmx.export.annotation.*;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Map;
 
 @ManagedResource(description = "Manages entity indexing for full text search", objectName = "jmix.search:type=EntityIndexing")
@@ -45,6 +48,8 @@ public class EntityIndexingManagementFacade {
     protected IndexConfigurationManager indexConfigurationManager;
     @Autowired
     protected SearchProperties searchProperties;
+    @Autowired
+    protected StreamingReindexer streamingReindexer;
 
     @ManagedAttribute(description = "Defines the way of index synchronization")
     public String getIndexSchemaManagementStrategy() {
@@ -73,6 +78,58 @@ public class EntityIndexingManagementFacade {
         return String.format("%d instances of entity '%s' have been enqueued", amount, entityName);
     }
 
+    @Authenticated
+    @ManagedOperation(description = "Starts reindex of all instances of provided entity directly, bypassing Indexing Queue")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "entityName", description = "Name of entity configured for indexing, e.g. demo_Order")
+    })
+    public String reindexEntity(String entityName) {
+        InputValidationResult inputValidationResult = validateInputEntity(entityName);
+        if (!inputValidationResult.isValid()) {
+            return inputValidationResult.getMessage();
+        }
+
+        try {
+            boolean started = streamingReindexer.startReindex(entityName);
+            return started
+                    ? String.format("Reindex of entity '%s' has been started", entityName)
+                    : String.format("Reindex of entity '%s' is already running", entityName);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Authenticated
+    @ManagedOperation(description = "Cancels running direct reindex of provided entity")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "entityName", description = "Name of entity configured for indexing, e.g. demo_Order")
+    })
+    public String cancelReindexEntity(String entityName) {
+        boolean cancelled = streamingReindexer.cancelReindex(entityName);
+        return cancelled
+                ? String.format("Cancellation of reindex of entity '%s' has been requested", entityName)
+                : String.format("There is no running reindex of entity '%s'", entityName);
+    }
+
+    @Authenticated
+    @ManagedOperation(description = "Resumes direct reindex processes interrupted by shutdown or crash of application instance")
+    public String resumeInterruptedReindexes() {
+        int resumed = streamingReindexer.resumeInterruptedReindexes();
+        return String.format("%d interrupted reindex processes have been resumed", resumed);
+    }
+
+    @Authenticated
+    @ManagedOperation(description = "Gets progress of direct reindex of all entities")
+    public String getReindexProgress() {
+        Collection<ReindexProgress> progress = streamingReindexer.getProgress();
+        if (progress.isEmpty()) {
+            return "There were no direct reindex processes";
+        }
+        StringBuilder sb = new StringBuilder("Reindex progress:");
+        progress.forEach(entityProgress -> sb.append(System.lineSeparator()).append("\t").append(entityProgress));
+        return sb.toString();
+    }
+
     @Authenticated
     @ManagedOperation(description = "Index specific entity instance by its id")
     @ManagedOperationParameters({
@@ -276,6 +333,25 @@ public class EntityIndexingManagementFacade {
         );
     }
 
+    @Authenticated
+    @ManagedOperation(description = "Rebuilds index related to provided entity without downtime: " +
+            "new version of index is filled in background and replaces the current one after completion")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "entityName", description = "Name of entity configured for indexing, e.g. demo_Order")
+    })
+    public String rebuildIndex(String entityName) {
+        InputValidationResult inputValidationResult = validateInputEntity(entityName);
+        if (!inputValidationResult.isValid()) {
+            return inputValidationResult.getMessage();
+        }
+
+        IndexConfiguration indexConfiguration = indexConfigurationManager.getIndexConfigurationByEntityName(entityName);
+        boolean started = esIndexManager.rebuildIndex(indexConfiguration);
+        return started
+                ? String.format("Rebuild of index '%s' has been started. See reindex progress for details", indexConfiguration.getIndexName())
+                : String.format("Unable to start rebuild of index '%s'", indexConfiguration.getIndexName());
+    }
+
     @Authenticated
     @ManagedOperation(description = "Processes all items in Indexing Queue")
     public String processEntireIndexingQueue() {
@@ -290,6 +366,18 @@ public class EntityIndexingManagementFacade {
         return String.format("Processed %d queue items", processed);
     }
 
+    @Authenticated
+    @ManagedOperation(description = "Processes items in Indexing Queue within configured amount and time limits")
+    public String processIndexingQueue() {
+        QueueProcessingResult result = indexingQueueManager.processQueue();
+        if (result.getRemaining() < 0) {
+            return String.format("Processed %d queue items in %d ms (stop reason: %s)",
+                    result.getProcessed(), result.getElapsedMillis(), result.getStopReason());
+        }
+        return String.format("Processed %d queue items in %d ms, %d items remaining (stop reason: %s)",
+                result.getProcessed(), result.getElapsedMillis(), result.getRemaining(), result.getStopReason());
+    }
+
     @Authenticated
     @ManagedOperation(description = "Removes all items from Indexing Queue")
     public String emptyIndexingQueue() {
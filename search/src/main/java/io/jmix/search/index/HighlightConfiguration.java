@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index;
+
+import io.jmix.search.index.annotation.HighlightSettings;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contains configuration of highlighting of search hits found in index.
+ *
+ * @see HighlightSettings
+ */
+public class HighlightConfiguration {
+
+    public static final HighlightConfiguration DEFAULT = new HighlightConfiguration(
+            Collections.singletonList("*"), 100, 5, null, false
+    );
+
+    protected final List<String> fields;
+
+    protected final int fragmentSize;
+
+    protected final int numberOfFragments;
+
+    protected final Integer maxAnalyzedOffset;
+
+    protected final boolean fastVectorHighlighter;
+
+    public HighlightConfiguration(List<String> fields,
+                                  int fragmentSize,
+                                  int numberOfFragments,
+                                  @Nullable Integer maxAnalyzedOffset,
+                                  boolean fastVectorHighlighter) {
+        this.fields = Collections.unmodifiableList(fields);
+        this.fragmentSize = fragmentSize;
+        this.numberOfFragments = numberOfFragments;
+        this.maxAnalyzedOffset = maxAnalyzedOffset;
+        this.fastVectorHighlighter = fastVectorHighlighter;
+    }
+
+    public static HighlightConfiguration create(HighlightSettings settings) {
+        return new HighlightConfiguration(
+                Arrays.asList(settings.fields()),
+                settings.fragmentSize(),
+                settings.numberOfFragments(),
+                settings.maxAnalyzedOffset() > 0 ? settings.maxAnalyzedOffset() : null,
+                settings.fastVectorHighlighter()
+        );
+    }
+
+    /**
+     * Gets index fields that should be highlighted. May contain wildcards.
+     *
+     * @return field names
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Gets size of highlighted fragment in characters.
+     *
+     * @return fragment size
+     */
+    public int getFragmentSize() {
+        return fragmentSize;
+    }
+
+    /**
+     * Gets max amount of highlighted fragments per field.
+     *
+     * @return amount of fragments
+     */
+    public int getNumberOfFragments() {
+        return numberOfFragments;
+    }
+
+    /**
+     * Gets max amount of characters of field value analyzed for highlighting.
+     *
+     * @return max analyzed offset or null if it's not limited
+     */
+    @Nullable
+    public Integer getMaxAnalyzedOffset() {
+        return maxAnalyzedOffset;
+    }
+
+    /**
+     * Checks if fast vector highlighter backed by term vectors should be used.
+     *
+     * @return true if fast vector highlighter is used, false otherwise
+     */
+    public boolean isFastVectorHighlighter() {
+        return fastVectorHighlighter;
+    }
+
+    @Override
+    public String toString() {
+        return "HighlightConfiguration{" +
+                "fields=" + fields +
+                ", fragmentSize=" + fragmentSize +
+                ", numberOfFragments=" + numberOfFragments +
+                ", maxAnalyzedOffset=" + maxAnalyzedOffset +
+                ", fastVectorHighlighter=" + fastVectorHighlighter +
+                '}';
+    }
+}
@@ -41,6 +41,8 @@ public class IndexConfiguration {
 
     protected final Predicate<Object> indexablePredicate;
 
+    protected final HighlightConfiguration highlightConfiguration;
+
     public IndexConfiguration(String entityName,
                               Class<?> entityClass,
                               String indexName,
@@ -48,6 +50,18 @@ public class IndexConfiguration {
                               Settings settings,
                               Set<Class<?>> affectedEntityClasses,
                               Predicate<Object> indexablePredicate) {
+        this(entityName, entityClass, indexName, mapping, settings, affectedEntityClasses, indexablePredicate,
+                HighlightConfiguration.DEFAULT);
+    }
+
+    public IndexConfiguration(String entityName,
+                              Class<?> entityClass,
+                              String indexName,
+                              IndexMappingConfiguration mapping,
+                              Settings settings,
+                              Set<Class<?>> affectedEntityClasses,
+                              Predicate<Object> indexablePredicate,
+                              HighlightConfiguration highlightConfiguration) {
         this.entityName = entityName;
         this.entityClass = entityClass;
         this.indexName = indexName;
@@ -55,6 +69,7 @@ public class IndexConfiguration {
         this.settings = settings;
         this.affectedEntityClasses = affectedEntityClasses;
         this.indexablePredicate = indexablePredicate;
+        this.highlightConfiguration = highlightConfiguration;
     }
 
     /**
@@ -121,4 +136,13 @@ public class IndexConfiguration {
     public Predicate<Object> getIndexablePredicate() {
         return indexablePredicate;
     }
+
+    /**
+     * Gets configuration of highlighting of hits found in this index
+     *
+     * @return highlight configuration
+     */
+    public HighlightConfiguration getHighlightConfiguration() {
+        return highlightConfiguration;
+    }
 }
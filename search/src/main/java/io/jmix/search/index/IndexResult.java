@@ -22,6 +22,7 @@ import org.elasticsearch.action.bulk.BulkResponse;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -58,8 +59,20 @@ public class IndexResult {
     }
 
     public static IndexResult create(BulkResponse bulkResponse) {
+        return create(bulkResponse, item -> false);
+    }
+
+    /**
+     * Creates result of bulk request treating some failed items as successful ones.
+     *
+     * @param bulkResponse             bulk response
+     * @param acceptedFailurePredicate matches failed items that aren't considered as failures
+     * @return {@link IndexResult}
+     */
+    public static IndexResult create(BulkResponse bulkResponse, Predicate<BulkItemResponse> acceptedFailurePredicate) {
         List<Failure> failures = Stream.of(bulkResponse.getItems())
                 .filter(BulkItemResponse::isFailed)
+                .filter(acceptedFailurePredicate.negate())
                 .map(item -> new Failure(item.getId(), item.getIndex(), item.getFailure().getCause()))
                 .collect(Collectors.toList());
 
@@ -34,7 +34,13 @@ public enum IndexSchemaManagementStrategy {
     /**
      * Creates missing and recreates irrelevant indexes.
      */
-    CREATE_OR_RECREATE("create-or-recreate");
+    CREATE_OR_RECREATE("create-or-recreate"),
+    /**
+     * Creates missing indexes as versioned physical indexes behind alias.
+     * Irrelevant indexes are rebuilt into new version in background while current version keeps serving,
+     * then alias is switched to new version atomically.
+     */
+    CREATE_OR_REBUILD("create-or-rebuild");
 
     private final String key;
 
@@ -21,5 +21,9 @@ public enum IndexSynchronizationStatus {
     IRRELEVANT,
     CREATED,
     RECREATED,
+    /**
+     * Index is irrelevant and new version of it is being built in background. Current version is still available.
+     */
+    REBUILDING,
     ACTUAL
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index;
+
+/**
+ * Snapshot of state of direct reindex of single entity.
+ */
+public class ReindexProgress {
+
+    /**
+     * State of reindex process.
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    protected final String entityName;
+    protected final Status status;
+    protected final long total;
+    protected final long processed;
+    protected final long failed;
+    protected final long elapsedMillis;
+
+    public ReindexProgress(String entityName, Status status, long total, long processed, long failed, long elapsedMillis) {
+        this.entityName = entityName;
+        this.status = status;
+        this.total = total;
+        this.processed = processed;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets amount of instances existing at the start of reindex.
+     *
+     * @return amount of instances or -1 if it's not calculated yet
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets amount of instances sent to index, including failed ones.
+     *
+     * @return amount of processed instances
+     */
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * Gets amount of instances failed to be indexed.
+     *
+     * @return amount of failed instances
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets wall-clock duration of reindex.
+     *
+     * @return duration in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets average amount of instances processed per second.
+     *
+     * @return throughput
+     */
+    public double getThroughput() {
+        return elapsedMillis == 0 ? 0 : processed * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Entity=%s, Status=%s, Processed=%d/%d, Failed=%d, Elapsed=%d ms, Throughput=%.1f instances/s",
+                entityName, status, processed, total, failed, elapsedMillis, getThroughput());
+    }
+}
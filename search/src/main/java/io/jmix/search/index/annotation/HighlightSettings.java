@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures highlighting of search hits found in index. Should be set on index definition interface
+ * marked with {@link JmixEntitySearchIndex}.
+ * <p>If it's not set all fields are highlighted with default Elasticsearch fragmenting.
+ * <p>Example:
+ * <pre>
+ * &#64;JmixEntitySearchIndex(entity = MyEntity.class)
+ * &#64;HighlightSettings(fields = {"name", "description"}, fragmentSize = 150, maxAnalyzedOffset = 100000)
+ * public interface MyEntityIndexDefinition {
+ *     ...
+ * }
+ * </pre>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HighlightSettings {
+
+    /**
+     * Provides index fields that should be highlighted. Wildcards are allowed ("*", "refPropertyName.*").
+     *
+     * @return field names
+     */
+    String[] fields() default "*";
+
+    /**
+     * Provides size of highlighted fragment in characters.
+     *
+     * @return fragment size
+     */
+    int fragmentSize() default 100;
+
+    /**
+     * Provides max amount of highlighted fragments per field.
+     *
+     * @return amount of fragments
+     */
+    int numberOfFragments() default 5;
+
+    /**
+     * Provides max amount of characters of field value analyzed for highlighting. The rest of value is ignored.
+     * Non-positive value means no limit except Elasticsearch 'index.highlight.max_analyzed_offset' setting.
+     *
+     * @return max analyzed offset
+     */
+    int maxAnalyzedOffset() default -1;
+
+    /**
+     * Defines if fast vector highlighter should be used. Text fields of index are mapped with
+     * 'with_positions_offsets' term vectors in this case, so highlighting doesn't require re-analysis of field values
+     * at the cost of larger index.
+     *
+     * @return true if fast vector highlighter is used, false otherwise
+     */
+    boolean fastVectorHighlighter() default false;
+}
@@ -23,7 +23,15 @@ import io.jmix.core.common.util.Preconditions;
 import io.jmix.search.SearchProperties;
 import io.jmix.search.index.*;
 import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.queue.entity.ReindexCheckpoint;
+import io.jmix.search.searching.SearchResultCache;
+import org.elasticsearch.action.admin.indices.alias.Alias;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -31,6 +39,7 @@ import org.elasticsearch.client.indices.CreateIndexRequest;
 import org.elasticsearch.client.indices.CreateIndexResponse;
 import org.elasticsearch.client.indices.GetIndexRequest;
 import org.elasticsearch.client.indices.GetIndexResponse;
+import org.elasticsearch.client.indices.PutMappingRequest;
 import org.elasticsearch.cluster.metadata.MappingMetadata;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -40,15 +49,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Component("search_ESIndexManager")
 public class ESIndexManagerImpl implements ESIndexManager {
 
     private static final Logger log = LoggerFactory.getLogger(ESIndexManagerImpl.class);
 
+    protected static final String INDEX_VERSION_SEPARATOR = "_v";
+
+    protected static final String REFRESH_INTERVAL_SETTING = "index.refresh_interval";
+    protected static final String NUMBER_OF_REPLICAS_SETTING = "index.number_of_replicas";
+    protected static final String TRANSLOG_DURABILITY_SETTING = "index.translog.durability";
+    protected static final List<String> BULK_LOAD_SETTINGS = Arrays.asList(
+            REFRESH_INTERVAL_SETTING, NUMBER_OF_REPLICAS_SETTING, TRANSLOG_DURABILITY_SETTING
+    );
+    protected static final String MAPPING_META_FIELD = "_meta";
+    protected static final String SETTINGS_BEFORE_BULK_LOAD_META_KEY = "jmix_settings_before_bulk_load";
+    protected static final String DISABLED_REFRESH_INTERVAL = "-1";
+
     @Autowired
     protected RestHighLevelClient esClient;
     @Autowired
@@ -57,6 +79,12 @@ public class ESIndexManagerImpl implements ESIndexManager {
     protected SearchProperties searchProperties;
     @Autowired
     protected IndexStateRegistry indexStateRegistry;
+    @Autowired
+    protected StreamingReindexer streamingReindexer;
+    @Autowired
+    protected WatermarkIndexSynchronizer watermarkIndexSynchronizer;
+    @Autowired
+    protected SearchResultCache searchResultCache;
 
     protected ObjectMapper objectMapper = new ObjectMapper();
 
@@ -64,7 +92,33 @@ public class ESIndexManagerImpl implements ESIndexManager {
     public boolean createIndex(IndexConfiguration indexConfiguration) {
         Preconditions.checkNotNullArgument(indexConfiguration);
 
-        CreateIndexRequest request = new CreateIndexRequest(indexConfiguration.getIndexName());
+        boolean created;
+        if (IndexSchemaManagementStrategy.CREATE_OR_REBUILD.equals(searchProperties.getIndexSchemaManagementStrategy())) {
+            String physicalIndexName = createVersionedIndexName(indexConfiguration.getIndexName());
+            created = createPhysicalIndex(indexConfiguration, physicalIndexName, true);
+        } else {
+            created = createPhysicalIndex(indexConfiguration, indexConfiguration.getIndexName(), false);
+        }
+        if (created) {
+            indexStateRegistry.markIndexAsAvailable(indexConfiguration.getEntityName());
+            searchResultCache.invalidate(Collections.singletonList(indexConfiguration.getEntityName()));
+        }
+        return created;
+    }
+
+    /**
+     * Creates physical index with mapping and settings of provided configuration.
+     *
+     * @param indexConfiguration index configuration
+     * @param physicalIndexName  name of created index
+     * @param withAlias          whether index name of configuration should be added as alias of created index
+     * @return true if index was successfully created, false otherwise
+     */
+    protected boolean createPhysicalIndex(IndexConfiguration indexConfiguration, String physicalIndexName, boolean withAlias) {
+        CreateIndexRequest request = new CreateIndexRequest(physicalIndexName);
+        if (withAlias) {
+            request.alias(new Alias(indexConfiguration.getIndexName()));
+        }
         String mappingBody;
         try {
             mappingBody = objectMapper.writeValueAsString(indexConfiguration.getMapping());
@@ -73,17 +127,14 @@ public class ESIndexManagerImpl implements ESIndexManager {
         }
         request.mapping(mappingBody, XContentType.JSON);
         request.settings(indexConfiguration.getSettings());
-        log.info("Create index '{}' with mapping {}", indexConfiguration.getIndexName(), mappingBody);
+        log.info("Create index '{}' with mapping {}", physicalIndexName, mappingBody);
         CreateIndexResponse response;
         try {
             response = esClient.indices().create(request, RequestOptions.DEFAULT);
         } catch (IOException e) {
-            throw new RuntimeException("Unable to create index '" + indexConfiguration.getIndexName() + "': Request failed", e);
-        }
-        log.info("Result of index '{}' creation: {}", indexConfiguration.getIndexName(), response.isAcknowledged() ? "Success" : "Failure");
-        if (response.isAcknowledged()) {
-            indexStateRegistry.markIndexAsAvailable(indexConfiguration.getEntityName());
+            throw new RuntimeException("Unable to create index '" + physicalIndexName + "': Request failed", e);
         }
+        log.info("Result of index '{}' creation: {}", physicalIndexName, response.isAcknowledged() ? "Success" : "Failure");
         return response.isAcknowledged();
     }
 
@@ -92,7 +143,8 @@ public class ESIndexManagerImpl implements ESIndexManager {
         Preconditions.checkNotNullArgument(indexName);
 
         IndexConfiguration indexConfiguration = indexConfigurationManager.getIndexConfigurationByIndexName(indexName);
-        DeleteIndexRequest request = new DeleteIndexRequest(indexName);
+        // Index name may be an alias of versioned physical index
+        DeleteIndexRequest request = new DeleteIndexRequest(getIndex(indexName).getIndices());
         AcknowledgedResponse response;
         try {
             indexStateRegistry.markIndexAsUnavailable(indexConfiguration.getEntityName());
@@ -100,6 +152,7 @@ public class ESIndexManagerImpl implements ESIndexManager {
         } catch (IOException e) {
             throw new RuntimeException("Unable to delete index '" + indexName + "': Request failed", e);
         }
+        searchResultCache.invalidate(Collections.singletonList(indexConfiguration.getEntityName()));
         log.info("Result of index '{}' deletion: {}", indexName, response.isAcknowledged() ? "Success" : "Failure");
         return response.isAcknowledged();
     }
@@ -136,6 +189,210 @@ public class ESIndexManagerImpl implements ESIndexManager {
         return createIndex(indexConfiguration);
     }
 
+    @Override
+    public boolean rebuildIndex(IndexConfiguration indexConfiguration) {
+        Preconditions.checkNotNullArgument(indexConfiguration);
+
+        String entityName = indexConfiguration.getEntityName();
+        if (indexStateRegistry.getLocalRebuildTargetIndex(entityName) != null || streamingReindexer.isReindexRunning(entityName)) {
+            log.info("Index of entity '{}' is already being rebuilt", entityName);
+            return false;
+        }
+
+        ReindexCheckpoint resumableCheckpoint = streamingReindexer.findResumableCheckpoint(entityName);
+        boolean resumed = resumableCheckpoint != null
+                && isIndexExist(resumableCheckpoint.getTargetIndex())
+                && replayChangesSinceCheckpoint(indexConfiguration, resumableCheckpoint);
+        String newIndexName;
+        if (resumed) {
+            newIndexName = resumableCheckpoint.getTargetIndex();
+            log.info("Resume interrupted rebuild of index '{}' into '{}'", indexConfiguration.getIndexName(), newIndexName);
+        } else {
+            Set<String> activeTargetIndexes = streamingReindexer.getActiveTargetIndexes();
+            if (getIndexVersions(indexConfiguration.getIndexName()).stream().anyMatch(activeTargetIndexes::contains)) {
+                log.info("Version of index '{}' is being filled by running rebuild", indexConfiguration.getIndexName());
+                return false;
+            }
+            dropOrphanIndexVersions(indexConfiguration.getIndexName(), activeTargetIndexes);
+            newIndexName = createVersionedIndexName(indexConfiguration.getIndexName());
+            if (!createPhysicalIndex(indexConfiguration, newIndexName, false)) {
+                return false;
+            }
+        }
+
+        if (searchProperties.isBulkLoadIndexSettingsEnabled()) {
+            applyBulkLoadSettings(newIndexName);
+        }
+        indexStateRegistry.setRebuildTargetIndex(entityName, newIndexName);
+        boolean started;
+        try {
+            started = streamingReindexer.startReindex(entityName, newIndexName,
+                    progress -> completeRebuild(indexConfiguration, newIndexName, progress));
+        } catch (RuntimeException e) {
+            started = false;
+            log.error("Failed to start rebuild of index '{}'", indexConfiguration.getIndexName(), e);
+        }
+        if (!started) {
+            if (resumed) {
+                // Index may be filled by another application instance
+                indexStateRegistry.clearRebuildTargetIndex(entityName);
+            } else {
+                abortRebuild(indexConfiguration, newIndexName);
+            }
+            return false;
+        }
+        log.info("Rebuild of index '{}' into '{}' has been started", indexConfiguration.getIndexName(), newIndexName);
+        return true;
+    }
+
+    /**
+     * Indexes instances changed since the last heartbeat of interrupted rebuild into its physical index.
+     * Such changes may be indexed into alias only, while instances already passed by the rebuild aren't reindexed
+     * after resuming.
+     *
+     * @return true if changes have been replayed, false if rebuild should be started from scratch
+     */
+    protected boolean replayChangesSinceCheckpoint(IndexConfiguration indexConfiguration, ReindexCheckpoint checkpoint) {
+        String entityName = indexConfiguration.getEntityName();
+        Date heartbeatDate = checkpoint.getUpdatedDate();
+        if (heartbeatDate == null) {
+            return false;
+        }
+        indexStateRegistry.setRebuildTargetIndex(entityName, checkpoint.getTargetIndex());
+        boolean replayed;
+        try {
+            replayed = watermarkIndexSynchronizer.indexChangedSince(entityName, heartbeatDate);
+        } catch (RuntimeException e) {
+            log.error("Failed to index instances of entity '{}' changed since {}", entityName, heartbeatDate, e);
+            replayed = false;
+        }
+        if (!replayed) {
+            indexStateRegistry.clearRebuildTargetIndex(entityName);
+            log.info("Changes of entity '{}' since interruption of rebuild can't be replayed. " +
+                    "Index '{}' will be rebuilt from scratch", entityName, indexConfiguration.getIndexName());
+        }
+        return replayed;
+    }
+
+    @Override
+    public boolean applyBulkLoadSettings(String indexName) {
+        Preconditions.checkNotNullArgument(indexName);
+
+        if (!saveSettingsBeforeBulkLoad(indexName)) {
+            log.warn("Unable to save settings of index '{}' before bulk load", indexName);
+            return false;
+        }
+        Settings settings = Settings.builder()
+                .put(REFRESH_INTERVAL_SETTING, DISABLED_REFRESH_INTERVAL)
+                .put(NUMBER_OF_REPLICAS_SETTING, 0)
+                .put(TRANSLOG_DURABILITY_SETTING, "async")
+                .build();
+        boolean applied = updateSettings(indexName, settings);
+        log.info("Result of applying bulk load settings to index '{}': {}", indexName, applied ? "Success" : "Failure");
+        return applied;
+    }
+
+    @Override
+    public boolean restoreSettingsAfterBulkLoad(IndexConfiguration indexConfiguration, String indexName) {
+        Preconditions.checkNotNullArgument(indexConfiguration);
+        Preconditions.checkNotNullArgument(indexName);
+
+        GetIndexResponse indexResponse = getIndex(indexName);
+        Map<String, Object> meta = getMappingMeta(indexResponse, getPhysicalIndexName(indexName, indexResponse));
+        Object savedSettings = meta.get(SETTINGS_BEFORE_BULK_LOAD_META_KEY);
+        Settings configuredSettings = indexConfiguration.getSettings();
+        Settings.Builder settingsBuilder = Settings.builder();
+        for (String key : BULK_LOAD_SETTINGS) {
+            // Saved value is preferred, configured value is used for indexes loaded by previous versions
+            Object savedValue = savedSettings instanceof Map ? ((Map<?, ?>) savedSettings).get(key) : null;
+            String value = savedValue != null ? savedValue.toString() : configuredSettings.get(key);
+            if (value == null) {
+                settingsBuilder.putNull(key);
+            } else {
+                settingsBuilder.put(key, value);
+            }
+        }
+        boolean restored = updateSettings(indexName, settingsBuilder.build());
+        log.info("Result of restoring settings of index '{}' after bulk load: {}", indexName, restored ? "Success" : "Failure");
+        if (restored && savedSettings != null) {
+            Map<String, Object> restoredMeta = new HashMap<>(meta);
+            restoredMeta.remove(SETTINGS_BEFORE_BULK_LOAD_META_KEY);
+            putMappingMeta(indexName, restoredMeta);
+        }
+
+        try {
+            if (searchProperties.isForceMergeAfterBulkLoadEnabled()) {
+                log.info("Force merge index '{}'", indexName);
+                esClient.indices().forcemerge(new ForceMergeRequest(indexName), RequestOptions.DEFAULT);
+            }
+            esClient.indices().refresh(new RefreshRequest(indexName), RequestOptions.DEFAULT);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to optimize index '" + indexName + "' after bulk load: Request failed", e);
+        }
+        return restored;
+    }
+
+    @Override
+    public boolean isBulkLoadSettingsApplied(IndexConfiguration indexConfiguration) {
+        Preconditions.checkNotNullArgument(indexConfiguration);
+
+        GetIndexResponse indexResponse = getIndex(indexConfiguration.getIndexName());
+        String physicalIndexName = getPhysicalIndexName(indexConfiguration, indexResponse);
+        if (getMappingMeta(indexResponse, physicalIndexName).containsKey(SETTINGS_BEFORE_BULK_LOAD_META_KEY)) {
+            return true;
+        }
+        if (DISABLED_REFRESH_INTERVAL.equals(indexConfiguration.getSettings().get(REFRESH_INTERVAL_SETTING))) {
+            return false;
+        }
+        Settings currentSettings = indexResponse.getSettings().get(physicalIndexName);
+        return currentSettings != null && DISABLED_REFRESH_INTERVAL.equals(currentSettings.get(REFRESH_INTERVAL_SETTING));
+    }
+
+    /**
+     * Saves current values of settings changed by bulk load profile into '_meta' of index mapping,
+     * so they can be restored afterwards. Values saved by interrupted bulk load are kept.
+     *
+     * @return true if settings are saved, false otherwise
+     */
+    protected boolean saveSettingsBeforeBulkLoad(String indexName) {
+        GetIndexResponse indexResponse = getIndex(indexName);
+        String physicalIndexName = getPhysicalIndexName(indexName, indexResponse);
+        Map<String, Object> meta = getMappingMeta(indexResponse, physicalIndexName);
+        if (meta.containsKey(SETTINGS_BEFORE_BULK_LOAD_META_KEY)) {
+            return true;
+        }
+
+        Settings currentSettings = indexResponse.getSettings().get(physicalIndexName);
+        Map<String, Object> savedSettings = new HashMap<>();
+        for (String key : BULK_LOAD_SETTINGS) {
+            // Settings which haven't been set explicitly are saved as null and reset to defaults on restore
+            savedSettings.put(key, currentSettings == null ? null : currentSettings.get(key));
+        }
+        Map<String, Object> newMeta = new HashMap<>(meta);
+        newMeta.put(SETTINGS_BEFORE_BULK_LOAD_META_KEY, savedSettings);
+        return putMappingMeta(indexName, newMeta);
+    }
+
+    protected Map<String, Object> getMappingMeta(GetIndexResponse indexResponse, String physicalIndexName) {
+        MappingMetadata mappingMetadata = indexResponse.getMappings().get(physicalIndexName);
+        Object meta = mappingMetadata == null ? null : mappingMetadata.getSourceAsMap().get(MAPPING_META_FIELD);
+        if (!(meta instanceof Map)) {
+            return Collections.emptyMap();
+        }
+        //noinspection unchecked
+        return (Map<String, Object>) meta;
+    }
+
+    protected boolean putMappingMeta(String indexName, Map<String, Object> meta) {
+        PutMappingRequest request = new PutMappingRequest(indexName)
+                .source(Collections.singletonMap(MAPPING_META_FIELD, meta));
+        try {
+            return esClient.indices().putMapping(request, RequestOptions.DEFAULT).isAcknowledged();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to update mapping of index '" + indexName + "': Request failed", e);
+        }
+    }
+
     @Override
     public boolean isIndexExist(String indexName) {
         Preconditions.checkNotNullArgument(indexName);
@@ -250,7 +507,12 @@ public class ESIndexManagerImpl implements ESIndexManager {
 
     protected IndexSynchronizationStatus handleIrrelevantIndex(IndexConfiguration indexConfiguration, IndexSchemaManagementStrategy strategy) {
         IndexSynchronizationStatus status;
-        if (IndexSchemaManagementStrategy.CREATE_OR_RECREATE.equals(strategy)) {
+        if (IndexSchemaManagementStrategy.CREATE_OR_REBUILD.equals(strategy)) {
+            // Current version keeps serving and receiving changes until the new one replaces it
+            indexStateRegistry.markIndexAsAvailable(indexConfiguration.getEntityName());
+            boolean started = rebuildIndex(indexConfiguration);
+            status = started ? IndexSynchronizationStatus.REBUILDING : IndexSynchronizationStatus.IRRELEVANT;
+        } else if (IndexSchemaManagementStrategy.CREATE_OR_RECREATE.equals(strategy)) {
             boolean created = recreateIndex(indexConfiguration);
             if (created) {
                 status = IndexSynchronizationStatus.RECREATED;
@@ -296,8 +558,10 @@ public class ESIndexManagerImpl implements ESIndexManager {
 
     protected boolean isIndexMappingActual(IndexConfiguration indexConfiguration, GetIndexResponse indexResponse) {
         Map<String, MappingMetadata> mappings = indexResponse.getMappings();
-        MappingMetadata indexMappingMetadata = mappings.get(indexConfiguration.getIndexName());
-        Map<String, Object> currentMapping = indexMappingMetadata.getSourceAsMap();
+        MappingMetadata indexMappingMetadata = mappings.get(getPhysicalIndexName(indexConfiguration, indexResponse));
+        Map<String, Object> currentMapping = new HashMap<>(indexMappingMetadata.getSourceAsMap());
+        // Service data of index isn't a part of configured mapping
+        currentMapping.remove(MAPPING_META_FIELD);
         Map<String, Object> actualMapping = objectMapper.convertValue(
                 indexConfiguration.getMapping(),
                 new TypeReference<Map<String, Object>>() {
@@ -310,7 +574,7 @@ public class ESIndexManagerImpl implements ESIndexManager {
 
     protected boolean isIndexSettingsActual(IndexConfiguration indexConfiguration, GetIndexResponse indexResponse) {
         Map<String, Settings> settings = indexResponse.getSettings();
-        Settings currentSettings = settings.get(indexConfiguration.getIndexName());
+        Settings currentSettings = settings.get(getPhysicalIndexName(indexConfiguration, indexResponse));
         Settings actualSettings = indexConfiguration.getSettings();
         long unmatchedSettings = actualSettings.keySet().stream().filter(key -> {
             String actualValue = actualSettings.get(key);
@@ -320,4 +584,193 @@ public class ESIndexManagerImpl implements ESIndexManager {
 
         return unmatchedSettings == 0;
     }
+
+    /**
+     * Gets name of physical index the response has been received for. It differs from index name of configuration
+     * if the last one is an alias.
+     */
+    protected String getPhysicalIndexName(IndexConfiguration indexConfiguration, GetIndexResponse indexResponse) {
+        return getPhysicalIndexName(indexConfiguration.getIndexName(), indexResponse);
+    }
+
+    protected String getPhysicalIndexName(String indexName, GetIndexResponse indexResponse) {
+        String[] indices = indexResponse.getIndices();
+        if (indices.length == 1) {
+            return indices[0];
+        }
+        return indexName;
+    }
+
+    protected void completeRebuild(IndexConfiguration indexConfiguration, String newIndexName, ReindexProgress progress) {
+        String alias = indexConfiguration.getIndexName();
+        if (progress.getStatus() != ReindexProgress.Status.COMPLETED || progress.getFailed() > 0) {
+            log.warn("Rebuild of index '{}' hasn't been completed ({}). Current version is kept", alias, progress);
+            abortRebuild(indexConfiguration, newIndexName, true);
+            return;
+        }
+
+        boolean switched = false;
+        try {
+            if (searchProperties.isBulkLoadIndexSettingsEnabled()) {
+                restoreSettingsAfterBulkLoad(indexConfiguration, newIndexName);
+            }
+            switched = switchAlias(alias, newIndexName);
+        } catch (RuntimeException e) {
+            log.error("Failed to switch alias '{}' to rebuilt index '{}'", alias, newIndexName, e);
+        }
+
+        if (!switched) {
+            // Unacknowledged or failed request may still be applied by cluster
+            boolean aliasSwitched;
+            try {
+                aliasSwitched = isAliasPointingTo(alias, newIndexName);
+            } catch (RuntimeException e) {
+                log.error("Unable to check state of alias '{}' after rebuild. Index '{}' is kept, it's dropped " +
+                        "by the next rebuild if alias doesn't point to it", alias, newIndexName, e);
+                indexStateRegistry.clearRebuildTargetIndex(indexConfiguration.getEntityName());
+                return;
+            }
+            if (!aliasSwitched) {
+                log.error("Alias '{}' hasn't been switched to rebuilt index '{}'. Current version is kept", alias, newIndexName);
+                abortRebuild(indexConfiguration, newIndexName, true);
+                return;
+            }
+        }
+        indexStateRegistry.markIndexAsAvailable(indexConfiguration.getEntityName());
+        indexStateRegistry.clearRebuildTargetIndex(indexConfiguration.getEntityName());
+        searchResultCache.invalidate(Collections.singletonList(indexConfiguration.getEntityName()));
+    }
+
+    protected void abortRebuild(IndexConfiguration indexConfiguration, String newIndexName) {
+        abortRebuild(indexConfiguration, newIndexName, false);
+    }
+
+    /**
+     * Drops new version of index which rebuild has failed.
+     *
+     * @param awaitOtherInstances whether other application instances may write into new version, so it should be
+     *                            dropped only after they reload rebuild targets. Otherwise their writes would create
+     *                            it again automatically.
+     */
+    protected void abortRebuild(IndexConfiguration indexConfiguration, String newIndexName, boolean awaitOtherInstances) {
+        // Stop writing into new version before it's dropped to avoid its automatic creation
+        indexStateRegistry.clearRebuildTargetIndex(indexConfiguration.getEntityName());
+        if (awaitOtherInstances) {
+            try {
+                Thread.sleep(searchProperties.getRebuildTargetsRefreshInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Drop of index '{}' has been interrupted. It's dropped by the next rebuild", newIndexName);
+                return;
+            }
+        }
+        if (isIndexExist(newIndexName)) {
+            deletePhysicalIndex(newIndexName);
+        }
+    }
+
+    /**
+     * Points alias to provided index and drops all indexes previously available by this alias within single
+     * atomic operation. Concrete index with the same name as alias (created without versioning) is replaced too.
+     *
+     * @return true if request has been acknowledged, false otherwise
+     */
+    protected boolean switchAlias(String alias, String newIndexName) {
+        IndicesAliasesRequest request = new IndicesAliasesRequest();
+        request.addAliasAction(new AliasActions(AliasActions.Type.ADD).index(newIndexName).alias(alias));
+        if (isIndexExist(alias)) {
+            for (String previousIndexName : getIndex(alias).getIndices()) {
+                request.addAliasAction(new AliasActions(AliasActions.Type.REMOVE_INDEX).index(previousIndexName));
+            }
+        }
+
+        boolean acknowledged = executeAliasesRequest(request);
+        log.info("Result of switching alias '{}' to index '{}': {}", alias, newIndexName, acknowledged ? "Success" : "Failure");
+        return acknowledged;
+    }
+
+    protected boolean executeAliasesRequest(IndicesAliasesRequest request) {
+        try {
+            return esClient.indices().updateAliases(request, RequestOptions.DEFAULT).isAcknowledged();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to update aliases: Request failed", e);
+        }
+    }
+
+    protected boolean isAliasPointingTo(String alias, String indexName) {
+        return isIndexExist(alias) && Arrays.asList(getIndex(alias).getIndices()).contains(indexName);
+    }
+
+    protected boolean updateSettings(String indexName, Settings settings) {
+        UpdateSettingsRequest request = new UpdateSettingsRequest(indexName).settings(settings);
+        try {
+            return esClient.indices().putSettings(request, RequestOptions.DEFAULT).isAcknowledged();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to update settings of index '" + indexName + "': Request failed", e);
+        }
+    }
+
+    protected void deletePhysicalIndex(String physicalIndexName) {
+        try {
+            AcknowledgedResponse response = esClient.indices().delete(new DeleteIndexRequest(physicalIndexName), RequestOptions.DEFAULT);
+            log.info("Result of index '{}' deletion: {}", physicalIndexName, response.isAcknowledged() ? "Success" : "Failure");
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to delete index '" + physicalIndexName + "': Request failed", e);
+        }
+    }
+
+    /**
+     * Creates name of next version of physical index behind provided alias, e.g. 'search_index_order_v7'.
+     */
+    protected String createVersionedIndexName(String alias) {
+        int lastVersion = 0;
+        for (String existingIndexName : getIndexVersions(alias)) {
+            Matcher matcher = createIndexVersionPattern(alias).matcher(existingIndexName);
+            if (matcher.matches()) {
+                lastVersion = Math.max(lastVersion, Integer.parseInt(matcher.group(1)));
+            }
+        }
+        return alias + INDEX_VERSION_SEPARATOR + (lastVersion + 1);
+    }
+
+    /**
+     * Drops versions of index not available by alias - they are left by interrupted rebuilds.
+     * Target indexes of running rebuilds are kept.
+     *
+     * @param alias                index alias
+     * @param activeTargetIndexes  indexes being filled by running rebuilds
+     */
+    protected void dropOrphanIndexVersions(String alias, Set<String> activeTargetIndexes) {
+        Set<String> currentIndexNames = isIndexExist(alias)
+                ? new HashSet<>(Arrays.asList(getIndex(alias).getIndices()))
+                : Collections.emptySet();
+        for (String versionIndexName : getIndexVersions(alias)) {
+            if (!currentIndexNames.contains(versionIndexName) && !activeTargetIndexes.contains(versionIndexName)) {
+                log.info("Drop index '{}' left by interrupted rebuild", versionIndexName);
+                deletePhysicalIndex(versionIndexName);
+            }
+        }
+    }
+
+    /**
+     * Gets versions of physical index behind provided alias. Indexes which names only start with the alias,
+     * e.g. 'search_index_order_view' or 'search_index_order_vendor', are not versions of it.
+     */
+    protected List<String> getIndexVersions(String alias) {
+        GetIndexRequest request = new GetIndexRequest(alias + INDEX_VERSION_SEPARATOR + "*");
+        String[] indexNames;
+        try {
+            indexNames = esClient.indices().get(request, RequestOptions.DEFAULT).getIndices();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to get versions of index '" + alias + "': Request failed", e);
+        }
+        Pattern versionPattern = createIndexVersionPattern(alias);
+        return Arrays.stream(indexNames)
+                .filter(indexName -> versionPattern.matcher(indexName).matches())
+                .collect(Collectors.toList());
+    }
+
+    protected Pattern createIndexVersionPattern(String alias) {
+        return Pattern.compile(Pattern.quote(alias + INDEX_VERSION_SEPARATOR) + "(\\d+)");
+    }
 }
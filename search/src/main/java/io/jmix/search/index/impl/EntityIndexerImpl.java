@@ -21,6 +21,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.*;
 import io.jmix.core.*;
+import io.jmix.core.common.util.Preconditions;
 import io.jmix.core.entity.EntityValues;
 import io.jmix.core.metamodel.model.MetaClass;
 import io.jmix.search.index.EntityIndexer;
@@ -30,6 +31,11 @@ import io.jmix.search.index.mapping.DisplayedNameDescriptor;
 import io.jmix.search.index.mapping.IndexConfigurationManager;
 import io.jmix.search.index.mapping.IndexMappingConfiguration;
 import io.jmix.search.index.mapping.MappingFieldDescriptor;
+import io.jmix.search.index.mapping.propertyvalue.impl.ReferencePropertyValueExtractor;
+import io.jmix.search.searching.SearchResultCache;
+import io.jmix.search.utils.Constants;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
@@ -38,6 +44,12 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.index.reindex.UpdateByQueryRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,6 +65,14 @@ public class EntityIndexerImpl implements EntityIndexer {
 
     private static final Logger log = LoggerFactory.getLogger(EntityIndexerImpl.class);
 
+    protected static final String UPDATE_REFERENCE_INSTANCE_NAME_SCRIPT = "def node = ctx._source; " +
+            "for (def key : params.path) { " +
+            "if (!(node instanceof Map) || !node.containsKey(key)) { ctx.op = 'noop'; return; } " +
+            "node = node.get(key); " +
+            "} " +
+            "if (node instanceof Map) { node.put('" + Constants.INSTANCE_NAME_FIELD + "', params.instanceName); } " +
+            "else { ctx.op = 'noop'; }";
+
     @Autowired
     protected UnconstrainedDataManager dataManager;
     @Autowired
@@ -69,6 +89,10 @@ public class EntityIndexerImpl implements EntityIndexer {
     protected IndexStateRegistry indexStateRegistry;
     @Autowired
     protected MetadataTools metadataTools;
+    @Autowired
+    protected SearchResultCache searchResultCache;
+    @Autowired
+    protected ReferencePropertyValueExtractor referencePropertyValueExtractor;
 
     protected ObjectMapper objectMapper = new ObjectMapper();
 
@@ -94,6 +118,37 @@ public class EntityIndexerImpl implements EntityIndexer {
         return indexGroupedInstances(groupedInstances);
     }
 
+    @Override
+    public IndexResult indexLoadedCollection(Collection<Object> entityInstances) {
+        return indexGroupedInstances(groupLoadedInstances(entityInstances));
+    }
+
+    @Override
+    public IndexResult indexLoadedCollection(Collection<Object> entityInstances, String targetIndexName) {
+        Preconditions.checkNotNullArgument(targetIndexName);
+
+        BulkRequest request = new BulkRequest();
+        groupLoadedInstances(entityInstances).forEach((indexConfiguration, instances) -> {
+            Predicate<Object> indexablePredicate = indexConfiguration.getIndexablePredicate();
+            for (Object instance : instances) {
+                if (indexablePredicate.test(instance)) {
+                    addIndexActionToBulkRequest(request, Collections.singletonList(targetIndexName),
+                            indexConfiguration, instance, DocWriteRequest.OpType.CREATE);
+                }
+            }
+        });
+
+        BulkResponse bulkResponse = request.requests().isEmpty()
+                ? createNoopBulkResponse()
+                : executeBulkRequest(request);
+        return IndexResult.create(bulkResponse, item -> item.getFailure().getStatus() == RestStatus.CONFLICT);
+    }
+
+    @Override
+    public FetchPlan getIndexingFetchPlan(IndexConfiguration indexConfiguration) {
+        return createFetchPlan(indexConfiguration);
+    }
+
     @Override
     public IndexResult delete(Object entityInstance) {
         return deleteCollection(Collections.singletonList(entityInstance));
@@ -116,6 +171,42 @@ public class EntityIndexerImpl implements EntityIndexer {
         return deleteByGroupedIndexIds(groupedIndexIds);
     }
 
+    @Override
+    public void updateReferenceInstanceName(String entityName, String referenceFieldName, Id<?> referenceId, String instanceName) {
+        IndexConfiguration indexConfiguration = indexConfigurationManager.getIndexConfigurationByEntityName(entityName);
+        String serializedReferenceId = referencePropertyValueExtractor.serializeReferenceId(referenceId);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("path", Arrays.asList(referenceFieldName.split("\\.")));
+        params.put("instanceName", instanceName);
+
+        UpdateByQueryRequest request = new UpdateByQueryRequest(getWriteIndexNames(indexConfiguration).toArray(new String[0]));
+        request.setQuery(QueryBuilders.termQuery(referenceFieldName + "." + Constants.INSTANCE_ID_FIELD, serializedReferenceId));
+        request.setScript(new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, UPDATE_REFERENCE_INSTANCE_NAME_SCRIPT, params));
+        request.setConflicts("proceed");
+
+        // Update may take long for large fan-out, so caller thread isn't blocked
+        esClient.updateByQueryAsync(request, RequestOptions.DEFAULT, new ActionListener<BulkByScrollResponse>() {
+            @Override
+            public void onResponse(BulkByScrollResponse response) {
+                log.debug("Update instance name of reference '{}' ({}) within index '{}': Took {}, Updated = {}, Failures = {}",
+                        referenceFieldName, serializedReferenceId, indexConfiguration.getIndexName(),
+                        response.getTook(), response.getUpdated(), response.getBulkFailures().size());
+                if (response.getUpdated() > 0) {
+                    searchResultCache.invalidate(Collections.singletonList(entityName));
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                log.error("Failed to update instance name of reference '{}' ({}) within index '{}'",
+                        referenceFieldName, serializedReferenceId, indexConfiguration.getIndexName(), e);
+                // Part of documents may be updated anyway
+                searchResultCache.invalidate(Collections.singletonList(entityName));
+            }
+        });
+    }
+
     protected IndexResult indexGroupedInstances(Map<IndexConfiguration, Collection<Object>> groupedInstancesForIndexing) {
         if (log.isDebugEnabled()) {
             Integer amountOfInstances = groupedInstancesForIndexing.values().stream()
@@ -141,6 +232,7 @@ public class EntityIndexerImpl implements EntityIndexer {
         BulkResponse bulkResponse = request.requests().isEmpty()
                 ? createNoopBulkResponse()
                 : executeBulkRequest(request);
+        invalidateSearchResults(groupedInstancesForIndexing.keySet(), bulkResponse);
         return IndexResult.create(bulkResponse);
     }
 
@@ -156,6 +248,16 @@ public class EntityIndexerImpl implements EntityIndexer {
         }
     }
 
+    protected Map<IndexConfiguration, Collection<Object>> groupLoadedInstances(Collection<Object> instances) {
+        Map<IndexConfiguration, Collection<Object>> groupedInstances = new HashMap<>();
+        for (Object instance : instances) {
+            MetaClass metaClass = metadata.getClass(instance);
+            indexConfigurationManager.getIndexConfigurationByEntityNameOpt(metaClass.getName())
+                    .ifPresent(config -> groupedInstances.computeIfAbsent(config, k -> new ArrayList<>()).add(instance));
+        }
+        return groupedInstances;
+    }
+
     protected Map<IndexConfiguration, Collection<Object>> prepareInstancesForIndexing(Collection<Object> instances) {
         Map<MetaClass, List<Object>> idsGroupedByMetaClass = instances.stream().collect(
                 Collectors.groupingBy(
@@ -231,12 +333,32 @@ public class EntityIndexerImpl implements EntityIndexer {
                     fetchPlanBuilder.add(instanceNameRelatedProperty.toPathString());
                 });
 
+        indexConfiguration.getMapping().getSecurityFields().values().forEach(field -> {
+            log.trace("Add security property to fetch plan: {}", field.getEntityPropertyFullName());
+            fetchPlanBuilder.add(field.getEntityPropertyFullName());
+        });
+
         return fetchPlanBuilder.build();
     }
 
     protected void addIndexActionToBulkRequest(BulkRequest request,
                                                IndexConfiguration indexConfiguration,
                                                Object instance) {
+        addIndexActionToBulkRequest(request, getWriteIndexNames(indexConfiguration), indexConfiguration, instance);
+    }
+
+    protected void addIndexActionToBulkRequest(BulkRequest request,
+                                               Collection<String> indexNames,
+                                               IndexConfiguration indexConfiguration,
+                                               Object instance) {
+        addIndexActionToBulkRequest(request, indexNames, indexConfiguration, instance, DocWriteRequest.OpType.INDEX);
+    }
+
+    protected void addIndexActionToBulkRequest(BulkRequest request,
+                                               Collection<String> indexNames,
+                                               IndexConfiguration indexConfiguration,
+                                               Object instance,
+                                               DocWriteRequest.OpType opType) {
         ObjectNode sourceObject = JsonNodeFactory.instance.objectNode();
         IndexMappingConfiguration indexMappingConfiguration = indexConfiguration.getMapping();
         indexMappingConfiguration.getFields()
@@ -249,13 +371,20 @@ public class EntityIndexerImpl implements EntityIndexer {
         JsonNode displayedName = displayedNameDescriptor.getValue(instance);
         sourceObject.set(displayedNameDescriptor.getIndexPropertyFullName(), displayedName);
 
+        indexMappingConfiguration.getSecurityFields().values()
+                .forEach(field -> addFieldValueToEntityIndexContent(sourceObject, field, instance));
+
         log.debug("Source object: {}", sourceObject);
         try {
             String serializedEntityId = idSerialization.idToString(Id.of(instance));
-            request.add(new IndexRequest()
-                    .index(indexConfiguration.getIndexName())
-                    .id(serializedEntityId)
-                    .source(objectMapper.writeValueAsString(sourceObject), XContentType.JSON));
+            String source = objectMapper.writeValueAsString(sourceObject);
+            for (String indexName : indexNames) {
+                request.add(new IndexRequest()
+                        .index(indexName)
+                        .id(serializedEntityId)
+                        .opType(opType)
+                        .source(source, XContentType.JSON));
+            }
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to create index request: unable to parse source object", e);
         }
@@ -308,13 +437,39 @@ public class EntityIndexerImpl implements EntityIndexer {
         BulkResponse bulkResponse = request.requests().isEmpty()
                 ? createNoopBulkResponse()
                 : executeBulkRequest(request);
+        invalidateSearchResults(groupedIndexIds.keySet(), bulkResponse);
         return IndexResult.create(bulkResponse);
     }
 
     protected void addDeleteActionToBulkRequest(BulkRequest request,
                                                 IndexConfiguration indexConfiguration,
                                                 String indexId) {
-        request.add(new DeleteRequest(indexConfiguration.getIndexName(), indexId));
+        for (String indexName : getWriteIndexNames(indexConfiguration)) {
+            request.add(new DeleteRequest(indexName, indexId));
+        }
+    }
+
+    /**
+     * Invalidates cached search results of provided entities if any item of bulk request has been written.
+     */
+    protected void invalidateSearchResults(Collection<IndexConfiguration> indexConfigurations, BulkResponse bulkResponse) {
+        boolean written = Arrays.stream(bulkResponse.getItems()).anyMatch(item -> !item.isFailed());
+        if (written) {
+            searchResultCache.invalidate(indexConfigurations.stream()
+                    .map(IndexConfiguration::getEntityName)
+                    .collect(Collectors.toSet()));
+        }
+    }
+
+    /**
+     * Gets names of indexes all changes of entity should be written into:
+     * the current index and the new version of it being built in background if any.
+     */
+    protected List<String> getWriteIndexNames(IndexConfiguration indexConfiguration) {
+        String rebuildTargetIndex = indexStateRegistry.getRebuildTargetIndex(indexConfiguration.getEntityName());
+        return rebuildTargetIndex == null
+                ? Collections.singletonList(indexConfiguration.getIndexName())
+                : Arrays.asList(indexConfiguration.getIndexName(), rebuildTargetIndex);
     }
 
     protected ObjectNode createObjectNodeForField(String key, JsonNode value) {
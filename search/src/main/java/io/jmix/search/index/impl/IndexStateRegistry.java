@@ -16,11 +16,19 @@
 
 package io.jmix.search.index.impl;
 
+import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.ReindexProgress;
 import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.queue.entity.ReindexCheckpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,19 +41,34 @@ import java.util.stream.Collectors;
  * <p>Doesn't affect searching.
  * <p>Every action that makes or detects index is valid (creation or successful synchronization\validation) marks it as available.
  * <p>Every action that makes or detects index is invalid (drop or unsuccessful synchronization\validation) marks it as unavailable.
+ * <p>Also holds names of physical indexes being rebuilt in background. All changes of entity are written into such index
+ * in addition to the current one. Indexes rebuilt by other application instances are taken from running
+ * {@link ReindexCheckpoint}s reloaded every {@link SearchProperties#getRebuildTargetsRefreshInterval()}.
  */
 @Component("search_IndexStateRegistry")
 public class IndexStateRegistry {
 
+    private static final Logger log = LoggerFactory.getLogger(IndexStateRegistry.class);
+
     protected final Map<String, Boolean> registry;
+    protected final Map<String, String> rebuildTargets = new ConcurrentHashMap<>();
     protected final IndexConfigurationManager indexConfigurationManager;
+    protected final UnconstrainedDataManager dataManager;
+    protected final SearchProperties searchProperties;
+
+    protected volatile Map<String, String> persistedRebuildTargets = Collections.emptyMap();
+    protected volatile long persistedRebuildTargetsLoadTime;
 
     @Autowired
-    public IndexStateRegistry(IndexConfigurationManager indexConfigurationManager) {
+    public IndexStateRegistry(IndexConfigurationManager indexConfigurationManager,
+                              UnconstrainedDataManager dataManager,
+                              SearchProperties searchProperties) {
         Map<String, Boolean> tmpRegistry = new ConcurrentHashMap<>();
         indexConfigurationManager.getAllIndexedEntities().forEach(entity -> tmpRegistry.put(entity, false));
         this.registry = tmpRegistry;
         this.indexConfigurationManager = indexConfigurationManager;
+        this.dataManager = dataManager;
+        this.searchProperties = searchProperties;
     }
 
     public Map<String, Boolean> getIndexAvailabilityStates() {
@@ -71,6 +94,78 @@ public class IndexStateRegistry {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Gets name of physical index being built in background for provided entity by this or another application instance.
+     *
+     * @param entityName entity name
+     * @return index name or null if index of entity isn't being rebuilt
+     */
+    @Nullable
+    public String getRebuildTargetIndex(String entityName) {
+        String indexName = rebuildTargets.get(entityName);
+        return indexName == null ? getPersistedRebuildTargets().get(entityName) : indexName;
+    }
+
+    /**
+     * Gets name of physical index being built in background for provided entity by this application instance.
+     *
+     * @param entityName entity name
+     * @return index name or null if index of entity isn't being rebuilt by this instance
+     */
+    @Nullable
+    public String getLocalRebuildTargetIndex(String entityName) {
+        return rebuildTargets.get(entityName);
+    }
+
+    public void setRebuildTargetIndex(String entityName, String indexName) {
+        if (!indexConfigurationManager.isDirectlyIndexed(entityName)) {
+            throw new IllegalArgumentException(String.format("Entity '%s' is not indexed", entityName));
+        }
+        rebuildTargets.put(entityName, indexName);
+    }
+
+    public void clearRebuildTargetIndex(String entityName) {
+        rebuildTargets.remove(entityName);
+        // Checkpoint is already finished, so don't wait for the next reload
+        if (persistedRebuildTargets.containsKey(entityName)) {
+            Map<String, String> targets = new HashMap<>(persistedRebuildTargets);
+            targets.remove(entityName);
+            persistedRebuildTargets = targets;
+        }
+    }
+
+    protected Map<String, String> getPersistedRebuildTargets() {
+        long refreshIntervalMillis = searchProperties.getRebuildTargetsRefreshInterval().toMillis();
+        if (System.currentTimeMillis() - persistedRebuildTargetsLoadTime >= refreshIntervalMillis) {
+            synchronized (this) {
+                if (System.currentTimeMillis() - persistedRebuildTargetsLoadTime >= refreshIntervalMillis) {
+                    persistedRebuildTargets = loadPersistedRebuildTargets();
+                    persistedRebuildTargetsLoadTime = System.currentTimeMillis();
+                }
+            }
+        }
+        return persistedRebuildTargets;
+    }
+
+    /**
+     * Loads target indexes of running rebuilds. Checkpoints of interrupted rebuilds are included too:
+     * their indexes are kept up to date until rebuild is resumed.
+     */
+    protected Map<String, String> loadPersistedRebuildTargets() {
+        try {
+            Map<String, String> targets = new HashMap<>();
+            dataManager.load(ReindexCheckpoint.class)
+                    .query("select c from search_ReindexCheckpoint c where c.status = :status and c.targetIndex is not null")
+                    .parameter("status", ReindexProgress.Status.RUNNING.name())
+                    .list()
+                    .forEach(checkpoint -> targets.put(checkpoint.getEntityName(), checkpoint.getTargetIndex()));
+            return targets;
+        } catch (RuntimeException e) {
+            log.error("Unable to load indexes being rebuilt. Previously loaded ones are used", e);
+            return persistedRebuildTargets;
+        }
+    }
+
     protected void setRegistryValue(String entityName, boolean value) {
         if (indexConfigurationManager.isDirectlyIndexed(entityName)) {
             registry.put(entityName, value);
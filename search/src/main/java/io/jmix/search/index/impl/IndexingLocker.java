@@ -31,6 +31,7 @@ public class IndexingLocker {
     protected final ReentrantLock indexingQueueProcessingLock = new ReentrantLock();
     protected final ReentrantLock reindexingLock = new ReentrantLock();
     protected final Map<String, ReentrantLock> enqueueAllLocks;
+    protected final Map<String, ReentrantLock> watermarkIndexingLocks = new ConcurrentHashMap<>();
 
     protected final IndexConfigurationManager indexConfigurationManager;
 
@@ -90,6 +91,20 @@ public class IndexingLocker {
         }
     }
 
+    public boolean tryLockEntityForWatermarkIndexing(String entityName) {
+        checkEntityInIndexingScope(entityName);
+        ReentrantLock lock = watermarkIndexingLocks.computeIfAbsent(entityName, key -> new ReentrantLock());
+        return lock.tryLock();
+    }
+
+    public void unlockEntityForWatermarkIndexing(String entityName) {
+        checkEntityInIndexingScope(entityName);
+        ReentrantLock lock = watermarkIndexingLocks.get(entityName);
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
     protected void checkEntityInIndexingScope(String entityName) {
         if (!indexConfigurationManager.isDirectlyIndexed(entityName)) {
             throw new IllegalArgumentException(String.format("Entity '%s' is not configured for indexing", entityName));
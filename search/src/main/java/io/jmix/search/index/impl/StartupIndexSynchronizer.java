@@ -20,6 +20,7 @@ import io.jmix.search.SearchProperties;
 import io.jmix.search.index.ESIndexManager;
 import io.jmix.search.index.IndexConfiguration;
 import io.jmix.search.index.IndexSynchronizationStatus;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
 import io.jmix.search.index.queue.IndexingQueueManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +51,10 @@ public class StartupIndexSynchronizer {
     protected SearchProperties searchProperties;
     @Autowired
     protected IndexStateRegistry indexStateRegistry;
+    @Autowired
+    protected IndexConfigurationManager indexConfigurationManager;
+    @Autowired
+    protected StreamingReindexer streamingReindexer;
 
     protected final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
@@ -57,6 +62,7 @@ public class StartupIndexSynchronizer {
     protected void postConstruct() {
         try {
             log.info("Start initial index synchronization");
+            restoreInterruptedBulkLoads();
             Map<IndexConfiguration, IndexSynchronizationStatus> indexSynchronizationResults = esIndexManager.synchronizeIndexSchemas();
 
             List<IndexConfiguration> enqueueAllCandidates = new ArrayList<>();
@@ -92,7 +98,16 @@ public class StartupIndexSynchronizer {
                             return entitiesAllowedToEnqueue.isEmpty() || entitiesAllowedToEnqueue.contains(config.getEntityName());
                         })
                         .collect(Collectors.toList());
-                executorService.submit(() -> indexConfigurationsToEnqueueAll.forEach(config -> enqueueEntity(config.getEntityName())));
+                if (searchProperties.isDirectReindexOnStartupIndexRecreationEnabled()) {
+                    indexConfigurationsToEnqueueAll.forEach(this::reindexEntity);
+                } else {
+                    executorService.submit(() -> indexConfigurationsToEnqueueAll.forEach(config -> enqueueEntity(config.getEntityName())));
+                }
+            }
+
+            int resumed = streamingReindexer.resumeInterruptedReindexes();
+            if (resumed > 0) {
+                log.info("{} interrupted reindex processes have been resumed", resumed);
             }
 
             log.info("Finish initial index synchronization");
@@ -101,6 +116,50 @@ public class StartupIndexSynchronizer {
         }
     }
 
+    /**
+     * Restores settings of indexes which bulk loading has been interrupted by application shutdown.
+     */
+    protected void restoreInterruptedBulkLoads() {
+        for (IndexConfiguration config : indexConfigurationManager.getAllIndexConfigurations()) {
+            try {
+                if (streamingReindexer.isReindexRunning(config.getEntityName())) {
+                    // Bulk load is still in progress on another application instance
+                    continue;
+                }
+                if (esIndexManager.isIndexExist(config.getIndexName()) && esIndexManager.isBulkLoadSettingsApplied(config)) {
+                    log.info("Restore settings of index '{}' after interrupted bulk load", config.getIndexName());
+                    esIndexManager.restoreSettingsAfterBulkLoad(config, config.getIndexName());
+                }
+            } catch (Exception e) {
+                log.error("Failed to restore settings of index '{}'", config.getIndexName(), e);
+            }
+        }
+    }
+
+    protected void reindexEntity(IndexConfiguration config) {
+        String entityName = config.getEntityName();
+        boolean bulkLoad = searchProperties.isBulkLoadIndexSettingsEnabled();
+        try {
+            if (bulkLoad) {
+                esIndexManager.applyBulkLoadSettings(config.getIndexName());
+            }
+            boolean started = streamingReindexer.startReindex(entityName, null, progress -> {
+                if (bulkLoad) {
+                    esIndexManager.restoreSettingsAfterBulkLoad(config, config.getIndexName());
+                }
+            });
+            if (!started && bulkLoad) {
+                esIndexManager.restoreSettingsAfterBulkLoad(config, config.getIndexName());
+            }
+        } catch (IllegalArgumentException e) {
+            log.info("Entity '{}' can't be reindexed directly and will be enqueued: {}", entityName, e.getMessage());
+            if (bulkLoad) {
+                esIndexManager.restoreSettingsAfterBulkLoad(config, config.getIndexName());
+            }
+            executorService.submit(() -> enqueueEntity(entityName));
+        }
+    }
+
     protected void enqueueEntity(String entityName) {
         log.info("Start initial enqueueing instances of entity '{}'", entityName);
         indexingQueueManager.enqueueIndexAll(entityName);
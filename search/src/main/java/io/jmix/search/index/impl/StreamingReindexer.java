@@ -0,0 +1,814 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.impl;
+
+import io.jmix.core.*;
+import io.jmix.core.common.util.Preconditions;
+import io.jmix.core.entity.EntityValues;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.security.SystemAuthenticator;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.EntityIndexer;
+import io.jmix.search.index.IndexConfiguration;
+import io.jmix.search.index.IndexResult;
+import io.jmix.search.index.ReindexProgress;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.queue.IndexingQueueManager;
+import io.jmix.search.index.queue.entity.ReindexCheckpoint;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.GetIndexResponse;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import javax.persistence.OptimisticLockException;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Reindexes all instances of entity directly, without passing their ids through indexing queue.
+ * <p>
+ * Instances are read page by page using keyset pagination by primary key and indexing fetch plan.
+ * Every loaded page is sent to index by separate bulk request while the next page is being loaded.
+ * Amount of concurrently executed bulk requests is limited by
+ * {@link SearchProperties#getMaxConcurrentReindexBulkRequests()}, so at most this amount of pages plus one
+ * is kept in memory.
+ * <p>
+ * Progress is periodically saved as {@link ReindexCheckpoint} containing the last key of instances that
+ * have been successfully indexed together with all preceding ones. Reindex interrupted by shutdown or crash is
+ * resumed from this key by any application instance when it's started again for the same physical index,
+ * see {@link #resumeInterruptedReindexes()}. Counters of resumed reindex are approximate. Reindex whose stale
+ * checkpoint has been taken over by another instance is cancelled without completion.
+ * <p>
+ * New physical index being rebuilt receives changes of entity concurrently with reindex. Reindex doesn't
+ * overwrite documents written by such changes and removes instances deleted after their page has been loaded.
+ * Reindex into live index overwrites its documents, so instances changed since start of reindex are indexed again
+ * when it's finished. Entities without last modification date are reindexed into live index through the queue.
+ */
+@Component("search_StreamingReindexer")
+public class StreamingReindexer {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingReindexer.class);
+
+    @Autowired
+    protected UnconstrainedDataManager dataManager;
+    @Autowired
+    protected Metadata metadata;
+    @Autowired
+    protected MetadataTools metadataTools;
+    @Autowired
+    protected EntityIndexer entityIndexer;
+    @Autowired
+    protected IndexConfigurationManager indexConfigurationManager;
+    @Autowired
+    protected SystemAuthenticator authenticator;
+    @Autowired
+    protected SearchProperties searchProperties;
+    @Autowired
+    protected IdSerialization idSerialization;
+    @Autowired
+    protected RestHighLevelClient esClient;
+    @Autowired
+    protected WatermarkIndexSynchronizer watermarkIndexSynchronizer;
+    @Autowired
+    protected IndexingQueueManager indexingQueueManager;
+
+    protected final Map<String, ReindexTask> tasks = new ConcurrentHashMap<>();
+    protected volatile boolean shuttingDown;
+    protected final AtomicInteger threadCounter = new AtomicInteger();
+    protected final ExecutorService executorService = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "search-reindex-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    protected void preDestroy() {
+        // Running reindexes keep their checkpoints to be resumed after restart
+        shuttingDown = true;
+        tasks.values().forEach(ReindexTask::cancel);
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Starts reindex of all instances of provided entity in background.
+     *
+     * @param entityName name of indexed entity
+     * @return true if reindex has been started, false if reindex of this entity is already running
+     */
+    public boolean startReindex(String entityName) {
+        return startReindex(entityName, null, null);
+    }
+
+    /**
+     * Starts reindex of all instances of provided entity into provided physical index in background.
+     *
+     * @param entityName        name of indexed entity
+     * @param targetIndexName   name of physical index to fill or null to use index of entity
+     * @param completionHandler invoked with final progress after reindex is finished
+     * @return true if reindex has been started, false if reindex of this entity is already running
+     */
+    public boolean startReindex(String entityName,
+                                @Nullable String targetIndexName,
+                                @Nullable Consumer<ReindexProgress> completionHandler) {
+        Preconditions.checkNotEmptyString(entityName);
+        if (!indexConfigurationManager.isDirectlyIndexed(entityName)) {
+            throw new IllegalArgumentException(String.format("Entity '%s' is not configured for indexing", entityName));
+        }
+        MetaClass metaClass = metadata.getClass(entityName);
+        if (metadataTools.hasCompositePrimaryKey(metaClass) || metadataTools.getPrimaryKeyName(metaClass) == null) {
+            throw new IllegalArgumentException(String.format("Entity '%s' can't be reindexed directly: " +
+                    "single primary key is required", entityName));
+        }
+
+        ReindexTask task = new ReindexTask(entityName, targetIndexName, completionHandler);
+        ReindexTask previous = tasks.get(entityName);
+        if (previous != null && !previous.isFinished()) {
+            log.info("Reindex of entity '{}' is already running", entityName);
+            return false;
+        }
+        if (!claimCheckpoint(task, metaClass)) {
+            return false;
+        }
+        boolean registered = previous == null
+                ? tasks.putIfAbsent(entityName, task) == null
+                : tasks.replace(entityName, previous, task);
+        if (!registered) {
+            log.info("Reindex of entity '{}' is already running", entityName);
+            return false;
+        }
+
+        executorService.submit(() -> authenticator.runWithSystem(() -> reindex(task)));
+        return true;
+    }
+
+    /**
+     * Resumes reindexes into indexes of entities which have been interrupted by shutdown or crash of application
+     * instance. Rebuilds of new index versions are resumed by {@link io.jmix.search.index.ESIndexManager#rebuildIndex}.
+     *
+     * @return amount of resumed reindexes
+     */
+    public int resumeInterruptedReindexes() {
+        List<ReindexCheckpoint> checkpoints = dataManager.load(ReindexCheckpoint.class)
+                .query("select c from search_ReindexCheckpoint c where c.status = :status and c.targetIndex is null")
+                .parameter("status", ReindexProgress.Status.RUNNING.name())
+                .list();
+        int resumed = 0;
+        for (ReindexCheckpoint checkpoint : checkpoints) {
+            String entityName = checkpoint.getEntityName();
+            if (isStale(checkpoint) && indexConfigurationManager.isDirectlyIndexed(entityName)) {
+                try {
+                    if (startReindex(entityName)) {
+                        resumed++;
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to resume reindex of entity '{}'", entityName, e);
+                }
+            }
+        }
+        return resumed;
+    }
+
+    /**
+     * Checks if reindex of provided entity is running on this or another application instance.
+     *
+     * @param entityName name of indexed entity
+     * @return true if reindex is running, false otherwise
+     */
+    public boolean isReindexRunning(String entityName) {
+        ReindexTask task = tasks.get(entityName);
+        if (task != null && !task.isFinished()) {
+            return true;
+        }
+        ReindexCheckpoint checkpoint = loadCheckpoint(entityName);
+        return checkpoint != null
+                && ReindexProgress.Status.RUNNING.name().equals(checkpoint.getStatus())
+                && !isStale(checkpoint);
+    }
+
+    /**
+     * Gets physical indexes being filled by reindexes running on this or another application instance.
+     * Such indexes must not be dropped even if they aren't available by alias yet.
+     *
+     * @return names of target indexes of running reindexes
+     */
+    public Set<String> getActiveTargetIndexes() {
+        Set<String> targetIndexes = new HashSet<>();
+        tasks.values().stream()
+                .filter(task -> !task.isFinished() && task.getTargetIndexName() != null)
+                .forEach(task -> targetIndexes.add(task.getTargetIndexName()));
+        dataManager.load(ReindexCheckpoint.class)
+                .query("select c from search_ReindexCheckpoint c where c.status = :status")
+                .parameter("status", ReindexProgress.Status.RUNNING.name())
+                .list()
+                .stream()
+                .filter(checkpoint -> checkpoint.getTargetIndex() != null && !isStale(checkpoint))
+                .forEach(checkpoint -> targetIndexes.add(checkpoint.getTargetIndex()));
+        return targetIndexes;
+    }
+
+    /**
+     * Gets name of physical index which filling by interrupted reindex of provided entity can be resumed.
+     *
+     * @param entityName name of indexed entity
+     * @return index name or null if there is no interrupted reindex into separate physical index
+     */
+    @Nullable
+    public String findResumableTargetIndex(String entityName) {
+        ReindexCheckpoint checkpoint = findResumableCheckpoint(entityName);
+        return checkpoint == null ? null : checkpoint.getTargetIndex();
+    }
+
+    /**
+     * Gets checkpoint of interrupted reindex of provided entity into separate physical index.
+     * Instances changed after {@link ReindexCheckpoint#getUpdatedDate()} may be missing in that index.
+     *
+     * @param entityName name of indexed entity
+     * @return checkpoint or null if there is no interrupted reindex into separate physical index
+     */
+    @Nullable
+    public ReindexCheckpoint findResumableCheckpoint(String entityName) {
+        ReindexCheckpoint checkpoint = loadCheckpoint(entityName);
+        if (checkpoint != null
+                && ReindexProgress.Status.RUNNING.name().equals(checkpoint.getStatus())
+                && checkpoint.getTargetIndex() != null
+                && isStale(checkpoint)) {
+            return checkpoint;
+        }
+        return null;
+    }
+
+    /**
+     * Requests cancellation of running reindex of provided entity.
+     * Bulk requests already sent to index are completed.
+     *
+     * @param entityName name of indexed entity
+     * @return true if running reindex has been found, false otherwise
+     */
+    public boolean cancelReindex(String entityName) {
+        ReindexTask task = tasks.get(entityName);
+        if (task == null || task.isFinished()) {
+            return false;
+        }
+        task.cancel();
+        return true;
+    }
+
+    /**
+     * Gets progress of the last reindex of provided entity.
+     *
+     * @param entityName name of indexed entity
+     * @return {@link ReindexProgress} or null if entity hasn't been reindexed directly
+     */
+    @Nullable
+    public ReindexProgress getProgress(String entityName) {
+        ReindexTask task = tasks.get(entityName);
+        return task == null ? null : task.toProgress();
+    }
+
+    /**
+     * Gets progress of the last reindex of every entity reindexed directly.
+     *
+     * @return collection of {@link ReindexProgress}
+     */
+    public Collection<ReindexProgress> getProgress() {
+        return tasks.values().stream()
+                .map(ReindexTask::toProgress)
+                .collect(Collectors.toList());
+    }
+
+    protected void reindex(ReindexTask task) {
+        String entityName = task.getEntityName();
+        log.info("Start direct reindex of entity '{}'", entityName);
+
+        IndexConfiguration indexConfiguration = indexConfigurationManager.getIndexConfigurationByEntityName(entityName);
+        MetaClass metaClass = metadata.getClass(entityName);
+        String primaryKeyName = metadataTools.getPrimaryKeyName(metaClass);
+        int batchSize = Math.max(searchProperties.getReindexBatchSize(), 1);
+        int maxInFlight = Math.max(searchProperties.getMaxConcurrentReindexBulkRequests(), 1);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService bulkExecutor = createBulkExecutor(entityName, maxInFlight);
+        ReindexProgress.Status status;
+        boolean interrupted = false;
+        try {
+            FetchPlan fetchPlan = entityIndexer.getIndexingFetchPlan(indexConfiguration);
+            task.setTotal(countInstances(metaClass));
+
+            if (task.getTargetIndexName() != null) {
+                // Let other application instances start writing changes into new index before it's filled
+                Thread.sleep(searchProperties.getRebuildTargetsRefreshInterval().toMillis());
+            }
+
+            Object lastId = task.getCommittedLastId();
+            long checkpointIntervalMillis = searchProperties.getReindexCheckpointInterval().toMillis();
+            long lastCheckpointTime = System.currentTimeMillis();
+            while (!task.isCancelled()) {
+                List<Object> page = loadPage(metaClass, primaryKeyName, fetchPlan, lastId, batchSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = EntityValues.getId(page.get(page.size() - 1));
+                long pageNumber = task.pageSubmitted(lastId);
+
+                inFlight.acquire();
+                try {
+                    bulkExecutor.execute(() -> {
+                        try {
+                            // Failed page isn't committed, so reindex is resumed from it
+                            if (authenticator.withSystem(() -> indexPage(task, page))) {
+                                task.pageCompleted(pageNumber);
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw e;
+                }
+
+                if (System.currentTimeMillis() - lastCheckpointTime >= checkpointIntervalMillis) {
+                    saveCheckpoint(task, metaClass, ReindexProgress.Status.RUNNING);
+                    lastCheckpointTime = System.currentTimeMillis();
+                }
+
+                if (page.size() < batchSize) {
+                    break;
+                }
+            }
+
+            status = task.isCancelled() ? ReindexProgress.Status.CANCELLED : ReindexProgress.Status.COMPLETED;
+        } catch (InterruptedException e) {
+            interrupted = true;
+            status = ReindexProgress.Status.CANCELLED;
+        } catch (Exception e) {
+            log.error("Failed to reindex entity '{}'", entityName, e);
+            status = ReindexProgress.Status.FAILED;
+        } finally {
+            // Pages being indexed affect checkpoint and index state, so reindex isn't finished before them
+            interrupted |= awaitBulkRequests(bulkExecutor, entityName);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (task.getTargetIndexName() == null && !task.isOwnershipLost() && !shuttingDown
+                && !replayLiveIndexChanges(task)) {
+            status = ReindexProgress.Status.FAILED;
+        }
+        task.finish(status);
+        ReindexProgress progress = task.toProgress();
+        log.info("Finish direct reindex: {}", progress);
+        if (task.isOwnershipLost()) {
+            log.warn("Reindex of entity '{}' has been taken over by another application instance", entityName);
+            return;
+        }
+        if (shuttingDown) {
+            // Make checkpoint stale immediately to resume reindex right after restart
+            task.getCheckpoint().setUpdatedDate(new Date(0));
+            saveCheckpoint(task, metaClass, ReindexProgress.Status.RUNNING, false);
+            return;
+        }
+        saveCheckpoint(task, metaClass, progress.getStatus());
+        if (task.getCompletionHandler() != null) {
+            try {
+                task.getCompletionHandler().accept(progress);
+            } catch (Exception e) {
+                log.error("Failed to complete reindex of entity '{}'", entityName, e);
+            }
+        }
+    }
+
+    /**
+     * Sends page of instances to index.
+     *
+     * @return true if all instances of page have been indexed, false otherwise
+     */
+    protected boolean indexPage(ReindexTask task, List<Object> page) {
+        boolean success;
+        try {
+            String targetIndexName = task.getTargetIndexName();
+            if (targetIndexName == null && !watermarkIndexSynchronizer.hasLastModifiedProperty(task.getEntityName())) {
+                // Changes made while the page is written can't be replayed, so instances are reloaded by queue
+                indexingQueueManager.enqueueIndexCollection(page);
+                task.addProcessed(page.size(), 0);
+                return true;
+            }
+            IndexResult indexResult = targetIndexName == null
+                    ? entityIndexer.indexLoadedCollection(page)
+                    : entityIndexer.indexLoadedCollection(page, targetIndexName);
+            task.addProcessed(page.size(), indexResult.getFailuresSize());
+            if (targetIndexName != null) {
+                removeDeletedInstances(task, page);
+            }
+            success = !indexResult.hasFailures();
+        } catch (Exception e) {
+            log.error("Failed to index page of {} instances of entity '{}'", page.size(), task.getEntityName(), e);
+            task.addProcessed(page.size(), page.size());
+            success = false;
+        }
+        log.debug("Reindex progress: {}", task.toProgress());
+        return success;
+    }
+
+    /**
+     * Indexes instances of entity changed since start of reindex into live index. Page written directly into
+     * live index may have been loaded before concurrent change indexed by queue, so it may overwrite the newer
+     * document. Pages of entities without last modification date are enqueued instead of being written.
+     *
+     * @return true if changes have been replayed or there was nothing to replay, false otherwise
+     */
+    protected boolean replayLiveIndexChanges(ReindexTask task) {
+        String entityName = task.getEntityName();
+        if (!watermarkIndexSynchronizer.hasLastModifiedProperty(entityName)) {
+            return true;
+        }
+        Date startedDate = task.getCheckpoint() == null ? null : task.getCheckpoint().getStartedDate();
+        Date fromDate = task.isResumed() && startedDate != null ? startedDate : new Date(task.getStartTime());
+        try {
+            return authenticator.withSystem(() -> watermarkIndexSynchronizer.indexChangedSince(entityName, fromDate));
+        } catch (RuntimeException e) {
+            log.error("Failed to index instances of entity '{}' changed during reindex", entityName, e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes instances of page deleted after the page has been loaded. Their deletion may have been written
+     * into new index before the page, so the page would bring them back.
+     */
+    protected void removeDeletedInstances(ReindexTask task, List<Object> page) {
+        MetaClass metaClass = metadata.getClass(task.getEntityName());
+        String primaryKeyName = metadataTools.getPrimaryKeyName(metaClass);
+        List<Object> ids = page.stream()
+                .map(EntityValues::getId)
+                .collect(Collectors.toList());
+        ValueLoadContext loadContext = ValueLoadContext.create()
+                .setStoreName(metaClass.getStore().getName())
+                .setQuery(ValueLoadContext.createQuery("select e." + primaryKeyName + " from " + metaClass.getName() + " e"
+                                + " where e." + primaryKeyName + " in :ids")
+                        .setParameter("ids", ids))
+                .setProperties(Collections.singletonList("entityId"));
+        Set<Object> existingIds = dataManager.loadValues(loadContext).stream()
+                .map(keyValue -> keyValue.getValue("entityId"))
+                .collect(Collectors.toSet());
+
+        List<Id<?>> deletedIds = ids.stream()
+                .filter(id -> !existingIds.contains(id))
+                .map(id -> Id.of(id, metaClass.getJavaClass()))
+                .collect(Collectors.toList());
+        if (!deletedIds.isEmpty()) {
+            log.debug("Remove {} instances of entity '{}' deleted during reindex", deletedIds.size(), task.getEntityName());
+            entityIndexer.deleteCollectionByEntityIds(deletedIds);
+        }
+    }
+
+    /**
+     * Creates or takes over checkpoint of reindex of entity. Reindex is resumed from the checkpoint if it has been
+     * interrupted while filling the same physical index.
+     *
+     * @return false if reindex of entity is running on another application instance
+     */
+    protected boolean claimCheckpoint(ReindexTask task, MetaClass metaClass) {
+        String entityName = task.getEntityName();
+        String indexUuid = getPhysicalIndexUuid(task.getTargetIndexName() == null
+                ? indexConfigurationManager.getIndexConfigurationByEntityName(entityName).getIndexName()
+                : task.getTargetIndexName());
+
+        ReindexCheckpoint checkpoint = loadCheckpoint(entityName);
+        if (checkpoint == null) {
+            checkpoint = metadata.create(ReindexCheckpoint.class);
+            checkpoint.setEntityName(entityName);
+        } else if (ReindexProgress.Status.RUNNING.name().equals(checkpoint.getStatus())) {
+            if (!isStale(checkpoint)) {
+                log.info("Reindex of entity '{}' is running on another application instance", entityName);
+                return false;
+            }
+            if (checkpoint.getLastEntityId() != null
+                    && Objects.equals(checkpoint.getTargetIndex(), task.getTargetIndexName())
+                    && Objects.equals(checkpoint.getIndexUuid(), indexUuid)) {
+                Id<?> lastId = idSerialization.stringToId(checkpoint.getLastEntityId());
+                task.resume(lastId.getValue(), nullToZero(checkpoint.getProcessed()), nullToZero(checkpoint.getFailed()));
+                log.info("Resume reindex of entity '{}' after instance {}", entityName, lastId);
+            }
+        }
+
+        if (!task.isResumed()) {
+            checkpoint.setLastEntityId(null);
+            checkpoint.setProcessed(0L);
+            checkpoint.setFailed(0L);
+            checkpoint.setTotal(null);
+            checkpoint.setStartedDate(new Date());
+        }
+        checkpoint.setTargetIndex(task.getTargetIndexName());
+        checkpoint.setIndexUuid(indexUuid);
+        checkpoint.setStatus(ReindexProgress.Status.RUNNING.name());
+        checkpoint.setUpdatedDate(new Date());
+        try {
+            task.setCheckpoint(dataManager.save(checkpoint));
+        } catch (RuntimeException e) {
+            log.warn("Unable to take over checkpoint of reindex of entity '{}'", entityName, e);
+            return false;
+        }
+        return true;
+    }
+
+    protected void saveCheckpoint(ReindexTask task, MetaClass metaClass, ReindexProgress.Status status) {
+        saveCheckpoint(task, metaClass, status, true);
+    }
+
+    protected void saveCheckpoint(ReindexTask task, MetaClass metaClass, ReindexProgress.Status status, boolean touch) {
+        ReindexCheckpoint checkpoint = task.getCheckpoint();
+        Object committedLastId = task.getCommittedLastId();
+        if (committedLastId != null) {
+            checkpoint.setLastEntityId(idSerialization.idToString(Id.of(committedLastId, metaClass.getJavaClass())));
+        }
+        ReindexProgress progress = task.toProgress();
+        checkpoint.setProcessed(progress.getProcessed());
+        checkpoint.setFailed(progress.getFailed());
+        checkpoint.setTotal(progress.getTotal());
+        checkpoint.setStatus(status.name());
+        if (touch) {
+            checkpoint.setUpdatedDate(new Date());
+        }
+        try {
+            task.setCheckpoint(dataManager.save(checkpoint));
+        } catch (RuntimeException e) {
+            if (ExceptionUtils.indexOfType(e, OptimisticLockException.class) >= 0) {
+                // Checkpoint has been taken over as stale, so another instance continues reindex
+                log.warn("Checkpoint of reindex of entity '{}' has been taken over by another application instance. " +
+                        "Reindex is cancelled", task.getEntityName());
+                task.loseOwnership();
+            } else {
+                log.warn("Failed to save checkpoint of reindex of entity '{}'", task.getEntityName(), e);
+            }
+        }
+    }
+
+    @Nullable
+    protected ReindexCheckpoint loadCheckpoint(String entityName) {
+        return dataManager.load(ReindexCheckpoint.class)
+                .query("select c from search_ReindexCheckpoint c where c.entityName = :entityName")
+                .parameter("entityName", entityName)
+                .optional()
+                .orElse(null);
+    }
+
+    protected boolean isStale(ReindexCheckpoint checkpoint) {
+        Date updatedDate = checkpoint.getUpdatedDate();
+        long staleTimeoutMillis = searchProperties.getReindexCheckpointStaleTimeout().toMillis();
+        return updatedDate == null || System.currentTimeMillis() - updatedDate.getTime() > staleTimeoutMillis;
+    }
+
+    /**
+     * Gets UUID of physical index available by provided name. It identifies the concrete index behind alias,
+     * so checkpoint isn't applied to index recreated after interruption.
+     */
+    @Nullable
+    protected String getPhysicalIndexUuid(String indexName) {
+        try {
+            GetIndexResponse response = esClient.indices().get(new GetIndexRequest(indexName), RequestOptions.DEFAULT);
+            String[] indices = response.getIndices();
+            return indices.length == 1 ? response.getSetting(indices[0], "index.uuid") : null;
+        } catch (ElasticsearchStatusException e) {
+            if (e.status() == RestStatus.NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to get info of index '" + indexName + "': Request failed", e);
+        }
+    }
+
+    protected long nullToZero(@Nullable Long value) {
+        return value == null ? 0 : value;
+    }
+
+    protected List<Object> loadPage(MetaClass metaClass,
+                                    String primaryKeyName,
+                                    FetchPlan fetchPlan,
+                                    @Nullable Object lastId,
+                                    int batchSize) {
+        String query = "select e from " + metaClass.getName() + " e"
+                + (lastId == null ? "" : " where e." + primaryKeyName + " > :lastId")
+                + " order by e." + primaryKeyName;
+        FluentLoader.ByQuery<Object> loader = dataManager.load(metaClass.<Object>getJavaClass())
+                .query(query)
+                .fetchPlan(fetchPlan)
+                .maxResults(batchSize);
+        if (lastId != null) {
+            loader.parameter("lastId", lastId);
+        }
+        return new ArrayList<>(loader.list());
+    }
+
+    protected long countInstances(MetaClass metaClass) {
+        ValueLoadContext loadContext = ValueLoadContext.create()
+                .setStoreName(metaClass.getStore().getName())
+                .setQuery(ValueLoadContext.createQuery("select count(e) from " + metaClass.getName() + " e"))
+                .setProperties(Collections.singletonList("amount"));
+        return dataManager.loadValues(loadContext).stream()
+                .findFirst()
+                .map(keyValue -> keyValue.<Number>getValue("amount"))
+                .map(Number::longValue)
+                .orElse(0L);
+    }
+
+    /**
+     * Waits for completion of bulk requests already sent to index, even if current thread is interrupted.
+     * Waiting is limited by {@link SearchProperties#getReindexCheckpointStaleTimeout()}.
+     *
+     * @return true if current thread has been interrupted while waiting
+     */
+    protected boolean awaitBulkRequests(ExecutorService bulkExecutor, String entityName) {
+        bulkExecutor.shutdown();
+        long deadline = System.currentTimeMillis() + searchProperties.getReindexCheckpointStaleTimeout().toMillis();
+        boolean interrupted = false;
+        while (true) {
+            long remaining = deadline - System.currentTimeMillis();
+            try {
+                if (bulkExecutor.awaitTermination(Math.max(remaining, 0), TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+                log.warn("Bulk requests of reindex of entity '{}' haven't been completed in time", entityName);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        return interrupted;
+    }
+
+    protected ExecutorService createBulkExecutor(String entityName, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "search-reindex-bulk-" + entityName + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    protected static class ReindexTask {
+
+        protected final String entityName;
+        protected final String targetIndexName;
+        protected final Consumer<ReindexProgress> completionHandler;
+        protected final long startTime = System.currentTimeMillis();
+        protected final AtomicLong processed = new AtomicLong();
+        protected final AtomicLong failed = new AtomicLong();
+        protected volatile long total = -1;
+        protected volatile long endTime = -1;
+        protected volatile boolean cancelled;
+        protected volatile ReindexProgress.Status status = ReindexProgress.Status.RUNNING;
+        protected volatile ReindexCheckpoint checkpoint;
+        protected volatile boolean resumed;
+        protected volatile boolean ownershipLost;
+
+        // Pages sent to index but not completed yet, guarded by 'this'
+        protected final TreeMap<Long, Object> pendingPages = new TreeMap<>();
+        protected final Set<Long> completedPages = new HashSet<>();
+        protected long nextPageNumber;
+        protected Object committedLastId;
+
+        protected ReindexTask(String entityName,
+                              @Nullable String targetIndexName,
+                              @Nullable Consumer<ReindexProgress> completionHandler) {
+            this.entityName = entityName;
+            this.targetIndexName = targetIndexName;
+            this.completionHandler = completionHandler;
+        }
+
+        public String getEntityName() {
+            return entityName;
+        }
+
+        @Nullable
+        public String getTargetIndexName() {
+            return targetIndexName;
+        }
+
+        @Nullable
+        public Consumer<ReindexProgress> getCompletionHandler() {
+            return completionHandler;
+        }
+
+        public ReindexCheckpoint getCheckpoint() {
+            return checkpoint;
+        }
+
+        public void setCheckpoint(ReindexCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        public synchronized void resume(Object lastId, long processedAmount, long failedAmount) {
+            this.committedLastId = lastId;
+            this.processed.set(processedAmount);
+            this.failed.set(failedAmount);
+            this.resumed = true;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public boolean isResumed() {
+            return resumed;
+        }
+
+        /**
+         * Registers page sent to index.
+         *
+         * @return number of the page
+         */
+        public synchronized long pageSubmitted(Object lastId) {
+            long pageNumber = nextPageNumber++;
+            pendingPages.put(pageNumber, lastId);
+            return pageNumber;
+        }
+
+        /**
+         * Marks page as completed and advances the last key all preceding pages of which are completed too.
+         */
+        public synchronized void pageCompleted(long pageNumber) {
+            completedPages.add(pageNumber);
+            while (!pendingPages.isEmpty() && completedPages.remove(pendingPages.firstKey())) {
+                committedLastId = pendingPages.pollFirstEntry().getValue();
+            }
+        }
+
+        @Nullable
+        public synchronized Object getCommittedLastId() {
+            return committedLastId;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public void addProcessed(int processedAmount, int failedAmount) {
+            processed.addAndGet(processedAmount);
+            failed.addAndGet(failedAmount);
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancels reindex which checkpoint has been taken over by another application instance.
+         * Such reindex doesn't save checkpoint and doesn't invoke completion handler anymore.
+         */
+        public void loseOwnership() {
+            ownershipLost = true;
+            cancelled = true;
+        }
+
+        public boolean isOwnershipLost() {
+            return ownershipLost;
+        }
+
+        public boolean isFinished() {
+            return status != ReindexProgress.Status.RUNNING;
+        }
+
+        public void finish(ReindexProgress.Status status) {
+            this.endTime = System.currentTimeMillis();
+            this.status = status;
+        }
+
+        public ReindexProgress toProgress() {
+            long elapsed = (endTime < 0 ? System.currentTimeMillis() : endTime) - startTime;
+            return new ReindexProgress(entityName, status, total, processed.get(), failed.get(), elapsed);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.impl;
+
+import io.jmix.core.*;
+import io.jmix.core.common.util.Preconditions;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.metamodel.model.MetaProperty;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.EntityIndexer;
+import io.jmix.search.index.IndexResult;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.queue.entity.IndexingWatermark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.AnnotatedElement;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes instances changed since the last execution using their last modification date
+ * instead of enqueueing every change.
+ * <p>
+ * For every entity listed in {@link SearchProperties#getWatermarkIndexingEntities()} the highest indexed
+ * last modification date (watermark) is stored in {@link IndexingWatermark}. Each execution reads instances
+ * modified after the watermark minus {@link SearchProperties#getWatermarkIndexingClockSkew()} in
+ * (last modification date, id) order and indexes them page by page. Overlap caused by clock skew leads to
+ * repeated indexing of some instances, which is harmless.
+ * <p>
+ * If there is no stored watermark, existing instances are indexed only if
+ * {@link SearchProperties#isWatermarkIndexingInitialFullScanEnabled()} is enabled. Otherwise watermark is
+ * initialized with current time.
+ * <p>
+ * Removal of instances can't be detected this way, so deletions are still processed via indexing queue.
+ */
+@Component("search_WatermarkIndexSynchronizer")
+public class WatermarkIndexSynchronizer {
+
+    private static final Logger log = LoggerFactory.getLogger(WatermarkIndexSynchronizer.class);
+
+    protected static final String ID_ALIAS = "entityId";
+    protected static final String DATE_ALIAS = "lastModified";
+
+    @Autowired
+    protected UnconstrainedDataManager dataManager;
+    @Autowired
+    protected Metadata metadata;
+    @Autowired
+    protected MetadataTools metadataTools;
+    @Autowired
+    protected EntityIndexer entityIndexer;
+    @Autowired
+    protected IndexingLocker locker;
+    @Autowired
+    protected IndexConfigurationManager indexConfigurationManager;
+    @Autowired
+    protected SearchProperties searchProperties;
+
+    protected final Map<String, Optional<MetaProperty>> lastModifiedProperties = new ConcurrentHashMap<>();
+
+    /**
+     * Checks if changes of instances of provided entity are indexed by watermark instead of indexing queue.
+     *
+     * @param entityName entity name
+     * @return true if entity is indexed by watermark, false otherwise
+     */
+    public boolean isWatermarkIndexed(String entityName) {
+        return searchProperties.getWatermarkIndexingEntities().contains(entityName)
+                && indexConfigurationManager.isDirectlyIndexed(entityName)
+                && getLastModifiedProperty(entityName) != null;
+    }
+
+    /**
+     * Checks if instances of entity changed since some moment can be found by their last modification date.
+     *
+     * @param entityName entity name
+     * @return true if entity has single primary key and property annotated with @LastModifiedDate
+     */
+    public boolean hasLastModifiedProperty(String entityName) {
+        return getLastModifiedProperty(entityName) != null;
+    }
+
+    /**
+     * Indexes changed instances of all entities configured for watermark indexing.
+     *
+     * @return total amount of indexed instances
+     */
+    public int synchronizeAll() {
+        int indexed = 0;
+        for (String entityName : searchProperties.getWatermarkIndexingEntities()) {
+            if (isWatermarkIndexed(entityName)) {
+                indexed += synchronize(entityName);
+            } else {
+                log.warn("Entity '{}' can't be indexed by watermark: it's not indexed or has no single primary key " +
+                        "and property annotated with @LastModifiedDate", entityName);
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * Indexes instances of provided entity modified since the stored watermark and advances the watermark.
+     * Watermark isn't advanced beyond instances failed to be indexed.
+     *
+     * @param entityName entity name
+     * @return amount of indexed instances
+     */
+    public int synchronize(String entityName) {
+        Preconditions.checkNotNullArgument(entityName);
+        MetaProperty lastModifiedProperty = getLastModifiedProperty(entityName);
+        if (lastModifiedProperty == null) {
+            throw new IllegalArgumentException(String.format("Entity '%s' can't be indexed by watermark", entityName));
+        }
+
+        if (!locker.tryLockEntityForWatermarkIndexing(entityName)) {
+            log.debug("Watermark indexing of entity '{}' is in progress", entityName);
+            return 0;
+        }
+        try {
+            return synchronizeInternal(metadata.getClass(entityName), lastModifiedProperty);
+        } finally {
+            locker.unlockEntityForWatermarkIndexing(entityName);
+        }
+    }
+
+    /**
+     * Indexes instances of provided entity modified since provided date. Stored watermark isn't changed.
+     *
+     * @param entityName entity name
+     * @param fromDate   date to index instances modified after
+     * @return true if all modified instances have been indexed, false if entity has no property annotated with
+     * {@link LastModifiedDate} or some instances failed to be indexed
+     */
+    public boolean indexChangedSince(String entityName, Date fromDate) {
+        Preconditions.checkNotNullArgument(entityName);
+        Preconditions.checkNotNullArgument(fromDate);
+        MetaProperty lastModifiedProperty = getLastModifiedProperty(entityName);
+        if (lastModifiedProperty == null) {
+            return false;
+        }
+
+        MetaClass metaClass = metadata.getClass(entityName);
+        Date skewedDate = new Date(fromDate.getTime() - searchProperties.getWatermarkIndexingClockSkew().toMillis());
+        int batchSize = Math.max(searchProperties.getWatermarkIndexingBatchSize(), 1);
+        Date lastDate = null;
+        Object lastId = null;
+        while (true) {
+            List<KeyValueEntity> rows = loadChangedPage(metaClass, lastModifiedProperty, skewedDate, lastDate, lastId, batchSize);
+            if (rows.isEmpty()) {
+                return true;
+            }
+
+            List<Id<?>> ids = new ArrayList<>(rows.size());
+            for (KeyValueEntity row : rows) {
+                ids.add(Id.of(Objects.requireNonNull(row.getValue(ID_ALIAS)), metaClass.getJavaClass()));
+            }
+            IndexResult indexResult = entityIndexer.indexCollectionByEntityIds(ids);
+            if (indexResult.hasFailures()) {
+                log.warn("Failed to index {} instances of entity '{}' modified since {}",
+                        indexResult.getFailuresSize(), entityName, fromDate);
+                return false;
+            }
+
+            KeyValueEntity lastRow = rows.get(rows.size() - 1);
+            lastDate = toDate(lastRow.getValue(DATE_ALIAS));
+            lastId = lastRow.getValue(ID_ALIAS);
+            if (rows.size() < batchSize) {
+                return true;
+            }
+        }
+    }
+
+    protected int synchronizeInternal(MetaClass metaClass, MetaProperty lastModifiedProperty) {
+        String entityName = metaClass.getName();
+        IndexingWatermark watermark = loadWatermark(entityName);
+        Date storedDate = watermark == null ? null : watermark.getWatermarkDate();
+        if (storedDate == null) {
+            if (!searchProperties.isWatermarkIndexingInitialFullScanEnabled()) {
+                Date initialDate = new Date();
+                log.info("Watermark of entity '{}' is initialized to {} without indexing of existing instances. " +
+                        "Reindex entity to index them", entityName, initialDate);
+                saveWatermark(watermark, entityName, initialDate);
+                return 0;
+            }
+            log.info("Watermark of entity '{}' isn't stored yet. All instances will be indexed", entityName);
+        }
+        Date fromDate = storedDate == null
+                ? null
+                : new Date(storedDate.getTime() - searchProperties.getWatermarkIndexingClockSkew().toMillis());
+        int batchSize = Math.max(searchProperties.getWatermarkIndexingBatchSize(), 1);
+
+        log.debug("Start watermark indexing of entity '{}' from {}", entityName, fromDate);
+        int indexed = 0;
+        Date lastDate = null;
+        Object lastId = null;
+        while (true) {
+            List<KeyValueEntity> rows = loadChangedPage(metaClass, lastModifiedProperty, fromDate, lastDate, lastId, batchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<Id<?>> ids = new ArrayList<>(rows.size());
+            for (KeyValueEntity row : rows) {
+                ids.add(Id.of(Objects.requireNonNull(row.getValue(ID_ALIAS)), metaClass.getJavaClass()));
+            }
+            IndexResult indexResult = entityIndexer.indexCollectionByEntityIds(ids);
+            if (indexResult.hasFailures()) {
+                log.warn("Failed to index {} instances of entity '{}'. Watermark is kept at {}",
+                        indexResult.getFailuresSize(), entityName, lastDate == null ? storedDate : lastDate);
+                break;
+            }
+            indexed += ids.size();
+
+            KeyValueEntity lastRow = rows.get(rows.size() - 1);
+            lastDate = toDate(lastRow.getValue(DATE_ALIAS));
+            lastId = lastRow.getValue(ID_ALIAS);
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (lastDate != null && (storedDate == null || lastDate.after(storedDate))) {
+            saveWatermark(watermark, entityName, lastDate);
+        }
+        log.debug("Finish watermark indexing of entity '{}': {} instances indexed", entityName, indexed);
+        return indexed;
+    }
+
+    protected List<KeyValueEntity> loadChangedPage(MetaClass metaClass,
+                                                   MetaProperty lastModifiedProperty,
+                                                   @Nullable Date fromDate,
+                                                   @Nullable Date lastDate,
+                                                   @Nullable Object lastId,
+                                                   int batchSize) {
+        String primaryKeyName = metadataTools.getPrimaryKeyName(metaClass);
+        String dateName = lastModifiedProperty.getName();
+        Class<?> dateType = lastModifiedProperty.getJavaType();
+
+        StringBuilder queryBuilder = new StringBuilder()
+                .append("select e.").append(primaryKeyName).append(", e.").append(dateName)
+                .append(" from ").append(metaClass.getName()).append(" e")
+                .append(" where e.").append(dateName).append(" is not null");
+        Map<String, Object> parameters = new HashMap<>();
+        if (fromDate != null) {
+            queryBuilder.append(" and e.").append(dateName).append(" > :fromDate");
+            parameters.put("fromDate", fromDate(fromDate, dateType));
+        }
+        if (lastDate != null) {
+            queryBuilder.append(" and (e.").append(dateName).append(" > :lastDate or (e.")
+                    .append(dateName).append(" = :lastDate and e.").append(primaryKeyName).append(" > :lastId))");
+            parameters.put("lastDate", fromDate(lastDate, dateType));
+            parameters.put("lastId", lastId);
+        }
+        queryBuilder.append(" order by e.").append(dateName).append(", e.").append(primaryKeyName);
+
+        ValueLoadContext loadContext = ValueLoadContext.create()
+                .setStoreName(metaClass.getStore().getName())
+                .setQuery(ValueLoadContext.createQuery(queryBuilder.toString())
+                        .setParameters(parameters)
+                        .setMaxResults(batchSize))
+                .setProperties(Arrays.asList(ID_ALIAS, DATE_ALIAS));
+        return dataManager.loadValues(loadContext);
+    }
+
+    @Nullable
+    protected IndexingWatermark loadWatermark(String entityName) {
+        return dataManager.load(IndexingWatermark.class)
+                .query("select w from search_IndexingWatermark w where w.entityName = :entityName")
+                .parameter("entityName", entityName)
+                .optional()
+                .orElse(null);
+    }
+
+    protected void saveWatermark(@Nullable IndexingWatermark watermark, String entityName, Date watermarkDate) {
+        if (watermark == null) {
+            watermark = metadata.create(IndexingWatermark.class);
+            watermark.setEntityName(entityName);
+        }
+        watermark.setWatermarkDate(watermarkDate);
+        dataManager.save(watermark);
+        log.debug("Watermark of entity '{}' is advanced to {}", entityName, watermarkDate);
+    }
+
+    @Nullable
+    protected MetaProperty getLastModifiedProperty(String entityName) {
+        return lastModifiedProperties.computeIfAbsent(entityName, this::resolveLastModifiedProperty).orElse(null);
+    }
+
+    protected Optional<MetaProperty> resolveLastModifiedProperty(String entityName) {
+        MetaClass metaClass = metadata.findClass(entityName);
+        if (metaClass == null || metadataTools.hasCompositePrimaryKey(metaClass)) {
+            return Optional.empty();
+        }
+        return metaClass.getProperties().stream()
+                .filter(property -> {
+                    AnnotatedElement element = property.getAnnotatedElement();
+                    return element != null && element.isAnnotationPresent(LastModifiedDate.class);
+                })
+                .filter(property -> isSupportedDateType(property.getJavaType()))
+                .findFirst();
+    }
+
+    protected boolean isSupportedDateType(Class<?> type) {
+        return Date.class.isAssignableFrom(type)
+                || LocalDateTime.class.equals(type)
+                || OffsetDateTime.class.equals(type);
+    }
+
+    protected Date toDate(Object value) {
+        if (value instanceof Date) {
+            return new Date(((Date) value).getTime());
+        } else if (value instanceof LocalDateTime) {
+            return Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant());
+        } else if (value instanceof OffsetDateTime) {
+            return Date.from(((OffsetDateTime) value).toInstant());
+        }
+        throw new IllegalArgumentException("Unsupported last modification date value: " + value);
+    }
+
+    protected Object fromDate(Date date, Class<?> type) {
+        if (LocalDateTime.class.equals(type)) {
+            return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        } else if (OffsetDateTime.class.equals(type)) {
+            return OffsetDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        }
+        return date;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.mapping;
+
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.metamodel.model.MetaPropertyPath;
+
+import java.util.*;
+
+/**
+ * Immutable routing table of entity changes compiled for single entity class.
+ * <p>
+ * Maps names of changed attributes to actions required to keep indexes up to date:
+ * reindex of changed instance itself and/or reindex of dependent instances.
+ */
+public class EntityChangeRouting {
+
+    public static final EntityChangeRouting EMPTY = new EntityChangeRouting(Collections.emptySet(), Collections.emptyMap());
+
+    protected final Set<String> selfReindexAttributes;
+    protected final Map<String, Map<MetaClass, Set<MetaPropertyPath>>> dependenciesByAttribute;
+
+    public EntityChangeRouting(Set<String> selfReindexAttributes,
+                               Map<String, Map<MetaClass, Set<MetaPropertyPath>>> dependenciesByAttribute) {
+        this.selfReindexAttributes = Collections.unmodifiableSet(new HashSet<>(selfReindexAttributes));
+        Map<String, Map<MetaClass, Set<MetaPropertyPath>>> dependencies = new HashMap<>();
+        dependenciesByAttribute.forEach((attribute, dependenciesMetaData) -> {
+            if (!dependenciesMetaData.isEmpty()) {
+                Map<MetaClass, Set<MetaPropertyPath>> attributeDependencies = new HashMap<>();
+                dependenciesMetaData.forEach((metaClass, propertyPaths) ->
+                        attributeDependencies.put(metaClass, Collections.unmodifiableSet(new HashSet<>(propertyPaths)))
+                );
+                dependencies.put(attribute, Collections.unmodifiableMap(attributeDependencies));
+            }
+        });
+        this.dependenciesByAttribute = Collections.unmodifiableMap(dependencies);
+    }
+
+    /**
+     * Checks if changed instance itself should be reindexed.
+     *
+     * @param changedAttributes names of changed attributes
+     * @return true if any of changed attributes is indexed
+     */
+    public boolean isSelfReindexRequired(Collection<String> changedAttributes) {
+        if (selfReindexAttributes.isEmpty()) {
+            return false;
+        }
+        for (String attribute : changedAttributes) {
+            if (selfReindexAttributes.contains(attribute)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if changes of provided attributes affect dependent instances.
+     *
+     * @param changedAttributes names of changed attributes
+     * @return true if there are dependent instances to reindex
+     */
+    public boolean hasDependencies(Collection<String> changedAttributes) {
+        if (dependenciesByAttribute.isEmpty()) {
+            return false;
+        }
+        for (String attribute : changedAttributes) {
+            if (dependenciesByAttribute.containsKey(attribute)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets metadata of instances dependent on changed attributes.
+     *
+     * @param changedAttributes names of changed attributes
+     * @return dependent entities grouped by their {@link MetaClass}.
+     * For every meta class group there are set of properties representing dependency-to-main references
+     */
+    public Map<MetaClass, Set<MetaPropertyPath>> getDependencies(Collection<String> changedAttributes) {
+        Map<MetaClass, Set<MetaPropertyPath>> single = null;
+        Map<MetaClass, Set<MetaPropertyPath>> merged = null;
+        for (String attribute : changedAttributes) {
+            Map<MetaClass, Set<MetaPropertyPath>> attributeDependencies = dependenciesByAttribute.get(attribute);
+            if (attributeDependencies == null) {
+                continue;
+            }
+            if (single == null) {
+                single = attributeDependencies;
+            } else {
+                if (merged == null) {
+                    merged = new HashMap<>();
+                    mergeDependencies(merged, single);
+                }
+                mergeDependencies(merged, attributeDependencies);
+            }
+        }
+        if (merged != null) {
+            return merged;
+        }
+        return single == null ? Collections.emptyMap() : single;
+    }
+
+    protected void mergeDependencies(Map<MetaClass, Set<MetaPropertyPath>> target,
+                                     Map<MetaClass, Set<MetaPropertyPath>> source) {
+        source.forEach((metaClass, propertyPaths) ->
+                target.computeIfAbsent(metaClass, k -> new HashSet<>()).addAll(propertyPaths)
+        );
+    }
+}
@@ -26,7 +26,6 @@ import io.jmix.search.index.IndexConfiguration;
 import io.jmix.search.index.mapping.processor.impl.AnnotatedIndexDefinitionProcessor;
 import io.jmix.search.index.mapping.processor.impl.IndexDefinitionDetector;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.MapUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -58,6 +57,7 @@ public class IndexConfigurationManager {
         classNames.stream()
                 .map(indexDefinitionProcessor::createIndexConfiguration)
                 .forEach(registry::registerIndexConfiguration);
+        registry.compileChangeRoutings();
         this.registry = registry;
     }
 
@@ -164,24 +164,17 @@ public class IndexConfigurationManager {
      */
     public Map<MetaClass, Set<MetaPropertyPath>> getDependenciesMetaDataForUpdate(Class<?> entityClass, Set<String> changedProperties) {
         log.debug("Get dependencies metadata for class {} with changed properties: {}", entityClass, changedProperties);
-        Map<String, Set<MetaPropertyPath>> backRefProperties = registry.getBackRefPropertiesForUpdate(entityClass);
-        if (MapUtils.isEmpty(backRefProperties)) {
-            return Collections.emptyMap();
-        }
-
-        Map<MetaClass, Set<MetaPropertyPath>> result = new HashMap<>();
+        return registry.getChangeRouting(entityClass).getDependencies(changedProperties);
+    }
 
-        changedProperties.stream()
-                .flatMap(changedProperty -> {
-                    Set<MetaPropertyPath> metaPropertyPaths = backRefProperties.get(changedProperty);
-                    return metaPropertyPaths == null ? Stream.empty() : metaPropertyPaths.stream();
-                })
-                .forEach(property -> {
-                    MetaClass metaClass = property.getMetaClass();
-                    Set<MetaPropertyPath> metaPropertyPaths = result.computeIfAbsent(metaClass, k -> new HashSet<>());
-                    metaPropertyPaths.add(property);
-                });
-        return result;
+    /**
+     * Gets routing table of changes of provided entity compiled on startup.
+     *
+     * @param entityClass entity class
+     * @return {@link EntityChangeRouting}, empty one if entity is not involved in index process
+     */
+    public EntityChangeRouting getChangeRouting(Class<?> entityClass) {
+        return registry.getChangeRouting(entityClass);
     }
 
     /**
@@ -273,6 +266,7 @@ public class IndexConfigurationManager {
         private final Map<Class<?>, Map<String, Set<MetaPropertyPath>>> referentiallyAffectedPropertiesForUpdate = new HashMap<>();
         private final Map<Class<?>, Set<MetaPropertyPath>> referentiallyAffectedPropertiesForDelete = new HashMap<>();
         private final Set<Class<?>> registeredEntityClasses = new HashSet<>();
+        private Map<Class<?>, EntityChangeRouting> changeRoutings = Collections.emptyMap();
 
         public Registry(InstanceNameProvider instanceNameProvider, MetadataTools metadataTools) {
             this.instanceNameProvider = instanceNameProvider;
@@ -295,6 +289,14 @@ public class IndexConfigurationManager {
                     .getDisplayedNameDescriptor()
                     .getInstanceNameRelatedProperties()
                     .forEach(this::processProperty);
+
+            // Security fields contain local values only, so their changes affect documents of entity itself
+            mappingConfiguration
+                    .getSecurityFields()
+                    .values()
+                    .forEach(field -> referentiallyAffectedPropertiesForUpdate
+                            .computeIfAbsent(indexConfiguration.getEntityClass(), k -> new HashMap<>())
+                            .computeIfAbsent(field.getEntityPropertyFullName(), k -> new HashSet<>()));
         }
 
         @Nullable
@@ -321,6 +323,47 @@ public class IndexConfigurationManager {
             return referentiallyAffectedPropertiesForDelete.get(entityClass);
         }
 
+        EntityChangeRouting getChangeRouting(Class<?> entityClass) {
+            return changeRoutings.getOrDefault(entityClass, EntityChangeRouting.EMPTY);
+        }
+
+        /**
+         * Compiles immutable change routing tables for all entity classes involved in index process.
+         * Should be invoked after registration of all index configurations.
+         */
+        void compileChangeRoutings() {
+            Set<Class<?>> entityClasses = new HashSet<>(referentiallyAffectedPropertiesForUpdate.keySet());
+            indexConfigurationsByEntityName.values().forEach(config -> entityClasses.add(config.getEntityClass()));
+
+            Map<Class<?>, EntityChangeRouting> result = new HashMap<>();
+            for (Class<?> entityClass : entityClasses) {
+                Map<String, Set<MetaPropertyPath>> backRefProperties = referentiallyAffectedPropertiesForUpdate.getOrDefault(
+                        entityClass, Collections.emptyMap()
+                );
+
+                Set<String> selfReindexAttributes = new HashSet<>(backRefProperties.keySet());
+                if (metadataTools.isSoftDeletable(entityClass)) {
+                    String deletedDateProperty = metadataTools.findDeletedDateProperty(entityClass);
+                    if (deletedDateProperty != null) {
+                        selfReindexAttributes.add(deletedDateProperty);
+                    }
+                }
+
+                Map<String, Map<MetaClass, Set<MetaPropertyPath>>> dependenciesByAttribute = new HashMap<>();
+                backRefProperties.forEach((attribute, propertyPaths) -> propertyPaths.forEach(propertyPath ->
+                        dependenciesByAttribute.computeIfAbsent(attribute, k -> new HashMap<>())
+                                .computeIfAbsent(propertyPath.getMetaClass(), k -> new HashSet<>())
+                                .add(propertyPath)
+                ));
+
+                EntityChangeRouting routing = new EntityChangeRouting(selfReindexAttributes, dependenciesByAttribute);
+                log.debug("Change routing for {}: self reindex attributes = {}, dependencies = {}",
+                        entityClass, selfReindexAttributes, dependenciesByAttribute);
+                result.put(entityClass, routing);
+            }
+            changeRoutings = Collections.unmodifiableMap(result);
+        }
+
         Set<String> getLocalPropertyNamesAffectedByUpdate(Class<?> entityClass) {
             Map<String, Set<MetaPropertyPath>> updateMetadata = referentiallyAffectedPropertiesForUpdate.get(entityClass);
             return updateMetadata == null ? Collections.emptySet() : updateMetadata.keySet();
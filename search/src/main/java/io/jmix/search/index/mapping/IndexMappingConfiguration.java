@@ -20,6 +20,8 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.jmix.core.metamodel.model.MetaClass;
 import io.jmix.search.index.mapping.impl.IndexMappingConfigurationSerializer;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -34,10 +36,31 @@ public class IndexMappingConfiguration {
 
     protected final DisplayedNameDescriptor displayedNameDescriptor;
 
+    protected final Map<String, MappingFieldDescriptor> securityFields;
+
+    protected final FieldConfiguration catchAllFieldConfiguration;
+
     public IndexMappingConfiguration(MetaClass entityMetaClass, Map<String, MappingFieldDescriptor> fields, DisplayedNameDescriptor displayedNameDescriptor) {
+        this(entityMetaClass, fields, displayedNameDescriptor, Collections.emptyMap());
+    }
+
+    public IndexMappingConfiguration(MetaClass entityMetaClass,
+                                     Map<String, MappingFieldDescriptor> fields,
+                                     DisplayedNameDescriptor displayedNameDescriptor,
+                                     Map<String, MappingFieldDescriptor> securityFields) {
+        this(entityMetaClass, fields, displayedNameDescriptor, securityFields, null);
+    }
+
+    public IndexMappingConfiguration(MetaClass entityMetaClass,
+                                     Map<String, MappingFieldDescriptor> fields,
+                                     DisplayedNameDescriptor displayedNameDescriptor,
+                                     Map<String, MappingFieldDescriptor> securityFields,
+                                     @Nullable FieldConfiguration catchAllFieldConfiguration) {
         this.entityMetaClass = entityMetaClass;
         this.fields = fields;
         this.displayedNameDescriptor = displayedNameDescriptor;
+        this.securityFields = securityFields;
+        this.catchAllFieldConfiguration = catchAllFieldConfiguration;
     }
 
     public Map<String, MappingFieldDescriptor> getFields() {
@@ -51,4 +74,24 @@ public class IndexMappingConfiguration {
     public DisplayedNameDescriptor getDisplayedNameDescriptor() {
         return displayedNameDescriptor;
     }
+
+    /**
+     * Gets fields with raw values of properties row-level policies depend on.
+     * They are used to filter out inaccessible documents within search request and don't take part in full-text search.
+     *
+     * @return security fields by index field name
+     */
+    public Map<String, MappingFieldDescriptor> getSecurityFields() {
+        return securityFields;
+    }
+
+    /**
+     * Gets configuration of field values of all text fields are copied into.
+     *
+     * @return field configuration or null if catch-all field isn't used
+     */
+    @Nullable
+    public FieldConfiguration getCatchAllFieldConfiguration() {
+        return catchAllFieldConfiguration;
+    }
 }
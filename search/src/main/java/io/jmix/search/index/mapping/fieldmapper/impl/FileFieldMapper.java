@@ -31,7 +31,7 @@ import java.util.Set;
 public class FileFieldMapper extends AbstractFieldMapper {
 
     protected static final Set<String> supportedParameters = Collections.unmodifiableSet(
-            Sets.newHashSet(ParameterKeys.ANALYZER)
+            Sets.newHashSet(ParameterKeys.ANALYZER, ParameterKeys.TERM_VECTOR)
     );
 
     @Override
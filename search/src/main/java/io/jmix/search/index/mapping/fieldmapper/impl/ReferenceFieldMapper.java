@@ -20,8 +20,10 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.Sets;
+import io.jmix.search.SearchProperties;
 import io.jmix.search.index.mapping.ParameterKeys;
 import io.jmix.search.utils.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
@@ -35,6 +37,9 @@ public class ReferenceFieldMapper extends AbstractFieldMapper {
             Sets.newHashSet(ParameterKeys.ANALYZER)
     );
 
+    @Autowired
+    protected SearchProperties searchProperties;
+
     @Override
     public Set<String> getSupportedMappingParameters() {
         return supportedParameters;
@@ -47,7 +52,11 @@ public class ReferenceFieldMapper extends AbstractFieldMapper {
 
         ObjectNode root = JsonNodeFactory.instance.objectNode();
         JsonNode config = objectMapper.valueToTree(effectiveParameters);
-        root.putObject("properties").set(Constants.INSTANCE_NAME_FIELD, config);
+        ObjectNode properties = root.putObject("properties");
+        properties.set(Constants.INSTANCE_NAME_FIELD, config);
+        if (searchProperties.isReferenceIdIndexingEnabled()) {
+            properties.putObject(Constants.INSTANCE_ID_FIELD).put("type", "keyword");
+        }
         return root;
     }
 }
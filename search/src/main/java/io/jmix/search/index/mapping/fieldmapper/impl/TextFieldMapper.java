@@ -30,7 +30,7 @@ import java.util.Set;
 public class TextFieldMapper extends SimpleFieldMapper {
 
     protected static final Set<String> supportedParameters = Collections.unmodifiableSet(
-            Sets.newHashSet(ParameterKeys.ANALYZER)
+            Sets.newHashSet(ParameterKeys.ANALYZER, ParameterKeys.TERM_VECTOR)
     );
 
     @Override
@@ -25,6 +25,7 @@ import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import io.jmix.search.index.mapping.DisplayedNameDescriptor;
 import io.jmix.search.index.mapping.IndexMappingConfiguration;
 import io.jmix.search.index.mapping.MappingFieldDescriptor;
+import io.jmix.search.utils.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +63,14 @@ public class IndexMappingConfigurationSerializer extends StdSerializer<IndexMapp
         DisplayedNameDescriptor displayedNameDescriptor = configuration.getDisplayedNameDescriptor();
         rootProperties.set(displayedNameDescriptor.getIndexPropertyFullName(), displayedNameDescriptor.getFieldConfiguration().asJson());
 
+        for (MappingFieldDescriptor field : configuration.getSecurityFields().values()) {
+            mergeField(rootProperties, field.getIndexPropertyFullName(), field.getFieldConfiguration().asJson());
+        }
+
+        if (configuration.getCatchAllFieldConfiguration() != null) {
+            rootProperties.set(Constants.CATCH_ALL_FIELD, configuration.getCatchAllFieldConfiguration().asJson());
+        }
+
         return root;
     }
 
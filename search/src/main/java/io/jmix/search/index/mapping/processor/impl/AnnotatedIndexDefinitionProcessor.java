@@ -17,6 +17,7 @@
 package io.jmix.search.index.mapping.processor.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.jmix.core.InstanceNameProvider;
 import io.jmix.core.Metadata;
@@ -28,10 +29,12 @@ import io.jmix.core.metamodel.model.MetaClass;
 import io.jmix.core.metamodel.model.MetaProperty;
 import io.jmix.core.metamodel.model.MetaPropertyPath;
 import io.jmix.search.SearchProperties;
+import io.jmix.search.index.HighlightConfiguration;
 import io.jmix.search.index.IndexConfiguration;
 import io.jmix.search.index.IndexSettingsConfigurationContext;
 import io.jmix.search.index.IndexSettingsConfigurer;
 import io.jmix.search.index.annotation.FieldMappingAnnotation;
+import io.jmix.search.index.annotation.HighlightSettings;
 import io.jmix.search.index.annotation.JmixEntitySearchIndex;
 import io.jmix.search.index.annotation.ManualMappingDefinition;
 import io.jmix.search.index.mapping.*;
@@ -44,9 +47,14 @@ import io.jmix.search.index.mapping.processor.MappingFieldAnnotationProcessorsRe
 import io.jmix.search.index.mapping.propertyvalue.PropertyValueExtractor;
 import io.jmix.search.index.mapping.propertyvalue.PropertyValueExtractorProvider;
 import io.jmix.search.index.mapping.propertyvalue.impl.DisplayedNameValueExtractor;
+import io.jmix.search.index.mapping.propertyvalue.impl.SecurityPropertyValueExtractor;
 import io.jmix.search.index.mapping.strategy.FieldMappingStrategy;
 import io.jmix.search.index.mapping.strategy.FieldMappingStrategyProvider;
+import io.jmix.search.searching.RowLevelPolicyTranslator;
+import io.jmix.search.utils.Constants;
 import io.jmix.search.utils.PropertyTools;
+import io.jmix.security.model.RowLevelPolicy;
+import io.jmix.security.role.RowLevelRoleRepository;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.elasticsearch.common.settings.Settings;
@@ -90,6 +98,8 @@ public class AnnotatedIndexDefinitionProcessor {
     protected final List<IndexSettingsConfigurer> indexSettingsConfigurers;
     protected final MethodArgumentsProvider methodArgumentsProvider;
     protected final IndexAnalysisElementsRegistry indexAnalysisElementsRegistry;
+    protected final RowLevelRoleRepository rowLevelRoleRepository;
+    protected final List<RowLevelPolicyTranslator> rowLevelPolicyTranslators;
 
     @Autowired
     public AnnotatedIndexDefinitionProcessor(Metadata metadata,
@@ -102,7 +112,9 @@ public class AnnotatedIndexDefinitionProcessor {
                                              SearchProperties searchProperties,
                                              List<IndexSettingsConfigurer> indexSettingsConfigurers,
                                              ContextArgumentResolverComposite resolvers,
-                                             IndexAnalysisElementsRegistry indexAnalysisElementsRegistry) {
+                                             IndexAnalysisElementsRegistry indexAnalysisElementsRegistry,
+                                             RowLevelRoleRepository rowLevelRoleRepository,
+                                             List<RowLevelPolicyTranslator> rowLevelPolicyTranslators) {
         this.metadata = metadata;
         this.metadataTools = metadataTools;
         this.mappingFieldAnnotationProcessorsRegistry = mappingFieldAnnotationProcessorsRegistry;
@@ -114,6 +126,8 @@ public class AnnotatedIndexDefinitionProcessor {
         this.indexSettingsConfigurers = indexSettingsConfigurers;
         this.methodArgumentsProvider = new MethodArgumentsProvider(resolvers);
         this.indexAnalysisElementsRegistry = indexAnalysisElementsRegistry;
+        this.rowLevelRoleRepository = rowLevelRoleRepository;
+        this.rowLevelPolicyTranslators = rowLevelPolicyTranslators;
     }
 
     /**
@@ -147,7 +161,8 @@ public class AnnotatedIndexDefinitionProcessor {
                 indexMappingConfiguration,
                 settings,
                 affectedEntityClasses,
-                indexablePredicate
+                indexablePredicate,
+                indexDef.getHighlightConfiguration()
         );
     }
 
@@ -172,6 +187,11 @@ public class AnnotatedIndexDefinitionProcessor {
         result.setMetaClass(metaClass);
         result.setIndexName(indexAnnotation.indexName());
 
+        HighlightSettings highlightSettings = indexDefinitionClass.getAnnotation(HighlightSettings.class);
+        result.setHighlightConfiguration(highlightSettings == null
+                ? HighlightConfiguration.DEFAULT
+                : HighlightConfiguration.create(highlightSettings));
+
         Method[] methods = indexDefinitionClass.getDeclaredMethods();
         for (Method method : methods) {
             if (isIndexablePredicateMethod(method)) {
@@ -228,14 +248,116 @@ public class AnnotatedIndexDefinitionProcessor {
             }
         }
         Map<String, MappingFieldDescriptor> fieldDescriptors = processMappingDefinition(
-                parsedIndexDefinition.getMetaClass(), mappingDefinition
+                parsedIndexDefinition.getMetaClass(), mappingDefinition, createIndexLevelParameters(parsedIndexDefinition)
+        );
+        Map<String, MappingFieldDescriptor> securityFieldDescriptors = createSecurityFieldDescriptors(
+                parsedIndexDefinition.getMetaClass()
         );
+        FieldConfiguration catchAllFieldConfiguration = null;
+        if (searchProperties.isCatchAllFieldEnabled()) {
+            fieldDescriptors.values().forEach(this::copyTextValuesToCatchAllField);
+            ObjectNode displayedNameConfig = displayedNameDescriptor.getFieldConfiguration().asJson();
+            if (addCopyToCatchAllField(displayedNameConfig)) {
+                displayedNameDescriptor.setFieldConfiguration(FieldConfiguration.create(displayedNameConfig));
+            }
+            catchAllFieldConfiguration = createCatchAllFieldConfiguration();
+        }
         indexMappingConfiguration = new IndexMappingConfiguration(
-                parsedIndexDefinition.getMetaClass(), fieldDescriptors, displayedNameDescriptor
+                parsedIndexDefinition.getMetaClass(), fieldDescriptors, displayedNameDescriptor, securityFieldDescriptors,
+                catchAllFieldConfiguration
         );
         return indexMappingConfiguration;
     }
 
+    protected void copyTextValuesToCatchAllField(MappingFieldDescriptor fieldDescriptor) {
+        ObjectNode config = fieldDescriptor.getFieldConfiguration().asJson();
+        if (addCopyToCatchAllField(config)) {
+            fieldDescriptor.setFieldConfiguration(FieldConfiguration.create(config));
+        }
+    }
+
+    /**
+     * Adds 'copy_to' parameter pointing to catch-all field to all text fields of provided configuration
+     * including nested ones.
+     *
+     * @return true if configuration has been changed
+     */
+    protected boolean addCopyToCatchAllField(ObjectNode config) {
+        boolean changed = false;
+        JsonNode type = config.get("type");
+        if (type != null && "text".equals(type.asText()) && !config.has("copy_to")) {
+            config.put("copy_to", Constants.CATCH_ALL_FIELD);
+            changed = true;
+        }
+        JsonNode properties = config.get("properties");
+        if (properties != null && properties.isObject()) {
+            Iterator<JsonNode> nestedConfigs = properties.elements();
+            while (nestedConfigs.hasNext()) {
+                JsonNode nestedConfig = nestedConfigs.next();
+                if (nestedConfig.isObject()) {
+                    changed |= addCopyToCatchAllField((ObjectNode) nestedConfig);
+                }
+            }
+        }
+        return changed;
+    }
+
+    protected FieldConfiguration createCatchAllFieldConfiguration() {
+        ObjectNode config = JsonNodeFactory.instance.objectNode();
+        config.put("type", "text");
+        config.put("analyzer", searchProperties.getCatchAllFieldAnalyzer());
+        return FieldConfiguration.create(config);
+    }
+
+    /**
+     * Creates descriptors of fields with values of properties translatable row-level policies of entity depend on.
+     * Policies of all row-level roles are taken into account.
+     */
+    protected Map<String, MappingFieldDescriptor> createSecurityFieldDescriptors(MetaClass metaClass) {
+        if (!searchProperties.isRowLevelPoliciesTranslationEnabled()) {
+            return Collections.emptyMap();
+        }
+
+        List<RowLevelPolicy> policies;
+        try {
+            policies = rowLevelRoleRepository.getAllRoles().stream()
+                    .flatMap(role -> role.getRowLevelPolicies().stream())
+                    .filter(policy -> metaClass.getName().equals(policy.getEntityName()))
+                    .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            log.warn("Unable to load row-level roles. Row-level policies of entity '{}' won't be translated", metaClass.getName(), e);
+            return Collections.emptyMap();
+        }
+
+        Set<String> properties = new TreeSet<>();
+        for (RowLevelPolicy policy : policies) {
+            rowLevelPolicyTranslators.stream()
+                    .map(translator -> translator.getRequiredProperties(metaClass, policy))
+                    .filter(Optional::isPresent)
+                    .findFirst()
+                    .ifPresent(requiredProperties -> properties.addAll(requiredProperties.get()));
+        }
+
+        PropertyValueExtractor valueExtractor = propertyValueExtractorProvider.getPropertyValueExtractor(SecurityPropertyValueExtractor.class);
+        Map<String, MappingFieldDescriptor> result = new HashMap<>();
+        for (String property : properties) {
+            ObjectNode config = JsonNodeFactory.instance.objectNode();
+            config.put("type", "keyword");
+
+            MappingFieldDescriptor fieldDescriptor = new MappingFieldDescriptor();
+            fieldDescriptor.setEntityPropertyFullName(property);
+            fieldDescriptor.setIndexPropertyFullName(Constants.SECURITY_FIELDS_ROOT + "." + property);
+            fieldDescriptor.setMetaPropertyPath(metaClass.getPropertyPath(property));
+            fieldDescriptor.setFieldConfiguration(FieldConfiguration.create(config));
+            fieldDescriptor.setPropertyValueExtractor(valueExtractor);
+            fieldDescriptor.setInstanceNameRelatedProperties(Collections.emptyList());
+            fieldDescriptor.setStandalone(false);
+            result.put(fieldDescriptor.getIndexPropertyFullName(), fieldDescriptor);
+        }
+        log.debug("Security fields of entity '{}': {}", metaClass.getName(), result.keySet());
+        return result;
+    }
+
     protected boolean isIndexablePredicateMethod(Method method) {
         return method.isDefault()
                 && method.isAnnotationPresent(io.jmix.search.index.annotation.IndexablePredicate.class);
@@ -390,9 +512,26 @@ public class AnnotatedIndexDefinitionProcessor {
         settingsBuilder.put(commonSettings).put(entitySettings);
     }
 
+    /**
+     * Creates mapping parameters applied to all fields of index. Parameters of mapping definition elements take precedence.
+     */
+    protected Map<String, Object> createIndexLevelParameters(ParsedIndexDefinition parsedIndexDefinition) {
+        Map<String, Object> parameters = new HashMap<>();
+        if (parsedIndexDefinition.getHighlightConfiguration().isFastVectorHighlighter()) {
+            parameters.put(ParameterKeys.TERM_VECTOR, "with_positions_offsets");
+        }
+        return parameters;
+    }
+
     protected Map<String, MappingFieldDescriptor> processMappingDefinition(MetaClass metaClass, MappingDefinition mappingDefinition) {
+        return processMappingDefinition(metaClass, mappingDefinition, Collections.emptyMap());
+    }
+
+    protected Map<String, MappingFieldDescriptor> processMappingDefinition(MetaClass metaClass,
+                                                                           MappingDefinition mappingDefinition,
+                                                                           Map<String, Object> indexLevelParameters) {
         return mappingDefinition.getElements().stream()
-                .map(item -> processMappingDefinitionElement(metaClass, item))
+                .map(item -> processMappingDefinitionElement(metaClass, item, indexLevelParameters))
                 .flatMap(Collection::stream)
                 .collect(Collectors.toMap(MappingFieldDescriptor::getIndexPropertyFullName, Function.identity(), (v1, v2) -> {
                     int order1 = v1.getOrder();
@@ -405,12 +544,18 @@ public class AnnotatedIndexDefinitionProcessor {
     }
 
     protected List<MappingFieldDescriptor> processMappingDefinitionElement(MetaClass metaClass, MappingDefinitionElement element) {
+        return processMappingDefinitionElement(metaClass, element, Collections.emptyMap());
+    }
+
+    protected List<MappingFieldDescriptor> processMappingDefinitionElement(MetaClass metaClass,
+                                                                           MappingDefinitionElement element,
+                                                                           Map<String, Object> indexLevelParameters) {
         Map<String, MetaPropertyPath> effectiveProperties = resolveEffectiveProperties(
                 metaClass, element.getIncludedProperties(), element.getExcludedProperties()
         );
 
         return effectiveProperties.values().stream()
-                .map(propertyPath -> createMappingFieldDescriptor(propertyPath, element))
+                .map(propertyPath -> createMappingFieldDescriptor(propertyPath, element, indexLevelParameters))
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .collect(Collectors.toList());
@@ -460,6 +605,14 @@ public class AnnotatedIndexDefinitionProcessor {
     }
 
     protected Optional<MappingFieldDescriptor> createMappingFieldDescriptor(MetaPropertyPath propertyPath, MappingDefinitionElement element) {
+        return createMappingFieldDescriptor(propertyPath, element, Collections.emptyMap());
+    }
+
+    protected Optional<MappingFieldDescriptor> createMappingFieldDescriptor(MetaPropertyPath propertyPath,
+                                                                            MappingDefinitionElement element,
+                                                                            Map<String, Object> indexLevelParameters) {
+        Map<String, Object> parameters = new HashMap<>(indexLevelParameters);
+        parameters.putAll(element.getParameters());
         Optional<FieldMappingStrategy> fieldMappingStrategyOpt = resolveFieldMappingStrategy(element);
         FieldConfiguration explicitFieldConfiguration = element.getFieldConfiguration();
         PropertyValueExtractor explicitPropertyValueExtractor = element.getPropertyValueExtractor();
@@ -474,7 +627,7 @@ public class AnnotatedIndexDefinitionProcessor {
         if (fieldMappingStrategyOpt.isPresent()) {
             FieldMappingStrategy fieldMappingStrategy = fieldMappingStrategyOpt.get();
             if (fieldMappingStrategy.isSupported(propertyPath)) {
-                strategyFieldConfiguration = fieldMappingStrategy.createFieldConfiguration(propertyPath, element.getParameters());
+                strategyFieldConfiguration = fieldMappingStrategy.createFieldConfiguration(propertyPath, parameters);
                 strategyPropertyValueExtractor = fieldMappingStrategy.getPropertyValueExtractor(propertyPath);
             } else {
                 log.debug("Property '{}' ('{}') is not supported by field mapping strategy '{}'", propertyPath, propertyPath.getMetaClass(), fieldMappingStrategy);
@@ -513,7 +666,7 @@ public class AnnotatedIndexDefinitionProcessor {
         fieldDescriptor.setOrder(effectiveOrder);
         fieldDescriptor.setPropertyValueExtractor(effectivePropertyValueExtractor);
         fieldDescriptor.setInstanceNameRelatedProperties(instanceNameRelatedProperties);
-        fieldDescriptor.setParameters(element.getParameters());
+        fieldDescriptor.setParameters(parameters);
         fieldDescriptor.setStandalone(false);
 
         return Optional.of(fieldDescriptor);
@@ -602,6 +755,7 @@ public class AnnotatedIndexDefinitionProcessor {
         private final List<Annotation> fieldAnnotations = new ArrayList<>();
         private final List<Method> indexablePredicateMethods = new ArrayList<>();
         private Method mappingDefinitionImplementationMethod = null;
+        private HighlightConfiguration highlightConfiguration = HighlightConfiguration.DEFAULT;
 
         private ParsedIndexDefinition(Class<?> indexDefinitionClass) {
             this.indexDefinitionClass = indexDefinitionClass;
@@ -659,6 +813,14 @@ public class AnnotatedIndexDefinitionProcessor {
         private void setMappingDefinitionImplementationMethod(@Nullable Method mappingDefinitionImplementationMethod) {
             this.mappingDefinitionImplementationMethod = mappingDefinitionImplementationMethod;
         }
+
+        private HighlightConfiguration getHighlightConfiguration() {
+            return highlightConfiguration;
+        }
+
+        private void setHighlightConfiguration(HighlightConfiguration highlightConfiguration) {
+            this.highlightConfiguration = highlightConfiguration;
+        }
     }
 
     private static class FieldAnalysisDetailsAggregator {
@@ -20,8 +20,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.jmix.core.Id;
+import io.jmix.core.IdSerialization;
+import io.jmix.core.Metadata;
 import io.jmix.core.MetadataTools;
+import io.jmix.core.metamodel.model.MetaClass;
 import io.jmix.core.metamodel.model.MetaPropertyPath;
+import io.jmix.search.SearchProperties;
 import io.jmix.search.utils.Constants;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -31,11 +36,38 @@ import java.util.Map;
 @Component("search_ReferencePropertyValueExtractor")
 public class ReferencePropertyValueExtractor extends AbstractPropertyValueExtractor {
 
+    protected final Metadata metadata;
     protected final MetadataTools metadataTools;
+    protected final IdSerialization idSerialization;
+    protected final SearchProperties searchProperties;
 
     @Autowired
-    public ReferencePropertyValueExtractor(MetadataTools metadataTools) {
+    public ReferencePropertyValueExtractor(Metadata metadata,
+                                           MetadataTools metadataTools,
+                                           IdSerialization idSerialization,
+                                           SearchProperties searchProperties) {
+        this.metadata = metadata;
         this.metadataTools = metadataTools;
+        this.idSerialization = idSerialization;
+        this.searchProperties = searchProperties;
+    }
+
+    /**
+     * Serializes id of referenced instance the same way as it's stored in '_instance_id' field of reference.
+     * Id is bound to the root entity of inheritance hierarchy, so it doesn't depend on actual class of instance
+     * and declared type of reference.
+     *
+     * @param referenceId id of referenced instance
+     * @return serialized id
+     */
+    public String serializeReferenceId(Id<?> referenceId) {
+        MetaClass rootMetaClass = metadata.getClass(referenceId.getEntityClass());
+        for (MetaClass ancestor : rootMetaClass.getAncestors()) {
+            if (metadataTools.isJpaEntity(ancestor)) {
+                rootMetaClass = ancestor;
+            }
+        }
+        return idSerialization.idToString(Id.of(referenceId.getValue(), rootMetaClass.getJavaClass()));
     }
 
     @Override
@@ -48,17 +80,28 @@ public class ReferencePropertyValueExtractor extends AbstractPropertyValueExtrac
         String instanceName = metadataTools.getInstanceName(value);
         ObjectNode result = JsonNodeFactory.instance.objectNode();
         result.put(Constants.INSTANCE_NAME_FIELD, instanceName);
+        if (searchProperties.isReferenceIdIndexingEnabled()) {
+            result.put(Constants.INSTANCE_ID_FIELD, serializeReferenceId(Id.of(value)));
+        }
         return result;
     }
 
     @Override
     protected JsonNode transformMultipleValues(Iterable<?> values, Map<String, Object> parameters) {
+        boolean referenceIdIndexingEnabled = searchProperties.isReferenceIdIndexingEnabled();
         ArrayNode arrayNode = JsonNodeFactory.instance.arrayNode();
+        ArrayNode idsArrayNode = referenceIdIndexingEnabled ? JsonNodeFactory.instance.arrayNode() : null;
         for (Object value : values) {
             arrayNode.add(metadataTools.getInstanceName(value));
+            if (idsArrayNode != null) {
+                idsArrayNode.add(serializeReferenceId(Id.of(value)));
+            }
         }
         ObjectNode result = JsonNodeFactory.instance.objectNode();
         result.set(Constants.INSTANCE_NAME_FIELD, arrayNode);
+        if (idsArrayNode != null) {
+            result.set(Constants.INSTANCE_ID_FIELD, idsArrayNode);
+        }
         return result;
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.mapping.propertyvalue.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.jmix.core.Entity;
+import io.jmix.core.entity.EntityValues;
+import io.jmix.core.metamodel.datatype.impl.EnumClass;
+import io.jmix.core.metamodel.model.MetaPropertyPath;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Extracts raw values of properties row-level policies depend on. Values are stored as keywords,
+ * references and enums are represented by their ids.
+ */
+@Component("search_SecurityPropertyValueExtractor")
+public class SecurityPropertyValueExtractor extends AbstractPropertyValueExtractor {
+
+    @Override
+    protected boolean isSupported(Object entity, MetaPropertyPath propertyPath, Map<String, Object> parameters) {
+        return true;
+    }
+
+    @Override
+    protected JsonNode transformSingleValue(Object value, Map<String, Object> parameters) {
+        return TextNode.valueOf(toIndexValue(value));
+    }
+
+    @Override
+    protected JsonNode transformMultipleValues(Iterable<?> values, Map<String, Object> parameters) {
+        ArrayNode result = JsonNodeFactory.instance.arrayNode();
+        for (Object value : values) {
+            result.add(toIndexValue(value));
+        }
+        return result;
+    }
+
+    /**
+     * Converts property value to the form it's stored in index.
+     *
+     * @param value property value
+     * @return index value
+     */
+    public String toIndexValue(Object value) {
+        if (value instanceof Entity) {
+            return String.valueOf(EntityValues.getId(value));
+        } else if (value instanceof EnumClass) {
+            return String.valueOf(((EnumClass<?>) value).getId());
+        }
+        return value.toString();
+    }
+}
@@ -140,4 +140,15 @@ public interface IndexingQueueManager {
      * @return amount of processed queue items
      */
     int processEntireQueue();
+
+    /**
+     * Retrieves items from indexing queue batch by batch and processes them - store/remove related documents in index.
+     * <p>
+     * Processing stops when queue is exhausted, when 'jmix.search.maxProcessedQueueItemsPerExecution' items are dequeued
+     * or when 'jmix.search.maxQueueProcessingTimePerExecution' time budget is spent - no new batches are claimed
+     * after that.
+     *
+     * @return {@link QueueProcessingResult} with details of execution
+     */
+    QueueProcessingResult processQueue();
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.queue;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Defines how groups of dequeued items are processed during indexing queue processing.
+ */
+public enum IndexingWorkersMode {
+
+    /**
+     * Processes all groups one by one in the thread of queue processing.
+     */
+    SEQUENTIAL("sequential"),
+    /**
+     * Processes groups concurrently using fixed pool of platform threads.
+     */
+    PLATFORM_THREADS("platform-threads"),
+    /**
+     * Processes every group in its own virtual thread. Requires JDK with virtual threads support,
+     * falls back to {@link #PLATFORM_THREADS} otherwise.
+     */
+    VIRTUAL_THREADS("virtual-threads");
+
+    private final String key;
+
+    private static final Map<String, IndexingWorkersMode> ENUM_MAP;
+
+    static {
+        Map<String, IndexingWorkersMode> map = new HashMap<>();
+        for (IndexingWorkersMode mode : IndexingWorkersMode.values()) {
+            map.put(mode.key, mode);
+        }
+        ENUM_MAP = Collections.unmodifiableMap(map);
+    }
+
+    IndexingWorkersMode(String key) {
+        this.key = key;
+    }
+
+    public static IndexingWorkersMode getByKey(String key) {
+        IndexingWorkersMode mode = getByKeyOrNull(key);
+        if (mode == null) {
+            throw new RuntimeException("Indexing Workers Mode '" + key + "' not found");
+        }
+        return mode;
+    }
+
+    @Nullable
+    public static IndexingWorkersMode getByKeyOrNull(String key) {
+        return ENUM_MAP.get(key.toLowerCase());
+    }
+}
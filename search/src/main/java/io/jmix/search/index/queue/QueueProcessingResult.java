@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.queue;
+
+/**
+ * Contains details of single indexing queue processing execution.
+ */
+public class QueueProcessingResult {
+
+    /**
+     * Describes why processing execution has been finished.
+     */
+    public enum StopReason {
+        /**
+         * There are no more queue items available for processing.
+         */
+        QUEUE_EXHAUSTED,
+        /**
+         * Max amount of queue items per execution has been reached.
+         */
+        ITEMS_LIMIT_REACHED,
+        /**
+         * Time budget of execution has been spent.
+         */
+        TIME_BUDGET_EXCEEDED,
+        /**
+         * Queue is being processed by another execution at the moment.
+         */
+        LOCKED
+    }
+
+    protected final int processed;
+    protected final long remaining;
+    protected final long elapsedMillis;
+    protected final StopReason stopReason;
+
+    public QueueProcessingResult(int processed, long remaining, long elapsedMillis, StopReason stopReason) {
+        this.processed = processed;
+        this.remaining = remaining;
+        this.elapsedMillis = elapsedMillis;
+        this.stopReason = stopReason;
+    }
+
+    public static QueueProcessingResult locked() {
+        return new QueueProcessingResult(0, -1, 0, StopReason.LOCKED);
+    }
+
+    /**
+     * Gets amount of successfully processed queue items.
+     *
+     * @return amount of processed items
+     */
+    public int getProcessed() {
+        return processed;
+    }
+
+    /**
+     * Gets amount of items left in queue after execution. Includes failed items and items of unavailable indexes.
+     * It's calculated only if execution has been stopped by limit, see {@link StopReason}.
+     *
+     * @return amount of remaining items or -1 if it's unknown
+     */
+    public long getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Gets wall-clock duration of execution.
+     *
+     * @return duration in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets reason of execution finish.
+     *
+     * @return {@link StopReason}
+     */
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    @Override
+    public String toString() {
+        return "QueueProcessingResult{" +
+                "processed=" + processed +
+                ", remaining=" + remaining +
+                ", elapsedMillis=" + elapsedMillis +
+                ", stopReason=" + stopReason +
+                '}';
+    }
+}
@@ -31,7 +31,8 @@ import java.util.UUID;
 
 @JmixEntity
 @Table(name = "SEARCH_INDEXING_QUEUE", indexes = {
-        @Index(name = "IDX_SEARCH_IDXNG_QUEUE_E_NAME", columnList = "ENTITY_NAME")
+        @Index(name = "IDX_SEARCH_IDXNG_QUEUE_E_NAME", columnList = "ENTITY_NAME"),
+        @Index(name = "IDX_SEARCH_IDXNG_QUEUE_CRTD_ID", columnList = "CREATED_DATE, ID")
 })
 @Entity(name = "search_IndexingQueue")
 public class IndexingQueueItem {
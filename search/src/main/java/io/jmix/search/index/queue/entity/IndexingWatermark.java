@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.queue.entity;
+
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.metamodel.annotation.DependsOnProperties;
+import io.jmix.core.metamodel.annotation.InstanceName;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.UUID;
+
+@JmixEntity
+@Table(name = "SEARCH_INDEXING_WATERMARK", uniqueConstraints = {
+        @UniqueConstraint(name = "IDX_SEARCH_IDXNG_WMARK_E_NAME", columnNames = "ENTITY_NAME")
+})
+@Entity(name = "search_IndexingWatermark")
+public class IndexingWatermark {
+
+    @JmixGeneratedValue
+    @Id
+    @Column(name = "ID", nullable = false)
+    private UUID id;
+
+    @NotNull
+    @Column(name = "ENTITY_NAME", nullable = false)
+    private String entityName;
+
+    @Column(name = "WATERMARK_DATE")
+    private Date watermarkDate;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public Date getWatermarkDate() {
+        return watermarkDate;
+    }
+
+    public void setWatermarkDate(Date watermarkDate) {
+        this.watermarkDate = watermarkDate;
+    }
+
+    @InstanceName
+    @DependsOnProperties({"entityName", "watermarkDate"})
+    public String getInstanceName() {
+        return String.format("Watermark[%s : %s]", entityName, watermarkDate);
+    }
+}
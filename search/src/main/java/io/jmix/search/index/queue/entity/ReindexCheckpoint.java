@@ -0,0 +1,178 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.queue.entity;
+
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.metamodel.annotation.DependsOnProperties;
+import io.jmix.core.metamodel.annotation.InstanceName;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.UUID;
+
+@JmixEntity
+@Table(name = "SEARCH_REINDEX_CHECKPOINT", uniqueConstraints = {
+        @UniqueConstraint(name = "IDX_SEARCH_RDX_CHKPNT_E_NAME", columnNames = "ENTITY_NAME")
+})
+@Entity(name = "search_ReindexCheckpoint")
+public class ReindexCheckpoint {
+
+    @JmixGeneratedValue
+    @Id
+    @Column(name = "ID", nullable = false)
+    private UUID id;
+
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Integer version;
+
+    @NotNull
+    @Column(name = "ENTITY_NAME", nullable = false)
+    private String entityName;
+
+    @Column(name = "TARGET_INDEX")
+    private String targetIndex;
+
+    @Column(name = "INDEX_UUID")
+    private String indexUuid;
+
+    @NotNull
+    @Column(name = "STATUS", nullable = false)
+    private String status;
+
+    @Column(name = "LAST_ENTITY_ID", length = 1000)
+    private String lastEntityId;
+
+    @Column(name = "PROCESSED")
+    private Long processed;
+
+    @Column(name = "FAILED")
+    private Long failed;
+
+    @Column(name = "TOTAL")
+    private Long total;
+
+    @Column(name = "STARTED_DATE")
+    private Date startedDate;
+
+    @Column(name = "UPDATED_DATE")
+    private Date updatedDate;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public String getTargetIndex() {
+        return targetIndex;
+    }
+
+    public void setTargetIndex(String targetIndex) {
+        this.targetIndex = targetIndex;
+    }
+
+    public String getIndexUuid() {
+        return indexUuid;
+    }
+
+    public void setIndexUuid(String indexUuid) {
+        this.indexUuid = indexUuid;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastEntityId() {
+        return lastEntityId;
+    }
+
+    public void setLastEntityId(String lastEntityId) {
+        this.lastEntityId = lastEntityId;
+    }
+
+    public Long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(Long processed) {
+        this.processed = processed;
+    }
+
+    public Long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Long failed) {
+        this.failed = failed;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public Date getStartedDate() {
+        return startedDate;
+    }
+
+    public void setStartedDate(Date startedDate) {
+        this.startedDate = startedDate;
+    }
+
+    public Date getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(Date updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+
+    @InstanceName
+    @DependsOnProperties({"entityName", "status", "lastEntityId"})
+    public String getInstanceName() {
+        return String.format("Reindex Checkpoint[%s : %s : %s]", entityName, status, lastEntityId);
+    }
+}
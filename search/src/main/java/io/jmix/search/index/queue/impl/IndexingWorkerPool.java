@@ -0,0 +1,181 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.index.queue.impl;
+
+import io.jmix.core.common.util.Preconditions;
+import io.jmix.search.index.queue.IndexingWorkersMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes indexing tasks according to {@link IndexingWorkersMode}.
+ * <p>
+ * Amount of concurrently running tasks is bounded by semaphore rather than by size of thread pool.
+ * Virtual threads are created via reflection because module is compiled against JDK 11.
+ * If current runtime doesn't support them pool falls back to platform threads.
+ */
+public class IndexingWorkerPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexingWorkerPool.class);
+
+    protected final IndexingWorkersMode mode;
+    protected final Semaphore permits;
+    @Nullable
+    protected final ExecutorService executorService;
+
+    public IndexingWorkerPool(IndexingWorkersMode mode, int maxConcurrentTasks) {
+        Preconditions.checkNotNullArgument(mode);
+        if (maxConcurrentTasks <= 0) {
+            throw new IllegalArgumentException("Max amount of concurrent indexing tasks must be positive");
+        }
+
+        this.permits = new Semaphore(maxConcurrentTasks);
+        switch (mode) {
+            case SEQUENTIAL:
+                this.mode = mode;
+                this.executorService = null;
+                break;
+            case VIRTUAL_THREADS:
+                ExecutorService virtualThreadsExecutor = createVirtualThreadPerTaskExecutor();
+                if (virtualThreadsExecutor == null) {
+                    log.warn("Virtual threads are not supported by current runtime. Platform threads will be used instead");
+                    this.mode = IndexingWorkersMode.PLATFORM_THREADS;
+                    this.executorService = createPlatformThreadsExecutor(maxConcurrentTasks);
+                } else {
+                    this.mode = mode;
+                    this.executorService = virtualThreadsExecutor;
+                }
+                break;
+            case PLATFORM_THREADS:
+                this.mode = mode;
+                this.executorService = createPlatformThreadsExecutor(maxConcurrentTasks);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported indexing workers mode: " + mode);
+        }
+    }
+
+    /**
+     * Gets actually used mode - it may differ from requested one if virtual threads are not supported.
+     *
+     * @return {@link IndexingWorkersMode}
+     */
+    public IndexingWorkersMode getMode() {
+        return mode;
+    }
+
+    public boolean isConcurrent() {
+        return executorService != null;
+    }
+
+    /**
+     * Executes all provided tasks and waits for their completion.
+     *
+     * @param tasks tasks to execute
+     * @param <T>   type of task result
+     * @return results of tasks in the same order as tasks
+     */
+    public <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (!isConcurrent() || tasks.size() < 2) {
+            for (Callable<T> task : tasks) {
+                results.add(callUnchecked(task));
+            }
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                permits.acquire();
+                try {
+                    futures.add(executorService.submit(() -> {
+                        try {
+                            return task.call();
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Indexing tasks execution has been interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Indexing task execution failed", cause);
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+    }
+
+    protected <T> T callUnchecked(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Indexing task execution failed", e);
+        }
+    }
+
+    protected ExecutorService createPlatformThreadsExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "search-indexing-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Nullable
+    protected ExecutorService createVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            log.debug("Unable to create virtual thread per task executor", e);
+            return null;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import io.jmix.search.index.impl.IndexStateRegistry;
 import io.jmix.search.index.impl.IndexingLocker;
 import io.jmix.search.index.mapping.IndexConfigurationManager;
 import io.jmix.search.index.queue.IndexingQueueManager;
+import io.jmix.search.index.queue.QueueProcessingResult;
 import io.jmix.search.index.queue.entity.IndexingQueueItem;
 import org.apache.commons.collections4.MapUtils;
 import org.slf4j.Logger;
@@ -38,9 +39,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -74,6 +80,22 @@ public class JpaIndexingQueueManager implements IndexingQueueManager {
     @Autowired
     protected IndexStateRegistry indexStateRegistry;
 
+    protected IndexingWorkerPool indexingWorkerPool;
+
+    @PostConstruct
+    protected void postConstruct() {
+        indexingWorkerPool = new IndexingWorkerPool(
+                searchProperties.getIndexingWorkersMode(),
+                searchProperties.getMaxConcurrentIndexingTasks()
+        );
+        log.debug("Indexing workers mode: {}", indexingWorkerPool.getMode());
+    }
+
+    @PreDestroy
+    protected void preDestroy() {
+        indexingWorkerPool.close();
+    }
+
     @Override
     public int emptyQueue() {
         TransactionTemplate transactionTemplate = storeAwareLocator.getTransactionTemplate(Stores.MAIN);
@@ -184,6 +206,15 @@ public class JpaIndexingQueueManager implements IndexingQueueManager {
         return processQueue(searchProperties.getProcessQueueBatchSize(), -1);
     }
 
+    @Override
+    public QueueProcessingResult processQueue() {
+        return processQueue(
+                searchProperties.getProcessQueueBatchSize(),
+                searchProperties.getMaxProcessedQueueItemsPerExecution(),
+                searchProperties.getMaxQueueProcessingTimePerExecution()
+        );
+    }
+
     protected int enqueueIndexAll(String entityName, int batchSize) {
         if (batchSize <= 0) {
             throw new IllegalArgumentException("Size of enqueuing batch during reindex entity must be positive");
@@ -265,84 +296,227 @@ public class JpaIndexingQueueManager implements IndexingQueueManager {
     }
 
     protected int processQueue(int batchSize, int maxProcessedPerExecution) {
+        return processQueue(batchSize, maxProcessedPerExecution, Duration.ZERO, false).getProcessed();
+    }
+
+    protected QueueProcessingResult processQueue(int batchSize, int maxProcessedPerExecution, Duration timeBudget) {
+        return processQueue(batchSize, maxProcessedPerExecution, timeBudget, true);
+    }
+
+    /**
+     * Processes queue batch by batch until queue is exhausted or one of limits is reached.
+     * Limits are checked before claiming every next batch.
+     *
+     * @param batchSize                 amount of items dequeued in single batch
+     * @param maxProcessedPerExecution  max amount of dequeued items, non-positive value means no limit
+     * @param timeBudget                max wall-clock time of execution, zero or negative duration means no limit
+     * @param countRemaining            whether amount of remaining items should be calculated if execution
+     *                                  is stopped by limit. It requires counting of all queue items
+     * @return {@link QueueProcessingResult}
+     */
+    protected QueueProcessingResult processQueue(int batchSize,
+                                                 int maxProcessedPerExecution,
+                                                 Duration timeBudget,
+                                                 boolean countRemaining) {
         if (batchSize <= 0) {
             throw new IllegalArgumentException("Size of queue processing batch must be positive");
         }
 
-        int count = 0;
         boolean locked = locker.tryLockQueueProcessing();
         if (!locked) {
             log.debug("Unable to process queue: queue is being processed at the moment");
-            return count;
+            return QueueProcessingResult.locked();
         }
 
         log.debug("Start processing queue");
+        long startTime = System.currentTimeMillis();
+        long deadline = timeBudget.isZero() || timeBudget.isNegative() ? -1 : startTime + timeBudget.toMillis();
+        int count = 0;
+        int dequeued = 0;
+        long remaining;
+        QueueProcessingResult.StopReason stopReason;
         try {
             authenticator.begin();
 
-            List<IndexingQueueItem> queueItems;
-            do {
+            IndexingQueueItem lastDequeuedItem = null;
+            while (true) {
+                if (maxProcessedPerExecution > 0 && dequeued >= maxProcessedPerExecution) {
+                    stopReason = QueueProcessingResult.StopReason.ITEMS_LIMIT_REACHED;
+                    break;
+                }
+                if (deadline > 0 && System.currentTimeMillis() >= deadline) {
+                    stopReason = QueueProcessingResult.StopReason.TIME_BUDGET_EXCEEDED;
+                    break;
+                }
+
+                int currentBatchSize = maxProcessedPerExecution > 0
+                        ? Math.min(batchSize, maxProcessedPerExecution - dequeued)
+                        : batchSize;
                 List<String> unavailableEntities = indexStateRegistry.getAllUnavailableIndexedEntities();
-                LoadContext<IndexingQueueItem> loadContext = createDequeueLoadContext(unavailableEntities, batchSize);
+                LoadContext<IndexingQueueItem> loadContext = createDequeueLoadContext(unavailableEntities, lastDequeuedItem, currentBatchSize);
                 log.trace("Dequeue items by load context: {}", loadContext);
-                queueItems = dataManager.loadList(loadContext);
+                List<IndexingQueueItem> queueItems = dataManager.loadList(loadContext);
                 log.debug("Dequeued {} items: {}", queueItems.size(), queueItems);
 
                 if (queueItems.isEmpty()) {
+                    stopReason = QueueProcessingResult.StopReason.QUEUE_EXHAUSTED;
                     break;
                 }
+                dequeued += queueItems.size();
+                lastDequeuedItem = resolveDequeueCursor(queueItems, lastDequeuedItem);
                 List<IndexingQueueItem> successfullyProcessedQueueItems = processQueueItems(queueItems);
-
-                SaveContext saveContext = new SaveContext();
-                saveContext.removing(successfullyProcessedQueueItems);
-                dataManager.save(saveContext);
+                removeQueueItems(successfullyProcessedQueueItems);
 
                 count += successfullyProcessedQueueItems.size();
-            } while (queueItems.size() == batchSize && (maxProcessedPerExecution <= 0 || queueItems.size() <= maxProcessedPerExecution));
+                if (queueItems.size() < currentBatchSize) {
+                    stopReason = QueueProcessingResult.StopReason.QUEUE_EXHAUSTED;
+                    break;
+                }
+            }
+            remaining = countRemaining && stopReason != QueueProcessingResult.StopReason.QUEUE_EXHAUSTED
+                    ? countQueueItems()
+                    : -1;
         } finally {
             locker.unlockQueueProcessing();
             authenticator.end();
         }
 
-        log.debug("{} queue items have been successfully processed", count);
-        return count;
+        QueueProcessingResult result = new QueueProcessingResult(count, remaining, System.currentTimeMillis() - startTime, stopReason);
+        log.debug("{} queue items have been successfully processed: {}", count, result);
+        return result;
+    }
+
+    protected long countQueueItems() {
+        LoadContext<IndexingQueueItem> loadContext = new LoadContext<IndexingQueueItem>(metadata.getClass(IndexingQueueItem.class))
+                .setQuery(new LoadContext.Query("select q from search_IndexingQueue q"));
+        return dataManager.getCount(loadContext);
     }
 
     protected LoadContext<IndexingQueueItem> createDequeueLoadContext(List<String> unavailableEntities, int batchSize) {
+        return createDequeueLoadContext(unavailableEntities, null, batchSize);
+    }
+
+    /**
+     * Creates load context for the next batch of queue items.
+     * <p>
+     * Items are claimed in (createdDate, id) order which is covered by 'IDX_SEARCH_IDXNG_QUEUE_CRTD_ID' index.
+     * If the last item of previous batch is provided only items located after it are selected (keyset pagination),
+     * so items failed within current execution are not dequeued again and database doesn't need to skip them.
+     *
+     * @param unavailableEntities entities with unavailable indexes - their items are skipped
+     * @param lastDequeuedItem    last item of previous batch or null for the first batch
+     * @param batchSize           max amount of items to dequeue
+     * @return load context
+     */
+    protected LoadContext<IndexingQueueItem> createDequeueLoadContext(List<String> unavailableEntities,
+                                                                      @Nullable IndexingQueueItem lastDequeuedItem,
+                                                                      int batchSize) {
         LoadContext.Query query = new LoadContext.Query("");
         StringBuilder sb = new StringBuilder("select q from search_IndexingQueue q");
+        List<String> conditions = new ArrayList<>();
         if (!unavailableEntities.isEmpty()) {
-            sb.append(" where q.entityName not in :unavailableEntities");
+            conditions.add("q.entityName not in :unavailableEntities");
             query.setParameter("unavailableEntities", unavailableEntities);
         }
-        sb.append(" order by q.createdDate asc");
+        if (lastDequeuedItem != null) {
+            conditions.add("(q.createdDate > :lastCreatedDate or (q.createdDate = :lastCreatedDate and q.id > :lastId))");
+            query.setParameter("lastCreatedDate", lastDequeuedItem.getCreatedDate());
+            query.setParameter("lastId", lastDequeuedItem.getId());
+        }
+        if (!conditions.isEmpty()) {
+            sb.append(" where ").append(String.join(" and ", conditions));
+        }
+        sb.append(" order by q.createdDate asc, q.id asc");
         query.setQueryString(sb.toString());
         query.setMaxResults(batchSize);
 
         return new LoadContext<IndexingQueueItem>(metadata.getClass(IndexingQueueItem.class)).setQuery(query);
     }
 
+    /**
+     * Resolves item that should be used as keyset cursor for the next dequeue.
+     * Items without creation date can't be used as cursor - the previous one is kept in such case.
+     */
+    @Nullable
+    protected IndexingQueueItem resolveDequeueCursor(List<IndexingQueueItem> dequeuedItems,
+                                                     @Nullable IndexingQueueItem previousCursor) {
+        IndexingQueueItem lastItem = dequeuedItems.get(dequeuedItems.size() - 1);
+        return lastItem.getCreatedDate() == null ? previousCursor : lastItem;
+    }
+
+    /**
+     * Removes provided queue items by single bulk statement.
+     *
+     * @param queueItems items to remove
+     * @return amount of deleted items
+     */
+    protected int removeQueueItems(Collection<IndexingQueueItem> queueItems) {
+        if (queueItems.isEmpty()) {
+            return 0;
+        }
+        List<UUID> ids = queueItems.stream()
+                .map(IndexingQueueItem::getId)
+                .collect(Collectors.toList());
+
+        TransactionTemplate transactionTemplate = storeAwareLocator.getTransactionTemplate(Stores.MAIN);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Integer result = transactionTemplate.execute(status -> {
+            EntityManager entityManager = storeAwareLocator.getEntityManager(Stores.MAIN);
+            Query query = entityManager.createQuery("delete from search_IndexingQueue q where q.id in :ids");
+            query.setParameter("ids", ids);
+            int deleted = query.executeUpdate();
+            log.debug("{} processed items have been deleted from queue", deleted);
+            return deleted;
+        });
+        return result == null ? 0 : result;
+    }
+
     protected List<IndexingQueueItem> processQueueItems(List<IndexingQueueItem> queueItems) {
         QueueItemsAggregator queueItemsAggregator = new QueueItemsAggregator(queueItems);
 
         Map<Id<?>, List<IndexingQueueItem>> itemsForIndex = queueItemsAggregator.getIndexItemsGroup();
         Map<Id<?>, List<IndexingQueueItem>> itemsForDelete = queueItemsAggregator.getDeleteItemsGroup();
 
-        List<IndexingQueueItem> successfullyProcessedQueueItems = new ArrayList<>(queueItems.size());
+        List<Callable<List<IndexingQueueItem>>> tasks = new ArrayList<>();
         if (MapUtils.isNotEmpty(itemsForIndex)) {
-            successfullyProcessedQueueItems.addAll(
-                    processQueueItemsGroup(itemsForIndex, entityIndexer::indexCollectionByEntityIds)
+            splitItemsGroup(itemsForIndex).forEach(group ->
+                    tasks.add(createProcessingTask(group, entityIndexer::indexCollectionByEntityIds))
             );
         }
         if (MapUtils.isNotEmpty(itemsForDelete)) {
-            successfullyProcessedQueueItems.addAll(
-                    processQueueItemsGroup(itemsForDelete, entityIndexer::deleteCollectionByEntityIds)
+            splitItemsGroup(itemsForDelete).forEach(group ->
+                    tasks.add(createProcessingTask(group, entityIndexer::deleteCollectionByEntityIds))
             );
         }
 
+        List<IndexingQueueItem> successfullyProcessedQueueItems = new ArrayList<>(queueItems.size());
+        indexingWorkerPool.invokeAll(tasks).forEach(successfullyProcessedQueueItems::addAll);
         return successfullyProcessedQueueItems;
     }
 
+    protected Callable<List<IndexingQueueItem>> createProcessingTask(Map<Id<?>, List<IndexingQueueItem>> itemsGroup,
+                                                                     Function<Collection<Id<?>>, IndexResult> processingFunction) {
+        if (indexingWorkerPool.isConcurrent()) {
+            // Worker threads don't inherit security context of queue processing thread
+            return () -> authenticator.withSystem(() -> processQueueItemsGroup(itemsGroup, processingFunction));
+        }
+        return () -> processQueueItemsGroup(itemsGroup, processingFunction);
+    }
+
+    /**
+     * Splits group of items by entity if items are processed concurrently - every entity group becomes separate task.
+     */
+    protected Collection<Map<Id<?>, List<IndexingQueueItem>>> splitItemsGroup(Map<Id<?>, List<IndexingQueueItem>> itemsGroup) {
+        if (!indexingWorkerPool.isConcurrent()) {
+            return Collections.singletonList(itemsGroup);
+        }
+        Map<Class<?>, Map<Id<?>, List<IndexingQueueItem>>> groupsByEntity = new LinkedHashMap<>();
+        itemsGroup.forEach((id, items) ->
+                groupsByEntity.computeIfAbsent(id.getEntityClass(), k -> new LinkedHashMap<>()).put(id, items)
+        );
+        return groupsByEntity.values();
+    }
+
     protected List<IndexingQueueItem> processQueueItemsGroup(Map<Id<?>, List<IndexingQueueItem>> itemsGroup,
                                                              Function<Collection<Id<?>>, IndexResult> processingFunction) {
         Set<Id<?>> entityIds = itemsGroup.keySet();
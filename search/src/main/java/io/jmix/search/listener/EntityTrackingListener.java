@@ -16,13 +16,14 @@
 
 package io.jmix.search.listener;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.Iterables;
 import io.jmix.core.*;
 import io.jmix.core.datastore.AbstractDataStore;
 import io.jmix.core.datastore.DataStoreBeforeEntitySaveEvent;
 import io.jmix.core.datastore.DataStoreCustomizer;
 import io.jmix.core.datastore.DataStoreEventListener;
+import io.jmix.core.entity.KeyValueEntity;
 import io.jmix.core.event.AttributeChanges;
 import io.jmix.core.event.EntityChangedEvent;
 import io.jmix.core.metamodel.model.MetaClass;
@@ -31,20 +32,26 @@ import io.jmix.core.metamodel.model.MetaPropertyPath;
 import io.jmix.data.PersistenceHints;
 import io.jmix.data.StoreAwareLocator;
 import io.jmix.search.SearchProperties;
+import io.jmix.search.index.EntityIndexer;
+import io.jmix.search.index.IndexConfiguration;
+import io.jmix.search.index.impl.WatermarkIndexSynchronizer;
+import io.jmix.search.index.mapping.EntityChangeRouting;
 import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.mapping.IndexMappingConfiguration;
+import io.jmix.search.index.mapping.MappingFieldDescriptor;
 import io.jmix.search.index.queue.IndexingQueueManager;
 import io.jmix.search.index.queue.entity.IndexingQueueItem;
-import org.apache.commons.collections4.CollectionUtils;
+import io.jmix.search.utils.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -67,10 +74,15 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
     protected SearchProperties searchProperties;
     @Autowired
     protected MetadataTools metadataTools;
+    @Autowired
+    protected EntityIndexer entityIndexer;
+    @Autowired
+    protected WatermarkIndexSynchronizer watermarkIndexSynchronizer;
 
-    protected Cache<Id<?>, Set<Id<?>>> removalDependencies = CacheBuilder.newBuilder()
-            .expireAfterWrite(1, TimeUnit.MINUTES)
-            .build();
+    /**
+     * Key of transactional resource holding {@link IndexingChangesBuffer}.
+     */
+    protected final Object changesBufferKey = new Object();
 
     protected enum CheckState {
         OLD,
@@ -96,22 +108,27 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
             before-removal database state, but it can lead to deadlock on some databases (like MSSQL, HyperSQL) without
             additional configuration.
 
-            Found dependencies are stored into short-term in-memory cache from which they will be retrieved and enqueued
-            within processing of EntityChangedEvent.
+            Dependencies are loaded for all removed instances of the same entity together.
+            Found dependencies are stored into transaction-scoped buffer from which they will be retrieved and enqueued
+            within processing of EntityChangedEvent. Amount of stored dependencies is limited - dependencies exceeding
+            the limit are enqueued immediately within the same transaction.
          */
         if (isChangeTrackingEnabled()) {
             SaveContext saveContext = event.getSaveContext();
-            Collection<Object> entitiesToRemove = saveContext.getEntitiesToRemove();
-            for (Object entity : entitiesToRemove) {
+            Map<MetaClass, List<Id<?>>> removedEntityIds = new LinkedHashMap<>();
+            for (Object entity : saveContext.getEntitiesToRemove()) {
                 if (isRemovedEntityProcessingRequired(entity)) {
-                    try {
-                        log.trace("Process entity: {}", entity);
-                        processRemovedEntity(entity);
-                    } catch (Exception e) {
-                        log.error("Failed to process entity {}", entity, e);
-                    }
+                    removedEntityIds.computeIfAbsent(metadata.getClass(entity), k -> new ArrayList<>()).add(Id.of(entity));
                 }
             }
+            removedEntityIds.forEach((metaClass, ids) -> {
+                try {
+                    log.trace("Process {} removed instances of entity '{}'", ids.size(), metaClass.getName());
+                    processRemovedEntities(metaClass, ids);
+                } catch (Exception e) {
+                    log.error("Failed to process removed instances of entity '{}': {}", metaClass.getName(), ids, e);
+                }
+            });
         }
     }
 
@@ -121,19 +138,25 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
             try {
                 log.trace("Process event: {}", event);
                 processEntityChangedEvent(event);
+                markChangesBufferCommitting();
             } catch (Exception e) {
                 log.error("Failed to process event {}", event, e);
             }
         }
     }
 
-    protected void processRemovedEntity(Object removedEntity) {
-        Id<?> removedEntityId = Id.of(removedEntity);
-        MetaClass metaClass = metadata.getClass(removedEntity);
+    protected void processRemovedEntities(MetaClass metaClass, List<Id<?>> removedEntityIds) {
+        Set<Id<?>> dependentEntityIds = getEntityIdsDependentOnRemovedEntities(removedEntityIds, metaClass);
+        if (dependentEntityIds.isEmpty()) {
+            return;
+        }
 
-        Set<Id<?>> dependentEntityIds = getEntityIdsDependentOnRemovedEntity(removedEntityId, metaClass);
-        if (!dependentEntityIds.isEmpty()) {
-            removalDependencies.put(removedEntityId, dependentEntityIds);
+        IndexingChangesBuffer buffer = getChangesBuffer();
+        int limit = searchProperties.getMaxRemovalDependenciesPerTransaction();
+        if (buffer == null || !buffer.addRemovalDependencies(removedEntityIds, dependentEntityIds, limit)) {
+            log.debug("Enqueue {} instances dependent on {} removed instances of entity '{}' immediately",
+                    dependentEntityIds.size(), removedEntityIds.size(), metaClass.getName());
+            indexingQueueManager.enqueueIndexCollectionByEntityIds(dependentEntityIds);
         }
     }
 
@@ -148,44 +171,254 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
         if (indexConfigurationManager.isDirectlyIndexed(entityName)) {
             log.debug("{} is directly indexed", entityId);
 
+            // Created and updated instances of watermark-indexed entities are picked up by last modification date
+            boolean watermarkIndexed = watermarkIndexSynchronizer.isWatermarkIndexed(entityName);
             switch (eventType) {
                 case CREATED:
-                    indexingQueueManager.enqueueIndexByEntityId(entityId);
+                    if (!watermarkIndexed) {
+                        enqueueIndex(Collections.singletonList(entityId));
+                    }
                     break;
                 case UPDATED:
-                    if (isUpdateRequired(entityClass, changes)) {
-                        indexingQueueManager.enqueueIndexByEntityId(entityId);
+                    if (!watermarkIndexed && isUpdateRequired(entityClass, changes)) {
+                        enqueueIndex(Collections.singletonList(entityId));
                     }
                     break;
                 case DELETED:
-                    indexingQueueManager.enqueueDeleteByEntityId(entityId);
+                    enqueueDelete(entityId);
                     break;
             }
         }
 
         if (EntityChangedEvent.Type.UPDATED.equals(eventType)) {
-            Set<Id<?>> dependentEntityIds = getEntityIdsDependentOnUpdatedEntity(entityId, metaClass, changes);
-
-            if (!dependentEntityIds.isEmpty()) {
-                indexingQueueManager.enqueueIndexCollectionByEntityIds(dependentEntityIds);
+            EntityChangeRouting changeRouting = indexConfigurationManager.getChangeRouting(entityClass);
+            if (!changeRouting.hasDependencies(changes.getAttributes())) {
+                return;
+            }
+            IndexingChangesBuffer buffer = getChangesBuffer();
+            if (buffer == null) {
+                Set<Id<?>> dependentEntityIds = getEntityIdsDependentOnUpdatedEntity(entityId, metaClass, changes);
+                if (!dependentEntityIds.isEmpty()) {
+                    enqueueIndex(dependentEntityIds);
+                }
+            } else {
+                // Dependent entities are resolved for all updated instances together on buffer flush
+                Map<MetaClass, Set<MetaPropertyPath>> dependenciesMetaData = changeRouting.getDependencies(changes.getAttributes());
+                dependenciesMetaData.forEach((dependentMetaClass, propertyPaths) -> propertyPaths.forEach(propertyPath ->
+                        buffer.addDependency(dependentMetaClass, propertyPath, metaClass, entityId)
+                ));
             }
         } else if (EntityChangedEvent.Type.DELETED.equals(eventType)) {
-            Set<Id<?>> dependentEntityIds = removalDependencies.getIfPresent(entityId);
-            if (CollectionUtils.isNotEmpty(dependentEntityIds)) {
-                indexingQueueManager.enqueueIndexCollectionByEntityIds(dependentEntityIds);
-                removalDependencies.invalidate(entityId);
+            IndexingChangesBuffer buffer = getChangesBuffer();
+            if (buffer != null) {
+                Set<Id<?>> dependentEntityIds = buffer.takeRemovalDependencies(entityId);
+                if (!dependentEntityIds.isEmpty()) {
+                    buffer.addIndex(dependentEntityIds);
+                    buffer.spillOperations(indexingQueueManager, searchProperties.getMaxBufferedIndexingOperationsPerTransaction());
+                }
             }
         }
     }
 
-    protected boolean isUpdateRequired(Class<?> entityClass, AttributeChanges changes) {
-        Set<String> affectedLocalPropertyNames = new HashSet<>(indexConfigurationManager.getLocalPropertyNamesAffectedByUpdate(entityClass));
-        if(metadataTools.isSoftDeletable(entityClass)) {
-            affectedLocalPropertyNames.add(metadataTools.findDeletedDateProperty(entityClass));
+    protected void enqueueIndex(Collection<Id<?>> entityIds) {
+        IndexingChangesBuffer buffer = getChangesBuffer();
+        if (buffer == null) {
+            indexingQueueManager.enqueueIndexCollectionByEntityIds(entityIds);
+        } else {
+            buffer.addIndex(entityIds);
+            buffer.spillOperations(indexingQueueManager, searchProperties.getMaxBufferedIndexingOperationsPerTransaction());
         }
-        return changes.getAttributes()
-                .stream()
-                .anyMatch(affectedLocalPropertyNames::contains);
+    }
+
+    protected void enqueueDelete(Id<?> entityId) {
+        IndexingChangesBuffer buffer = getChangesBuffer();
+        if (buffer == null) {
+            indexingQueueManager.enqueueDeleteByEntityId(entityId);
+        } else {
+            buffer.addDelete(entityId);
+        }
+    }
+
+    /**
+     * Gets buffer of indexing changes bound to current transaction.
+     *
+     * @return buffer or null if changes should be enqueued immediately
+     */
+    @Nullable
+    protected IndexingChangesBuffer getChangesBuffer() {
+        return IndexingChangesBuffer.getForCurrentTransaction(changesBufferKey, this::flushChangesBuffer);
+    }
+
+    /**
+     * Entity changed events are sent when transaction is committing, so buffer should be flushed
+     * even if it's created too late to take part in before-commit phase.
+     */
+    protected void markChangesBufferCommitting() {
+        IndexingChangesBuffer buffer = IndexingChangesBuffer.findForCurrentTransaction(changesBufferKey);
+        if (buffer != null) {
+            buffer.markCommitting();
+        }
+    }
+
+    protected void flushChangesBuffer(IndexingChangesBuffer buffer) {
+        Map<IndexingChangesBuffer.DependencyKey, Set<Id<?>>> dependencies = buffer.drainDependencies();
+        dependencies.forEach((dependencyKey, targetEntityIds) -> {
+            Collection<Id<?>> targetEntityIdsForReindex = targetEntityIds;
+            String referenceFieldName = resolveInstanceNamePropagationField(dependencyKey);
+            if (referenceFieldName != null) {
+                targetEntityIdsForReindex = propagateInstanceNames(buffer, dependencyKey, referenceFieldName, targetEntityIds);
+            }
+            if (!targetEntityIdsForReindex.isEmpty()) {
+                List<Id<?>> dependentEntityIds = loadDependentEntityIds(
+                        dependencyKey.getDependentMetaClass(),
+                        dependencyKey.getPropertyPath(),
+                        dependencyKey.getTargetMetaClass(),
+                        targetEntityIdsForReindex
+                );
+                buffer.addIndex(dependentEntityIds);
+            }
+        });
+        buffer.flush(indexingQueueManager);
+    }
+
+    /**
+     * Resolves index field which instance name can be updated in place within documents of dependent entity.
+     * It's possible if dependency is represented only by to-one reference field with indexed ids
+     * and nothing else in dependent document (including its displayed name) depends on the referenced instance.
+     *
+     * @return full name of index field or null if in-place update is not applicable
+     */
+    @Nullable
+    protected String resolveInstanceNamePropagationField(IndexingChangesBuffer.DependencyKey dependencyKey) {
+        if (searchProperties.getDependentEntitiesFanOutThreshold() <= 0
+                || metadataTools.hasCompositePrimaryKey(dependencyKey.getTargetMetaClass())) {
+            return null;
+        }
+
+        MetaPropertyPath propertyPath = dependencyKey.getPropertyPath();
+        boolean toManyPath = Stream.of(propertyPath.getMetaProperties())
+                .anyMatch(property -> property.getRange().getCardinality().isMany());
+        if (toManyPath) {
+            return null;
+        }
+
+        Optional<IndexConfiguration> indexConfigurationOpt = indexConfigurationManager
+                .getIndexConfigurationByEntityNameOpt(dependencyKey.getDependentMetaClass().getName());
+        if (!indexConfigurationOpt.isPresent()) {
+            return null;
+        }
+        IndexMappingConfiguration mapping = indexConfigurationOpt.get().getMapping();
+
+        String path = propertyPath.toPathString();
+        String nestedPathPrefix = path + ".";
+        boolean displayedNameDependsOnReference = mapping.getDisplayedNameDescriptor().getInstanceNameRelatedProperties().stream()
+                .map(MetaPropertyPath::toPathString)
+                .anyMatch(relatedPath -> relatedPath.equals(path) || relatedPath.startsWith(nestedPathPrefix));
+        if (displayedNameDependsOnReference) {
+            return null;
+        }
+
+        MappingFieldDescriptor referenceField = null;
+        for (MappingFieldDescriptor field : mapping.getFields().values()) {
+            String entityPropertyFullName = field.getEntityPropertyFullName();
+            if (entityPropertyFullName.equals(path)) {
+                referenceField = field;
+            } else if (entityPropertyFullName.startsWith(nestedPathPrefix)) {
+                return null;
+            }
+        }
+        if (referenceField == null) {
+            return null;
+        }
+        JsonNode referenceIdFieldConfig = referenceField.getFieldConfiguration().asJson()
+                .path("properties")
+                .path(Constants.INSTANCE_ID_FIELD);
+        return referenceIdFieldConfig.isMissingNode() ? null : referenceField.getIndexPropertyFullName();
+    }
+
+    /**
+     * Updates instance names of target instances within documents of dependent entity in place if their fan-out exceeds
+     * 'jmix.search.dependentEntitiesFanOutThreshold'. Index is updated after transaction commit.
+     *
+     * @return ids of target instances which dependent instances should be reindexed in regular way
+     */
+    protected Collection<Id<?>> propagateInstanceNames(IndexingChangesBuffer buffer,
+                                                       IndexingChangesBuffer.DependencyKey dependencyKey,
+                                                       String referenceFieldName,
+                                                       Collection<Id<?>> targetEntityIds) {
+        int threshold = searchProperties.getDependentEntitiesFanOutThreshold();
+        String dependentEntityName = dependencyKey.getDependentMetaClass().getName();
+        MetaClass targetMetaClass = dependencyKey.getTargetMetaClass();
+
+        List<Id<?>> result = new ArrayList<>();
+        int batchSize = Math.max(searchProperties.getDependentEntitiesLoadBatchSize(), 1);
+        for (List<Id<?>> targetEntityIdsChunk : Iterables.partition(targetEntityIds, batchSize)) {
+            Map<Object, Long> fanOut = countDependentEntities(dependencyKey, targetEntityIdsChunk);
+            List<Object> propagationCandidates = new ArrayList<>();
+            for (Id<?> targetEntityId : targetEntityIdsChunk) {
+                Long amount = fanOut.get(targetEntityId.getValue());
+                if (amount != null && amount > threshold) {
+                    propagationCandidates.add(targetEntityId.getValue());
+                } else {
+                    result.add(targetEntityId);
+                }
+            }
+            if (propagationCandidates.isEmpty()) {
+                continue;
+            }
+
+            List<?> targetInstances = dataManager.load(targetMetaClass.getJavaClass())
+                    .ids(propagationCandidates)
+                    .fetchPlan(FetchPlan.INSTANCE_NAME)
+                    .hint(PersistenceHints.SOFT_DELETION, false)
+                    .joinTransaction(true)
+                    .list();
+            for (Object targetInstance : targetInstances) {
+                Id<?> targetEntityId = Id.of(targetInstance);
+                String instanceName = metadataTools.getInstanceName(targetInstance);
+                log.debug("Instance name of {} will be updated within '{}' documents in place: fan-out {} exceeds threshold {}",
+                        targetEntityId, dependentEntityName, fanOut.get(targetEntityId.getValue()), threshold);
+                buffer.addAfterCommitAction(() ->
+                        entityIndexer.updateReferenceInstanceName(dependentEntityName, referenceFieldName, targetEntityId, instanceName)
+                );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts dependent entity instances for every target instance. Applicable for to-one dependency paths only.
+     *
+     * @return amount of dependent instances by primary key of target instance
+     */
+    protected Map<Object, Long> countDependentEntities(IndexingChangesBuffer.DependencyKey dependencyKey,
+                                                       Collection<Id<?>> targetEntityIds) {
+        String targetPrimaryKeyName = metadataTools.getPrimaryKeyName(dependencyKey.getTargetMetaClass());
+        String refPath = "e1." + dependencyKey.getPropertyPath().toPathString() + "." + targetPrimaryKeyName;
+        String query = "select " + refPath + ", count(e1) from " + dependencyKey.getDependentMetaClass().getName() + " e1"
+                + " where " + refPath + " in :refs group by " + refPath;
+        List<Object> refs = targetEntityIds.stream().map(Id::getValue).collect(Collectors.toList());
+
+        ValueLoadContext loadContext = ValueLoadContext.create()
+                .setStoreName(dependencyKey.getDependentMetaClass().getStore().getName())
+                .setQuery(ValueLoadContext.createQuery(query).setParameter("refs", refs))
+                .setProperties(Arrays.asList("ref", "amount"))
+                .setJoinTransaction(true);
+        loadContext.setHint(PersistenceHints.SOFT_DELETION, false);
+
+        Map<Object, Long> result = new HashMap<>();
+        for (KeyValueEntity keyValue : dataManager.loadValues(loadContext)) {
+            Object ref = keyValue.getValue("ref");
+            Number amount = keyValue.getValue("amount");
+            if (ref != null && amount != null) {
+                result.put(ref, amount.longValue());
+            }
+        }
+        return result;
+    }
+
+    protected boolean isUpdateRequired(Class<?> entityClass, AttributeChanges changes) {
+        return indexConfigurationManager.getChangeRouting(entityClass).isSelfReindexRequired(changes.getAttributes());
     }
 
     protected boolean isChangeTrackingEnabled() {
@@ -217,55 +450,89 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
         return loadDependentEntityIds(updatedEntityId, metaClass, dependenciesMetaData);
     }
 
-    protected Set<Id<?>> getEntityIdsDependentOnRemovedEntity(Id<?> removedEntityId, MetaClass metaClass) {
-        Class<?> entityClass = removedEntityId.getEntityClass();
+    protected Set<Id<?>> getEntityIdsDependentOnRemovedEntities(Collection<Id<?>> removedEntityIds, MetaClass metaClass) {
         Map<MetaClass, Set<MetaPropertyPath>> dependenciesMetaData;
-        dependenciesMetaData = indexConfigurationManager.getDependenciesMetaDataForDelete(entityClass);
-        return loadDependentEntityIds(removedEntityId, metaClass, dependenciesMetaData);
+        dependenciesMetaData = indexConfigurationManager.getDependenciesMetaDataForDelete(metaClass.getJavaClass());
+        return loadDependentEntityIds(removedEntityIds, metaClass, dependenciesMetaData);
     }
 
     protected Set<Id<?>> loadDependentEntityIds(Id<?> targetEntityId,
                                                 MetaClass targetMetaClass,
                                                 Map<MetaClass, Set<MetaPropertyPath>> dependencyMetaData) {
-        log.debug("Load dependent entity pks for entity {}: {}", targetEntityId, dependencyMetaData);
+        return loadDependentEntityIds(Collections.singleton(targetEntityId), targetMetaClass, dependencyMetaData);
+    }
+
+    /**
+     * Loads ids of entity instances dependent on any of provided target instances.
+     * Single query per dependency property path is performed for every chunk of target ids.
+     */
+    protected Set<Id<?>> loadDependentEntityIds(Collection<Id<?>> targetEntityIds,
+                                                MetaClass targetMetaClass,
+                                                Map<MetaClass, Set<MetaPropertyPath>> dependencyMetaData) {
+        log.debug("Load dependent entity pks for {} instances of entity '{}': {}",
+                targetEntityIds.size(), targetMetaClass.getName(), dependencyMetaData);
 
         Set<Id<?>> result = new HashSet<>();
         for (Map.Entry<MetaClass, Set<MetaPropertyPath>> entry : dependencyMetaData.entrySet()) {
-            Set<MetaPropertyPath> properties = entry.getValue();
-            if (properties.isEmpty()) {
-                continue;
-            }
-
             MetaClass metaClass = entry.getKey();
-            String entityName = metaClass.getName();
-            for (MetaPropertyPath propertyPath : properties) {
-                log.debug("Load entities '{}' dependent via property '{}'", entityName, propertyPath);
-
-                DependentEntitiesQuery dependentEntitiesQuery = new DependentEntitiesQueryBuilder()
-                        .loadEntity(entityName)
-                        .byProperty(propertyPath)
-                        .dependedOn(targetMetaClass, targetEntityId)
-                        .buildQuery();
-                log.debug("{}", dependentEntitiesQuery);
-
-                List<Id<?>> refObjectIds = performLoadingDependentEntityIds(metaClass, dependentEntitiesQuery);
-                log.debug("Loaded primary keys of dependent references ({}): {}", refObjectIds.size(), refObjectIds);
-                result.addAll(refObjectIds);
+            for (MetaPropertyPath propertyPath : entry.getValue()) {
+                result.addAll(loadDependentEntityIds(metaClass, propertyPath, targetMetaClass, targetEntityIds));
             }
         }
 
         return result;
     }
 
+    /**
+     * Loads ids of entity instances dependent on any of provided target instances via specified property path.
+     * Target ids are split into chunks of 'jmix.search.dependentEntitiesLoadBatchSize' to respect
+     * limits of query parameters.
+     */
+    protected List<Id<?>> loadDependentEntityIds(MetaClass metaClass,
+                                                 MetaPropertyPath propertyPath,
+                                                 MetaClass targetMetaClass,
+                                                 Collection<Id<?>> targetEntityIds) {
+        String entityName = metaClass.getName();
+        log.debug("Load entities '{}' dependent via property '{}' on {} instances of '{}'",
+                entityName, propertyPath, targetEntityIds.size(), targetMetaClass.getName());
+
+        List<Id<?>> result = new ArrayList<>();
+        int batchSize = Math.max(searchProperties.getDependentEntitiesLoadBatchSize(), 1);
+        for (List<Id<?>> targetEntityIdsChunk : Iterables.partition(targetEntityIds, batchSize)) {
+            DependentEntitiesQuery dependentEntitiesQuery = new DependentEntitiesQueryBuilder()
+                    .loadEntity(entityName)
+                    .byProperty(propertyPath)
+                    .dependedOn(targetMetaClass, targetEntityIdsChunk)
+                    .buildQuery();
+            log.debug("{}", dependentEntitiesQuery);
+
+            List<Id<?>> refObjectIds = performLoadingDependentEntityIds(metaClass, dependentEntitiesQuery);
+            log.debug("Loaded primary keys of dependent references ({}): {}", refObjectIds.size(), refObjectIds);
+            result.addAll(refObjectIds);
+        }
+        return result;
+    }
+
+    /**
+     * Loads only primary keys of dependent entities without loading the whole instances.
+     * Composite keys are loaded as embedded id values.
+     */
     protected List<Id<?>> performLoadingDependentEntityIds(MetaClass metaClass, DependentEntitiesQuery dependentEntitiesQuery) {
-        return dataManager.load(metaClass.getJavaClass())
-                .query(dependentEntitiesQuery.getQuery())
-                .parameters(dependentEntitiesQuery.getParameters())
-                .hint(PersistenceHints.SOFT_DELETION, false)
-                .joinTransaction(true)
-                .list()
+        String primaryKeyName = dependentEntitiesQuery.getPrimaryKeyName();
+        ValueLoadContext loadContext = ValueLoadContext.create()
+                .setStoreName(metaClass.getStore().getName())
+                .setQuery(ValueLoadContext.createQuery(dependentEntitiesQuery.getQuery())
+                        .setParameters(dependentEntitiesQuery.getParameters()))
+                .setProperties(Collections.singletonList(primaryKeyName))
+                .setJoinTransaction(true);
+        loadContext.setHint(PersistenceHints.SOFT_DELETION, false);
+
+        Class<?> entityClass = metaClass.getJavaClass();
+        return dataManager.loadValues(loadContext)
                 .stream()
-                .map(Id::of)
+                .map(keyValue -> keyValue.getValue(primaryKeyName))
+                .filter(Objects::nonNull)
+                .map(primaryKey -> Id.of(primaryKey, entityClass))
                 .collect(Collectors.toList());
     }
 
@@ -274,7 +541,7 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
         private String entityName;
         private MetaPropertyPath propertyPath;
         private MetaClass targetMetaClass;
-        private Id<?> targetEntityId;
+        private Collection<Id<?>> targetEntityIds;
 
         private int currentEntityIndex;
         private String currentEntityAlias;
@@ -284,6 +551,7 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
         private MetaProperty currentLevelProperty;
         private int currentLevelPropertyIndex;
         private String targetPrimaryKeyName;
+        private String primaryKeyName;
 
         private Map<String, Object> parameters;
 
@@ -297,16 +565,16 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
             return this;
         }
 
-        protected DependentEntitiesQueryBuilder dependedOn(MetaClass metaClass, Id<?> entityId) {
+        protected DependentEntitiesQueryBuilder dependedOn(MetaClass metaClass, Collection<Id<?>> entityIds) {
             this.targetMetaClass = metaClass;
-            this.targetEntityId = entityId;
+            this.targetEntityIds = entityIds;
             return this;
         }
 
         protected DependentEntitiesQuery buildQuery() {
             initQuery();
             processProperties();
-            return new DependentEntitiesQuery(querySb.toString(), parameters);
+            return new DependentEntitiesQuery(querySb.toString(), parameters, primaryKeyName);
         }
 
         private void initQuery() {
@@ -314,8 +582,11 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
             currentEntityIndex = 1;
             currentEntityAlias = "e1";
             initPropertyPathStringBuilderForCurrentEntity();
+            primaryKeyName = metadataTools.getPrimaryKeyName(metadata.getClass(entityName));
             querySb = new StringBuilder("select ")
                     .append(currentEntityAlias)
+                    .append('.')
+                    .append(primaryKeyName)
                     .append(" from ")
                     .append(entityName)
                     .append(' ')
@@ -370,18 +641,21 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
         }
 
         private void appendWhereBlock() {
-            querySb.append(" where ").append(currentPropertyPathSb).append('.').append(targetPrimaryKeyName).append(" = :ref");
-            parameters.put("ref", targetEntityId.getValue());
+            querySb.append(" where ").append(currentPropertyPathSb).append('.').append(targetPrimaryKeyName).append(" in :refs");
+            List<Object> refs = targetEntityIds.stream().map(Id::getValue).collect(Collectors.toList());
+            parameters.put("refs", refs);
         }
     }
 
     private static class DependentEntitiesQuery {
         private final String query;
         private final Map<String, Object> parameters;
+        private final String primaryKeyName;
 
-        private DependentEntitiesQuery(String query, Map<String, Object> parameters) {
+        private DependentEntitiesQuery(String query, Map<String, Object> parameters, String primaryKeyName) {
             this.query = query;
             this.parameters = parameters;
+            this.primaryKeyName = primaryKeyName;
         }
 
         public String getQuery() {
@@ -392,6 +666,10 @@ public class EntityTrackingListener implements DataStoreEventListener, DataStore
             return parameters;
         }
 
+        public String getPrimaryKeyName() {
+            return primaryKeyName;
+        }
+
         @Override
         public String toString() {
             return "DependentEntitiesQuery{" +
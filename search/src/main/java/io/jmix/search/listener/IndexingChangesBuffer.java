@@ -0,0 +1,402 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.listener;
+
+import io.jmix.core.Id;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.metamodel.model.MetaPropertyPath;
+import io.jmix.search.index.queue.IndexingQueueManager;
+import io.jmix.search.index.queue.impl.IndexingOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Transaction-scoped buffer of indexing operations.
+ * <p>
+ * Collects operations for all entity instances changed within the transaction, collapses duplicates
+ * (the only operation is kept per instance, deletion dominates indexing) and enqueues them in bulk just before
+ * transaction completion.
+ * <p>
+ * Also collects ids of updated entity instances which dependent instances should be reindexed.
+ * These dependencies are resolved once per flush for all updated instances together.
+ * <p>
+ * Dependencies of removed instances are resolved before removal and kept until related deletion is tracked.
+ * Dependencies resolved for several removed instances together are kept as a single group which is taken once
+ * deletion of any of these instances is tracked. Amount of kept dependent ids is bounded - see
+ * {@link #addRemovalDependencies(Collection, Set, int)}.
+ * Amount of buffered operations is bounded too - see {@link #spillOperations(IndexingQueueManager, int)}.
+ * <p>
+ * Synchronization can be registered while transaction is already committing - in that case
+ * {@link TransactionSynchronization#beforeCommit(boolean)} is not invoked for it,
+ * so buffer is flushed within {@link TransactionSynchronization#beforeCompletion()} if it's known that
+ * transaction is committing - see {@link #markCommitting()}. Buffer isn't flushed before rollback.
+ */
+public class IndexingChangesBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexingChangesBuffer.class);
+
+    protected final Map<Id<?>, IndexingOperation> operations = new LinkedHashMap<>();
+    protected final Map<DependencyKey, Set<Id<?>>> dependencies = new LinkedHashMap<>();
+    protected final List<Runnable> afterCommitActions = new ArrayList<>();
+    protected final Map<Id<?>, Set<Id<?>>> removalDependencies = new HashMap<>();
+    protected int removalDependenciesAmount = 0;
+    protected boolean committing = false;
+
+    /**
+     * Gets buffer bound to current transaction. Creates and binds new buffer if there is no one yet.
+     *
+     * @param resourceKey key of transactional resource
+     * @param flushAction action performed with buffer before transaction completion
+     * @return buffer or null if there is no active transaction synchronization
+     */
+    @Nullable
+    public static IndexingChangesBuffer getForCurrentTransaction(Object resourceKey, Consumer<IndexingChangesBuffer> flushAction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        IndexingChangesBuffer buffer = (IndexingChangesBuffer) TransactionSynchronizationManager.getResource(resourceKey);
+        if (buffer == null) {
+            buffer = new IndexingChangesBuffer();
+            TransactionSynchronizationManager.bindResource(resourceKey, buffer);
+            TransactionSynchronizationManager.registerSynchronization(
+                    new BufferSynchronization(resourceKey, buffer, flushAction)
+            );
+        }
+        return buffer;
+    }
+
+    /**
+     * Gets buffer bound to current transaction if it exists.
+     *
+     * @param resourceKey key of transactional resource
+     * @return buffer or null if there is no buffer bound to current transaction
+     */
+    @Nullable
+    public static IndexingChangesBuffer findForCurrentTransaction(Object resourceKey) {
+        return (IndexingChangesBuffer) TransactionSynchronizationManager.getResource(resourceKey);
+    }
+
+    /**
+     * Marks that transaction the buffer is bound to is being committed, e.g. buffer has received changes
+     * sent before commit. Such buffer is flushed before transaction completion.
+     */
+    public void markCommitting() {
+        committing = true;
+    }
+
+    public void addIndex(Id<?> entityId) {
+        operations.putIfAbsent(entityId, IndexingOperation.INDEX);
+    }
+
+    public void addIndex(Collection<Id<?>> entityIds) {
+        entityIds.forEach(this::addIndex);
+    }
+
+    public void addDelete(Id<?> entityId) {
+        operations.put(entityId, IndexingOperation.DELETE);
+    }
+
+    /**
+     * Registers updated entity instance which dependent instances should be resolved and indexed on flush.
+     *
+     * @param dependentMetaClass  meta class of dependent entity
+     * @param propertyPath        path from dependent entity to updated one
+     * @param targetMetaClass     meta class of updated entity
+     * @param targetEntityId      id of updated entity instance
+     */
+    public void addDependency(MetaClass dependentMetaClass,
+                              MetaPropertyPath propertyPath,
+                              MetaClass targetMetaClass,
+                              Id<?> targetEntityId) {
+        DependencyKey key = new DependencyKey(dependentMetaClass, propertyPath, targetMetaClass);
+        dependencies.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(targetEntityId);
+    }
+
+    /**
+     * Gets all registered dependencies and clears them.
+     *
+     * @return ids of updated entity instances grouped by dependency
+     */
+    public Map<DependencyKey, Set<Id<?>>> drainDependencies() {
+        Map<DependencyKey, Set<Id<?>>> result = new LinkedHashMap<>(dependencies);
+        dependencies.clear();
+        return result;
+    }
+
+    /**
+     * Keeps ids of instances dependent on removed instance if total amount of kept ids doesn't exceed the limit.
+     *
+     * @param removedEntityId    id of removed entity instance
+     * @param dependentEntityIds ids of dependent entity instances
+     * @param limit              max total amount of kept dependent ids
+     * @return true if dependencies are kept, false if limit would be exceeded and dependencies should be handled
+     * by caller
+     */
+    public boolean addRemovalDependencies(Id<?> removedEntityId, Set<Id<?>> dependentEntityIds, int limit) {
+        return addRemovalDependencies(Collections.singleton(removedEntityId), dependentEntityIds, limit);
+    }
+
+    /**
+     * Keeps ids of instances dependent on any of removed instances if total amount of kept ids doesn't exceed
+     * the limit.
+     *
+     * @param removedEntityIds   ids of removed entity instances
+     * @param dependentEntityIds ids of instances dependent on any of removed instances
+     * @param limit              max total amount of kept dependent ids
+     * @return true if dependencies are kept, false if limit would be exceeded and dependencies should be handled
+     * by caller
+     */
+    public boolean addRemovalDependencies(Collection<Id<?>> removedEntityIds, Set<Id<?>> dependentEntityIds, int limit) {
+        if (removalDependenciesAmount + dependentEntityIds.size() > limit) {
+            return false;
+        }
+        for (Id<?> removedEntityId : removedEntityIds) {
+            Set<Id<?>> previous = removalDependencies.put(removedEntityId, dependentEntityIds);
+            if (previous != null && previous != dependentEntityIds) {
+                forgetRemovalDependencies(previous);
+            }
+        }
+        removalDependenciesAmount += dependentEntityIds.size();
+        return true;
+    }
+
+    /**
+     * Gets and forgets ids of instances dependent on removed instance.
+     *
+     * @param removedEntityId id of removed entity instance
+     * @return dependent ids or empty set
+     */
+    public Set<Id<?>> takeRemovalDependencies(Id<?> removedEntityId) {
+        Set<Id<?>> dependentEntityIds = removalDependencies.remove(removedEntityId);
+        if (dependentEntityIds == null) {
+            return Collections.emptySet();
+        }
+        forgetRemovalDependencies(dependentEntityIds);
+        return dependentEntityIds;
+    }
+
+    protected void forgetRemovalDependencies(Set<Id<?>> dependentEntityIds) {
+        // The same group may be kept for other removed instances
+        removalDependencies.values().removeIf(ids -> ids == dependentEntityIds);
+        removalDependenciesAmount -= dependentEntityIds.size();
+    }
+
+    /**
+     * Registers action performed after successful commit of transaction.
+     * Used for modifications of index which shouldn't be applied if transaction is rolled back.
+     *
+     * @param action action
+     */
+    public void addAfterCommitAction(Runnable action) {
+        afterCommitActions.add(action);
+    }
+
+    /**
+     * Enqueues buffered operations immediately if their amount exceeds the limit. Enqueued operations are
+     * committed or rolled back together with the transaction, but they aren't collapsed with later ones anymore.
+     *
+     * @param indexingQueueManager manager used to enqueue operations
+     * @param limit                max amount of buffered operations
+     * @return amount of enqueued items
+     */
+    public int spillOperations(IndexingQueueManager indexingQueueManager, int limit) {
+        if (operations.size() <= limit) {
+            return 0;
+        }
+        log.debug("Amount of buffered indexing operations exceeds {}, enqueue them immediately", limit);
+        return enqueueOperations(indexingQueueManager);
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty() && dependencies.isEmpty() && removalDependencies.isEmpty();
+    }
+
+    /**
+     * Enqueues all buffered operations and clears buffer.
+     *
+     * @param indexingQueueManager manager used to enqueue operations
+     * @return amount of enqueued items
+     */
+    public int flush(IndexingQueueManager indexingQueueManager) {
+        if (!removalDependencies.isEmpty()) {
+            // Deletion hasn't been tracked for these instances but they are removed within this transaction
+            Set<Set<Id<?>>> groups = Collections.newSetFromMap(new IdentityHashMap<>());
+            groups.addAll(removalDependencies.values());
+            groups.forEach(this::addIndex);
+            removalDependencies.clear();
+            removalDependenciesAmount = 0;
+        }
+        return enqueueOperations(indexingQueueManager);
+    }
+
+    protected int enqueueOperations(IndexingQueueManager indexingQueueManager) {
+        if (operations.isEmpty()) {
+            return 0;
+        }
+        List<Id<?>> idsForIndex = new ArrayList<>();
+        List<Id<?>> idsForDelete = new ArrayList<>();
+        operations.forEach((id, operation) -> {
+            if (IndexingOperation.DELETE.equals(operation)) {
+                idsForDelete.add(id);
+            } else {
+                idsForIndex.add(id);
+            }
+        });
+        operations.clear();
+
+        log.debug("Flush buffered indexing changes: {} for index, {} for delete", idsForIndex.size(), idsForDelete.size());
+        int enqueued = 0;
+        if (!idsForIndex.isEmpty()) {
+            enqueued += indexingQueueManager.enqueueIndexCollectionByEntityIds(idsForIndex);
+        }
+        if (!idsForDelete.isEmpty()) {
+            enqueued += indexingQueueManager.enqueueDeleteCollectionByEntityIds(idsForDelete);
+        }
+        return enqueued;
+    }
+
+    protected static class BufferSynchronization implements TransactionSynchronization {
+
+        protected final Object resourceKey;
+        protected final IndexingChangesBuffer buffer;
+        protected final Consumer<IndexingChangesBuffer> flushAction;
+
+        protected BufferSynchronization(Object resourceKey,
+                                        IndexingChangesBuffer buffer,
+                                        Consumer<IndexingChangesBuffer> flushAction) {
+            this.resourceKey = resourceKey;
+            this.buffer = buffer;
+            this.flushAction = flushAction;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            buffer.markCommitting();
+            flushBuffer();
+        }
+
+        @Override
+        public void beforeCompletion() {
+            // Also invoked before rollback - there is nothing to enqueue in that case
+            if (buffer.committing) {
+                // Flushes buffer registered too late for before-commit phase or changes made after it
+                flushBuffer();
+            }
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(resourceKey);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(resourceKey, buffer);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(resourceKey);
+            if (status == STATUS_COMMITTED) {
+                for (Runnable action : buffer.afterCommitActions) {
+                    try {
+                        action.run();
+                    } catch (Exception e) {
+                        log.error("Failed to perform after-commit indexing action", e);
+                    }
+                }
+            } else if (!buffer.isEmpty() || !buffer.afterCommitActions.isEmpty()) {
+                log.debug("Transaction has not been committed, buffered indexing changes are discarded");
+            }
+            buffer.operations.clear();
+            buffer.dependencies.clear();
+            buffer.afterCommitActions.clear();
+            buffer.removalDependencies.clear();
+            buffer.removalDependenciesAmount = 0;
+            buffer.committing = false;
+        }
+
+        protected void flushBuffer() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            try {
+                flushAction.accept(buffer);
+            } catch (Exception e) {
+                log.error("Failed to enqueue buffered indexing changes", e);
+            }
+        }
+    }
+
+    /**
+     * Identifies the way dependent entity instances are linked to updated ones.
+     */
+    public static class DependencyKey {
+
+        protected final MetaClass dependentMetaClass;
+        protected final MetaPropertyPath propertyPath;
+        protected final MetaClass targetMetaClass;
+
+        public DependencyKey(MetaClass dependentMetaClass, MetaPropertyPath propertyPath, MetaClass targetMetaClass) {
+            this.dependentMetaClass = dependentMetaClass;
+            this.propertyPath = propertyPath;
+            this.targetMetaClass = targetMetaClass;
+        }
+
+        public MetaClass getDependentMetaClass() {
+            return dependentMetaClass;
+        }
+
+        public MetaPropertyPath getPropertyPath() {
+            return propertyPath;
+        }
+
+        public MetaClass getTargetMetaClass() {
+            return targetMetaClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DependencyKey that = (DependencyKey) o;
+            return dependentMetaClass.equals(that.dependentMetaClass)
+                    && propertyPath.equals(that.propertyPath)
+                    && targetMetaClass.equals(that.targetMetaClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dependentMetaClass, propertyPath, targetMetaClass);
+        }
+
+        @Override
+        public String toString() {
+            return "DependencyKey{" +
+                    "dependentMetaClass=" + dependentMetaClass +
+                    ", propertyPath=" + propertyPath +
+                    ", targetMetaClass=" + targetMetaClass +
+                    '}';
+        }
+    }
+}
@@ -19,7 +19,9 @@ package io.jmix.search.searching;
 import io.jmix.core.FetchPlan;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provides functionality for searching entities in index.
@@ -52,4 +54,74 @@ public interface EntitySearcher {
      * @return {@link SearchResult} with found objects
      */
     SearchResult searchNextPage(SearchResult previousSearchResult);
+
+    /**
+     * Performs several searches according to provided {@link SearchContext}s and default {@link SearchStrategy}.
+     * <p>See {@link EntitySearcher#multiSearch(List, SearchStrategy)}
+     *
+     * @param searchContexts runtime settings of searches
+     * @return {@link SearchResult}s in order of provided contexts
+     */
+    List<SearchResult> multiSearch(List<SearchContext> searchContexts);
+
+    /**
+     * Performs several searches according to provided {@link SearchContext}s and {@link SearchStrategy}
+     * within single multi-search request. Hits of all searches are verified concurrently.
+     * <p>Next pages of results are fetched with offset-based pagination unless contexts contain cursors.
+     * <p>If any of searches fails, exception is thrown once responses of other searches have been processed.
+     *
+     * @param searchContexts runtime settings of searches
+     * @param searchStrategy the way incoming search text should be processed
+     * @return {@link SearchResult}s in order of provided contexts
+     */
+    List<SearchResult> multiSearch(List<SearchContext> searchContexts, SearchStrategy searchStrategy);
+
+    /**
+     * Performs search within each entity of provided {@link SearchContext} separately according to default {@link SearchStrategy}.
+     * <p>See {@link EntitySearcher#searchPerEntity(SearchContext, SearchStrategy)}
+     *
+     * @param searchContext runtime settings of search
+     * @return {@link SearchResult}s by entity names
+     */
+    Map<String, SearchResult> searchPerEntity(SearchContext searchContext);
+
+    /**
+     * Performs search within each entity of provided {@link SearchContext} separately, so instances of one entity
+     * don't push out instances of others. Size of context is used as quota of each entity.
+     * All searches are executed within single multi-search request.
+     *
+     * @param searchContext  runtime settings of search
+     * @param searchStrategy the way incoming search text should be processed
+     * @return {@link SearchResult}s by entity names
+     */
+    Map<String, SearchResult> searchPerEntity(SearchContext searchContext, SearchStrategy searchStrategy);
+
+    /**
+     * Performs asynchronous search according to provided {@link SearchContext} and default {@link SearchStrategy}.
+     * <p>See {@link EntitySearcher#searchAsync(SearchContext, SearchStrategy)}
+     *
+     * @param searchContext runtime settings of specific search
+     * @return future {@link SearchResult} with found objects
+     */
+    CompletableFuture<SearchResult> searchAsync(SearchContext searchContext);
+
+    /**
+     * Performs asynchronous search according to provided {@link SearchContext} and {@link SearchStrategy}.
+     * <p>Search is performed on behalf of the current user. Cancellation of returned future aborts running
+     * Elasticsearch request. If {@link SearchContext#getTimeout()} is set, future is completed exceptionally
+     * with {@link java.util.concurrent.TimeoutException} when timeout elapses.
+     *
+     * @param searchContext  runtime settings of specific search
+     * @param searchStrategy the way incoming search text should be processed
+     * @return future {@link SearchResult} with found objects
+     */
+    CompletableFuture<SearchResult> searchAsync(SearchContext searchContext, SearchStrategy searchStrategy);
+
+    /**
+     * Performs asynchronous search of next page related to provided {@link SearchResult} of previous page.
+     *
+     * @param previousSearchResult {@link SearchResult} of previous page
+     * @return future {@link SearchResult} with found objects
+     */
+    CompletableFuture<SearchResult> searchNextPageAsync(SearchResult previousSearchResult);
 }
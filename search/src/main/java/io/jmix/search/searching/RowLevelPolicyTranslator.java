@@ -0,0 +1,53 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.searching;
+
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.security.model.RowLevelPolicy;
+import io.jmix.search.utils.Constants;
+import org.elasticsearch.index.query.QueryBuilder;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Translates row-level policies into Elasticsearch filter clauses, so inaccessible documents are filtered out
+ * by search request itself instead of reloading found instances from database.
+ * <p>Properties policy depends on are stored in index under {@link Constants#SECURITY_FIELDS_ROOT} field
+ * as keywords. Documents of entities with untranslatable policies are still verified by reloading.
+ */
+public interface RowLevelPolicyTranslator {
+
+    /**
+     * Gets local properties of entity provided policy depends on.
+     * They are added to index of entity during creation of index configuration.
+     *
+     * @param metaClass entity
+     * @param policy    row-level policy of entity
+     * @return property names or empty optional if policy can't be translated
+     */
+    Optional<Set<String>> getRequiredProperties(MetaClass metaClass, RowLevelPolicy policy);
+
+    /**
+     * Creates filter clause that matches documents accessible according to provided policy for current user.
+     *
+     * @param metaClass entity
+     * @param policy    row-level policy of entity
+     * @return filter clause or empty optional if policy can't be translated
+     */
+    Optional<QueryBuilder> createFilter(MetaClass metaClass, RowLevelPolicy policy);
+}
@@ -18,6 +18,8 @@ package io.jmix.search.searching;
 
 import com.google.common.base.Preconditions;
 
+import javax.annotation.Nullable;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -28,6 +30,9 @@ public class SearchContext {
     protected int offset;
     protected final String searchText;
     protected List<String> entities = Collections.emptyList();
+    protected String cursor;
+    protected Duration timeout;
+    protected boolean entityCountsRequested;
 
     public SearchContext(String searchText) {
         this.searchText = searchText;
@@ -115,6 +120,74 @@ public class SearchContext {
         return Collections.unmodifiableList(entities);
     }
 
+    /**
+     * Gets cursor pointing to the last hit consumed by previous page.
+     *
+     * @return Cursor or null if search should start from offset
+     */
+    @Nullable
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Sets cursor pointing to the last hit consumed by previous page. Search continues right after this hit
+     * instead of skipping offset documents. Cursor is opaque and should be taken from {@link SearchResult#getCursor()}.
+     *
+     * @param cursor Cursor or null
+     * @return Current {@link SearchContext}
+     */
+    public SearchContext setCursor(@Nullable String cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+
+    /**
+     * Gets max time search may take.
+     *
+     * @return Timeout or null if search isn't limited in time
+     */
+    @Nullable
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets max time search may take. It's passed to Elasticsearch as timeout of each search request,
+     * asynchronous search is also completed exceptionally with {@link java.util.concurrent.TimeoutException}
+     * and its running request is aborted when timeout elapses.
+     *
+     * @param timeout Timeout or null. Must be positive
+     * @return Current {@link SearchContext}
+     */
+    public SearchContext setTimeout(@Nullable Duration timeout) {
+        Preconditions.checkArgument(timeout == null || !timeout.isNegative() && !timeout.isZero(), "Timeout must be positive");
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Checks if amounts of found instances per entity should be calculated.
+     *
+     * @return true if entity counts are requested
+     */
+    public boolean isEntityCountsRequested() {
+        return entityCountsRequested;
+    }
+
+    /**
+     * Sets if amounts of found instances per entity should be calculated. Calculation requires counting of all
+     * matching documents, so it's better to request counts for the first page only.
+     *
+     * @param entityCountsRequested whether entity counts are requested
+     * @return Current {@link SearchContext}
+     * @see SearchResult#getEntityCounts()
+     */
+    public SearchContext setEntityCountsRequested(boolean entityCountsRequested) {
+        this.entityCountsRequested = entityCountsRequested;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "SearchContext{" +
@@ -122,6 +195,9 @@ public class SearchContext {
                 ", offset=" + offset +
                 ", searchText='" + searchText + '\'' +
                 ", entities=" + entities +
+                ", cursor='" + cursor + '\'' +
+                ", timeout=" + timeout +
+                ", entityCountsRequested=" + entityCountsRequested +
                 '}';
     }
 }
@@ -16,7 +16,9 @@
 
 package io.jmix.search.searching;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * Represents result of search by some text.
@@ -38,6 +40,15 @@ public interface SearchResult {
      */
     int getEffectiveOffset();
 
+    /**
+     * Gets opaque cursor pointing to the last hit consumed by this {@link SearchResult}.
+     * <p>Next-page search continues right after this hit, so cost of deep pages doesn't grow with offset.
+     *
+     * @return cursor or null if result has been gained with offset-based pagination
+     */
+    @Nullable
+    String getCursor();
+
     /**
      * Gets names of all entities presented in this {@link SearchResult}.
      *
@@ -53,6 +64,16 @@ public interface SearchResult {
      */
     Collection<SearchResultEntry> getEntriesByEntityName(String entityName);
 
+    /**
+     * Gets amounts of documents matching search text per entity.
+     * <p>Counts are calculated only if requested by {@link SearchContext#setEntityCountsRequested(boolean)}.
+     * Counts of entities with row-level policies verified after search are omitted: they would include
+     * instances which aren't accessible to the current user.
+     *
+     * @return counts by entity names or empty map if counts haven't been requested
+     */
+    Map<String, Long> getEntityCounts();
+
     /**
      * Gets all {@link SearchResultEntry}
      *
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.searching;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Caches results of searches performed by {@link EntitySearcher}.
+ * <p>Implementation must not share result between users with different permissions for searched entities.
+ * <p>Cache is local to application instance. Invalidation caused by indexing or index management on one instance
+ * isn't propagated to other instances of cluster, they may return outdated results until TTL expiration.
+ */
+public interface SearchResultCache {
+
+    /**
+     * Gets cached result of search described by provided {@link SearchContext} and {@link SearchStrategy}
+     * or performs search by provided loader and caches its result.
+     *
+     * @param searchContext  runtime settings of search
+     * @param searchStrategy search strategy
+     * @param loader         performs search if there is no cached result
+     * @return {@link SearchResult}
+     */
+    SearchResult get(SearchContext searchContext, SearchStrategy searchStrategy, Supplier<SearchResult> loader);
+
+    /**
+     * Invalidates cached results of searches that could contain instances of provided entities.
+     *
+     * @param entityNames names of entities which indexes have been changed
+     */
+    void invalidate(Collection<String> entityNames);
+
+    /**
+     * Invalidates all cached results.
+     */
+    void invalidateAll();
+}
@@ -20,6 +20,7 @@ import io.jmix.core.FetchPlan;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Provides additional functionality to work with {@link SearchResult}
@@ -38,11 +39,23 @@ public interface SearchResultProcessor {
     /**
      * Loads all entity instances based on provided {@link SearchResult} and fetch plans.
      * Fetch plans can be provided for any entity.
-     * Instances of entities that don't have provided fetch plans will be loaded using BASE fetch plan
+     * Instances of entities that don't have provided fetch plans will be loaded using BASE fetch plan.
+     * Instances are returned in order of search hits.
      *
      * @param searchResult {@link SearchResult}
      * @param fetchPlans   Map: Entity name - {@link FetchPlan}
      * @return collection of entity instances
      */
     Collection<Object> loadEntityInstances(SearchResult searchResult, Map<String, FetchPlan> fetchPlans);
+
+    /**
+     * Loads all entity instances based on provided {@link SearchResult} and fetch plans.
+     * Fetch plan provider is called only for entities presented in result.
+     * Instances of entities the provider returns null for will be loaded using BASE fetch plan.
+     *
+     * @param searchResult      {@link SearchResult}
+     * @param fetchPlanProvider provides {@link FetchPlan} by entity name
+     * @return collection of entity instances in order of search hits
+     */
+    Collection<Object> loadEntityInstances(SearchResult searchResult, Function<String, FetchPlan> fetchPlanProvider);
 }
@@ -16,13 +16,128 @@
 
 package io.jmix.search.searching.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.IndexConfiguration;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.mapping.MappingFieldDescriptor;
+import io.jmix.search.searching.SearchContext;
 import io.jmix.search.searching.SearchStrategy;
+import io.jmix.search.utils.Constants;
+import org.elasticsearch.index.query.AbstractQueryBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.*;
 
 /**
  * Base class for all search strategies.
  */
 public abstract class AbstractSearchStrategy implements SearchStrategy {
 
+    @Autowired
+    protected SearchProperties searchProperties;
+    @Autowired
+    protected IndexConfigurationManager indexConfigurationManager;
+
+    /**
+     * Resolves fields search text should be matched against when it may match any field.
+     * <p>If catch-all field is enabled it's used instead of all fields, so query isn't expanded to every mapped field.
+     * Fields with boost or analyzer of their own are added, see {@link #resolveSeparatelyQueriedFields(SearchContext)}.
+     * <p>Otherwise mapped fields of requested entities are listed explicitly: wildcard would also match
+     * service fields like {@link Constants#SECURITY_FIELDS_ROOT}. Queries using them should be lenient
+     * as listed fields may be of non-text types.
+     *
+     * @param searchContext search context
+     * @return map: field name - boost
+     */
+    protected Map<String, Float> resolveAnyFieldQueryFields(SearchContext searchContext) {
+        Map<String, Float> fields = new LinkedHashMap<>();
+        if (!searchProperties.isCatchAllFieldEnabled()) {
+            resolveSearchableFields(searchContext).forEach(field -> fields.put(field, AbstractQueryBuilder.DEFAULT_BOOST));
+            return fields;
+        }
+        fields.put(Constants.CATCH_ALL_FIELD, AbstractQueryBuilder.DEFAULT_BOOST);
+        resolveSeparatelyQueriedFields(searchContext).forEach(field -> fields.put(field, AbstractQueryBuilder.DEFAULT_BOOST));
+        return fields;
+    }
+
+    /**
+     * Resolves patterns of full-text searchable fields of requested entities: instance name and mapped fields
+     * with their subfields.
+     *
+     * @param searchContext search context
+     * @return field names and patterns
+     */
+    protected Set<String> resolveSearchableFields(SearchContext searchContext) {
+        Set<String> fields = new TreeSet<>();
+        fields.add(Constants.INSTANCE_NAME_FIELD);
+        for (IndexConfiguration indexConfiguration : resolveRequestedIndexConfigurations(searchContext)) {
+            for (MappingFieldDescriptor field : indexConfiguration.getMapping().getFields().values()) {
+                fields.add(field.getIndexPropertyFullName());
+                fields.add(field.getIndexPropertyFullName() + ".*");
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Resolves fields that should be queried along with catch-all field: fields with boost configured in mapping
+     * (boost is applied by Elasticsearch itself) and fields or subfields with analyzer other than analyzer
+     * of catch-all field.
+     *
+     * @param searchContext search context
+     * @return field names
+     */
+    protected Set<String> resolveSeparatelyQueriedFields(SearchContext searchContext) {
+        Set<String> fields = new TreeSet<>();
+        for (IndexConfiguration indexConfiguration : resolveRequestedIndexConfigurations(searchContext)) {
+            for (MappingFieldDescriptor field : indexConfiguration.getMapping().getFields().values()) {
+                collectSeparatelyQueriedFields(field.getIndexPropertyFullName(), field.getFieldConfiguration().asJson(), fields);
+            }
+        }
+        return fields;
+    }
+
+    protected List<IndexConfiguration> resolveRequestedIndexConfigurations(SearchContext searchContext) {
+        Collection<String> entities = searchContext.getEntities();
+        if (entities.isEmpty()) {
+            entities = indexConfigurationManager.getAllIndexedEntities();
+        }
+        List<IndexConfiguration> indexConfigurations = new ArrayList<>();
+        for (String entityName : entities) {
+            indexConfigurationManager.getIndexConfigurationByEntityNameOpt(entityName).ifPresent(indexConfigurations::add);
+        }
+        return indexConfigurations;
+    }
+
+    protected void collectSeparatelyQueriedFields(String fieldName, ObjectNode config, Set<String> fields) {
+        if (config.has("boost") || hasSpecificAnalyzer(config)) {
+            fields.add(fieldName);
+        }
+        for (String nestedFieldsKey : new String[]{"properties", "fields"}) {
+            JsonNode nestedFields = config.get(nestedFieldsKey);
+            if (nestedFields != null && nestedFields.isObject()) {
+                nestedFields.fields().forEachRemaining(entry -> {
+                    if (entry.getValue().isObject()) {
+                        collectSeparatelyQueriedFields(fieldName + "." + entry.getKey(), (ObjectNode) entry.getValue(), fields);
+                    }
+                });
+            }
+        }
+    }
+
+    protected boolean hasSpecificAnalyzer(ObjectNode config) {
+        String catchAllFieldAnalyzer = searchProperties.getCatchAllFieldAnalyzer();
+        for (String analyzerKey : new String[]{"analyzer", "search_analyzer"}) {
+            JsonNode analyzer = config.get(analyzerKey);
+            if (analyzer != null && !catchAllFieldAnalyzer.equals(analyzer.asText())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         return "SearchStrategy{" +
@@ -41,8 +41,9 @@ public class AllTermsAnyFieldSearchStrategy extends AbstractSearchStrategy {
     public void configureRequest(SearchRequest searchRequest, SearchContext searchContext) {
         String searchText = searchContext.getSearchText();
         SimpleQueryStringBuilder queryBuilder = QueryBuilders.simpleQueryStringQuery(searchText)
-                .field("*")
-                .defaultOperator(Operator.AND);
+                .fields(resolveAnyFieldQueryFields(searchContext))
+                .defaultOperator(Operator.AND)
+                .lenient(true);
 
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().query(queryBuilder);
         searchRequest.source(searchSourceBuilder);
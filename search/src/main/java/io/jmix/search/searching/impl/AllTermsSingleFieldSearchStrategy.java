@@ -39,8 +39,10 @@ public class AllTermsSingleFieldSearchStrategy extends AbstractSearchStrategy {
     @Override
     public void configureRequest(SearchRequest searchRequest, SearchContext searchContext) {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(QueryBuilders.multiMatchQuery(searchContext.getSearchText(), "*")
-                .operator(Operator.AND));
+        String[] fields = resolveSearchableFields(searchContext).toArray(new String[0]);
+        searchSourceBuilder.query(QueryBuilders.multiMatchQuery(searchContext.getSearchText(), fields)
+                .operator(Operator.AND)
+                .lenient(true));
 
         searchRequest.source(searchSourceBuilder);
     }
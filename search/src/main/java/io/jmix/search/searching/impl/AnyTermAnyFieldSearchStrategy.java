@@ -37,7 +37,9 @@ public class AnyTermAnyFieldSearchStrategy extends AbstractSearchStrategy {
     @Override
     public void configureRequest(SearchRequest searchRequest, SearchContext searchContext) {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(QueryBuilders.multiMatchQuery(searchContext.getSearchText(), "*"));
+        searchSourceBuilder.query(QueryBuilders.multiMatchQuery(searchContext.getSearchText())
+                .fields(resolveAnyFieldQueryFields(searchContext))
+                .lenient(true));
 
         searchRequest.source(searchSourceBuilder);
     }
@@ -16,37 +16,72 @@
 
 package io.jmix.search.searching.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Iterables;
 import io.jmix.core.*;
 import io.jmix.core.metamodel.model.MetaClass;
 import io.jmix.search.SearchProperties;
+import io.jmix.search.index.HighlightConfiguration;
 import io.jmix.search.index.IndexConfiguration;
 import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.mapping.MappingFieldDescriptor;
 import io.jmix.search.searching.*;
 import io.jmix.search.utils.Constants;
 import io.jmix.security.constraint.PolicyStore;
 import io.jmix.security.constraint.SecureOperations;
+import io.jmix.security.model.RowLevelPolicy;
+import io.jmix.security.model.RowLevelPolicyAction;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.client.Request;
 import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.text.Text;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -55,6 +90,12 @@ public class EntitySearcherImpl implements EntitySearcher {
 
     private static final Logger log = LoggerFactory.getLogger(EntitySearcherImpl.class);
 
+    protected static final String SHARD_DOC_SORT_FIELD = "_shard_doc";
+    protected static final String ALL_FIELDS_PATTERN = "*";
+    protected static final String INDEX_FIELD = "_index";
+    protected static final String ENTITY_COUNTS_AGGREGATION = "entity_counts";
+    protected static final Pattern INDEX_VERSION_PATTERN = Pattern.compile("_v\\d+$");
+
     @Autowired
     protected RestHighLevelClient esClient;
     @Autowired
@@ -77,6 +118,29 @@ public class EntitySearcherImpl implements EntitySearcher {
     protected PolicyStore policyStore;
     @Autowired
     protected SearchStrategyManager searchStrategyManager;
+    @Autowired
+    protected SearchAcceptanceRatioTracker acceptanceRatioTracker;
+    @Autowired
+    protected List<RowLevelPolicyTranslator> rowLevelPolicyTranslators;
+    @Autowired
+    protected SearchResultCache searchResultCache;
+
+    protected ObjectMapper objectMapper = new ObjectMapper();
+    protected final AtomicInteger asyncThreadCounter = new AtomicInteger();
+    protected ExecutorService asyncSearchExecutor;
+
+    @PostConstruct
+    protected void postConstruct() {
+        int threads = Math.max(searchProperties.getMaxAsyncSearchThreads(), 1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "search-async-" + asyncThreadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        asyncSearchExecutor = executor;
+    }
 
     @Override
     public SearchResult search(SearchContext searchContext) {
@@ -85,6 +149,13 @@ public class EntitySearcherImpl implements EntitySearcher {
 
     @Override
     public SearchResult search(SearchContext searchContext, SearchStrategy searchStrategy) {
+        if (searchProperties.isSearchResultCacheEnabled()) {
+            return searchResultCache.get(searchContext, searchStrategy, () -> performSearch(searchContext, searchStrategy));
+        }
+        return performSearch(searchContext, searchStrategy);
+    }
+
+    protected SearchResult performSearch(SearchContext searchContext, SearchStrategy searchStrategy) {
         log.debug("Perform search by context '{}'", searchContext);
         SearchResultImpl searchResult = initSearchResult(searchContext, searchStrategy);
         List<String> targetIndexes = resolveTargetIndexes(searchContext);
@@ -92,26 +163,28 @@ public class EntitySearcherImpl implements EntitySearcher {
             return searchResult;
         }
 
-        SearchRequest searchRequest = createSearchRequest(targetIndexes, searchContext, searchStrategy);
+        SearchRequest searchRequest = prepareSearchRequest(targetIndexes, searchResult);
         boolean moreDataAvailable;
         do {
             updateRequestOffset(searchRequest, searchResult);
+            updateRequestSize(searchRequest, searchResult);
             SearchResponse searchResponse;
             try {
-                log.debug("Search Request: {}", searchRequest);
-                searchResponse = esClient.search(searchRequest, RequestOptions.DEFAULT);
-            } catch (IOException e) {
-                throw new RuntimeException("Search failed", e);
+                searchResponse = executeSearchRequest(searchRequest);
+            } catch (ElasticsearchStatusException e) {
+                if (!reopenExpiredPointInTime(e, searchResult, targetIndexes)) {
+                    throw e;
+                }
+                // Request can't be reused: it may contain position within expired point-in-time
+                searchRequest = prepareRestartedSearchRequest(targetIndexes, searchResult);
+                moreDataAvailable = true;
+                continue;
             }
-            SearchHits searchHits = searchResponse.getHits();
-            Map<MetaClass, List<SearchHit>> hitsByEntityName = groupSearchHitsByEntity(searchHits);
-            fillSearchResult(searchResult, hitsByEntityName);
-
-            TotalHits totalHits = searchHits.getTotalHits();
-            long totalHitsValue = totalHits == null ? 0 : totalHits.value;
-            moreDataAvailable = (totalHitsValue - searchResult.getEffectiveOffset()) > 0;
+            moreDataAvailable = processSearchResponse(searchResult, searchResponse);
+            searchRequest = removeEntityCountsAggregation(searchRequest, searchResult, targetIndexes);
         } while (moreDataAvailable && !isResultFull(searchResult, searchContext));
-        searchResult.setMoreDataAvailable(moreDataAvailable);
+        completeSearch(searchResult, moreDataAvailable);
+        initNextPagePointInTime(searchResult, targetIndexes);
         return searchResult;
     }
 
@@ -120,10 +193,251 @@ public class EntitySearcherImpl implements EntitySearcher {
         return search(previousSearchResult.createNextPageSearchContext(), previousSearchResult.getSearchStrategy());
     }
 
+    @Override
+    public CompletableFuture<SearchResult> searchAsync(SearchContext searchContext) {
+        return searchAsync(searchContext, searchStrategyManager.getDefaultSearchStrategy());
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> searchAsync(SearchContext searchContext, SearchStrategy searchStrategy) {
+        log.debug("Perform asynchronous search by context '{}'", searchContext);
+        AsyncSearchExecution execution = new AsyncSearchExecution(
+                new DelegatingSecurityContextExecutor(asyncSearchExecutor, SecurityContextHolder.getContext()));
+        if (searchContext.getTimeout() != null) {
+            execution.getResultFuture().orTimeout(searchContext.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        SearchResultImpl searchResult = initSearchResult(searchContext, searchStrategy);
+        execution.getResultFuture().whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                // Search is cancelled, timed out or failed, so its point-in-time won't be used anymore
+                closePointInTimeAsync(searchResult);
+            }
+        });
+        execution.execute(() -> {
+            List<String> targetIndexes = resolveTargetIndexes(searchContext);
+            if (targetIndexes.isEmpty()) {
+                execution.complete(searchResult);
+                return;
+            }
+            SearchRequest searchRequest = prepareSearchRequest(targetIndexes, searchResult);
+            executeSearchRequestAsync(searchRequest, searchResult, targetIndexes, execution);
+        });
+        return execution.getResultFuture();
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> searchNextPageAsync(SearchResult previousSearchResult) {
+        return searchAsync(previousSearchResult.createNextPageSearchContext(), previousSearchResult.getSearchStrategy());
+    }
+
+    @Override
+    public List<SearchResult> multiSearch(List<SearchContext> searchContexts) {
+        return multiSearch(searchContexts, searchStrategyManager.getDefaultSearchStrategy());
+    }
+
+    @Override
+    public List<SearchResult> multiSearch(List<SearchContext> searchContexts, SearchStrategy searchStrategy) {
+        log.debug("Perform multi-search by contexts {}", searchContexts);
+        List<SearchResultImpl> searchResults = new ArrayList<>();
+        List<MultiSearchItem> pendingItems = new ArrayList<>();
+        for (SearchContext searchContext : searchContexts) {
+            SearchResultImpl searchResult = initSearchResult(searchContext, searchStrategy);
+            searchResults.add(searchResult);
+            List<String> targetIndexes = resolveTargetIndexes(searchContext);
+            if (!targetIndexes.isEmpty()) {
+                SearchRequest searchRequest = prepareSearchRequest(targetIndexes, searchResult);
+                pendingItems.add(new MultiSearchItem(searchResult, searchRequest, targetIndexes));
+            }
+        }
+
+        Executor executor = new DelegatingSecurityContextExecutor(asyncSearchExecutor, SecurityContextHolder.getContext());
+        while (!pendingItems.isEmpty()) {
+            MultiSearchResponse.Item[] responses = executeMultiSearchRequest(pendingItems);
+            List<CompletableFuture<Boolean>> processingFutures = new ArrayList<>();
+            for (int i = 0; i < pendingItems.size(); i++) {
+                MultiSearchItem item = pendingItems.get(i);
+                MultiSearchResponse.Item response = responses[i];
+                processingFutures.add(CompletableFuture.supplyAsync(() -> processMultiSearchResponse(item, response), executor));
+            }
+
+            List<MultiSearchItem> nextItems = new ArrayList<>();
+            RuntimeException failure = null;
+            for (int i = 0; i < pendingItems.size(); i++) {
+                MultiSearchItem item = pendingItems.get(i);
+                boolean moreDataAvailable;
+                try {
+                    moreDataAvailable = joinProcessing(processingFutures.get(i));
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                    continue;
+                }
+                if (moreDataAvailable && !isResultFull(item.searchResult, item.searchResult.getSearchContext())) {
+                    nextItems.add(item);
+                } else {
+                    completeSearch(item.searchResult, moreDataAvailable);
+                }
+            }
+            if (failure != null) {
+                // Results aren't returned, so point-in-times of all searches won't be used anymore
+                searchResults.forEach(this::closePointInTime);
+                throw failure;
+            }
+            pendingItems = nextItems;
+        }
+        return new ArrayList<>(searchResults);
+    }
+
+    @Override
+    public Map<String, SearchResult> searchPerEntity(SearchContext searchContext) {
+        return searchPerEntity(searchContext, searchStrategyManager.getDefaultSearchStrategy());
+    }
+
+    @Override
+    public Map<String, SearchResult> searchPerEntity(SearchContext searchContext, SearchStrategy searchStrategy) {
+        Collection<String> entities = searchContext.getEntities();
+        if (entities.isEmpty()) {
+            entities = indexConfigurationManager.getAllIndexedEntities();
+        }
+
+        List<String> entityNames = new ArrayList<>(entities);
+        List<SearchContext> entityContexts = new ArrayList<>();
+        for (String entityName : entityNames) {
+            SearchContext entityContext = new SearchContext(searchContext.getSearchText())
+                    .setSize(searchContext.getSize())
+                    .setEntities(entityName)
+                    .setTimeout(searchContext.getTimeout())
+                    .setEntityCountsRequested(searchContext.isEntityCountsRequested());
+            if (searchContext.getOffset() > 0) {
+                entityContext.setOffset(searchContext.getOffset());
+            }
+            entityContexts.add(entityContext);
+        }
+
+        List<SearchResult> searchResults = multiSearch(entityContexts, searchStrategy);
+        Map<String, SearchResult> resultsByEntity = new LinkedHashMap<>();
+        for (int i = 0; i < entityNames.size(); i++) {
+            resultsByEntity.put(entityNames.get(i), searchResults.get(i));
+        }
+        return resultsByEntity;
+    }
+
+    @PreDestroy
+    protected void preDestroy() {
+        asyncSearchExecutor.shutdownNow();
+    }
+
     protected SearchResultImpl initSearchResult(SearchContext searchContext, SearchStrategy searchStrategy) {
         return new SearchResultImpl(searchContext, searchStrategy);
     }
 
+    protected SearchRequest prepareSearchRequest(List<String> targetIndexes, SearchResultImpl searchResult) {
+        initPointInTime(searchResult);
+        return prepareRestartedSearchRequest(targetIndexes, searchResult);
+    }
+
+    /**
+     * Prepares search request continuing from current state of search result, e.g. after point-in-time is reopened.
+     */
+    protected SearchRequest prepareRestartedSearchRequest(List<String> targetIndexes, SearchResultImpl searchResult) {
+        SearchRequest searchRequest = createSearchRequest(targetIndexes, searchResult.getSearchContext(), searchResult.getSearchStrategy());
+        applyRowLevelPolicyFilter(searchRequest, searchResult, targetIndexes);
+        if (!searchResult.hasEntityCounts()) {
+            configureEntityCounts(searchRequest, searchResult.getSearchContext(), targetIndexes);
+        }
+        if (searchResult.getPointInTimeId() != null) {
+            configureSort(searchRequest);
+        }
+        return searchRequest;
+    }
+
+    /**
+     * Fills search result with content of response.
+     *
+     * @return whether there are more hits to fetch
+     */
+    protected boolean processSearchResponse(SearchResultImpl searchResult, SearchResponse searchResponse) {
+        if (searchResponse.pointInTimeId() != null) {
+            searchResult.setPointInTimeId(searchResponse.pointInTimeId());
+        }
+        if (!searchResult.hasEntityCounts() && searchResponse.getAggregations() != null) {
+            fillEntityCounts(searchResult, searchResponse.getAggregations());
+        }
+        SearchHits searchHits = searchResponse.getHits();
+        fillSearchResult(searchResult, searchHits);
+
+        TotalHits totalHits = searchHits.getTotalHits();
+        if (searchHits.getHits().length == 0 || totalHits == null) {
+            return false;
+        }
+        return totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO
+                || (totalHits.value - searchResult.getEffectiveOffset()) > 0;
+    }
+
+    /**
+     * Adds aggregation counting matching documents per index if entity counts are requested.
+     */
+    protected void configureEntityCounts(SearchRequest searchRequest, SearchContext searchContext, List<String> targetIndexes) {
+        if (searchContext.isEntityCountsRequested()) {
+            searchRequest.source().aggregation(AggregationBuilders.terms(ENTITY_COUNTS_AGGREGATION)
+                    .field(INDEX_FIELD)
+                    .size(targetIndexes.size()));
+        }
+    }
+
+    /**
+     * Returns search request without entity counts aggregation if entity counts have already been received,
+     * so subsequent requests don't compute them again. Aggregation can't be removed from request source,
+     * so the request is rebuilt.
+     */
+    protected SearchRequest removeEntityCountsAggregation(SearchRequest searchRequest,
+                                                          SearchResultImpl searchResult,
+                                                          List<String> targetIndexes) {
+        if (searchRequest.source().aggregations() == null || !searchResult.hasEntityCounts()) {
+            return searchRequest;
+        }
+        return prepareRestartedSearchRequest(targetIndexes, searchResult);
+    }
+
+    protected void fillEntityCounts(SearchResultImpl searchResult, Aggregations aggregations) {
+        Terms entityCountsAggregation = aggregations.get(ENTITY_COUNTS_AGGREGATION);
+        if (entityCountsAggregation == null) {
+            return;
+        }
+        Map<String, Long> entityCounts = new LinkedHashMap<>();
+        for (Terms.Bucket bucket : entityCountsAggregation.getBuckets()) {
+            resolveIndexConfigurationByPhysicalIndex(bucket.getKeyAsString())
+                    // Count of entity verified after search would include instances inaccessible for user
+                    .filter(indexConfiguration -> !isPostSearchVerificationRequired(searchResult,
+                            metadata.getClass(indexConfiguration.getEntityName())))
+                    .ifPresent(indexConfiguration ->
+                            entityCounts.merge(indexConfiguration.getEntityName(), bucket.getDocCount(), Long::sum));
+        }
+        searchResult.setEntityCounts(entityCounts);
+    }
+
+    /**
+     * Resolves index configuration by name of physical index which may be a version of index available by alias.
+     */
+    protected Optional<IndexConfiguration> resolveIndexConfigurationByPhysicalIndex(String physicalIndexName) {
+        Optional<IndexConfiguration> indexConfiguration = indexConfigurationManager.getIndexConfigurationByIndexNameOpt(physicalIndexName);
+        if (indexConfiguration.isPresent()) {
+            return indexConfiguration;
+        }
+        String alias = INDEX_VERSION_PATTERN.matcher(physicalIndexName).replaceFirst("");
+        return indexConfigurationManager.getIndexConfigurationByIndexNameOpt(alias);
+    }
+
+    protected void completeSearch(SearchResultImpl searchResult, boolean moreDataAvailable) {
+        searchResult.setMoreDataAvailable(moreDataAvailable);
+        if (!moreDataAvailable) {
+            closePointInTime(searchResult);
+        }
+    }
+
     protected SearchRequest createSearchRequest(List<String> targetIndexes, SearchContext searchContext, SearchStrategy searchStrategy) {
         SearchRequest searchRequest = createBaseSearchRequest(targetIndexes);
         searchStrategy.configureRequest(searchRequest, searchContext);
@@ -140,7 +454,242 @@ public class EntitySearcherImpl implements EntitySearcher {
 
     protected void postStrategyConfiguration(SearchRequest searchRequest, SearchContext searchContext) {
         searchRequest.source().size(searchContext.getSize());
-        configureHighlight(searchRequest);
+        if (searchContext.getTimeout() != null) {
+            searchRequest.source().timeout(TimeValue.timeValueMillis(searchContext.getTimeout().toMillis()));
+        }
+        configureFetchedFields(searchRequest);
+        configureHighlight(searchRequest, searchContext);
+    }
+
+    /**
+     * Requests instance name only instead of the whole source which may contain large file contents.
+     * Source filtering configured by strategy is kept as is.
+     */
+    protected void configureFetchedFields(SearchRequest searchRequest) {
+        SearchSourceBuilder searchSourceBuilder = searchRequest.source();
+        if (searchSourceBuilder.fetchSource() == null && searchSourceBuilder.fetchFields() == null) {
+            searchSourceBuilder.fetchSource(false);
+            searchSourceBuilder.fetchField(Constants.INSTANCE_NAME_FIELD);
+        }
+    }
+
+    /**
+     * Makes sort of hits total within point-in-time, so their sort values can be used as 'search_after' position.
+     * Relevance sort is applied if strategy hasn't configured its own one.
+     */
+    protected void configureSort(SearchRequest searchRequest) {
+        SearchSourceBuilder searchSourceBuilder = searchRequest.source();
+        List<SortBuilder<?>> sorts = searchSourceBuilder.sorts();
+        if (sorts == null || sorts.isEmpty()) {
+            searchSourceBuilder.sort(SortBuilders.scoreSort());
+        }
+        searchSourceBuilder.sort(SortBuilders.fieldSort(SHARD_DOC_SORT_FIELD));
+    }
+
+    /**
+     * Takes point-in-time and sort values from cursor of search context if any.
+     * First page is searched without point-in-time - see {@link #initNextPagePointInTime(SearchResultImpl, List)}.
+     */
+    protected void initPointInTime(SearchResultImpl searchResult) {
+        if (!searchProperties.isSearchAfterPaginationEnabled()) {
+            return;
+        }
+        String cursor = searchResult.getSearchContext().getCursor();
+        if (cursor != null) {
+            SearchCursor searchCursor = SearchCursor.decode(cursor);
+            searchResult.setPointInTimeId(searchCursor.getPointInTimeId());
+            searchResult.setLastSortValues(searchCursor.getSortValues());
+        }
+    }
+
+    /**
+     * Opens point-in-time for the next page if search result has more data. Point-in-time is opened lazily,
+     * so searches fitting into a single page don't pay for it. The next page is searched within it
+     * from the offset of result and continues after sort values of hits afterwards.
+     * Search falls back to offset-based pagination if point-in-time can't be opened.
+     */
+    protected void initNextPagePointInTime(SearchResultImpl searchResult, List<String> targetIndexes) {
+        if (searchProperties.isSearchAfterPaginationEnabled()
+                && searchResult.isMoreDataAvailable()
+                && searchResult.getPointInTimeId() == null) {
+            searchResult.setPointInTimeId(openPointInTime(targetIndexes));
+        }
+    }
+
+    protected SearchResponse executeSearchRequest(SearchRequest searchRequest) {
+        try {
+            log.debug("Search Request: {}", searchRequest);
+            return esClient.search(searchRequest, RequestOptions.DEFAULT);
+        } catch (IOException e) {
+            throw new RuntimeException("Search failed", e);
+        }
+    }
+
+    protected Cancellable executeSearchRequestAsync(SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
+        log.debug("Search Request: {}", searchRequest);
+        return esClient.searchAsync(searchRequest, RequestOptions.DEFAULT, listener);
+    }
+
+    protected MultiSearchResponse.Item[] executeMultiSearchRequest(List<MultiSearchItem> items) {
+        MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+        for (MultiSearchItem item : items) {
+            updateRequestOffset(item.searchRequest, item.searchResult);
+            updateRequestSize(item.searchRequest, item.searchResult);
+            multiSearchRequest.add(item.searchRequest);
+        }
+        log.debug("Multi-Search Request: {} requests", items.size());
+        return executeMultiSearchRequest(multiSearchRequest);
+    }
+
+    protected MultiSearchResponse.Item[] executeMultiSearchRequest(MultiSearchRequest multiSearchRequest) {
+        try {
+            return esClient.msearch(multiSearchRequest, RequestOptions.DEFAULT).getResponses();
+        } catch (IOException e) {
+            throw new RuntimeException("Multi-search failed", e);
+        }
+    }
+
+    /**
+     * Fills search result of multi-search item with content of its response.
+     *
+     * @return whether there are more hits to fetch
+     */
+    protected boolean processMultiSearchResponse(MultiSearchItem item, MultiSearchResponse.Item response) {
+        if (response.isFailure()) {
+            if (reopenExpiredPointInTime(response.getFailure(), item.searchResult, item.targetIndexes)) {
+                item.searchRequest = prepareRestartedSearchRequest(item.targetIndexes, item.searchResult);
+                return true;
+            }
+            throw new RuntimeException("Search failed", response.getFailure());
+        }
+        boolean moreDataAvailable = processSearchResponse(item.searchResult, response.getResponse());
+        item.searchRequest = removeEntityCountsAggregation(item.searchRequest, item.searchResult, item.targetIndexes);
+        return moreDataAvailable;
+    }
+
+    protected boolean joinProcessing(CompletableFuture<Boolean> processingFuture) {
+        try {
+            return processingFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    protected void executeSearchRequestAsync(SearchRequest searchRequest,
+                                             SearchResultImpl searchResult,
+                                             List<String> targetIndexes,
+                                             AsyncSearchExecution execution) {
+        updateRequestOffset(searchRequest, searchResult);
+        updateRequestSize(searchRequest, searchResult);
+        Cancellable cancellable = executeSearchRequestAsync(searchRequest, new ActionListener<SearchResponse>() {
+            @Override
+            public void onResponse(SearchResponse searchResponse) {
+                execution.execute(() -> {
+                    boolean moreDataAvailable = processSearchResponse(searchResult, searchResponse);
+                    if (moreDataAvailable && !isResultFull(searchResult, searchResult.getSearchContext())) {
+                        SearchRequest nextSearchRequest = removeEntityCountsAggregation(searchRequest, searchResult, targetIndexes);
+                        executeSearchRequestAsync(nextSearchRequest, searchResult, targetIndexes, execution);
+                    } else {
+                        completeSearch(searchResult, moreDataAvailable);
+                        initNextPagePointInTime(searchResult, targetIndexes);
+                        if (!execution.complete(searchResult)) {
+                            // Search has been cancelled or timed out meanwhile
+                            closePointInTime(searchResult);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                execution.execute(() -> {
+                    if (reopenExpiredPointInTime(e, searchResult, targetIndexes)) {
+                        SearchRequest restartedRequest = prepareRestartedSearchRequest(targetIndexes, searchResult);
+                        executeSearchRequestAsync(restartedRequest, searchResult, targetIndexes, execution);
+                    } else {
+                        execution.fail(e);
+                    }
+                });
+            }
+        });
+        execution.setRunningRequest(cancellable);
+    }
+
+    /**
+     * Opens a new point-in-time if search request has failed because the current one has expired.
+     * Sort values of the expired point-in-time aren't valid within the new one, so search restarts
+     * from the offset of result against the current state of indexes.
+     *
+     * @return true if point-in-time has been reopened and search can be continued by restarted request
+     */
+    protected boolean reopenExpiredPointInTime(Exception exception, SearchResultImpl searchResult, List<String> targetIndexes) {
+        if (!(exception instanceof ElasticsearchStatusException)
+                || ((ElasticsearchStatusException) exception).status() != RestStatus.NOT_FOUND
+                || searchResult.getPointInTimeId() == null) {
+            return false;
+        }
+        log.debug("Point-in-time '{}' has expired. Open a new one", searchResult.getPointInTimeId());
+        String pointInTimeId = openPointInTime(targetIndexes);
+        if (pointInTimeId == null) {
+            return false;
+        }
+        searchResult.setPointInTimeId(pointInTimeId);
+        searchResult.setLastSortValues(null);
+        return true;
+    }
+
+    /**
+     * Opens point-in-time over provided indexes.
+     *
+     * @return point-in-time id or null if it can't be opened
+     */
+    @Nullable
+    protected String openPointInTime(List<String> targetIndexes) {
+        Request request = new Request("POST", "/" + String.join(",", targetIndexes) + "/_pit");
+        request.addParameter("keep_alive", getPointInTimeKeepAlive().getStringRep());
+        request.addParameter("ignore_unavailable", "true");
+        try {
+            Response response = esClient.getLowLevelClient().performRequest(request);
+            JsonNode responseBody = objectMapper.readTree(response.getEntity().getContent());
+            return responseBody.get("id").asText();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to open point-in-time over indexes {}. Offset-based pagination will be used", targetIndexes, e);
+            return null;
+        }
+    }
+
+    protected void closePointInTime(SearchResultImpl searchResult) {
+        String pointInTimeId = searchResult.getPointInTimeId();
+        if (pointInTimeId == null) {
+            return;
+        }
+        Request request = new Request("DELETE", "/_pit");
+        request.setJsonEntity(objectMapper.createObjectNode().put("id", pointInTimeId).toString());
+        try {
+            esClient.getLowLevelClient().performRequest(request);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Unable to close point-in-time '{}'. It will be released after keep-alive", pointInTimeId, e);
+        }
+        searchResult.setPointInTimeId(null);
+    }
+
+    protected void closePointInTimeAsync(SearchResultImpl searchResult) {
+        if (searchResult.getPointInTimeId() == null) {
+            return;
+        }
+        try {
+            asyncSearchExecutor.execute(() -> closePointInTime(searchResult));
+        } catch (RejectedExecutionException e) {
+            log.debug("Unable to close point-in-time '{}'. It will be released after keep-alive",
+                    searchResult.getPointInTimeId(), e);
+        }
+    }
+
+    protected TimeValue getPointInTimeKeepAlive() {
+        return TimeValue.timeValueMillis(searchProperties.getSearchPointInTimeKeepAlive().toMillis());
     }
 
     protected List<String> resolveTargetIndexes(SearchContext searchContext) {
@@ -159,18 +708,269 @@ public class EntitySearcherImpl implements EntitySearcher {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Adds filter clauses created from translatable row-level policies of requested entities to the query.
+     * <p>Documents are attributed to entities by physical index they are stored in. Filter fails closed:
+     * documents of indexes unknown at the moment of request creation are rejected, so only entities
+     * which read policies are all translated are exempt from post-search verification.
+     */
+    protected void applyRowLevelPolicyFilter(SearchRequest searchRequest, SearchResultImpl searchResult, List<String> targetIndexes) {
+        if (!searchProperties.isRowLevelPoliciesTranslationEnabled()) {
+            return;
+        }
+
+        Map<String, List<QueryBuilder>> filtersByEntity = new HashMap<>();
+        Set<String> fullyTranslatedEntityNames = new HashSet<>();
+        for (MetaClass metaClass : resolveRequestedEntities(searchResult.getSearchContext())) {
+            List<RowLevelPolicy> readPolicies = policyStore.getRowLevelPolicies(metaClass)
+                    .filter(policy -> policy.getAction() == RowLevelPolicyAction.READ)
+                    .collect(Collectors.toList());
+            IndexConfiguration indexConfiguration = indexConfigurationManager.getIndexConfigurationByEntityNameOpt(metaClass.getName())
+                    .orElse(null);
+            if (readPolicies.isEmpty() || indexConfiguration == null) {
+                continue;
+            }
+
+            Set<String> indexedProperties = indexConfiguration.getMapping().getSecurityFields().values().stream()
+                    .map(MappingFieldDescriptor::getEntityPropertyFullName)
+                    .collect(Collectors.toSet());
+            List<QueryBuilder> filters = new ArrayList<>();
+            for (RowLevelPolicy policy : readPolicies) {
+                translateRowLevelPolicy(metaClass, policy, indexedProperties).ifPresent(filters::add);
+            }
+            if (!filters.isEmpty()) {
+                filtersByEntity.put(metaClass.getName(), filters);
+                if (filters.size() == readPolicies.size()) {
+                    fullyTranslatedEntityNames.add(metaClass.getName());
+                }
+            }
+        }
+        if (filtersByEntity.isEmpty()) {
+            return;
+        }
+
+        Map<String, Set<String>> physicalIndexesByEntity = resolvePhysicalIndexNames(targetIndexes);
+        if (physicalIndexesByEntity == null) {
+            log.warn("Unable to resolve physical indexes of {}. Row-level policies will be verified after search", targetIndexes);
+            return;
+        }
+        log.debug("Apply row-level policies within search request for entities {}. Fully translated: {}",
+                filtersByEntity.keySet(), fullyTranslatedEntityNames);
+
+        BoolQueryBuilder accessFilter = QueryBuilders.boolQuery().minimumShouldMatch(1);
+        Set<String> unrestrictedIndexNames = new HashSet<>();
+        physicalIndexesByEntity.forEach((entityName, indexNames) -> {
+            List<QueryBuilder> filters = filtersByEntity.get(entityName);
+            if (filters == null) {
+                unrestrictedIndexNames.addAll(indexNames);
+            } else {
+                BoolQueryBuilder entityFilter = QueryBuilders.boolQuery()
+                        .filter(QueryBuilders.termsQuery(INDEX_FIELD, indexNames));
+                filters.forEach(entityFilter::filter);
+                accessFilter.should(entityFilter);
+            }
+        });
+        if (!unrestrictedIndexNames.isEmpty()) {
+            accessFilter.should(QueryBuilders.termsQuery(INDEX_FIELD, unrestrictedIndexNames));
+        }
+        if (accessFilter.should().isEmpty()) {
+            // Bool query without clauses matches everything
+            accessFilter = QueryBuilders.boolQuery().mustNot(QueryBuilders.matchAllQuery());
+        }
+
+        SearchSourceBuilder searchSourceBuilder = searchRequest.source();
+        QueryBuilder query = searchSourceBuilder.query() == null ? QueryBuilders.matchAllQuery() : searchSourceBuilder.query();
+        searchSourceBuilder.query(QueryBuilders.boolQuery().must(query).filter(accessFilter));
+        searchResult.setPrefilteredEntityNames(fullyTranslatedEntityNames);
+    }
+
+    /**
+     * Resolves names of physical indexes behind provided index names (which may be aliases) grouped by entity.
+     *
+     * @return entity name - physical index names or null if indexes can't be resolved
+     */
+    @Nullable
+    protected Map<String, Set<String>> resolvePhysicalIndexNames(List<String> indexNames) {
+        GetAliasesRequest request = new GetAliasesRequest()
+                .indices(indexNames.toArray(new String[0]))
+                .indicesOptions(IndicesOptions.lenientExpandOpen());
+        Set<String> physicalIndexNames;
+        try {
+            physicalIndexNames = esClient.indices().getAlias(request, RequestOptions.DEFAULT).getAliases().keySet();
+        } catch (IOException | ElasticsearchStatusException e) {
+            log.error("Unable to resolve physical indexes of {}", indexNames, e);
+            return null;
+        }
+
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String physicalIndexName : physicalIndexNames) {
+            resolveIndexConfigurationByPhysicalIndex(physicalIndexName).ifPresent(indexConfiguration ->
+                    result.computeIfAbsent(indexConfiguration.getEntityName(), k -> new HashSet<>()).add(physicalIndexName));
+        }
+        return result;
+    }
+
+    protected Optional<QueryBuilder> translateRowLevelPolicy(MetaClass metaClass, RowLevelPolicy policy, Set<String> indexedProperties) {
+        for (RowLevelPolicyTranslator translator : rowLevelPolicyTranslators) {
+            Optional<Set<String>> requiredProperties = translator.getRequiredProperties(metaClass, policy);
+            if (requiredProperties.isPresent()) {
+                // Policy may have appeared after index had been created
+                return indexedProperties.containsAll(requiredProperties.get())
+                        ? translator.createFilter(metaClass, policy)
+                        : Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    protected List<MetaClass> resolveRequestedEntities(SearchContext searchContext) {
+        Collection<String> requestedEntities = searchContext.getEntities();
+        if (requestedEntities.isEmpty()) {
+            requestedEntities = indexConfigurationManager.getAllIndexedEntities();
+        }
+        return requestedEntities.stream()
+                .map(metadata::getClass)
+                .collect(Collectors.toList());
+    }
+
     protected void configureHighlight(SearchRequest searchRequest) {
+        configureHighlight(searchRequest, Collections.singletonList(HighlightConfiguration.DEFAULT));
+    }
+
+    /**
+     * Configures highlighting according to highlight configurations of requested indexes. Wildcard '*' of
+     * configuration is expanded to text fields of its own index, so it doesn't affect other indexes.
+     * Union of fields of all indexes is highlighted. Fields not declared by index which configuration
+     * declares concrete fields to highlight (restricted index) are dropped from its hits,
+     * see {@link #createFieldHits(String, Map)}.
+     */
+    protected void configureHighlight(SearchRequest searchRequest, SearchContext searchContext) {
+        Map<String, List<HighlightConfiguration>> configurationsByField = new LinkedHashMap<>();
+        for (MetaClass metaClass : resolveRequestedEntities(searchContext)) {
+            Optional<IndexConfiguration> indexConfiguration = indexConfigurationManager.getIndexConfigurationByEntityNameOpt(metaClass.getName());
+            if (!indexConfiguration.isPresent()) {
+                continue;
+            }
+            HighlightConfiguration configuration = indexConfiguration.get().getHighlightConfiguration();
+            Set<String> fields = new LinkedHashSet<>(configuration.getFields());
+            if (fields.remove(ALL_FIELDS_PATTERN)) {
+                fields.addAll(resolveHighlightedTextFields(indexConfiguration.get()));
+            }
+            fields.forEach(field -> configurationsByField.computeIfAbsent(field, k -> new ArrayList<>()).add(configuration));
+        }
+        configureHighlight(searchRequest, configurationsByField);
+    }
+
+    /**
+     * Resolves full-text fields of index: instance name and mapped fields with their subfields.
+     */
+    protected Set<String> resolveHighlightedTextFields(IndexConfiguration indexConfiguration) {
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add(Constants.INSTANCE_NAME_FIELD);
+        for (MappingFieldDescriptor field : indexConfiguration.getMapping().getFields().values()) {
+            fields.add(field.getIndexPropertyFullName());
+            fields.add(field.getIndexPropertyFullName() + ".*");
+        }
+        return fields;
+    }
+
+    /**
+     * Configures highlighting according to provided highlight configurations if strategy hasn't done it.
+     */
+    protected void configureHighlight(SearchRequest searchRequest, Collection<HighlightConfiguration> highlightConfigurations) {
+        Map<String, List<HighlightConfiguration>> configurationsByField = new LinkedHashMap<>();
+        for (HighlightConfiguration configuration : highlightConfigurations) {
+            configuration.getFields().forEach(field ->
+                    configurationsByField.computeIfAbsent(field, k -> new ArrayList<>()).add(configuration));
+        }
+        if (configurationsByField.isEmpty()) {
+            configurationsByField.put(ALL_FIELDS_PATTERN, Collections.singletonList(HighlightConfiguration.DEFAULT));
+        }
+        configureHighlight(searchRequest, configurationsByField);
+    }
+
+    /**
+     * Configures highlighting of provided fields if strategy hasn't done it. Settings of field shared by several
+     * indexes are taken from the first configuration. Fast vector highlighter is used for such field only if all
+     * these configurations enable it.
+     */
+    protected void configureHighlight(SearchRequest searchRequest, Map<String, List<HighlightConfiguration>> configurationsByField) {
         SearchSourceBuilder searchSourceBuilder = searchRequest.source();
-        if (searchSourceBuilder.highlighter() == null) {
-            HighlightBuilder highlightBuilder = new HighlightBuilder();
-            highlightBuilder.field("*").preTags("<b>").postTags("</b>");
-            highlightBuilder.requireFieldMatch(true);
-            searchRequest.source().highlighter(highlightBuilder);
+        if (searchSourceBuilder.highlighter() != null || configurationsByField.isEmpty()) {
+            return;
         }
+
+        HighlightBuilder highlightBuilder = new HighlightBuilder();
+        configurationsByField.forEach((fieldName, configurations) -> {
+            HighlightConfiguration configuration = configurations.get(0);
+            HighlightBuilder.Field field = new HighlightBuilder.Field(fieldName)
+                    .fragmentSize(configuration.getFragmentSize())
+                    .numOfFragments(configuration.getNumberOfFragments());
+            if (configuration.getMaxAnalyzedOffset() != null) {
+                field.maxAnalyzedOffset(configuration.getMaxAnalyzedOffset());
+            }
+            if (configurations.stream().allMatch(HighlightConfiguration::isFastVectorHighlighter)) {
+                field.highlighterType("fvh");
+            }
+            highlightBuilder.field(field);
+        });
+        highlightBuilder.preTags("<b>").postTags("</b>");
+        // Query against catch-all field doesn't match source fields themselves
+        highlightBuilder.requireFieldMatch(!searchProperties.isCatchAllFieldEnabled());
+        searchSourceBuilder.highlighter(highlightBuilder);
     }
 
     protected void updateRequestOffset(SearchRequest searchRequest, SearchResultImpl searchResult) {
-        searchRequest.source().from(searchResult.getEffectiveOffset());
+        String pointInTimeId = searchResult.getPointInTimeId();
+        if (pointInTimeId == null) {
+            searchRequest.source().from(searchResult.getEffectiveOffset());
+            return;
+        }
+
+        // Indexes are defined by point-in-time and can't be specified in request itself
+        searchRequest.indices(new String[0]);
+        searchRequest.indicesOptions(SearchRequest.DEFAULT_INDICES_OPTIONS);
+        searchRequest.source().pointInTimeBuilder(
+                new PointInTimeBuilder(pointInTimeId).setKeepAlive(getPointInTimeKeepAlive())
+        );
+        Object[] lastSortValues = searchResult.getLastSortValues();
+        if (lastSortValues == null) {
+            searchRequest.source().from(searchResult.getEffectiveOffset());
+        } else {
+            searchRequest.source().from(0);
+            searchRequest.source().searchAfter(lastSortValues);
+        }
+    }
+
+    /**
+     * Requests amount of hits that is expected to fill the rest of result after row-level security filtration.
+     */
+    protected void updateRequestSize(SearchRequest searchRequest, SearchResultImpl searchResult) {
+        SearchContext searchContext = searchResult.getSearchContext();
+        int remaining = Math.max(searchContext.getSize() - searchResult.getSize(), 1);
+        double overFetchFactor = resolveOverFetchFactor(searchResult);
+        int size = (int) Math.min(Math.ceil(remaining * overFetchFactor), Integer.MAX_VALUE);
+        searchRequest.source().size(size);
+        // Hits beyond the requested ones only need to be detected, not counted
+        long requiredTotalHits = (long) searchResult.getEffectiveOffset() + size + 1;
+        searchRequest.source().trackTotalHitsUpTo((int) Math.min(requiredTotalHits, searchProperties.getMaxTrackedTotalHits()));
+    }
+
+    /**
+     * Resolves factor based on the lowest observed share of accessible hits among requested entities
+     * with row-level policies that are verified after search.
+     */
+    protected double resolveOverFetchFactor(SearchResultImpl searchResult) {
+        int maxFactor = searchProperties.getMaxSearchOverFetchFactor();
+        if (maxFactor <= 1) {
+            return 1;
+        }
+        double minRatio = resolveRequestedEntities(searchResult.getSearchContext()).stream()
+                .filter(metaClass -> isPostSearchVerificationRequired(searchResult, metaClass))
+                .mapToDouble(acceptanceRatioTracker::getAcceptanceRatio)
+                .min()
+                .orElse(1.0);
+        return minRatio * maxFactor <= 1 ? maxFactor : 1 / minRatio;
     }
 
     protected boolean isResultFull(SearchResultImpl searchResultImpl, SearchContext searchContext) {
@@ -185,63 +985,98 @@ public class EntitySearcherImpl implements EntitySearcher {
                 }));
     }
 
-    protected void fillSearchResult(SearchResultImpl searchResultImpl, Map<MetaClass, List<SearchHit>> hitsByEntityName) {
+    protected void fillSearchResult(SearchResultImpl searchResultImpl, SearchHits searchHits) {
         int sizeLimit = searchResultImpl.getSearchContext().getSize();
+        Map<MetaClass, List<SearchHit>> hitsByEntityName = groupSearchHitsByEntity(searchHits);
+        Map<MetaClass, Set<String>> effectiveIdsByEntity = new HashMap<>();
         for (Map.Entry<MetaClass, List<SearchHit>> entry : hitsByEntityName.entrySet()) {
-            MetaClass metaClass = entry.getKey();
-
-            boolean hasRowLevelPolicies = policyStore.getRowLevelPolicies(metaClass).findAny().isPresent();
-            List<SearchHit> entityHits = entry.getValue();
-            Set<String> effectiveIds;
-            if (hasRowLevelPolicies) {
-                List<Object> entityIds = entityHits.stream()
-                        .map(SearchHit::getId)
-                        .map(idSerialization::stringToId)
-                        .map(Id::getValue)
-                        .collect(Collectors.toList());
-                effectiveIds = reloadIds(metaClass, entityIds);
-            } else {
-                effectiveIds = entityHits.stream()
-                        .map(SearchHit::getId)
-                        .collect(Collectors.toSet());
-            }
+            effectiveIdsByEntity.put(entry.getKey(), resolveEffectiveIds(searchResultImpl, entry.getKey(), entry.getValue()));
+        }
 
-            for (SearchHit searchHit : entityHits) {
-                if (searchResultImpl.getSize() >= sizeLimit) {
-                    return;
-                }
+        // Hits are consumed in original order to keep offset and cursor pointing to a consistent position
+        for (SearchHit searchHit : searchHits.getHits()) {
+            if (searchResultImpl.getSize() >= sizeLimit) {
+                return;
+            }
 
-                String entityId = searchHit.getId();
-                if (effectiveIds.contains(entityId)) {
-                    Map<String, Object> source = searchHit.getSourceAsMap();
-                    String displayedName;
-                    if (source == null) {
-                        displayedName = entityId;
-                    } else {
-                        String instanceName = (String) source.get(Constants.INSTANCE_NAME_FIELD);
-                        displayedName = Strings.isEmpty(instanceName) ? entityId : instanceName;
-                    }
-                    searchResultImpl.addEntry(createSearchResultEntry(entityId, displayedName, metaClass.getName(), searchHit));
-                }
-                searchResultImpl.incrementOffset();
+            String entityId = searchHit.getId();
+            MetaClass metaClass = metadata.getClass(idSerialization.stringToId(entityId).getEntityClass());
+            if (effectiveIdsByEntity.get(metaClass).contains(entityId)) {
+                String displayedName = resolveDisplayedName(searchHit);
+                searchResultImpl.addEntry(createSearchResultEntry(entityId, displayedName, metaClass.getName(), searchHit));
             }
+            searchResultImpl.consumeHit(searchHit.getSortValues());
         }
     }
 
+    /**
+     * Checks if access to found instances of entity should be verified by row-level policies after search:
+     * entity has row-level policies which haven't been translated into search filters.
+     */
+    protected boolean isPostSearchVerificationRequired(SearchResultImpl searchResult, MetaClass metaClass) {
+        return !searchResult.getPrefilteredEntityNames().contains(metaClass.getName())
+                && policyStore.getRowLevelPolicies(metaClass).findAny().isPresent();
+    }
+
+    protected Set<String> resolveEffectiveIds(SearchResultImpl searchResultImpl, MetaClass metaClass, List<SearchHit> entityHits) {
+        if (isPostSearchVerificationRequired(searchResultImpl, metaClass)) {
+            List<Object> entityIds = entityHits.stream()
+                    .map(SearchHit::getId)
+                    .map(idSerialization::stringToId)
+                    .map(Id::getValue)
+                    .collect(Collectors.toList());
+            Set<String> effectiveIds = reloadIds(metaClass, entityIds);
+            acceptanceRatioTracker.registerObservation(metaClass, entityHits.size(), effectiveIds.size());
+            return effectiveIds;
+        } else {
+            return entityHits.stream()
+                    .map(SearchHit::getId)
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Gets instance name of found document. Falls back to source if strategy has configured its own source filtering.
+     */
+    protected String resolveDisplayedName(SearchHit searchHit) {
+        Object instanceName = null;
+        DocumentField instanceNameField = searchHit.field(Constants.INSTANCE_NAME_FIELD);
+        if (instanceNameField != null) {
+            instanceName = instanceNameField.getValue();
+        } else if (searchHit.hasSource()) {
+            instanceName = searchHit.getSourceAsMap().get(Constants.INSTANCE_NAME_FIELD);
+        }
+        return instanceName == null || Strings.isEmpty(instanceName.toString()) ? searchHit.getId() : instanceName.toString();
+    }
+
     protected SearchResultEntry createSearchResultEntry(String entityId, String instanceName, String entityName, SearchHit searchHit) {
-        Map<String, HighlightField> highlightFields = searchHit.getHighlightFields();
+        List<FieldHit> fieldHits = createFieldHits(entityName, searchHit.getHighlightFields());
+        return new SearchResultEntry(entityId, instanceName, entityName, fieldHits);
+    }
+
+    /**
+     * Creates field hits of highlighted fields of entity hit. Fields highlighted for other indexes of the request
+     * which aren't declared by highlight configuration of the entity index are skipped.
+     */
+    protected List<FieldHit> createFieldHits(String entityName, Map<String, HighlightField> highlightFields) {
+        List<String> declaredFields = indexConfigurationManager.getIndexConfigurationByEntityNameOpt(entityName)
+                .map(indexConfiguration -> indexConfiguration.getHighlightConfiguration().getFields())
+                .orElse(Collections.singletonList(ALL_FIELDS_PATTERN));
+        boolean restricted = !declaredFields.isEmpty() && !declaredFields.contains(ALL_FIELDS_PATTERN);
         List<FieldHit> fieldHits = new ArrayList<>();
         highlightFields.forEach((f, h) -> {
-            if (isDisplayedField(f)) {
+            if (isDisplayedField(f) && (!restricted || Regex.simpleMatch(declaredFields, f))) {
                 String highlight = Arrays.stream(h.getFragments()).map(Text::toString).collect(Collectors.joining("..."));
                 fieldHits.add(new FieldHit(formatFieldName(f), highlight));
             }
         });
-        return new SearchResultEntry(entityId, instanceName, entityName, fieldHits);
+        return fieldHits;
     }
 
     protected boolean isDisplayedField(String fieldName) {
-        return !Constants.INSTANCE_NAME_FIELD.equals(fieldName);
+        return !Constants.INSTANCE_NAME_FIELD.equals(fieldName)
+                && !Constants.CATCH_ALL_FIELD.equals(fieldName)
+                && !fieldName.startsWith(Constants.SECURITY_FIELDS_ROOT + ".");
     }
 
     protected Set<String> reloadIds(MetaClass metaClass, Collection<Object> entityIds) {
@@ -280,4 +1115,94 @@ public class EntitySearcherImpl implements EntitySearcher {
     protected String formatFieldName(String fieldName) {
         return StringUtils.removeEnd(fieldName, "." + Constants.INSTANCE_NAME_FIELD);
     }
+
+    /**
+     * Search request executed within multi-search along with its result and target indexes.
+     */
+    protected static class MultiSearchItem {
+
+        protected final SearchResultImpl searchResult;
+        protected SearchRequest searchRequest;
+        protected final List<String> targetIndexes;
+
+        public MultiSearchItem(SearchResultImpl searchResult, SearchRequest searchRequest, List<String> targetIndexes) {
+            this.searchResult = searchResult;
+            this.searchRequest = searchRequest;
+            this.targetIndexes = targetIndexes;
+        }
+    }
+
+    /**
+     * State of single asynchronous search. Aborts running Elasticsearch request when result future is cancelled
+     * or completed exceptionally, e.g. by timeout.
+     */
+    protected static class AsyncSearchExecution {
+
+        protected final Executor executor;
+        protected final CompletableFuture<SearchResult> resultFuture = new CompletableFuture<>();
+        protected volatile Cancellable runningRequest;
+
+        public AsyncSearchExecution(Executor executor) {
+            this.executor = executor;
+            resultFuture.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    cancelRunningRequest();
+                }
+            });
+        }
+
+        public CompletableFuture<SearchResult> getResultFuture() {
+            return resultFuture;
+        }
+
+        /**
+         * Executes search step unless search is already completed. Failure of step completes search exceptionally.
+         */
+        public void execute(Runnable step) {
+            if (resultFuture.isDone()) {
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    if (resultFuture.isDone()) {
+                        return;
+                    }
+                    try {
+                        step.run();
+                    } catch (RuntimeException e) {
+                        fail(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fail(e);
+            }
+        }
+
+        public void setRunningRequest(Cancellable runningRequest) {
+            this.runningRequest = runningRequest;
+            if (resultFuture.isDone()) {
+                runningRequest.cancel();
+            }
+        }
+
+        /**
+         * Completes search with provided result.
+         *
+         * @return false if search has already been completed, e.g. cancelled or timed out
+         */
+        public boolean complete(SearchResult searchResult) {
+            return resultFuture.complete(searchResult);
+        }
+
+        public void fail(Throwable throwable) {
+            resultFuture.completeExceptionally(throwable);
+        }
+
+        protected void cancelRunningRequest() {
+            Cancellable cancellable = runningRequest;
+            if (cancellable != null) {
+                cancellable.cancel();
+            }
+        }
+    }
 }
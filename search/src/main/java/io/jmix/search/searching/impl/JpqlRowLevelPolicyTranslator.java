@@ -0,0 +1,271 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.searching.impl;
+
+import io.jmix.core.MetadataTools;
+import io.jmix.core.metamodel.datatype.Datatype;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.metamodel.model.MetaProperty;
+import io.jmix.core.metamodel.model.MetaPropertyPath;
+import io.jmix.core.metamodel.model.Range;
+import io.jmix.data.impl.QueryParamValuesManager;
+import io.jmix.search.index.mapping.propertyvalue.impl.SecurityPropertyValueExtractor;
+import io.jmix.search.searching.RowLevelPolicyTranslator;
+import io.jmix.search.utils.Constants;
+import io.jmix.security.model.RowLevelPolicy;
+import io.jmix.security.model.RowLevelPolicyType;
+import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import java.text.ParseException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Translates JPQL row-level policies which where clause is a conjunction of simple conditions on local properties:
+ * <ul>
+ *     <li>{@code {E}.property = :param} or {@code {E}.property = 'literal'}</li>
+ *     <li>{@code {E}.property in :param} or {@code {E}.property in ('a', 'b')}</li>
+ *     <li>{@code {E}.property is null} or {@code {E}.property is not null}</li>
+ * </ul>
+ * Property can be a datatype property, an enum or a to-one reference (also referred by {@code {E}.reference.id}).
+ * Parameters are resolved by {@link QueryParamValuesManager}.
+ */
+@Component("search_JpqlRowLevelPolicyTranslator")
+public class JpqlRowLevelPolicyTranslator implements RowLevelPolicyTranslator {
+
+    private static final Logger log = LoggerFactory.getLogger(JpqlRowLevelPolicyTranslator.class);
+
+    protected static final Set<Class<?>> SUPPORTED_DATATYPES = new HashSet<>(Arrays.asList(
+            String.class, UUID.class, Integer.class, Long.class, Boolean.class
+    ));
+
+    protected static final Pattern CONDITIONS_SEPARATOR = Pattern.compile("\\s+and\\s+", Pattern.CASE_INSENSITIVE);
+    protected static final String PATH = "\\{E\\}\\.([A-Za-z_]\\w*(?:\\.[A-Za-z_]\\w*)?)";
+    protected static final String PARAMETER = ":([\\w$]+)";
+    protected static final String LITERAL = "'[^',]*'|-?\\d+|true|false";
+    protected static final Pattern EQUALS_PATTERN = Pattern.compile(
+            PATH + "\\s*=\\s*(?:" + PARAMETER + "|(" + LITERAL + "))", Pattern.CASE_INSENSITIVE);
+    protected static final Pattern IN_PATTERN = Pattern.compile(
+            PATH + "\\s+in\\s*(?:" + PARAMETER + "|\\(\\s*((?:" + LITERAL + ")(?:\\s*,\\s*(?:" + LITERAL + "))*)\\s*\\))",
+            Pattern.CASE_INSENSITIVE);
+    protected static final Pattern NULL_PATTERN = Pattern.compile(
+            PATH + "\\s+is\\s+(not\\s+)?null", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    protected MetadataTools metadataTools;
+    @Autowired
+    protected QueryParamValuesManager queryParamValuesManager;
+    @Autowired
+    protected SecurityPropertyValueExtractor securityPropertyValueExtractor;
+
+    @Override
+    public Optional<Set<String>> getRequiredProperties(MetaClass metaClass, RowLevelPolicy policy) {
+        List<Condition> conditions = parseConditions(metaClass, policy);
+        if (conditions == null) {
+            return Optional.empty();
+        }
+        Set<String> properties = new HashSet<>();
+        conditions.forEach(condition -> properties.add(condition.property));
+        return Optional.of(properties);
+    }
+
+    @Override
+    public Optional<QueryBuilder> createFilter(MetaClass metaClass, RowLevelPolicy policy) {
+        List<Condition> conditions = parseConditions(metaClass, policy);
+        if (conditions == null) {
+            return Optional.empty();
+        }
+        BoolQueryBuilder filter = QueryBuilders.boolQuery();
+        for (Condition condition : conditions) {
+            QueryBuilder clause = createClause(condition);
+            if (clause == null) {
+                return Optional.empty();
+            }
+            filter.filter(clause);
+        }
+        return Optional.of(filter);
+    }
+
+    @Nullable
+    protected List<Condition> parseConditions(MetaClass metaClass, RowLevelPolicy policy) {
+        if (policy.getType() != RowLevelPolicyType.JPQL
+                || StringUtils.isNotBlank(policy.getJoinClause())
+                || StringUtils.isBlank(policy.getWhereClause())) {
+            return null;
+        }
+        List<Condition> conditions = new ArrayList<>();
+        for (String conditionText : CONDITIONS_SEPARATOR.split(policy.getWhereClause().trim())) {
+            Condition condition = parseCondition(metaClass, conditionText.trim());
+            if (condition == null) {
+                log.debug("Row-level policy '{}' of entity '{}' can't be translated: unsupported condition '{}'",
+                        policy.getWhereClause(), metaClass.getName(), conditionText);
+                return null;
+            }
+            conditions.add(condition);
+        }
+        return conditions;
+    }
+
+    @Nullable
+    protected Condition parseCondition(MetaClass metaClass, String conditionText) {
+        Matcher matcher;
+        ConditionType type;
+        if ((matcher = EQUALS_PATTERN.matcher(conditionText)).matches()) {
+            type = ConditionType.EQUALS;
+        } else if ((matcher = IN_PATTERN.matcher(conditionText)).matches()) {
+            type = ConditionType.IN;
+        } else if ((matcher = NULL_PATTERN.matcher(conditionText)).matches()) {
+            type = matcher.group(2) == null ? ConditionType.IS_NULL : ConditionType.IS_NOT_NULL;
+        } else {
+            return null;
+        }
+
+        MetaPropertyPath valuePath = metaClass.getPropertyPath(matcher.group(1));
+        String property = valuePath == null ? null : resolveIndexedProperty(valuePath);
+        if (property == null) {
+            return null;
+        }
+
+        Condition condition = new Condition(type, property, valuePath);
+        if (type == ConditionType.EQUALS || type == ConditionType.IN) {
+            condition.parameterName = matcher.group(2);
+            if (matcher.group(3) != null) {
+                condition.literals = Arrays.asList(matcher.group(3).split("\\s*,\\s*"));
+            }
+        }
+        return condition;
+    }
+
+    /**
+     * Resolves local property that should be stored in index to evaluate condition on provided property path.
+     *
+     * @return property name or null if property is not supported
+     */
+    @Nullable
+    protected String resolveIndexedProperty(MetaPropertyPath propertyPath) {
+        MetaProperty[] metaProperties = propertyPath.getMetaProperties();
+        MetaProperty localProperty = metaProperties[0];
+        Range range = localProperty.getRange();
+        if (metaProperties.length > 1) {
+            boolean referenceIdPath = range.isClass()
+                    && !range.getCardinality().isMany()
+                    && metaProperties[1].getName().equals(metadataTools.getPrimaryKeyName(range.asClass()));
+            return referenceIdPath ? localProperty.getName() : null;
+        }
+        if (range.isClass()) {
+            return range.getCardinality().isMany() ? null : localProperty.getName();
+        }
+        if (range.isEnum() || (range.isDatatype() && SUPPORTED_DATATYPES.contains(range.asDatatype().getJavaClass()))) {
+            return localProperty.getName();
+        }
+        return null;
+    }
+
+    @Nullable
+    protected QueryBuilder createClause(Condition condition) {
+        String fieldName = Constants.SECURITY_FIELDS_ROOT + "." + condition.property;
+        switch (condition.type) {
+            case IS_NULL:
+                return QueryBuilders.boolQuery().mustNot(QueryBuilders.existsQuery(fieldName));
+            case IS_NOT_NULL:
+                return QueryBuilders.existsQuery(fieldName);
+            default:
+                Collection<String> values = condition.literals == null
+                        ? resolveParameterValues(condition.parameterName)
+                        : parseLiterals(condition.valuePath, condition.literals);
+                if (values == null) {
+                    return null;
+                }
+                // Comparison with null or empty collection matches nothing like in JPQL
+                return values.isEmpty()
+                        ? QueryBuilders.boolQuery().mustNot(QueryBuilders.matchAllQuery())
+                        : QueryBuilders.termsQuery(fieldName, values);
+        }
+    }
+
+    @Nullable
+    protected Collection<String> resolveParameterValues(String parameterName) {
+        if (!queryParamValuesManager.supports(parameterName)) {
+            log.debug("Parameter '{}' of row-level policy can't be resolved", parameterName);
+            return null;
+        }
+        Object value = queryParamValuesManager.getValue(parameterName);
+        List<String> result = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                if (item != null) {
+                    result.add(securityPropertyValueExtractor.toIndexValue(item));
+                }
+            }
+        } else if (value != null) {
+            result.add(securityPropertyValueExtractor.toIndexValue(value));
+        }
+        return result;
+    }
+
+    @Nullable
+    protected Collection<String> parseLiterals(MetaPropertyPath valuePath, List<String> literals) {
+        if (!valuePath.getRange().isDatatype()) {
+            return null;
+        }
+        Datatype<?> datatype = valuePath.getRange().asDatatype();
+        List<String> result = new ArrayList<>();
+        for (String literal : literals) {
+            String rawValue = StringUtils.removeEnd(StringUtils.removeStart(literal, "'"), "'");
+            try {
+                Object value = datatype.parse(rawValue);
+                if (value != null) {
+                    result.add(securityPropertyValueExtractor.toIndexValue(value));
+                }
+            } catch (ParseException e) {
+                log.debug("Unable to parse literal '{}' of property '{}'", literal, valuePath, e);
+                return null;
+            }
+        }
+        return result;
+    }
+
+    protected enum ConditionType {
+        EQUALS,
+        IN,
+        IS_NULL,
+        IS_NOT_NULL
+    }
+
+    protected static class Condition {
+        protected final ConditionType type;
+        protected final String property;
+        protected final MetaPropertyPath valuePath;
+        protected String parameterName;
+        protected List<String> literals;
+
+        protected Condition(ConditionType type, String property, MetaPropertyPath valuePath) {
+            this.type = type;
+            this.property = property;
+            this.valuePath = valuePath;
+        }
+    }
+}
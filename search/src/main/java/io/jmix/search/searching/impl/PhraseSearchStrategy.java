@@ -38,8 +38,10 @@ public class PhraseSearchStrategy extends AbstractSearchStrategy {
     @Override
     public void configureRequest(SearchRequest searchRequest, SearchContext searchContext) {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        MultiMatchQueryBuilder queryBuilder = QueryBuilders.multiMatchQuery(searchContext.getSearchText(), "*")
-                .type(MultiMatchQueryBuilder.Type.PHRASE);
+        MultiMatchQueryBuilder queryBuilder = QueryBuilders.multiMatchQuery(searchContext.getSearchText())
+                .fields(resolveAnyFieldQueryFields(searchContext))
+                .type(MultiMatchQueryBuilder.Type.PHRASE)
+                .lenient(true);
         searchSourceBuilder.query(queryBuilder);
 
         searchRequest.source(searchSourceBuilder);
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.searching.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.security.CurrentAuthentication;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks share of search hits that remain accessible for user after row-level security filtration.
+ * <p>Ratio is tracked per user and entity and is smoothed over recent searches.
+ */
+@Component("search_SearchAcceptanceRatioTracker")
+public class SearchAcceptanceRatioTracker {
+
+    protected static final double SMOOTHING_FACTOR = 0.3;
+
+    @Autowired
+    protected CurrentAuthentication currentAuthentication;
+
+    protected Cache<String, Double> ratios = CacheBuilder.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
+
+    /**
+     * Gets observed share of accessible hits of provided entity for current user.
+     *
+     * @param metaClass entity
+     * @return ratio within [0, 1]. 1 if there are no observations yet
+     */
+    public double getAcceptanceRatio(MetaClass metaClass) {
+        Double ratio = ratios.getIfPresent(createKey(metaClass));
+        return ratio == null ? 1.0 : ratio;
+    }
+
+    /**
+     * Registers result of row-level security filtration of hits of provided entity for current user.
+     *
+     * @param metaClass entity
+     * @param fetched   amount of hits before filtration
+     * @param accepted  amount of hits accessible for user
+     */
+    public void registerObservation(MetaClass metaClass, int fetched, int accepted) {
+        if (fetched <= 0) {
+            return;
+        }
+        String key = createKey(metaClass);
+        double observed = (double) accepted / fetched;
+        Double previous = ratios.getIfPresent(key);
+        double ratio = previous == null ? observed : previous + SMOOTHING_FACTOR * (observed - previous);
+        ratios.put(key, ratio);
+    }
+
+    protected String createKey(MetaClass metaClass) {
+        String username = currentAuthentication.isSet() ? currentAuthentication.getUser().getUsername() : "";
+        return username + "/" + metaClass.getName();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.searching.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.jmix.core.common.util.Preconditions;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Position within search result defined by point-in-time and sort values of the last consumed hit.
+ * Cursor without sort values means that search continues from offset of result within point-in-time.
+ * <p>Exposed to clients as opaque string via {@link #encode()}.
+ */
+public class SearchCursor {
+
+    protected static final ObjectMapper objectMapper = new ObjectMapper();
+
+    protected final String pointInTimeId;
+    protected final Object[] sortValues;
+
+    public SearchCursor(String pointInTimeId, @Nullable Object[] sortValues) {
+        Preconditions.checkNotNullArgument(pointInTimeId);
+        this.pointInTimeId = pointInTimeId;
+        this.sortValues = sortValues;
+    }
+
+    /**
+     * Restores cursor from string created by {@link #encode()}.
+     *
+     * @param cursor encoded cursor
+     * @return {@link SearchCursor}
+     * @throws IllegalArgumentException if string is not a valid cursor
+     */
+    public static SearchCursor decode(String cursor) {
+        Preconditions.checkNotNullArgument(cursor);
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            ObjectNode root = (ObjectNode) objectMapper.readTree(json);
+            String pointInTimeId = root.get("pit").asText();
+            JsonNode sort = root.get("sort");
+            Object[] sortValues = sort == null || sort.isNull() ? null : objectMapper.convertValue(sort, Object[].class);
+            return new SearchCursor(pointInTimeId, sortValues);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid search cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Encodes cursor into opaque URL-safe string.
+     *
+     * @return encoded cursor
+     */
+    public String encode() {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("pit", pointInTimeId);
+        if (sortValues != null) {
+            ArrayNode sort = root.putArray("sort");
+            for (Object sortValue : sortValues) {
+                sort.addPOJO(sortValue);
+            }
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsString(root).getBytes(StandardCharsets.UTF_8);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to encode search cursor", e);
+        }
+    }
+
+    public String getPointInTimeId() {
+        return pointInTimeId;
+    }
+
+    @Nullable
+    public Object[] getSortValues() {
+        return sortValues;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCursor{" +
+                "pointInTimeId='" + pointInTimeId + '\'' +
+                ", sortValues=" + Arrays.toString(sortValues) +
+                '}';
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.jmix.search.searching.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.jmix.core.Metadata;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.security.CurrentAuthentication;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.searching.SearchContext;
+import io.jmix.search.searching.SearchResult;
+import io.jmix.search.searching.SearchResultCache;
+import io.jmix.search.searching.SearchStrategy;
+import io.jmix.security.constraint.PolicyStore;
+import io.jmix.security.constraint.SecureOperations;
+import io.jmix.security.model.RowLevelPolicy;
+import io.jmix.security.model.RowLevelPolicyType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Default {@link SearchResultCache} with TTL and size-bounded eviction.
+ * <p>Cache key contains generations of searched entities. Invalidation increments generation of entity,
+ * so outdated entries become unreachable and are evicted eventually. Generations are kept in memory of current
+ * application instance, so invalidation doesn't affect caches of other instances.
+ * <p>Results are shared between users having the same read permissions and row-level policies for searched entities.
+ * Row-level policies which may depend on current user (predicates, JPQL with parameters) make results user-specific.
+ */
+@Component("search_SearchResultCache")
+public class SearchResultCacheImpl implements SearchResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchResultCacheImpl.class);
+
+    @Autowired
+    protected SearchProperties searchProperties;
+    @Autowired
+    protected Metadata metadata;
+    @Autowired
+    protected IndexConfigurationManager indexConfigurationManager;
+    @Autowired
+    protected SecureOperations secureOperations;
+    @Autowired
+    protected PolicyStore policyStore;
+    @Autowired
+    protected CurrentAuthentication currentAuthentication;
+
+    protected Cache<List<Object>, SearchResult> results;
+    protected final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    protected final AtomicLong globalGeneration = new AtomicLong();
+
+    @PostConstruct
+    protected void init() {
+        results = CacheBuilder.newBuilder()
+                .maximumSize(searchProperties.getSearchResultCacheMaxSize())
+                .expireAfterWrite(searchProperties.getSearchResultCacheTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public SearchResult get(SearchContext searchContext, SearchStrategy searchStrategy, Supplier<SearchResult> loader) {
+        // Key is created before search to not cache result of search concurrent with index change under new generation
+        List<Object> key = createKey(searchContext, searchStrategy);
+        SearchResult searchResult = results.getIfPresent(key);
+        if (searchResult != null) {
+            log.debug("Search result is taken from cache: {}", searchContext);
+            return searchResult;
+        }
+        searchResult = loader.get();
+        results.put(key, searchResult);
+        return searchResult;
+    }
+
+    @Override
+    public void invalidate(Collection<String> entityNames) {
+        for (String entityName : entityNames) {
+            generations.computeIfAbsent(entityName, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        globalGeneration.incrementAndGet();
+        results.invalidateAll();
+    }
+
+    protected List<Object> createKey(SearchContext searchContext, SearchStrategy searchStrategy) {
+        List<String> entityNames = resolveEntityNames(searchContext);
+        List<Long> entityGenerations = entityNames.stream()
+                .map(entityName -> {
+                    AtomicLong generation = generations.get(entityName);
+                    return generation == null ? 0L : generation.get();
+                })
+                .collect(Collectors.toList());
+
+        return Arrays.asList(
+                normalizeSearchText(searchContext.getSearchText()),
+                searchStrategy.getName(),
+                entityNames,
+                searchContext.getSize(),
+                searchContext.getOffset(),
+                searchContext.getCursor(),
+                searchContext.isEntityCountsRequested(),
+                createSecurityFingerprint(entityNames),
+                globalGeneration.get(),
+                entityGenerations
+        );
+    }
+
+    protected List<String> resolveEntityNames(SearchContext searchContext) {
+        Collection<String> entityNames = searchContext.getEntities();
+        if (entityNames.isEmpty()) {
+            entityNames = indexConfigurationManager.getAllIndexedEntities();
+        }
+        return entityNames.stream()
+                .sorted()
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    protected String normalizeSearchText(String searchText) {
+        return searchText.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Creates string describing permissions of current user that affect result of search within provided entities.
+     */
+    protected String createSecurityFingerprint(List<String> entityNames) {
+        StringBuilder fingerprint = new StringBuilder();
+        boolean userSpecific = false;
+        for (String entityName : entityNames) {
+            MetaClass metaClass = metadata.getClass(entityName);
+            fingerprint.append(entityName).append(':');
+            if (!secureOperations.isEntityReadPermitted(metaClass, policyStore)) {
+                fingerprint.append("denied;");
+                continue;
+            }
+            List<String> policies = new ArrayList<>();
+            for (RowLevelPolicy policy : policyStore.getRowLevelPolicies(metaClass).collect(Collectors.toList())) {
+                policies.add(policy.getType() + "/" + policy.getAction() + "/" + policy.getJoinClause() + "/" + policy.getWhereClause());
+                userSpecific |= isUserSpecific(policy);
+            }
+            Collections.sort(policies);
+            fingerprint.append(policies).append(';');
+        }
+        if (userSpecific && currentAuthentication.isSet()) {
+            fingerprint.append("user:").append(currentAuthentication.getUser().getUsername());
+        }
+        return fingerprint.toString();
+    }
+
+    protected boolean isUserSpecific(RowLevelPolicy policy) {
+        if (policy.getType() == RowLevelPolicyType.PREDICATE) {
+            return true;
+        }
+        return (policy.getWhereClause() != null && policy.getWhereClause().contains(":"))
+                || (policy.getJoinClause() != null && policy.getJoinClause().contains(":"));
+    }
+}
@@ -21,6 +21,7 @@ import io.jmix.search.searching.SearchResult;
 import io.jmix.search.searching.SearchResultEntry;
 import io.jmix.search.searching.SearchStrategy;
 
+import javax.annotation.Nullable;
 import java.util.*;
 
 public class SearchResultImpl implements SearchResult {
@@ -31,6 +32,10 @@ public class SearchResultImpl implements SearchResult {
     protected int effectiveOffset;
     protected boolean moreDataAvailable = false;
     protected SearchStrategy searchStrategy;
+    protected volatile String pointInTimeId;
+    protected Object[] lastSortValues;
+    protected Set<String> prefilteredEntityNames = Collections.emptySet();
+    protected Map<String, Long> entityCounts;
 
     public SearchResultImpl(SearchContext searchContext, SearchStrategy searchStrategy) {
         this.searchContext = searchContext;
@@ -87,6 +92,72 @@ public class SearchResultImpl implements SearchResult {
         this.effectiveOffset++;
     }
 
+    /**
+     * Marks hit with provided sort values as consumed. Next-page search continues after it.
+     *
+     * @param sortValues sort values of consumed hit
+     */
+    public void consumeHit(Object[] sortValues) {
+        incrementOffset();
+        if (sortValues != null && sortValues.length > 0) {
+            this.lastSortValues = sortValues;
+        }
+    }
+
+    @Nullable
+    public String getPointInTimeId() {
+        return pointInTimeId;
+    }
+
+    public void setPointInTimeId(@Nullable String pointInTimeId) {
+        this.pointInTimeId = pointInTimeId;
+    }
+
+    @Nullable
+    public Object[] getLastSortValues() {
+        return lastSortValues;
+    }
+
+    public void setLastSortValues(@Nullable Object[] lastSortValues) {
+        this.lastSortValues = lastSortValues;
+    }
+
+    /**
+     * Gets names of entities which row-level policies have been completely applied by search request itself,
+     * so their hits don't require verification.
+     *
+     * @return entity names
+     */
+    public Set<String> getPrefilteredEntityNames() {
+        return prefilteredEntityNames;
+    }
+
+    public void setPrefilteredEntityNames(Set<String> prefilteredEntityNames) {
+        this.prefilteredEntityNames = prefilteredEntityNames;
+    }
+
+    @Override
+    public Map<String, Long> getEntityCounts() {
+        return entityCounts == null ? Collections.emptyMap() : Collections.unmodifiableMap(entityCounts);
+    }
+
+    public boolean hasEntityCounts() {
+        return entityCounts != null;
+    }
+
+    public void setEntityCounts(Map<String, Long> entityCounts) {
+        this.entityCounts = entityCounts;
+    }
+
+    @Nullable
+    @Override
+    public String getCursor() {
+        if (pointInTimeId == null) {
+            return null;
+        }
+        return new SearchCursor(pointInTimeId, lastSortValues).encode();
+    }
+
     @Override
     public SearchContext getSearchContext() {
         return searchContext;
@@ -107,7 +178,9 @@ public class SearchResultImpl implements SearchResult {
         return new SearchContext(this.searchContext.getSearchText())
                 .setSize(this.searchContext.getSize())
                 .setEntities(this.searchContext.getEntities())
-                .setOffset(getEffectiveOffset());
+                .setOffset(getEffectiveOffset())
+                .setCursor(isMoreDataAvailable() ? getCursor() : null)
+                .setTimeout(this.searchContext.getTimeout());
     }
 
     public void setMoreDataAvailable(boolean moreDataAvailable) {
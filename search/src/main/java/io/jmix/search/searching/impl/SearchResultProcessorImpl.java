@@ -24,9 +24,25 @@ import io.jmix.search.searching.SearchResult;
 import io.jmix.search.searching.SearchResultEntry;
 import io.jmix.search.searching.SearchResultProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component("search_SearchResultProcessor")
@@ -41,6 +57,33 @@ public class SearchResultProcessorImpl implements SearchResultProcessor {
     @Autowired
     protected DataManager secureDataManager;
 
+    protected final AtomicInteger threadCounter = new AtomicInteger();
+    /**
+     * Provides helper threads for concurrent loading. Its size is limited by
+     * {@link SearchProperties#getMaxSearchReloadThreads()}, the amount of threads used by a single call is limited by
+     * {@link SearchProperties#getSearchReloadEntitiesConcurrency()}. Helper task rejected because all threads are busy
+     * is executed by the calling thread.
+     */
+    protected ExecutorService loadExecutor;
+
+    @PostConstruct
+    protected void init() {
+        int threads = Math.max(searchProperties.getMaxSearchReloadThreads(), 1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "search-reload-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        loadExecutor = executor;
+    }
+
+    @PreDestroy
+    protected void preDestroy() {
+        loadExecutor.shutdownNow();
+    }
+
     @Override
     public Collection<Object> loadEntityInstances(SearchResult searchResult) {
         return loadEntityInstances(searchResult, Collections.emptyMap());
@@ -48,29 +91,122 @@ public class SearchResultProcessorImpl implements SearchResultProcessor {
 
     @Override
     public Collection<Object> loadEntityInstances(SearchResult searchResult, Map<String, FetchPlan> fetchPlans) {
-        List<Object> result = new ArrayList<>(searchResult.getSize());
-        searchResult.getEntityNames().forEach(entityName -> {
+        return loadEntityInstances(searchResult, (Function<String, FetchPlan>) fetchPlans::get);
+    }
+
+    @Override
+    public Collection<Object> loadEntityInstances(SearchResult searchResult, Function<String, FetchPlan> fetchPlanProvider) {
+        Map<String, Integer> hitPositions = new HashMap<>();
+        for (SearchResultEntry entry : searchResult.getAllEntries()) {
+            hitPositions.putIfAbsent(entry.getDocId(), hitPositions.size());
+        }
+
+        List<LoadTask> tasks = new ArrayList<>();
+        for (String entityName : searchResult.getEntityNames()) {
             MetaClass metaClass = metadata.getClass(entityName);
+            FetchPlan fetchPlan = fetchPlanProvider.apply(entityName);
             Collection<SearchResultEntry> entries = searchResult.getEntriesByEntityName(entityName);
-
             for (Collection<SearchResultEntry> entriesPartition : Iterables.partition(entries, searchProperties.getSearchReloadEntitiesBatchSize())) {
                 List<Object> partitionIds = entriesPartition.stream()
                         .map(entry -> idSerialization.stringToId(entry.getDocId()))
                         .map(Id::getValue)
                         .collect(Collectors.toList());
+                tasks.add(new LoadTask(metaClass, partitionIds, fetchPlan));
+            }
+        }
+
+        Object[] orderedInstances = new Object[hitPositions.size()];
+        for (Object instance : executeLoadTasks(tasks)) {
+            Integer position = hitPositions.get(getDocId(instance));
+            if (position != null) {
+                orderedInstances[position] = instance;
+            }
+        }
+        return Arrays.stream(orderedInstances)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Executes load tasks on behalf of the current user. The calling thread takes part in loading along with
+     * at most {@code searchReloadEntitiesConcurrency - 1} helper threads, so concurrency is bounded per call
+     * and slow searches don't block each other. Tasks are executed in the calling thread only if there is
+     * a single task or a transaction is active: the loading must see the changes of the caller's transaction.
+     */
+    protected List<Object> executeLoadTasks(List<LoadTask> tasks) {
+        int concurrency = Math.min(searchProperties.getSearchReloadEntitiesConcurrency(), tasks.size());
+        if (concurrency <= 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            List<Object> result = new ArrayList<>();
+            for (LoadTask task : tasks) {
+                result.addAll(loadPartition(task));
+            }
+            return result;
+        }
 
-                FetchPlan fetchPlan = fetchPlans.get(entityName);
-                FluentLoader.ByIds<Object> loader = secureDataManager.load(metaClass.getJavaClass()).ids(partitionIds);
-                if (fetchPlan == null) {
-                    loader.fetchPlan(FetchPlan.BASE);
-                } else {
-                    loader.fetchPlan(fetchPlan);
+        List<List<Object>> results = Collections.synchronizedList(new ArrayList<>(Collections.nCopies(tasks.size(), null)));
+        AtomicInteger nextTask = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        Runnable worker = () -> {
+            int taskIndex;
+            while (!failed.get() && (taskIndex = nextTask.getAndIncrement()) < tasks.size()) {
+                try {
+                    results.set(taskIndex, loadPartition(tasks.get(taskIndex)));
+                } catch (RuntimeException e) {
+                    failed.set(true);
+                    throw e;
                 }
-                List<Object> partitionResult = loader.list();
+            }
+        };
 
-                result.addAll(partitionResult);
+        Executor executor = new DelegatingSecurityContextExecutor(loadExecutor, SecurityContextHolder.getContext());
+        List<CompletableFuture<Void>> helpers = new ArrayList<>(concurrency - 1);
+        for (int i = 0; i < concurrency - 1; i++) {
+            helpers.add(CompletableFuture.runAsync(worker, executor));
+        }
+        worker.run();
+        try {
+            helpers.forEach(CompletableFuture::join);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
-        });
+            throw e;
+        }
+
+        List<Object> result = new ArrayList<>();
+        for (List<Object> partition : results) {
+            result.addAll(partition);
+        }
         return result;
     }
+
+    protected String getDocId(Object instance) {
+        return idSerialization.idToString(Id.of(instance));
+    }
+
+    protected List<Object> loadPartition(LoadTask task) {
+        FluentLoader.ByIds<Object> loader = secureDataManager.load(task.metaClass.getJavaClass()).ids(task.ids);
+        if (task.fetchPlan == null) {
+            loader.fetchPlan(FetchPlan.BASE);
+        } else {
+            loader.fetchPlan(task.fetchPlan);
+        }
+        return loader.list();
+    }
+
+    /**
+     * Batch of entity instances to load.
+     */
+    protected static class LoadTask {
+
+        protected final MetaClass metaClass;
+        protected final List<Object> ids;
+        protected final FetchPlan fetchPlan;
+
+        public LoadTask(MetaClass metaClass, List<Object> ids, @Nullable FetchPlan fetchPlan) {
+            this.metaClass = metaClass;
+            this.ids = ids;
+            this.fetchPlan = fetchPlan;
+        }
+    }
 }
@@ -19,4 +19,7 @@ package io.jmix.search.utils;
 public class Constants {
 
     public static final String INSTANCE_NAME_FIELD = "_instance_name";
+    public static final String INSTANCE_ID_FIELD = "_instance_id";
+    public static final String SECURITY_FIELDS_ROOT = "_security";
+    public static final String CATCH_ALL_FIELD = "_all_text";
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package change_tracking;
+
+import io.jmix.core.Metadata;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.metamodel.model.MetaPropertyPath;
+import io.jmix.search.index.mapping.EntityChangeRouting;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import test_support.EntityChangeTrackingTestConfiguration;
+import test_support.entity.TestReferenceEntity;
+import test_support.entity.TestRootEntity;
+import test_support.entity.TestSubReferenceEntity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+        classes = {EntityChangeTrackingTestConfiguration.class}
+)
+public class EntityChangeRoutingTest {
+
+    @Autowired
+    IndexConfigurationManager indexConfigurationManager;
+    @Autowired
+    Metadata metadata;
+
+    @Test
+    @DisplayName("Change of indexed local property requires reindex of instance itself")
+    public void indexedLocalPropertyRequiresSelfReindex() {
+        EntityChangeRouting routing = indexConfigurationManager.getChangeRouting(TestRootEntity.class);
+        Assert.assertTrue(routing.isSelfReindexRequired(Collections.singletonList("textValue")));
+        Assert.assertTrue(routing.isSelfReindexRequired(Arrays.asList("intValue", "name")));
+    }
+
+    @Test
+    @DisplayName("Change of not-indexed local property doesn't require reindex of instance itself")
+    public void notIndexedLocalPropertyDoesNotRequireSelfReindex() {
+        EntityChangeRouting routing = indexConfigurationManager.getChangeRouting(TestRootEntity.class);
+        Assert.assertFalse(routing.isSelfReindexRequired(Collections.singletonList("intValue")));
+        Assert.assertFalse(routing.isSelfReindexRequired(Collections.emptyList()));
+    }
+
+    @Test
+    @DisplayName("Change of indexed property of reference is routed to dependent root entity")
+    public void indexedReferencePropertyIsRoutedToDependentEntity() {
+        EntityChangeRouting routing = indexConfigurationManager.getChangeRouting(TestReferenceEntity.class);
+        Assert.assertTrue(routing.hasDependencies(Collections.singletonList("textValue")));
+
+        Map<MetaClass, Set<MetaPropertyPath>> dependencies = routing.getDependencies(Collections.singletonList("textValue"));
+        Assert.assertTrue(dependencies.containsKey(metadata.getClass(TestRootEntity.class)));
+    }
+
+    @Test
+    @DisplayName("Change of not-indexed property of reference isn't routed anywhere")
+    public void notIndexedReferencePropertyIsNotRouted() {
+        EntityChangeRouting routing = indexConfigurationManager.getChangeRouting(TestReferenceEntity.class);
+        Assert.assertFalse(routing.hasDependencies(Collections.singletonList("intValue")));
+        Assert.assertTrue(routing.getDependencies(Collections.singletonList("intValue")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Dependencies of several changed attributes are merged")
+    public void dependenciesOfSeveralAttributesAreMerged() {
+        EntityChangeRouting routing = indexConfigurationManager.getChangeRouting(TestSubReferenceEntity.class);
+        Map<MetaClass, Set<MetaPropertyPath>> single = routing.getDependencies(Collections.singletonList("textValue"));
+        Map<MetaClass, Set<MetaPropertyPath>> merged = routing.getDependencies(Arrays.asList("textValue", "intValue"));
+        Assert.assertEquals(single, merged);
+    }
+
+    @Test
+    @DisplayName("Entity not involved in index process has empty routing")
+    public void notInvolvedEntityHasEmptyRouting() {
+        EntityChangeRouting routing = indexConfigurationManager.getChangeRouting(Object.class);
+        Assert.assertSame(EntityChangeRouting.EMPTY, routing);
+        Assert.assertFalse(routing.isSelfReindexRequired(Collections.singletonList("textValue")));
+    }
+}
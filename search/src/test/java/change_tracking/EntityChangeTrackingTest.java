@@ -28,6 +28,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import test_support.EntityChangeTrackingTestConfiguration;
 import test_support.TestCommonEntityWrapperManager;
 import test_support.TestIndexingQueueItemsTracker;
@@ -50,6 +52,8 @@ public class EntityChangeTrackingTest {
     Metadata metadata;
     @Autowired
     DataManager dataManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
 
     @BeforeEach
     public void setUp() {
@@ -248,6 +252,40 @@ public class EntityChangeTrackingTest {
         Assert.assertTrue(enqueuedDelete);
     }
 
+    @Test
+    @DisplayName("Update and deletion of indexed entity within single transaction lead to single deletion queue item enqueueing")
+    public void updateAndDeleteIndexedEntityWithinSingleTransaction() {
+        TestRootEntityHD entityHD = ewm.createTestRootEntityHD().save();
+        indexingQueueItemsTracker.clear();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ewm.wrap(entityHD).setTextValue("Some text value").save();
+            ewm.remove(entityHD);
+        });
+        boolean enqueuedIndex = indexingQueueItemsTracker.containsQueueItemsForEntityAndOperation(entityHD, IndexingOperation.INDEX, 0);
+        Assert.assertTrue(enqueuedIndex);
+        boolean enqueuedDelete = indexingQueueItemsTracker.containsQueueItemsForEntityAndOperation(entityHD, IndexingOperation.DELETE, 1);
+        Assert.assertTrue(enqueuedDelete);
+    }
+
+    @Test
+    @DisplayName("Changes made within rolled back transaction don't lead to queue item enqueueing")
+    public void rollbackTransaction() {
+        TestReferenceEntityHD referenceHD = ewm.createTestReferenceEntityHD().save();
+        TestRootEntityHD rootEntityHD = ewm.createTestRootEntityHD().setOneToOneAssociation(referenceHD).save();
+        indexingQueueItemsTracker.clear();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ewm.wrap(rootEntityHD).setTextValue("Some text value").save();
+            ewm.remove(referenceHD);
+            status.setRollbackOnly();
+        });
+        boolean enqueuedIndex = indexingQueueItemsTracker.containsQueueItemsForEntityAndOperation(rootEntityHD, IndexingOperation.INDEX, 0);
+        Assert.assertTrue(enqueuedIndex);
+        boolean enqueuedDelete = indexingQueueItemsTracker.containsQueueItemsForEntityAndOperation(referenceHD, IndexingOperation.DELETE, 0);
+        Assert.assertTrue(enqueuedDelete);
+    }
+
     @Test
     @DisplayName("Deletion of not-indexed entity doesn't lead to queue item enqueueing (Soft Delete)")
     public void deleteNotIndexedEntity() {
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package change_tracking;
+
+import io.jmix.core.Id;
+import io.jmix.search.index.queue.IndexingQueueManager;
+import io.jmix.search.listener.IndexingChangesBuffer;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import test_support.entity.TestRootEntity;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class IndexingChangesBufferTest {
+
+    @Test
+    @DisplayName("Buffered operations are kept while their amount doesn't exceed the limit")
+    public void operationsWithinLimit() {
+        IndexingQueueManager indexingQueueManager = mock(IndexingQueueManager.class);
+        IndexingChangesBuffer buffer = new IndexingChangesBuffer();
+        buffer.addIndex(Arrays.asList(createId(), createId()));
+        buffer.addDelete(createId());
+
+        Assert.assertEquals(0, buffer.spillOperations(indexingQueueManager, 3));
+        Assert.assertFalse(buffer.isEmpty());
+        verify(indexingQueueManager, never()).enqueueIndexCollectionByEntityIds(anyCollection());
+        verify(indexingQueueManager, never()).enqueueDeleteCollectionByEntityIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Buffered operations are enqueued once their amount exceeds the limit")
+    public void operationsExceedingLimit() {
+        IndexingQueueManager indexingQueueManager = mock(IndexingQueueManager.class);
+        when(indexingQueueManager.enqueueIndexCollectionByEntityIds(anyCollection()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        when(indexingQueueManager.enqueueDeleteCollectionByEntityIds(anyCollection()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+
+        IndexingChangesBuffer buffer = new IndexingChangesBuffer();
+        Id<?> deletedId = createId();
+        buffer.addIndex(Arrays.asList(createId(), createId(), createId()));
+        buffer.addDelete(deletedId);
+
+        Assert.assertEquals(4, buffer.spillOperations(indexingQueueManager, 3));
+        Assert.assertTrue(buffer.isEmpty());
+        verify(indexingQueueManager).enqueueDeleteCollectionByEntityIds(Collections.singletonList(deletedId));
+        verify(indexingQueueManager).enqueueIndexCollectionByEntityIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Dependencies of removed instances resolved together are taken once")
+    public void groupedRemovalDependencies() {
+        IndexingChangesBuffer buffer = new IndexingChangesBuffer();
+        Id<?> firstRemovedId = createId();
+        Id<?> secondRemovedId = createId();
+        Set<Id<?>> dependentIds = new HashSet<>(Arrays.asList(createId(), createId()));
+
+        Assert.assertTrue(buffer.addRemovalDependencies(Arrays.asList(firstRemovedId, secondRemovedId), dependentIds, 2));
+        Assert.assertFalse(buffer.addRemovalDependencies(createId(), Collections.singleton(createId()), 2));
+
+        Assert.assertEquals(dependentIds, buffer.takeRemovalDependencies(secondRemovedId));
+        Assert.assertTrue(buffer.takeRemovalDependencies(firstRemovedId).isEmpty());
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertTrue(buffer.addRemovalDependencies(createId(), Collections.singleton(createId()), 2));
+    }
+
+    protected Id<?> createId() {
+        return Id.of(UUID.randomUUID(), TestRootEntity.class);
+    }
+}
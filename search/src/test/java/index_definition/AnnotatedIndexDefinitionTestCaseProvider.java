@@ -220,4 +220,49 @@ public class AnnotatedIndexDefinitionTestCaseProvider {
                 )
         );
     }
+
+    public static Stream<Arguments> provideCatchAllFieldTestCases() {
+        return Stream.of(
+                Arguments.of(AnnotatedIndexDefinitionProcessorTestCase.builder("Values of local and sub-nested text fields are copied to catch-all field")
+                        .indexDefinitionClass(TestIncludeSpecificOneToOneSubRefNestedPropertiesIndexDefinition.class)
+                        .expectedEntityName("test_RootEntity")
+                        .expectedIndexName("search_index_test_rootentity")
+                        .expectedEntityClass(TestRootEntity.class)
+                        .pathToFileWithExpectedMapping("index_definition/catch_all/test_mapping_include_specific_one_to_one_sub_ref_nested_properties")
+                        .build()
+                ),
+                Arguments.of(AnnotatedIndexDefinitionProcessorTestCase.builder("Instance names of entity and reference are copied to catch-all field")
+                        .indexDefinitionClass(TestIncludeOneToOneReferencePropertyIndexDefinition.class)
+                        .expectedEntityName("test_RootEntity")
+                        .expectedIndexName("search_index_test_rootentity")
+                        .expectedEntityClass(TestRootEntity.class)
+                        .pathToFileWithExpectedMapping("index_definition/catch_all/test_mapping_include_one_to_one_reference_property")
+                        .build()
+                ),
+                Arguments.of(AnnotatedIndexDefinitionProcessorTestCase.builder("File name and content are copied to catch-all field")
+                        .indexDefinitionClass(TestIncludeLocalFilePropertyIndexDefinition.class)
+                        .expectedEntityName("test_SimpleFileRootEntity")
+                        .expectedIndexName("search_index_test_simplefilerootentity")
+                        .expectedEntityClass(TestSimpleFileRootEntity.class)
+                        .pathToFileWithExpectedMapping("index_definition/catch_all/test_mapping_include_local_file_property")
+                        .build()
+                ),
+                Arguments.of(AnnotatedIndexDefinitionProcessorTestCase.builder("Embeddable properties are copied to catch-all field")
+                        .indexDefinitionClass(TestIncludeEmbeddedPropertyIndexDefinition.class)
+                        .expectedEntityName("test_SimpleEmbRootEntity")
+                        .expectedIndexName("search_index_test_simpleembrootentity")
+                        .expectedEntityClass(TestSimpleEmbeddedRootEntity.class)
+                        .pathToFileWithExpectedMapping("index_definition/catch_all/test_mapping_include_all_embeddable_properties")
+                        .build()
+                ),
+                Arguments.of(AnnotatedIndexDefinitionProcessorTestCase.builder("Fields with analyzer of their own are copied to catch-all field")
+                        .indexDefinitionClass(TestProgrammaticMappingIndexDefinition.class)
+                        .expectedEntityName("test_SimpleRootEntity")
+                        .expectedIndexName("search_index_test_simplerootentity")
+                        .expectedEntityClass(TestSimpleRootEntity.class)
+                        .pathToFileWithExpectedMapping("index_definition/catch_all/test_mapping_programmatic")
+                        .build()
+                )
+        );
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package index_definition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.IndexConfiguration;
+import io.jmix.search.index.mapping.FieldConfiguration;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.mapping.IndexMappingConfiguration;
+import io.jmix.search.index.mapping.MappingFieldDescriptor;
+import io.jmix.search.index.mapping.processor.impl.AnnotatedIndexDefinitionProcessor;
+import io.jmix.search.searching.SearchContext;
+import io.jmix.search.searching.impl.AbstractSearchStrategy;
+import org.elasticsearch.action.search.SearchRequest;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import test_support.IndexDefinitionProcessingTestConfiguration;
+import test_support.TestJsonUtils;
+import test_support.index_definition.IndexConfigurationMatcher;
+import test_support.index_definition.common.TestMultiAnnotationInclusionIndexDefinition;
+import test_support.index_definition.common.TestProgrammaticMappingIndexDefinition;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+        classes = {IndexDefinitionProcessingTestConfiguration.class}
+)
+@TestPropertySource(properties = {"jmix.search.catch-all-field-enabled = true"})
+public class CatchAllFieldIndexDefinitionTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    AnnotatedIndexDefinitionProcessor indexDefinitionProcessor;
+    @Autowired
+    SearchProperties searchProperties;
+
+    TestSearchStrategy searchStrategy;
+
+    @BeforeEach
+    public void setUp() {
+        searchStrategy = new TestSearchStrategy(searchProperties);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("provideTestCases")
+    public void catchAllFieldMapping(AnnotatedIndexDefinitionProcessorTestCase testCase) {
+        IndexConfiguration indexConfiguration = indexDefinitionProcessor.createIndexConfiguration(testCase.getIndexDefinitionClass().getName());
+        JsonNode expectedMapping = TestJsonUtils.readJsonFromFile(testCase.getPathToFileWithExpectedMapping());
+        MatcherAssert.assertThat(indexConfiguration, IndexConfigurationMatcher.configureWith(
+                testCase.getExpectedEntityName(),
+                testCase.getExpectedIndexName(),
+                testCase.getExpectedEntityClass(),
+                expectedMapping
+        ));
+    }
+
+    protected static Stream<Arguments> provideTestCases() {
+        return AnnotatedIndexDefinitionTestCaseProvider.provideCatchAllFieldTestCases();
+    }
+
+    @Test
+    @DisplayName("Fields with analyzer other than analyzer of catch-all field are queried along with it")
+    public void fieldsWithSpecificAnalyzerAreQueried() {
+        searchStrategy.register(createIndexConfiguration(TestProgrammaticMappingIndexDefinition.class));
+
+        Assert.assertEquals(Arrays.asList("_all_text", "firstTextValue", "secondTextValue"),
+                new ArrayList<>(searchStrategy.resolveAnyFieldQueryFields(new SearchContext("text")).keySet()));
+    }
+
+    @Test
+    @DisplayName("Separately queried fields are collected from all requested entities only")
+    public void fieldsOfRequestedEntities() {
+        IndexConfiguration programmatic = createIndexConfiguration(TestProgrammaticMappingIndexDefinition.class);
+        IndexConfiguration multiAnnotation = createIndexConfiguration(TestMultiAnnotationInclusionIndexDefinition.class);
+        searchStrategy.register("test_First", programmatic);
+        searchStrategy.register("test_Second", multiAnnotation);
+
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("firstTextValue", "name", "secondTextValue")),
+                searchStrategy.resolveSeparatelyQueriedFields(new SearchContext("text")));
+        Assert.assertEquals(Collections.singleton("name"),
+                searchStrategy.resolveSeparatelyQueriedFields(new SearchContext("text").setEntities("test_Second")));
+    }
+
+    @Test
+    @DisplayName("Boosted fields and subfields with specific analyzer are queried along with catch-all field")
+    public void boostedFieldsAndSubfields() {
+        Map<String, MappingFieldDescriptor> fields = new LinkedHashMap<>();
+        fields.put("title", createField("title", "{\"type\": \"text\", \"boost\": 2.0, \"copy_to\": \"_all_text\"}"));
+        fields.put("description", createField("description", "{\"type\": \"text\", \"copy_to\": \"_all_text\", " +
+                "\"fields\": {\"english\": {\"type\": \"text\", \"analyzer\": \"english\"}}}"));
+        fields.put("code", createField("code", "{\"type\": \"text\", \"analyzer\": \"standard\", \"copy_to\": \"_all_text\"}"));
+        fields.put("author", createField("author", "{\"properties\": {\"name\": " +
+                "{\"type\": \"text\", \"search_analyzer\": \"simple\", \"copy_to\": \"_all_text\"}}}"));
+        IndexMappingConfiguration mapping = mock(IndexMappingConfiguration.class);
+        when(mapping.getFields()).thenReturn(fields);
+        IndexConfiguration indexConfiguration = mock(IndexConfiguration.class);
+        when(indexConfiguration.getEntityName()).thenReturn("test_Manual");
+        when(indexConfiguration.getMapping()).thenReturn(mapping);
+        searchStrategy.register(indexConfiguration);
+
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("author.name", "description.english", "title")),
+                searchStrategy.resolveSeparatelyQueriedFields(new SearchContext("text")));
+    }
+
+    @Test
+    @DisplayName("Fields with analyzer of catch-all field aren't queried separately")
+    public void fieldsWithCatchAllAnalyzer() {
+        SearchProperties englishCatchAllProperties = mock(SearchProperties.class);
+        when(englishCatchAllProperties.isCatchAllFieldEnabled()).thenReturn(true);
+        when(englishCatchAllProperties.getCatchAllFieldAnalyzer()).thenReturn("english");
+        searchStrategy = new TestSearchStrategy(englishCatchAllProperties);
+        searchStrategy.register(createIndexConfiguration(TestProgrammaticMappingIndexDefinition.class));
+
+        Assert.assertEquals(Collections.singletonList("_all_text"),
+                new ArrayList<>(searchStrategy.resolveAnyFieldQueryFields(new SearchContext("text")).keySet()));
+    }
+
+    protected IndexConfiguration createIndexConfiguration(Class<?> indexDefinitionClass) {
+        return indexDefinitionProcessor.createIndexConfiguration(indexDefinitionClass.getName());
+    }
+
+    protected MappingFieldDescriptor createField(String name, String config) {
+        MappingFieldDescriptor field = mock(MappingFieldDescriptor.class);
+        when(field.getIndexPropertyFullName()).thenReturn(name);
+        try {
+            when(field.getFieldConfiguration()).thenReturn(FieldConfiguration.create((ObjectNode) objectMapper.readTree(config)));
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to parse field configuration", e);
+        }
+        return field;
+    }
+
+    /**
+     * Exposes field resolution of base strategy over registered index configurations.
+     */
+    protected static class TestSearchStrategy extends AbstractSearchStrategy {
+
+        protected final Map<String, IndexConfiguration> indexConfigurations = new LinkedHashMap<>();
+
+        protected TestSearchStrategy(SearchProperties searchProperties) {
+            this.searchProperties = searchProperties;
+            this.indexConfigurationManager = mock(IndexConfigurationManager.class);
+            when(indexConfigurationManager.getAllIndexedEntities()).thenAnswer(invocation ->
+                    new ArrayList<>(indexConfigurations.keySet()));
+            when(indexConfigurationManager.getIndexConfigurationByEntityNameOpt(anyString())).thenAnswer(invocation ->
+                    Optional.ofNullable(indexConfigurations.get((String) invocation.getArgument(0))));
+        }
+
+        protected void register(IndexConfiguration indexConfiguration) {
+            register(indexConfiguration.getEntityName(), indexConfiguration);
+        }
+
+        protected void register(String entityName, IndexConfiguration indexConfiguration) {
+            indexConfigurations.put(entityName, indexConfiguration);
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public void configureRequest(SearchRequest searchRequest, SearchContext searchContext) {
+        }
+
+        @Override
+        protected Map<String, Float> resolveAnyFieldQueryFields(SearchContext searchContext) {
+            return super.resolveAnyFieldQueryFields(searchContext);
+        }
+
+        @Override
+        protected Set<String> resolveSeparatelyQueriedFields(SearchContext searchContext) {
+            return super.resolveSeparatelyQueriedFields(searchContext);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package index_rebuild;
+
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.IndexConfiguration;
+import io.jmix.search.index.ReindexProgress;
+import io.jmix.search.index.impl.ESIndexManagerImpl;
+import io.jmix.search.index.impl.IndexStateRegistry;
+import io.jmix.search.searching.SearchResultCache;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class IndexRebuildCompletionTest {
+
+    static final String ENTITY_NAME = "test_RootEntity";
+    static final String ALIAS = "search_index_test_rootentity";
+    static final String NEW_INDEX = ALIAS + "_v2";
+
+    TestESIndexManager indexManager;
+    IndexConfiguration indexConfiguration;
+
+    @BeforeEach
+    public void setUp() {
+        indexManager = new TestESIndexManager();
+        indexConfiguration = mock(IndexConfiguration.class);
+        when(indexConfiguration.getEntityName()).thenReturn(ENTITY_NAME);
+        when(indexConfiguration.getIndexName()).thenReturn(ALIAS);
+    }
+
+    @Test
+    @DisplayName("Acknowledged alias switch completes rebuild")
+    public void acknowledgedSwitch() {
+        indexManager.acknowledged = true;
+
+        indexManager.complete(indexConfiguration, NEW_INDEX, completedProgress());
+
+        Assert.assertEquals(1, indexManager.aliasRequests.size());
+        Assert.assertTrue(indexManager.deletedIndexes.isEmpty());
+        verify(indexManager.registry).markIndexAsAvailable(ENTITY_NAME);
+        verify(indexManager.registry).clearRebuildTargetIndex(ENTITY_NAME);
+        verify(indexManager.cache).invalidate(Collections.singletonList(ENTITY_NAME));
+    }
+
+    @Test
+    @DisplayName("Unacknowledged alias switch applied by cluster completes rebuild")
+    public void unacknowledgedAppliedSwitch() {
+        indexManager.acknowledged = false;
+        indexManager.aliasPointsToNewIndex = true;
+
+        indexManager.complete(indexConfiguration, NEW_INDEX, completedProgress());
+
+        Assert.assertTrue(indexManager.deletedIndexes.isEmpty());
+        verify(indexManager.registry).markIndexAsAvailable(ENTITY_NAME);
+    }
+
+    @Test
+    @DisplayName("Unacknowledged alias switch not applied by cluster aborts rebuild")
+    public void unacknowledgedNotAppliedSwitch() {
+        indexManager.acknowledged = false;
+        indexManager.aliasPointsToNewIndex = false;
+
+        indexManager.complete(indexConfiguration, NEW_INDEX, completedProgress());
+
+        Assert.assertEquals(Collections.singletonList(NEW_INDEX), indexManager.deletedIndexes);
+        verify(indexManager.registry, never()).markIndexAsAvailable(ENTITY_NAME);
+        verify(indexManager.registry).clearRebuildTargetIndex(ENTITY_NAME);
+        verify(indexManager.cache, never()).invalidate(anyCollection());
+    }
+
+    @Test
+    @DisplayName("New index is kept if state of alias can't be checked after failed switch")
+    public void unknownAliasState() {
+        indexManager.switchFailure = new RuntimeException("Request failed");
+        indexManager.aliasStateFailure = new RuntimeException("Request failed");
+
+        indexManager.complete(indexConfiguration, NEW_INDEX, completedProgress());
+
+        Assert.assertTrue(indexManager.deletedIndexes.isEmpty());
+        verify(indexManager.registry, never()).markIndexAsAvailable(ENTITY_NAME);
+        verify(indexManager.registry).clearRebuildTargetIndex(ENTITY_NAME);
+    }
+
+    @Test
+    @DisplayName("Rebuild with failed instances doesn't switch alias")
+    public void failedReindex() {
+        ReindexProgress progress = new ReindexProgress(ENTITY_NAME, ReindexProgress.Status.COMPLETED, 10, 10, 1, 100);
+
+        indexManager.complete(indexConfiguration, NEW_INDEX, progress);
+
+        Assert.assertTrue(indexManager.aliasRequests.isEmpty());
+        Assert.assertEquals(Collections.singletonList(NEW_INDEX), indexManager.deletedIndexes);
+    }
+
+    @Test
+    @DisplayName("Cancelled rebuild doesn't switch alias")
+    public void cancelledReindex() {
+        ReindexProgress progress = new ReindexProgress(ENTITY_NAME, ReindexProgress.Status.CANCELLED, 10, 5, 0, 100);
+
+        indexManager.complete(indexConfiguration, NEW_INDEX, progress);
+
+        Assert.assertTrue(indexManager.aliasRequests.isEmpty());
+        Assert.assertEquals(Collections.singletonList(NEW_INDEX), indexManager.deletedIndexes);
+    }
+
+    protected ReindexProgress completedProgress() {
+        return new ReindexProgress(ENTITY_NAME, ReindexProgress.Status.COMPLETED, 10, 10, 0, 100);
+    }
+
+    /**
+     * Replaces requests to Elasticsearch with configurable results.
+     */
+    static class TestESIndexManager extends ESIndexManagerImpl {
+
+        final IndexStateRegistry registry = mock(IndexStateRegistry.class);
+        final SearchResultCache cache = mock(SearchResultCache.class);
+        final List<IndicesAliasesRequest> aliasRequests = new ArrayList<>();
+        final List<String> deletedIndexes = new ArrayList<>();
+        boolean acknowledged = true;
+        boolean aliasPointsToNewIndex;
+        RuntimeException switchFailure;
+        RuntimeException aliasStateFailure;
+
+        TestESIndexManager() {
+            SearchProperties properties = mock(SearchProperties.class);
+            when(properties.isBulkLoadIndexSettingsEnabled()).thenReturn(false);
+            when(properties.getRebuildTargetsRefreshInterval()).thenReturn(Duration.ZERO);
+            this.searchProperties = properties;
+            this.indexStateRegistry = registry;
+            this.searchResultCache = cache;
+        }
+
+        void complete(IndexConfiguration indexConfiguration, String newIndexName, ReindexProgress progress) {
+            completeRebuild(indexConfiguration, newIndexName, progress);
+        }
+
+        @Override
+        protected boolean executeAliasesRequest(IndicesAliasesRequest request) {
+            aliasRequests.add(request);
+            if (switchFailure != null) {
+                throw switchFailure;
+            }
+            return acknowledged;
+        }
+
+        @Override
+        protected boolean isAliasPointingTo(String alias, String indexName) {
+            if (aliasStateFailure != null) {
+                throw aliasStateFailure;
+            }
+            return aliasPointsToNewIndex;
+        }
+
+        @Override
+        public boolean isIndexExist(String indexName) {
+            return NEW_INDEX.equals(indexName);
+        }
+
+        @Override
+        protected void deletePhysicalIndex(String physicalIndexName) {
+            deletedIndexes.add(physicalIndexName);
+        }
+    }
+}
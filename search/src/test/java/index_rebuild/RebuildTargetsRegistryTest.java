@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package index_rebuild;
+
+import io.jmix.core.Metadata;
+import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.ReindexProgress;
+import io.jmix.search.index.impl.IndexStateRegistry;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.queue.entity.ReindexCheckpoint;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import test_support.EntityChangeTrackingTestConfiguration;
+
+import java.util.Date;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+        classes = {EntityChangeTrackingTestConfiguration.class}
+)
+public class RebuildTargetsRegistryTest {
+
+    static final String ENTITY_NAME = "test_RootEntity";
+    static final String TARGET_INDEX = "search_index_test_rootentity_v2";
+
+    @Autowired
+    UnconstrainedDataManager dataManager;
+    @Autowired
+    Metadata metadata;
+    @Autowired
+    IndexConfigurationManager indexConfigurationManager;
+    @Autowired
+    SearchProperties searchProperties;
+
+    @AfterEach
+    public void tearDown() {
+        dataManager.load(ReindexCheckpoint.class).all().list().forEach(dataManager::remove);
+    }
+
+    @Test
+    @DisplayName("Index rebuilt by another application instance is taken from running checkpoint")
+    public void rebuildOfAnotherInstance() {
+        saveCheckpoint(ReindexProgress.Status.RUNNING, TARGET_INDEX);
+        IndexStateRegistry registry = createRegistry();
+
+        Assert.assertEquals(TARGET_INDEX, registry.getRebuildTargetIndex(ENTITY_NAME));
+        Assert.assertNull(registry.getLocalRebuildTargetIndex(ENTITY_NAME));
+    }
+
+    @Test
+    @DisplayName("Finished rebuilds and reindexes into current index aren't rebuild targets")
+    public void notRunningRebuild() {
+        saveCheckpoint(ReindexProgress.Status.COMPLETED, TARGET_INDEX);
+        Assert.assertNull(createRegistry().getRebuildTargetIndex(ENTITY_NAME));
+
+        tearDown();
+        saveCheckpoint(ReindexProgress.Status.RUNNING, null);
+        Assert.assertNull(createRegistry().getRebuildTargetIndex(ENTITY_NAME));
+    }
+
+    @Test
+    @DisplayName("Rebuild target is cleared without waiting for the next reload")
+    public void clearRebuildTarget() {
+        saveCheckpoint(ReindexProgress.Status.RUNNING, TARGET_INDEX);
+        IndexStateRegistry registry = createRegistry();
+        registry.setRebuildTargetIndex(ENTITY_NAME, TARGET_INDEX);
+        Assert.assertEquals(TARGET_INDEX, registry.getLocalRebuildTargetIndex(ENTITY_NAME));
+
+        registry.clearRebuildTargetIndex(ENTITY_NAME);
+
+        Assert.assertNull(registry.getLocalRebuildTargetIndex(ENTITY_NAME));
+        Assert.assertNull(registry.getRebuildTargetIndex(ENTITY_NAME));
+    }
+
+    protected IndexStateRegistry createRegistry() {
+        return new IndexStateRegistry(indexConfigurationManager, dataManager, searchProperties);
+    }
+
+    protected void saveCheckpoint(ReindexProgress.Status status, String targetIndex) {
+        ReindexCheckpoint checkpoint = metadata.create(ReindexCheckpoint.class);
+        checkpoint.setEntityName(ENTITY_NAME);
+        checkpoint.setStatus(status.name());
+        checkpoint.setTargetIndex(targetIndex);
+        checkpoint.setStartedDate(new Date());
+        checkpoint.setUpdatedDate(new Date());
+        dataManager.save(checkpoint);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package index_rebuild;
+
+import io.jmix.search.index.impl.StreamingReindexer;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ReindexTaskProgressTest {
+
+    @Test
+    @DisplayName("Last key is committed only when all preceding pages are completed")
+    public void pagesCompletedOutOfOrder() {
+        TestStreamingReindexer.TestReindexTask task = new TestStreamingReindexer.TestReindexTask();
+        long first = task.pageSubmitted(10);
+        long second = task.pageSubmitted(20);
+        long third = task.pageSubmitted(30);
+
+        task.pageCompleted(third);
+        Assert.assertNull(task.getCommittedLastId());
+
+        task.pageCompleted(second);
+        Assert.assertNull(task.getCommittedLastId());
+
+        task.pageCompleted(first);
+        Assert.assertEquals(30, task.getCommittedLastId());
+    }
+
+    @Test
+    @DisplayName("Page which hasn't been completed keeps committed key before it")
+    public void notCompletedPageBlocksCommit() {
+        TestStreamingReindexer.TestReindexTask task = new TestStreamingReindexer.TestReindexTask();
+        long first = task.pageSubmitted(10);
+        task.pageSubmitted(20);
+        long third = task.pageSubmitted(30);
+        long fourth = task.pageSubmitted(40);
+
+        task.pageCompleted(first);
+        task.pageCompleted(third);
+        task.pageCompleted(fourth);
+
+        Assert.assertEquals(10, task.getCommittedLastId());
+    }
+
+    @Test
+    @DisplayName("Resumed task commits pages after checkpoint key")
+    public void resumedTask() {
+        TestStreamingReindexer.TestReindexTask task = new TestStreamingReindexer.TestReindexTask();
+        task.resume(5, 50, 1);
+        Assert.assertTrue(task.isResumed());
+        Assert.assertEquals(5, task.getCommittedLastId());
+
+        long first = task.pageSubmitted(10);
+        long second = task.pageSubmitted(20);
+        task.pageCompleted(second);
+        Assert.assertEquals(5, task.getCommittedLastId());
+
+        task.pageCompleted(first);
+        Assert.assertEquals(20, task.getCommittedLastId());
+    }
+
+    @Test
+    @DisplayName("Task which lost checkpoint ownership is cancelled")
+    public void ownershipLost() {
+        TestStreamingReindexer.TestReindexTask task = new TestStreamingReindexer.TestReindexTask();
+        task.loseOwnership();
+
+        Assert.assertTrue(task.isCancelled());
+        Assert.assertTrue(task.isOwnershipLost());
+    }
+
+    protected static class TestStreamingReindexer extends StreamingReindexer {
+
+        protected static class TestReindexTask extends ReindexTask {
+
+            protected TestReindexTask() {
+                super("test_Entity", null, null);
+            }
+        }
+    }
+}
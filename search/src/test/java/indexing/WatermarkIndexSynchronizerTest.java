@@ -0,0 +1,275 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package indexing;
+
+import io.jmix.core.*;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.metamodel.model.MetaProperty;
+import io.jmix.core.metamodel.model.Store;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.EntityIndexer;
+import io.jmix.search.index.IndexResult;
+import io.jmix.search.index.impl.IndexingLocker;
+import io.jmix.search.index.impl.WatermarkIndexSynchronizer;
+import io.jmix.search.index.queue.entity.IndexingWatermark;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+public class WatermarkIndexSynchronizerTest {
+
+    static final String ENTITY_NAME = "test_WatermarkEntity";
+
+    TestWatermarkIndexSynchronizer synchronizer;
+
+    @BeforeEach
+    public void setUp() {
+        synchronizer = new TestWatermarkIndexSynchronizer();
+        when(synchronizer.searchProperties().getWatermarkIndexingBatchSize()).thenReturn(2);
+        when(synchronizer.searchProperties().getWatermarkIndexingClockSkew()).thenReturn(Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Instances are read page by page after the last (date, id) of previous page")
+    public void keysetPaging() {
+        synchronizer.storeWatermark(new Date(1000));
+        synchronizer.addRow(3, new Date(3000));
+        synchronizer.addRow(1, new Date(2000));
+        synchronizer.addRow(2, new Date(2000));
+        synchronizer.addRow(4, new Date(3000));
+        synchronizer.addRow(5, new Date(4000));
+
+        int indexed = synchronizer.synchronize(ENTITY_NAME);
+
+        Assert.assertEquals(5, indexed);
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5)),
+                synchronizer.indexedBatches);
+
+        List<ValueLoadContext.Query> queries = synchronizer.queries;
+        Assert.assertEquals(3, queries.size());
+        Assert.assertFalse(queries.get(0).getParameters().containsKey("lastId"));
+        Assert.assertEquals(new Date(2000), queries.get(1).getParameters().get("lastDate"));
+        Assert.assertEquals(2, queries.get(1).getParameters().get("lastId"));
+        Assert.assertEquals(new Date(3000), queries.get(2).getParameters().get("lastDate"));
+        Assert.assertEquals(4, queries.get(2).getParameters().get("lastId"));
+        queries.forEach(query ->
+                Assert.assertTrue(query.getQueryString().endsWith("order by e.lastModifiedDate, e.id")));
+        Assert.assertEquals(new Date(4000), synchronizer.savedWatermarkDate);
+    }
+
+    @Test
+    @DisplayName("Instances modified within clock skew window before the watermark are indexed again")
+    public void clockSkewWindow() {
+        when(synchronizer.searchProperties().getWatermarkIndexingClockSkew()).thenReturn(Duration.ofSeconds(3));
+        synchronizer.storeWatermark(new Date(10000));
+        synchronizer.addRow(1, new Date(6000));
+        synchronizer.addRow(2, new Date(8000));
+        synchronizer.addRow(3, new Date(11000));
+
+        int indexed = synchronizer.synchronize(ENTITY_NAME);
+
+        Assert.assertEquals(2, indexed);
+        Assert.assertEquals(Collections.singletonList(Arrays.asList(2, 3)), synchronizer.indexedBatches);
+        Assert.assertEquals(new Date(7000), synchronizer.queries.get(0).getParameters().get("fromDate"));
+        Assert.assertEquals(new Date(11000), synchronizer.savedWatermarkDate);
+    }
+
+    @Test
+    @DisplayName("Watermark isn't moved back if only instances within clock skew window are indexed")
+    public void watermarkIsNotMovedBack() {
+        when(synchronizer.searchProperties().getWatermarkIndexingClockSkew()).thenReturn(Duration.ofSeconds(3));
+        synchronizer.storeWatermark(new Date(10000));
+        synchronizer.addRow(1, new Date(8000));
+
+        Assert.assertEquals(1, synchronizer.synchronize(ENTITY_NAME));
+        Assert.assertNull(synchronizer.savedWatermarkDate);
+    }
+
+    @Test
+    @DisplayName("Watermark is advanced to the last successfully indexed page only")
+    public void watermarkIsAdvancedOnSuccessOnly() {
+        synchronizer.storeWatermark(new Date(1000));
+        synchronizer.addRow(1, new Date(2000));
+        synchronizer.addRow(2, new Date(3000));
+        synchronizer.addRow(3, new Date(4000));
+        synchronizer.addRow(4, new Date(5000));
+        synchronizer.failedIds.add(3);
+
+        int indexed = synchronizer.synchronize(ENTITY_NAME);
+
+        Assert.assertEquals(2, indexed);
+        Assert.assertEquals(new Date(3000), synchronizer.savedWatermarkDate);
+    }
+
+    @Test
+    @DisplayName("Watermark isn't changed if the first page fails to be indexed")
+    public void watermarkIsKeptOnFailure() {
+        synchronizer.storeWatermark(new Date(1000));
+        synchronizer.addRow(1, new Date(2000));
+        synchronizer.failedIds.add(1);
+
+        Assert.assertEquals(0, synchronizer.synchronize(ENTITY_NAME));
+        Assert.assertNull(synchronizer.savedWatermarkDate);
+    }
+
+    @Test
+    @DisplayName("Existing instances aren't indexed on the first run by default")
+    public void firstRunWithoutFullScan() {
+        synchronizer.addRow(1, new Date(2000));
+        Date before = new Date();
+
+        int indexed = synchronizer.synchronize(ENTITY_NAME);
+
+        Assert.assertEquals(0, indexed);
+        Assert.assertTrue(synchronizer.queries.isEmpty());
+        Assert.assertTrue(synchronizer.indexedBatches.isEmpty());
+        Assert.assertNotNull(synchronizer.savedWatermarkDate);
+        Assert.assertFalse(synchronizer.savedWatermarkDate.before(before));
+    }
+
+    @Test
+    @DisplayName("All existing instances are indexed on the first run if full scan is enabled")
+    public void firstRunWithFullScan() {
+        when(synchronizer.searchProperties().isWatermarkIndexingInitialFullScanEnabled()).thenReturn(true);
+        synchronizer.addRow(1, new Date(2000));
+        synchronizer.addRow(2, new Date(3000));
+        synchronizer.addRow(3, new Date(4000));
+
+        int indexed = synchronizer.synchronize(ENTITY_NAME);
+
+        Assert.assertEquals(3, indexed);
+        Assert.assertFalse(synchronizer.queries.get(0).getParameters().containsKey("fromDate"));
+        Assert.assertEquals(new Date(4000), synchronizer.savedWatermarkDate);
+    }
+
+    /**
+     * Reads instances from in-memory rows according to parameters of generated query.
+     */
+    static class TestWatermarkIndexSynchronizer extends WatermarkIndexSynchronizer {
+
+        final MetaProperty lastModifiedProperty = mock(MetaProperty.class);
+        final SortedMap<Integer, Date> rows = new TreeMap<>();
+        final Set<Integer> failedIds = new HashSet<>();
+        final List<ValueLoadContext.Query> queries = new ArrayList<>();
+        final List<List<Integer>> indexedBatches = new ArrayList<>();
+        IndexingWatermark storedWatermark;
+        Date savedWatermarkDate;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        TestWatermarkIndexSynchronizer() {
+            searchProperties = mock(SearchProperties.class);
+            metadata = mock(Metadata.class);
+            metadataTools = mock(MetadataTools.class);
+            dataManager = mock(UnconstrainedDataManager.class);
+            entityIndexer = mock(EntityIndexer.class);
+            locker = mock(IndexingLocker.class);
+
+            MetaClass metaClass = mock(MetaClass.class);
+            Store store = mock(Store.class);
+            when(store.getName()).thenReturn(Stores.MAIN);
+            when(metaClass.getName()).thenReturn(ENTITY_NAME);
+            when(metaClass.getStore()).thenReturn(store);
+            when(metaClass.getJavaClass()).thenReturn((Class) Object.class);
+            when(metadata.getClass(ENTITY_NAME)).thenReturn(metaClass);
+            when(metadataTools.getPrimaryKeyName(metaClass)).thenReturn("id");
+            when(lastModifiedProperty.getName()).thenReturn("lastModifiedDate");
+            when(lastModifiedProperty.getJavaType()).thenReturn((Class) Date.class);
+            when(locker.tryLockEntityForWatermarkIndexing(ENTITY_NAME)).thenReturn(true);
+            when(dataManager.loadValues(any(ValueLoadContext.class))).thenAnswer(invocation ->
+                    loadRows(invocation.getArgument(0)));
+            when(entityIndexer.indexCollectionByEntityIds(anyCollection())).thenAnswer(invocation ->
+                    index(invocation.getArgument(0)));
+        }
+
+        SearchProperties searchProperties() {
+            return searchProperties;
+        }
+
+        void addRow(Integer id, Date lastModifiedDate) {
+            rows.put(id, lastModifiedDate);
+        }
+
+        void storeWatermark(Date watermarkDate) {
+            storedWatermark = new IndexingWatermark();
+            storedWatermark.setEntityName(ENTITY_NAME);
+            storedWatermark.setWatermarkDate(watermarkDate);
+        }
+
+        @Nullable
+        @Override
+        protected MetaProperty getLastModifiedProperty(String entityName) {
+            return ENTITY_NAME.equals(entityName) ? lastModifiedProperty : null;
+        }
+
+        @Nullable
+        @Override
+        protected IndexingWatermark loadWatermark(String entityName) {
+            return storedWatermark;
+        }
+
+        @Override
+        protected void saveWatermark(@Nullable IndexingWatermark watermark, String entityName, Date watermarkDate) {
+            savedWatermarkDate = watermarkDate;
+        }
+
+        protected List<KeyValueEntity> loadRows(ValueLoadContext loadContext) {
+            ValueLoadContext.Query query = loadContext.getQuery();
+            queries.add(query);
+            Map<String, Object> parameters = query.getParameters();
+            Date fromDate = (Date) parameters.get("fromDate");
+            Date lastDate = (Date) parameters.get("lastDate");
+            Integer lastId = (Integer) parameters.get("lastId");
+            return rows.entrySet().stream()
+                    .filter(row -> fromDate == null || row.getValue().after(fromDate))
+                    .filter(row -> lastDate == null
+                            || row.getValue().after(lastDate)
+                            || (row.getValue().equals(lastDate) && row.getKey() > lastId))
+                    .sorted(Map.Entry.<Integer, Date>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(query.getMaxResults())
+                    .map(row -> {
+                        KeyValueEntity entity = new KeyValueEntity();
+                        entity.setValue("entityId", row.getKey());
+                        entity.setValue("lastModified", row.getValue());
+                        return entity;
+                    })
+                    .collect(Collectors.toList());
+        }
+
+        protected IndexResult index(Collection<Id<?>> ids) {
+            List<Integer> batch = ids.stream()
+                    .map(id -> (Integer) id.getValue())
+                    .collect(Collectors.toList());
+            indexedBatches.add(batch);
+
+            long failures = batch.stream().filter(failedIds::contains).count();
+            IndexResult indexResult = mock(IndexResult.class);
+            when(indexResult.hasFailures()).thenReturn(failures > 0);
+            when(indexResult.getFailuresSize()).thenReturn((int) failures);
+            return indexResult;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package indexing_queue;
+
+import io.jmix.core.LoadContext;
+import io.jmix.search.index.queue.entity.IndexingQueueItem;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import test_support.TestInMemoryIndexingQueueManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class QueueItemsDequeueTest {
+
+    protected TestInMemoryIndexingQueueManager queueManager;
+
+    @BeforeEach
+    public void setUp() {
+        queueManager = new TestInMemoryIndexingQueueManager();
+        when(queueManager.getSearchProperties().getProcessQueueBatchSize()).thenReturn(2);
+    }
+
+    @Test
+    @DisplayName("Every next batch is dequeued after the last item of previous batch")
+    public void keysetDequeue() {
+        IndexingQueueItem first = queueManager.addQueueItem(new Date(1000));
+        IndexingQueueItem second = queueManager.addQueueItem(new Date(2000));
+        IndexingQueueItem third = queueManager.addQueueItem(new Date(3000));
+        IndexingQueueItem fourth = queueManager.addQueueItem(new Date(4000));
+        IndexingQueueItem fifth = queueManager.addQueueItem(new Date(5000));
+
+        int processed = queueManager.processEntireQueue();
+
+        Assert.assertEquals(5, processed);
+        Assert.assertEquals(
+                Arrays.asList(Arrays.asList(first, second), Arrays.asList(third, fourth), Collections.singletonList(fifth)),
+                queueManager.getProcessedBatches()
+        );
+
+        List<LoadContext.Query> dequeueQueries = queueManager.getDequeueQueries();
+        Assert.assertEquals(3, dequeueQueries.size());
+        Assert.assertFalse(dequeueQueries.get(0).getParameters().containsKey("lastId"));
+        Assert.assertEquals(second.getCreatedDate(), dequeueQueries.get(1).getParameters().get("lastCreatedDate"));
+        Assert.assertEquals(second.getId(), dequeueQueries.get(1).getParameters().get("lastId"));
+        Assert.assertEquals(fourth.getId(), dequeueQueries.get(2).getParameters().get("lastId"));
+        dequeueQueries.forEach(query ->
+                Assert.assertTrue(query.getQueryString().endsWith("order by q.createdDate asc, q.id asc")));
+    }
+
+    @Test
+    @DisplayName("Failed items are kept in queue and aren't dequeued again within the same execution")
+    public void failedItemsAreNotDequeuedAgain() {
+        IndexingQueueItem first = queueManager.addQueueItem(new Date(1000));
+        IndexingQueueItem second = queueManager.addQueueItem(new Date(2000));
+        IndexingQueueItem third = queueManager.addQueueItem(new Date(3000));
+        queueManager.failItem(first);
+        queueManager.failItem(second);
+
+        int processed = queueManager.processEntireQueue();
+
+        Assert.assertEquals(1, processed);
+        Assert.assertEquals(
+                Arrays.asList(Arrays.asList(first, second), Collections.singletonList(third)),
+                queueManager.getProcessedBatches()
+        );
+        Assert.assertEquals(Arrays.asList(first, second), queueManager.getQueueItems());
+    }
+
+    @Test
+    @DisplayName("Successfully processed items of batch are removed by single bulk statement")
+    public void bulkRemoval() {
+        queueManager.addQueueItem(new Date(1000));
+        IndexingQueueItem second = queueManager.addQueueItem(new Date(2000));
+        queueManager.addQueueItem(new Date(3000));
+        queueManager.addQueueItem(new Date(4000));
+        queueManager.failItem(second);
+
+        queueManager.processEntireQueue();
+
+        verify(queueManager.getEntityManager(), times(2))
+                .createQuery("delete from search_IndexingQueue q where q.id in :ids");
+        verifyNoMoreInteractions(queueManager.getEntityManager());
+        Assert.assertEquals(Collections.singletonList(second), queueManager.getQueueItems());
+    }
+
+    @Test
+    @DisplayName("Removal isn't performed if no items of batch have been processed successfully")
+    public void noRemovalOfFailedBatch() {
+        IndexingQueueItem first = queueManager.addQueueItem(new Date(1000));
+        queueManager.failItem(first);
+
+        Assert.assertEquals(0, queueManager.processEntireQueue());
+
+        verify(queueManager.getEntityManager(), never()).createQuery(anyString());
+        Assert.assertEquals(Collections.singletonList(first), queueManager.getQueueItems());
+    }
+}
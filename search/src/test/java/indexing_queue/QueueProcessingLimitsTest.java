@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package indexing_queue;
+
+import io.jmix.search.index.queue.QueueProcessingResult;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import test_support.TestInMemoryIndexingQueueManager;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.mockito.Mockito.*;
+
+public class QueueProcessingLimitsTest {
+
+    protected TestInMemoryIndexingQueueManager queueManager;
+
+    @BeforeEach
+    public void setUp() {
+        queueManager = new TestInMemoryIndexingQueueManager();
+        when(queueManager.getSearchProperties().getProcessQueueBatchSize()).thenReturn(2);
+        when(queueManager.getSearchProperties().getMaxProcessedQueueItemsPerExecution()).thenReturn(-1);
+        when(queueManager.getSearchProperties().getMaxQueueProcessingTimePerExecution()).thenReturn(Duration.ZERO);
+        for (int i = 0; i < 10; i++) {
+            queueManager.addQueueItem(new Date(1000L * i));
+        }
+    }
+
+    @Test
+    @DisplayName("Processing stops before the next batch when time budget is spent")
+    public void timeBudgetExceeded() {
+        when(queueManager.getSearchProperties().getMaxQueueProcessingTimePerExecution()).thenReturn(Duration.ofMillis(50));
+        queueManager.setBatchProcessingDelay(100);
+
+        QueueProcessingResult result = queueManager.processQueue();
+
+        Assert.assertEquals(QueueProcessingResult.StopReason.TIME_BUDGET_EXCEEDED, result.getStopReason());
+        Assert.assertEquals(2, result.getProcessed());
+        Assert.assertEquals(8, result.getRemaining());
+        Assert.assertEquals(1, queueManager.getProcessedBatches().size());
+        Assert.assertTrue(result.getElapsedMillis() >= 100);
+    }
+
+    @Test
+    @DisplayName("Zero time budget doesn't limit processing")
+    public void zeroTimeBudget() {
+        queueManager.setBatchProcessingDelay(10);
+
+        QueueProcessingResult result = queueManager.processQueue();
+
+        Assert.assertEquals(QueueProcessingResult.StopReason.QUEUE_EXHAUSTED, result.getStopReason());
+        Assert.assertEquals(10, result.getProcessed());
+        // Queue isn't counted if it's exhausted
+        Assert.assertEquals(-1, result.getRemaining());
+        Assert.assertTrue(queueManager.getQueueItems().isEmpty());
+        verify(queueManager.getDataManager(), never()).getCount(any());
+    }
+
+    @Test
+    @DisplayName("Processing stops when max amount of items per execution is dequeued")
+    public void itemsLimitReached() {
+        when(queueManager.getSearchProperties().getMaxProcessedQueueItemsPerExecution()).thenReturn(3);
+
+        QueueProcessingResult result = queueManager.processQueue();
+
+        Assert.assertEquals(QueueProcessingResult.StopReason.ITEMS_LIMIT_REACHED, result.getStopReason());
+        Assert.assertEquals(3, result.getProcessed());
+        Assert.assertEquals(7, result.getRemaining());
+        Assert.assertEquals(1, queueManager.getProcessedBatches().get(1).size());
+    }
+
+    @Test
+    @DisplayName("Single batch is processed by 'process next batch' regardless of queue size without counting queue")
+    public void processNextBatch() {
+        Assert.assertEquals(2, queueManager.processNextBatch());
+        verify(queueManager.getDataManager(), never()).getCount(any());
+        Assert.assertEquals(1, queueManager.getProcessedBatches().size());
+        Assert.assertEquals(8, queueManager.getQueueItems().size());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package indexing_workers;
+
+import io.jmix.search.index.queue.IndexingWorkersMode;
+import io.jmix.search.index.queue.impl.IndexingWorkerPool;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IndexingWorkerPoolTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexingWorkerPoolTest.class);
+
+    @Test
+    @DisplayName("Concurrent tasks are bounded by max amount of concurrent indexing tasks")
+    public void concurrencyIsBounded() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Callable<Integer>> tasks = createBlockingTasks(20, 20, running, maxRunning);
+
+        List<Integer> results;
+        try (IndexingWorkerPool pool = new IndexingWorkerPool(IndexingWorkersMode.VIRTUAL_THREADS, 3)) {
+            results = pool.invokeAll(tasks);
+        }
+
+        Assert.assertEquals(20, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            Assert.assertEquals(i, results.get(i).intValue());
+        }
+        Assert.assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    @DisplayName("Sequential mode runs tasks in caller thread")
+    public void sequentialMode() {
+        Thread caller = Thread.currentThread();
+        List<Callable<Thread>> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(Thread::currentThread);
+        }
+
+        try (IndexingWorkerPool pool = new IndexingWorkerPool(IndexingWorkersMode.SEQUENTIAL, 3)) {
+            Assert.assertFalse(pool.isConcurrent());
+            pool.invokeAll(tasks).forEach(thread -> Assert.assertSame(caller, thread));
+        }
+    }
+
+    /**
+     * Compares throughput and memory consumption of platform and virtual threads on I/O-like tasks.
+     * Run with -Djmix.search.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "jmix.search.benchmark", matches = "true")
+    @DisplayName("Benchmark: platform threads vs virtual threads")
+    public void benchmark() {
+        int tasksAmount = 2000;
+        long blockingMillis = 20;
+        for (int concurrency : new int[]{8, 64, 512}) {
+            for (IndexingWorkersMode mode : new IndexingWorkersMode[]{IndexingWorkersMode.PLATFORM_THREADS, IndexingWorkersMode.VIRTUAL_THREADS}) {
+                runBenchmark(mode, concurrency, tasksAmount, blockingMillis);
+            }
+        }
+    }
+
+    protected void runBenchmark(IndexingWorkersMode mode, int concurrency, int tasksAmount, long blockingMillis) {
+        List<Callable<Integer>> tasks = createBlockingTasks(tasksAmount, blockingMillis, new AtomicInteger(), new AtomicInteger());
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long memoryBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        IndexingWorkersMode actualMode;
+        try (IndexingWorkerPool pool = new IndexingWorkerPool(mode, concurrency)) {
+            actualMode = pool.getMode();
+            pool.invokeAll(tasks);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long memoryAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        log.info("mode={}, concurrency={}, tasks={}, elapsed={} ms, throughput={} tasks/s, heap delta={} KB",
+                actualMode, concurrency, tasksAmount, elapsedMillis,
+                String.format("%.1f", tasksAmount * 1000.0 / Math.max(elapsedMillis, 1)),
+                (memoryAfter - memoryBefore) / 1024);
+    }
+
+    protected List<Callable<Integer>> createBlockingTasks(int amount,
+                                                          long blockingMillis,
+                                                          AtomicInteger running,
+                                                          AtomicInteger maxRunning) {
+        List<Callable<Integer>> tasks = new ArrayList<>(amount);
+        for (int i = 0; i < amount; i++) {
+            int number = i;
+            tasks.add(() -> {
+                int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                try {
+                    // Imitates blocking on JDBC or Elasticsearch client
+                    Thread.sleep(blockingMillis);
+                } finally {
+                    running.decrementAndGet();
+                }
+                return number;
+            });
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package searching;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.searching.SearchContext;
+import io.jmix.search.searching.SearchResult;
+import io.jmix.search.searching.SearchStrategy;
+import io.jmix.search.searching.impl.EntitySearcherImpl;
+import io.jmix.search.searching.impl.SearchResultImpl;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.mockito.Mockito.*;
+
+public class AsyncSearchTest {
+
+    TestEntitySearcher entitySearcher;
+
+    @BeforeEach
+    public void setUp() {
+        entitySearcher = new TestEntitySearcher();
+    }
+
+    @Test
+    @DisplayName("Completed search keeps point-in-time of the next page")
+    public void completedSearch() throws Exception {
+        entitySearcher.enableNextPagePointInTime();
+        CompletableFuture<SearchResult> future = entitySearcher.searchAsync(new SearchContext("text"), mock(SearchStrategy.class));
+
+        entitySearcher.respond();
+
+        SearchResult searchResult = future.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(searchResult.isMoreDataAvailable());
+        Assert.assertNotNull(searchResult.getCursor());
+        Assert.assertTrue(entitySearcher.closedPointInTimes.isEmpty());
+        verify(entitySearcher.cancellable, never()).cancel();
+    }
+
+    @Test
+    @DisplayName("Cancellation aborts running request and closes point-in-time")
+    public void cancellation() {
+        entitySearcher.pointInTimeId = "pit-1";
+        CompletableFuture<SearchResult> future = entitySearcher.searchAsync(new SearchContext("text"), mock(SearchStrategy.class));
+
+        future.cancel(true);
+
+        verify(entitySearcher.cancellable).cancel();
+        Assert.assertEquals(Collections.singletonList("pit-1"), entitySearcher.closedPointInTimes);
+    }
+
+    @Test
+    @DisplayName("Response received after cancellation isn't processed")
+    public void responseAfterCancellation() {
+        CompletableFuture<SearchResult> future = entitySearcher.searchAsync(new SearchContext("text"), mock(SearchStrategy.class));
+        future.cancel(true);
+
+        entitySearcher.respond();
+
+        Assert.assertEquals(0, entitySearcher.processedResponses);
+    }
+
+    @Test
+    @DisplayName("Request started after cancellation is aborted immediately")
+    public void requestStartedAfterCancellation() {
+        entitySearcher.cancelOnRequest = true;
+
+        CompletableFuture<SearchResult> future = entitySearcher.searchAsync(new SearchContext("text"), mock(SearchStrategy.class));
+
+        Assert.assertTrue(future.isCancelled());
+        verify(entitySearcher.cancellable).cancel();
+    }
+
+    @Test
+    @DisplayName("Point-in-time opened for the next page of cancelled search is closed")
+    public void cancellationDuringProcessing() {
+        entitySearcher.enableNextPagePointInTime();
+        CompletableFuture<SearchResult> future = entitySearcher.searchAsync(new SearchContext("text"), mock(SearchStrategy.class));
+        entitySearcher.onProcessing = () -> future.cancel(true);
+
+        entitySearcher.respond();
+
+        Assert.assertTrue(future.isCancelled());
+        Assert.assertEquals(Collections.singletonList("pit-next"), entitySearcher.closedPointInTimes);
+    }
+
+    @Test
+    @DisplayName("Timeout of search context aborts running request and closes point-in-time")
+    public void timeout() throws Exception {
+        entitySearcher.pointInTimeId = "pit-1";
+        SearchContext searchContext = new SearchContext("text").setTimeout(Duration.ofMillis(50));
+
+        CompletableFuture<SearchResult> future = entitySearcher.searchAsync(searchContext, mock(SearchStrategy.class));
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("Search should be timed out");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(entitySearcher.pointInTimeClosed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.singletonList("pit-1"), entitySearcher.closedPointInTimes);
+        verify(entitySearcher.cancellable).cancel();
+    }
+
+    @Test
+    @DisplayName("Failed request completes search exceptionally and closes point-in-time")
+    public void failure() {
+        entitySearcher.pointInTimeId = "pit-1";
+        CompletableFuture<SearchResult> future = entitySearcher.searchAsync(new SearchContext("text"), mock(SearchStrategy.class));
+
+        entitySearcher.listener.onFailure(new RuntimeException("Request failed"));
+
+        Assert.assertTrue(future.isCompletedExceptionally());
+        Assert.assertEquals(Collections.singletonList("pit-1"), entitySearcher.closedPointInTimes);
+    }
+
+    /**
+     * Captures asynchronous requests instead of sending them to Elasticsearch and runs all steps in caller thread.
+     */
+    protected static class TestEntitySearcher extends EntitySearcherImpl {
+
+        protected final Cancellable cancellable = mock(Cancellable.class);
+        protected final List<String> closedPointInTimes = new CopyOnWriteArrayList<>();
+        protected final CountDownLatch pointInTimeClosed = new CountDownLatch(1);
+        protected volatile ActionListener<SearchResponse> listener;
+        protected volatile CompletableFuture<SearchResult> resultFuture;
+        protected String pointInTimeId;
+        protected boolean cancelOnRequest;
+        protected Runnable onProcessing;
+        protected int processedResponses;
+
+        protected TestEntitySearcher() {
+            searchProperties = mock(SearchProperties.class);
+            when(searchProperties.getSearchPointInTimeKeepAlive()).thenReturn(Duration.ofMinutes(1));
+            asyncSearchExecutor = MoreExecutors.newDirectExecutorService();
+        }
+
+        protected void enableNextPagePointInTime() {
+            when(searchProperties.isSearchAfterPaginationEnabled()).thenReturn(true);
+        }
+
+        protected void respond() {
+            listener.onResponse(mock(SearchResponse.class));
+        }
+
+        @Override
+        protected List<String> resolveTargetIndexes(SearchContext searchContext) {
+            return Collections.singletonList("search_index_test");
+        }
+
+        @Override
+        protected SearchRequest prepareSearchRequest(List<String> targetIndexes, SearchResultImpl searchResult) {
+            searchResult.setPointInTimeId(pointInTimeId);
+            return new SearchRequest(targetIndexes.toArray(new String[0])).source(new SearchSourceBuilder());
+        }
+
+        @Override
+        protected Cancellable executeSearchRequestAsync(SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
+            this.listener = listener;
+            if (cancelOnRequest) {
+                resultFuture.cancel(true);
+            }
+            return cancellable;
+        }
+
+        @Override
+        protected void executeSearchRequestAsync(SearchRequest searchRequest,
+                                                 SearchResultImpl searchResult,
+                                                 List<String> targetIndexes,
+                                                 AsyncSearchExecution execution) {
+            resultFuture = execution.getResultFuture();
+            super.executeSearchRequestAsync(searchRequest, searchResult, targetIndexes, execution);
+        }
+
+        @Override
+        protected boolean processSearchResponse(SearchResultImpl searchResult, SearchResponse searchResponse) {
+            processedResponses++;
+            if (onProcessing != null) {
+                onProcessing.run();
+            }
+            return true;
+        }
+
+        @Override
+        protected boolean isResultFull(SearchResultImpl searchResultImpl, SearchContext searchContext) {
+            return true;
+        }
+
+        @Nullable
+        @Override
+        protected String openPointInTime(List<String> targetIndexes) {
+            return "pit-next";
+        }
+
+        @Override
+        protected void closePointInTime(SearchResultImpl searchResult) {
+            String closedPointInTimeId = searchResult.getPointInTimeId();
+            if (closedPointInTimeId != null) {
+                closedPointInTimes.add(closedPointInTimeId);
+                searchResult.setPointInTimeId(null);
+                pointInTimeClosed.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package searching;
+
+import io.jmix.search.searching.impl.EntitySearcherImpl;
+import io.jmix.search.utils.Constants;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class DisplayedNameTest {
+
+    static final String DOC_ID = "test_Entity.1";
+
+    TestEntitySearcher entitySearcher;
+
+    @BeforeEach
+    public void setUp() {
+        entitySearcher = new TestEntitySearcher();
+    }
+
+    @Test
+    @DisplayName("Only instance name field is fetched by default")
+    public void instanceNameIsFetched() {
+        SearchRequest searchRequest = new SearchRequest().source(new SearchSourceBuilder());
+
+        entitySearcher.configureFetchedFields(searchRequest);
+
+        Assert.assertFalse(searchRequest.source().fetchSource().fetchSource());
+        Assert.assertEquals(Collections.singletonList(Constants.INSTANCE_NAME_FIELD),
+                searchRequest.source().fetchFields().stream()
+                        .map(fieldAndFormat -> fieldAndFormat.field)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Source filtering configured by strategy is kept")
+    public void strategySourceFilteringIsKept() {
+        SearchRequest searchRequest = new SearchRequest().source(new SearchSourceBuilder()
+                .fetchSource(new String[]{Constants.INSTANCE_NAME_FIELD, "name"}, null));
+
+        entitySearcher.configureFetchedFields(searchRequest);
+
+        Assert.assertTrue(searchRequest.source().fetchSource().fetchSource());
+        Assert.assertNull(searchRequest.source().fetchFields());
+    }
+
+    @Test
+    @DisplayName("Instance name is read from fetched fields")
+    public void instanceNameFromFields() {
+        SearchHit searchHit = createSearchHit("Name from fields", null);
+
+        Assert.assertEquals("Name from fields", entitySearcher.resolveDisplayedName(searchHit));
+    }
+
+    @Test
+    @DisplayName("Instance name is read from source if strategy has configured source filtering")
+    public void instanceNameFromSource() {
+        SearchHit searchHit = createSearchHit(null, "{\"_instance_name\":\"Name from source\",\"name\":\"value\"}");
+
+        Assert.assertEquals("Name from source", entitySearcher.resolveDisplayedName(searchHit));
+    }
+
+    @Test
+    @DisplayName("Fetched fields take precedence over source")
+    public void fieldsTakePrecedence() {
+        SearchHit searchHit = createSearchHit("Name from fields", "{\"_instance_name\":\"Name from source\"}");
+
+        Assert.assertEquals("Name from fields", entitySearcher.resolveDisplayedName(searchHit));
+    }
+
+    @Test
+    @DisplayName("Document id is displayed if instance name is missing")
+    public void documentIdIfNoInstanceName() {
+        Assert.assertEquals(DOC_ID, entitySearcher.resolveDisplayedName(createSearchHit(null, null)));
+        Assert.assertEquals(DOC_ID, entitySearcher.resolveDisplayedName(createSearchHit(null, "{\"name\":\"value\"}")));
+        Assert.assertEquals(DOC_ID, entitySearcher.resolveDisplayedName(createSearchHit("", null)));
+    }
+
+    protected SearchHit createSearchHit(@Nullable String fieldValue, @Nullable String source) {
+        Map<String, DocumentField> fields = fieldValue == null
+                ? Collections.emptyMap()
+                : Collections.singletonMap(Constants.INSTANCE_NAME_FIELD,
+                new DocumentField(Constants.INSTANCE_NAME_FIELD, Collections.singletonList(fieldValue)));
+        SearchHit searchHit = new SearchHit(1, DOC_ID, new Text("_doc"), fields, Collections.emptyMap());
+        if (source != null) {
+            searchHit.sourceRef(new BytesArray(source));
+        }
+        return searchHit;
+    }
+
+    protected static class TestEntitySearcher extends EntitySearcherImpl {
+
+        @Override
+        protected void configureFetchedFields(SearchRequest searchRequest) {
+            super.configureFetchedFields(searchRequest);
+        }
+
+        @Override
+        protected String resolveDisplayedName(SearchHit searchHit) {
+            return super.resolveDisplayedName(searchHit);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package searching;
+
+import io.jmix.core.Metadata;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.HighlightConfiguration;
+import io.jmix.search.index.IndexConfiguration;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.index.mapping.IndexMappingConfiguration;
+import io.jmix.search.index.mapping.MappingFieldDescriptor;
+import io.jmix.search.searching.FieldHit;
+import io.jmix.search.searching.SearchContext;
+import io.jmix.search.searching.impl.EntitySearcherImpl;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HighlightFieldsTest {
+
+    TestEntitySearcher entitySearcher;
+
+    @BeforeEach
+    public void setUp() {
+        entitySearcher = new TestEntitySearcher();
+        registerIndex("test_Open", HighlightConfiguration.DEFAULT, "name", "attachment");
+        registerIndex("test_Restricted",
+                new HighlightConfiguration(Collections.singletonList("title"), 100, 5, null, false),
+                "title", "attachment");
+    }
+
+    @Test
+    @DisplayName("Wildcard is expanded to text fields of its own index")
+    public void wildcardIsExpanded() {
+        Set<String> fields = configureHighlight("test_Open");
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("_instance_name", "name", "name.*", "attachment", "attachment.*")), fields);
+    }
+
+    @Test
+    @DisplayName("Union of fields of all indexes is highlighted")
+    public void unionOfFieldsIsHighlighted() {
+        Set<String> fields = configureHighlight("test_Open", "test_Restricted");
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("_instance_name", "name", "name.*", "attachment", "attachment.*", "title")), fields);
+    }
+
+    @Test
+    @DisplayName("Fields not declared by restricted index are dropped from its hits only")
+    public void restrictedIndexFieldsAreDroppedFromItsHits() {
+        Map<String, HighlightField> highlightFields = new LinkedHashMap<>();
+        highlightFields.put("title", createHighlightField("title", "<b>text</b> title"));
+        highlightFields.put("attachment._file_content", createHighlightField("attachment._file_content", "<b>text</b> content"));
+
+        Assert.assertEquals(Collections.singletonList("title"), getFieldNames(
+                entitySearcher.createFieldHits("test_Restricted", highlightFields)));
+        Assert.assertEquals(Arrays.asList("title", "attachment._file_content"), getFieldNames(
+                entitySearcher.createFieldHits("test_Open", highlightFields)));
+    }
+
+    protected HighlightField createHighlightField(String name, String fragment) {
+        return new HighlightField(name, new Text[]{new Text(fragment)});
+    }
+
+    protected List<String> getFieldNames(List<FieldHit> fieldHits) {
+        return fieldHits.stream()
+                .map(FieldHit::getFieldName)
+                .collect(Collectors.toList());
+    }
+
+    protected Set<String> configureHighlight(String... entities) {
+        SearchRequest searchRequest = new SearchRequest().source(new SearchSourceBuilder());
+        entitySearcher.configureHighlight(searchRequest, new SearchContext("text").setEntities(entities));
+        return searchRequest.source().highlighter().fields().stream()
+                .map(HighlightBuilder.Field::name)
+                .collect(Collectors.toSet());
+    }
+
+    protected void registerIndex(String entityName, HighlightConfiguration highlightConfiguration, String... fieldNames) {
+        MetaClass metaClass = mock(MetaClass.class);
+        when(metaClass.getName()).thenReturn(entityName);
+        when(entitySearcher.metadata().getClass(entityName)).thenReturn(metaClass);
+
+        Map<String, MappingFieldDescriptor> fields = new LinkedHashMap<>();
+        for (String fieldName : fieldNames) {
+            MappingFieldDescriptor field = mock(MappingFieldDescriptor.class);
+            when(field.getIndexPropertyFullName()).thenReturn(fieldName);
+            fields.put(fieldName, field);
+        }
+        IndexMappingConfiguration mapping = mock(IndexMappingConfiguration.class);
+        when(mapping.getFields()).thenReturn(fields);
+
+        IndexConfiguration indexConfiguration = mock(IndexConfiguration.class);
+        when(indexConfiguration.getMapping()).thenReturn(mapping);
+        when(indexConfiguration.getHighlightConfiguration()).thenReturn(highlightConfiguration);
+        when(entitySearcher.indexConfigurationManager().getIndexConfigurationByEntityNameOpt(entityName))
+                .thenReturn(Optional.of(indexConfiguration));
+    }
+
+    protected static class TestEntitySearcher extends EntitySearcherImpl {
+
+        protected TestEntitySearcher() {
+            metadata = mock(Metadata.class);
+            indexConfigurationManager = mock(IndexConfigurationManager.class);
+            searchProperties = mock(SearchProperties.class);
+        }
+
+        protected Metadata metadata() {
+            return metadata;
+        }
+
+        protected IndexConfigurationManager indexConfigurationManager() {
+            return indexConfigurationManager;
+        }
+
+        @Override
+        protected void configureHighlight(SearchRequest searchRequest, SearchContext searchContext) {
+            super.configureHighlight(searchRequest, searchContext);
+        }
+
+        @Override
+        protected List<FieldHit> createFieldHits(String entityName, Map<String, HighlightField> highlightFields) {
+            return super.createFieldHits(entityName, highlightFields);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package searching;
+
+import io.jmix.core.Metadata;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.search.searching.impl.JpqlRowLevelPolicyTranslator;
+import io.jmix.security.model.RowLevelPolicy;
+import io.jmix.security.model.RowLevelPolicyType;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import test_support.IndexDefinitionProcessingTestConfiguration;
+import test_support.entity.TestRootEntity;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(
+        classes = {IndexDefinitionProcessingTestConfiguration.class}
+)
+public class JpqlRowLevelPolicyTranslatorTest {
+
+    @Autowired
+    JpqlRowLevelPolicyTranslator translator;
+    @Autowired
+    Metadata metadata;
+
+    MetaClass metaClass;
+
+    @BeforeEach
+    public void setUp() {
+        metaClass = metadata.getClass(TestRootEntity.class);
+    }
+
+    @Test
+    @DisplayName("Equality with string literal is translated into terms filter")
+    public void equalityWithLiteral() {
+        RowLevelPolicy policy = createJpqlPolicy("{E}.name = 'abc'", null);
+
+        Assert.assertEquals(Optional.of(Collections.singleton("name")), translator.getRequiredProperties(metaClass, policy));
+        QueryBuilder expected = QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termsQuery("_security.name", Collections.singletonList("abc")));
+        Assert.assertEquals(Optional.of(expected), translator.createFilter(metaClass, policy));
+    }
+
+    @Test
+    @DisplayName("'In' with numeric literals is translated into terms filter with values in index form")
+    public void inWithLiterals() {
+        RowLevelPolicy policy = createJpqlPolicy("{E}.intValue in (1, 2)", null);
+
+        QueryBuilder expected = QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termsQuery("_security.intValue", Arrays.asList("1", "2")));
+        Assert.assertEquals(Optional.of(expected), translator.createFilter(metaClass, policy));
+    }
+
+    @Test
+    @DisplayName("Conjunction of conditions is translated into filter with clause per condition")
+    public void conjunction() {
+        RowLevelPolicy policy = createJpqlPolicy("{E}.textValue is null AND {E}.name is not null", null);
+
+        Set<String> expectedProperties = new HashSet<>(Arrays.asList("textValue", "name"));
+        Assert.assertEquals(Optional.of(expectedProperties), translator.getRequiredProperties(metaClass, policy));
+        QueryBuilder expected = QueryBuilders.boolQuery()
+                .filter(QueryBuilders.boolQuery().mustNot(QueryBuilders.existsQuery("_security.textValue")))
+                .filter(QueryBuilders.existsQuery("_security.name"));
+        Assert.assertEquals(Optional.of(expected), translator.createFilter(metaClass, policy));
+    }
+
+    @Test
+    @DisplayName("Condition on id of to-one reference depends on reference property itself")
+    public void referenceIdCondition() {
+        RowLevelPolicy policy = createJpqlPolicy("{E}.oneToOneAssociation.id is not null", null);
+
+        Assert.assertEquals(Optional.of(Collections.singleton("oneToOneAssociation")), translator.getRequiredProperties(metaClass, policy));
+    }
+
+    @Test
+    @DisplayName("Policies with unsupported conditions aren't translated")
+    public void unsupportedConditions() {
+        assertNotTranslated(createJpqlPolicy("{E}.name = 'a' or {E}.name = 'b'", null));
+        assertNotTranslated(createJpqlPolicy("{E}.oneToManyAssociation is not null", null));
+        assertNotTranslated(createJpqlPolicy("{E}.oneToOneAssociation.name = 'abc'", null));
+        assertNotTranslated(createJpqlPolicy("{E}.dateValue is null", null));
+        assertNotTranslated(createJpqlPolicy("{E}.name like 'abc%'", null));
+        assertNotTranslated(createJpqlPolicy("{E}.unknownProperty = 'abc'", null));
+    }
+
+    @Test
+    @DisplayName("Policies with join clause aren't translated")
+    public void joinClause() {
+        assertNotTranslated(createJpqlPolicy("r.name = 'abc'", "join {E}.oneToManyAssociation r"));
+    }
+
+    @Test
+    @DisplayName("Predicate policies aren't translated")
+    public void predicatePolicy() {
+        RowLevelPolicy policy = mock(RowLevelPolicy.class);
+        when(policy.getType()).thenReturn(RowLevelPolicyType.PREDICATE);
+        assertNotTranslated(policy);
+    }
+
+    @Test
+    @DisplayName("Filter isn't created if parameter of policy can't be resolved")
+    public void unresolvedParameter() {
+        RowLevelPolicy policy = createJpqlPolicy("{E}.name = :unknownParameter", null);
+
+        Assert.assertEquals(Optional.of(Collections.singleton("name")), translator.getRequiredProperties(metaClass, policy));
+        Assert.assertFalse(translator.createFilter(metaClass, policy).isPresent());
+    }
+
+    protected void assertNotTranslated(RowLevelPolicy policy) {
+        Assert.assertFalse(translator.getRequiredProperties(metaClass, policy).isPresent());
+        Assert.assertFalse(translator.createFilter(metaClass, policy).isPresent());
+    }
+
+    protected RowLevelPolicy createJpqlPolicy(String whereClause, @Nullable String joinClause) {
+        RowLevelPolicy policy = mock(RowLevelPolicy.class);
+        when(policy.getType()).thenReturn(RowLevelPolicyType.JPQL);
+        when(policy.getWhereClause()).thenReturn(whereClause);
+        when(policy.getJoinClause()).thenReturn(joinClause);
+        return policy;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package searching;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.searching.SearchContext;
+import io.jmix.search.searching.SearchResult;
+import io.jmix.search.searching.SearchResultEntry;
+import io.jmix.search.searching.SearchStrategy;
+import io.jmix.search.searching.impl.EntitySearcherImpl;
+import io.jmix.search.searching.impl.SearchResultImpl;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+public class MultiSearchTest {
+
+    TestEntitySearcher entitySearcher;
+    SearchStrategy searchStrategy;
+
+    @BeforeEach
+    public void setUp() {
+        entitySearcher = new TestEntitySearcher();
+        searchStrategy = mock(SearchStrategy.class);
+    }
+
+    @Test
+    @DisplayName("Size of context is used as quota of every entity within single multi-search request")
+    public void perEntityQuotas() {
+        SearchContext searchContext = new SearchContext("text")
+                .setEntities("test_First", "test_Second")
+                .setSize(5)
+                .setOffset(10);
+
+        Map<String, SearchResult> results = entitySearcher.searchPerEntity(searchContext, searchStrategy);
+
+        Assert.assertEquals(Arrays.asList("test_First", "test_Second"), new ArrayList<>(results.keySet()));
+        Assert.assertEquals(1, entitySearcher.multiSearchRequests.size());
+        List<SearchRequest> requests = entitySearcher.multiSearchRequests.get(0).requests();
+        Assert.assertEquals(2, requests.size());
+        Assert.assertArrayEquals(new String[]{"search_index_test_first"}, requests.get(0).indices());
+        Assert.assertArrayEquals(new String[]{"search_index_test_second"}, requests.get(1).indices());
+        for (SearchRequest request : requests) {
+            Assert.assertEquals(5, request.source().size());
+            Assert.assertEquals(10, request.source().from());
+        }
+        results.forEach((entityName, result) -> {
+            Assert.assertEquals(Collections.singletonList(entityName), result.getSearchContext().getEntities());
+            Assert.assertEquals(Collections.singletonList(entityName), getEntityNames(result));
+        });
+    }
+
+    @Test
+    @DisplayName("All indexed entities get their own quota if entities aren't specified")
+    public void allIndexedEntities() {
+        when(entitySearcher.indexConfigurationManager().getAllIndexedEntities())
+                .thenReturn(Arrays.asList("test_First", "test_Second"));
+
+        Map<String, SearchResult> results = entitySearcher.searchPerEntity(new SearchContext("text"), searchStrategy);
+
+        Assert.assertEquals(Arrays.asList("test_First", "test_Second"), new ArrayList<>(results.keySet()));
+        Assert.assertEquals(2, entitySearcher.multiSearchRequests.get(0).requests().size());
+    }
+
+    @Test
+    @DisplayName("Results are returned in order of contexts, searches without target indexes aren't requested")
+    public void resultsOrder() {
+        List<SearchResult> results = entitySearcher.multiSearch(Arrays.asList(
+                new SearchContext("text").setEntities("test_Second"),
+                new SearchContext("text").setEntities(TestEntitySearcher.NOT_INDEXED_ENTITY),
+                new SearchContext("text").setEntities("test_First")
+        ), searchStrategy);
+
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals(Collections.singletonList("test_Second"), getEntityNames(results.get(0)));
+        Assert.assertTrue(results.get(1).isEmpty());
+        Assert.assertEquals(Collections.singletonList("test_First"), getEntityNames(results.get(2)));
+        Assert.assertEquals(2, entitySearcher.multiSearchRequests.get(0).requests().size());
+    }
+
+    @Test
+    @DisplayName("Failure of one search is thrown after other searches are processed and their point-in-times are closed")
+    public void failedItem() {
+        entitySearcher.failedEntities.add("test_First");
+        entitySearcher.moreDataEntities.add("test_Second");
+        entitySearcher.pointInTimeIds.put("test_Second", "pit-second");
+
+        try {
+            entitySearcher.multiSearch(Arrays.asList(
+                    new SearchContext("text").setEntities("test_First"),
+                    new SearchContext("text").setEntities("test_Second").setSize(1)
+            ), searchStrategy);
+            Assert.fail("Multi-search should fail");
+        } catch (RuntimeException e) {
+            Assert.assertEquals("Search failed", e.getMessage());
+            Assert.assertEquals("Index failure", e.getCause().getMessage());
+        }
+
+        Assert.assertEquals(Collections.singletonList("test_Second"), entitySearcher.processedEntities);
+        Assert.assertEquals(Collections.singletonList("pit-second"), entitySearcher.closedPointInTimes);
+    }
+
+    protected List<String> getEntityNames(SearchResult searchResult) {
+        return searchResult.getAllEntries().stream()
+                .map(SearchResultEntry::getEntityName)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Answers multi-search requests with a response or failure per entity instead of sending them to Elasticsearch.
+     */
+    protected static class TestEntitySearcher extends EntitySearcherImpl {
+
+        protected static final String NOT_INDEXED_ENTITY = "test_NotIndexed";
+
+        protected final Map<SearchRequest, String> requestEntities = new IdentityHashMap<>();
+        protected final Map<SearchResponse, String> responseEntities = new IdentityHashMap<>();
+        protected final Map<String, String> pointInTimeIds = new HashMap<>();
+        protected final Set<String> failedEntities = new HashSet<>();
+        protected final Set<String> moreDataEntities = new HashSet<>();
+        protected final List<MultiSearchRequest> multiSearchRequests = new ArrayList<>();
+        protected final List<String> processedEntities = Collections.synchronizedList(new ArrayList<>());
+        protected final List<String> closedPointInTimes = new ArrayList<>();
+
+        protected TestEntitySearcher() {
+            searchProperties = mock(SearchProperties.class);
+            when(searchProperties.getSearchPointInTimeKeepAlive()).thenReturn(Duration.ofMinutes(1));
+            indexConfigurationManager = mock(IndexConfigurationManager.class);
+            asyncSearchExecutor = MoreExecutors.newDirectExecutorService();
+        }
+
+        protected IndexConfigurationManager indexConfigurationManager() {
+            return indexConfigurationManager;
+        }
+
+        @Override
+        protected List<String> resolveTargetIndexes(SearchContext searchContext) {
+            return searchContext.getEntities().stream()
+                    .filter(entityName -> !NOT_INDEXED_ENTITY.equals(entityName))
+                    .map(entityName -> "search_index_" + entityName.toLowerCase())
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        protected SearchRequest prepareSearchRequest(List<String> targetIndexes, SearchResultImpl searchResult) {
+            String entityName = searchResult.getSearchContext().getEntities().get(0);
+            searchResult.setPointInTimeId(pointInTimeIds.get(entityName));
+            SearchRequest searchRequest = new SearchRequest(targetIndexes.toArray(new String[0]))
+                    .source(new SearchSourceBuilder());
+            requestEntities.put(searchRequest, entityName);
+            return searchRequest;
+        }
+
+        @Override
+        protected MultiSearchResponse.Item[] executeMultiSearchRequest(MultiSearchRequest multiSearchRequest) {
+            multiSearchRequests.add(multiSearchRequest);
+            return multiSearchRequest.requests().stream()
+                    .map(requestEntities::get)
+                    .map(entityName -> {
+                        if (failedEntities.contains(entityName)) {
+                            return new MultiSearchResponse.Item(null, new RuntimeException("Index failure"));
+                        }
+                        SearchResponse searchResponse = mock(SearchResponse.class);
+                        responseEntities.put(searchResponse, entityName);
+                        return new MultiSearchResponse.Item(searchResponse, null);
+                    })
+                    .toArray(MultiSearchResponse.Item[]::new);
+        }
+
+        @Override
+        protected boolean processSearchResponse(SearchResultImpl searchResult, SearchResponse searchResponse) {
+            String entityName = responseEntities.get(searchResponse);
+            processedEntities.add(entityName);
+            searchResult.addEntry(new SearchResultEntry(entityName + ".1", "Instance", entityName, Collections.emptyList()));
+            return moreDataEntities.contains(entityName);
+        }
+
+        @Override
+        protected void closePointInTime(SearchResultImpl searchResult) {
+            if (searchResult.getPointInTimeId() != null) {
+                closedPointInTimes.add(searchResult.getPointInTimeId());
+                searchResult.setPointInTimeId(null);
+            }
+        }
+    }
+}
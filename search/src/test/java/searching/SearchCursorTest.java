@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package searching;
+
+import io.jmix.search.searching.impl.SearchCursor;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchCursorTest {
+
+    @Test
+    @DisplayName("Cursor with sort values survives encoding")
+    public void encodeAndDecode() {
+        SearchCursor cursor = new SearchCursor("pit-id==", new Object[]{1.5, 4294967296L, "text"});
+
+        SearchCursor decoded = SearchCursor.decode(cursor.encode());
+
+        Assert.assertEquals("pit-id==", decoded.getPointInTimeId());
+        Object[] sortValues = decoded.getSortValues();
+        Assert.assertNotNull(sortValues);
+        Assert.assertEquals(3, sortValues.length);
+        Assert.assertEquals(1.5, ((Number) sortValues[0]).doubleValue(), 0);
+        Assert.assertEquals(4294967296L, ((Number) sortValues[1]).longValue());
+        Assert.assertEquals("text", sortValues[2]);
+    }
+
+    @Test
+    @DisplayName("Cursor without sort values survives encoding")
+    public void encodeAndDecodeWithoutSortValues() {
+        SearchCursor decoded = SearchCursor.decode(new SearchCursor("pit-id", null).encode());
+
+        Assert.assertEquals("pit-id", decoded.getPointInTimeId());
+        Assert.assertNull(decoded.getSortValues());
+    }
+
+    @Test
+    @DisplayName("Encoded cursor is URL-safe")
+    public void urlSafe() {
+        String encoded = new SearchCursor("a+b/c=d?", new Object[]{"~~~???>>>"}).encode();
+
+        Assert.assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    @DisplayName("Invalid cursor is rejected")
+    public void invalidCursor() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("not a cursor"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("e30"));
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package searching;
+
+import io.jmix.core.Metadata;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.security.CurrentAuthentication;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.searching.SearchContext;
+import io.jmix.search.searching.SearchStrategy;
+import io.jmix.search.searching.impl.EntitySearcherImpl;
+import io.jmix.search.searching.impl.SearchAcceptanceRatioTracker;
+import io.jmix.search.searching.impl.SearchResultImpl;
+import io.jmix.security.constraint.PolicyStore;
+import io.jmix.security.model.RowLevelPolicy;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+
+public class SearchOverFetchFactorTest {
+
+    static final double DELTA = 0.0001;
+
+    TestEntitySearcher entitySearcher;
+    MetaClass securedEntity;
+    MetaClass anotherSecuredEntity;
+    MetaClass openEntity;
+
+    @BeforeEach
+    public void setUp() {
+        entitySearcher = new TestEntitySearcher();
+        when(entitySearcher.searchProperties().getMaxSearchOverFetchFactor()).thenReturn(5);
+        when(entitySearcher.searchProperties().getMaxTrackedTotalHits()).thenReturn(10000);
+        securedEntity = registerEntity("test_Secured", true);
+        anotherSecuredEntity = registerEntity("test_AnotherSecured", true);
+        openEntity = registerEntity("test_Open", false);
+    }
+
+    @Test
+    @DisplayName("Hits aren't over-fetched until acceptance ratio is observed")
+    public void noObservations() {
+        Assert.assertEquals(1, resolveOverFetchFactor("test_Secured"), DELTA);
+    }
+
+    @Test
+    @DisplayName("Over-fetch factor follows smoothed observed acceptance ratio")
+    public void factorFollowsObservedRatio() {
+        entitySearcher.tracker().registerObservation(securedEntity, 10, 5);
+        Assert.assertEquals(2, resolveOverFetchFactor("test_Secured"), DELTA);
+
+        entitySearcher.tracker().registerObservation(securedEntity, 10, 10);
+        // 0.5 + 0.3 * (1.0 - 0.5)
+        Assert.assertEquals(1 / 0.65, resolveOverFetchFactor("test_Secured"), DELTA);
+    }
+
+    @Test
+    @DisplayName("Over-fetch factor is capped by max over-fetch factor")
+    public void factorIsCapped() {
+        entitySearcher.tracker().registerObservation(securedEntity, 100, 1);
+        Assert.assertEquals(5, resolveOverFetchFactor("test_Secured"), DELTA);
+
+        entitySearcher.tracker().registerObservation(anotherSecuredEntity, 10, 0);
+        Assert.assertEquals(5, resolveOverFetchFactor("test_AnotherSecured"), DELTA);
+    }
+
+    @Test
+    @DisplayName("Hits aren't over-fetched if max over-fetch factor disables it")
+    public void overFetchDisabled() {
+        when(entitySearcher.searchProperties().getMaxSearchOverFetchFactor()).thenReturn(1);
+        entitySearcher.tracker().registerObservation(securedEntity, 10, 5);
+
+        Assert.assertEquals(1, resolveOverFetchFactor("test_Secured"), DELTA);
+    }
+
+    @Test
+    @DisplayName("The lowest acceptance ratio among requested entities defines over-fetch factor")
+    public void lowestRatioIsUsed() {
+        entitySearcher.tracker().registerObservation(securedEntity, 10, 5);
+        entitySearcher.tracker().registerObservation(anotherSecuredEntity, 8, 2);
+
+        Assert.assertEquals(4, resolveOverFetchFactor("test_Secured", "test_AnotherSecured"), DELTA);
+    }
+
+    @Test
+    @DisplayName("Entities without row-level policies or prefiltered by them don't cause over-fetch")
+    public void verifiedEntitiesOnly() {
+        entitySearcher.tracker().registerObservation(openEntity, 10, 1);
+        entitySearcher.tracker().registerObservation(securedEntity, 10, 1);
+        Assert.assertEquals(1, resolveOverFetchFactor("test_Open"), DELTA);
+
+        SearchResultImpl searchResult = createSearchResult(new SearchContext("text").setEntities("test_Secured"));
+        searchResult.setPrefilteredEntityNames(Collections.singleton("test_Secured"));
+        Assert.assertEquals(1, entitySearcher.resolveOverFetchFactor(searchResult), DELTA);
+    }
+
+    @Test
+    @DisplayName("Acceptance ratio is tracked per user")
+    public void ratioIsTrackedPerUser() {
+        entitySearcher.loginAs("alice");
+        entitySearcher.tracker().registerObservation(securedEntity, 10, 5);
+        Assert.assertEquals(2, resolveOverFetchFactor("test_Secured"), DELTA);
+
+        entitySearcher.loginAs("bob");
+        Assert.assertEquals(1, resolveOverFetchFactor("test_Secured"), DELTA);
+    }
+
+    @Test
+    @DisplayName("Requested size is multiplied by over-fetch factor")
+    public void requestSizeIsMultiplied() {
+        entitySearcher.tracker().registerObservation(securedEntity, 10, 5);
+        SearchRequest searchRequest = new SearchRequest().source(new SearchSourceBuilder());
+
+        entitySearcher.updateRequestSize(searchRequest,
+                createSearchResult(new SearchContext("text").setEntities("test_Secured").setSize(10)));
+
+        Assert.assertEquals(20, searchRequest.source().size());
+    }
+
+    protected double resolveOverFetchFactor(String... entities) {
+        return entitySearcher.resolveOverFetchFactor(createSearchResult(new SearchContext("text").setEntities(entities)));
+    }
+
+    protected SearchResultImpl createSearchResult(SearchContext searchContext) {
+        return new SearchResultImpl(searchContext, mock(SearchStrategy.class));
+    }
+
+    protected MetaClass registerEntity(String entityName, boolean withRowLevelPolicies) {
+        MetaClass metaClass = mock(MetaClass.class);
+        when(metaClass.getName()).thenReturn(entityName);
+        when(entitySearcher.metadata().getClass(entityName)).thenReturn(metaClass);
+        when(entitySearcher.policyStore().getRowLevelPolicies(metaClass)).thenAnswer(invocation ->
+                withRowLevelPolicies ? Stream.of(mock(RowLevelPolicy.class)) : Stream.empty());
+        return metaClass;
+    }
+
+    protected static class TestEntitySearcher extends EntitySearcherImpl {
+
+        protected final CurrentAuthentication currentAuthentication = mock(CurrentAuthentication.class);
+
+        protected TestEntitySearcher() {
+            metadata = mock(Metadata.class);
+            indexConfigurationManager = mock(IndexConfigurationManager.class);
+            searchProperties = mock(SearchProperties.class);
+            policyStore = mock(PolicyStore.class);
+            acceptanceRatioTracker = new TestAcceptanceRatioTracker(currentAuthentication);
+        }
+
+        protected Metadata metadata() {
+            return metadata;
+        }
+
+        protected SearchProperties searchProperties() {
+            return searchProperties;
+        }
+
+        protected PolicyStore policyStore() {
+            return policyStore;
+        }
+
+        protected SearchAcceptanceRatioTracker tracker() {
+            return acceptanceRatioTracker;
+        }
+
+        protected void loginAs(String username) {
+            UserDetails user = mock(UserDetails.class);
+            when(user.getUsername()).thenReturn(username);
+            when(currentAuthentication.isSet()).thenReturn(true);
+            when(currentAuthentication.getUser()).thenReturn(user);
+        }
+
+        @Override
+        protected double resolveOverFetchFactor(SearchResultImpl searchResult) {
+            return super.resolveOverFetchFactor(searchResult);
+        }
+
+        @Override
+        protected void updateRequestSize(SearchRequest searchRequest, SearchResultImpl searchResult) {
+            super.updateRequestSize(searchRequest, searchResult);
+        }
+    }
+
+    protected static class TestAcceptanceRatioTracker extends SearchAcceptanceRatioTracker {
+
+        protected TestAcceptanceRatioTracker(CurrentAuthentication currentAuthentication) {
+            this.currentAuthentication = currentAuthentication;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package searching;
+
+import io.jmix.core.Metadata;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.security.CurrentAuthentication;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.mapping.IndexConfigurationManager;
+import io.jmix.search.searching.SearchContext;
+import io.jmix.search.searching.SearchResult;
+import io.jmix.search.searching.SearchStrategy;
+import io.jmix.search.searching.impl.SearchResultCacheImpl;
+import io.jmix.security.constraint.PolicyStore;
+import io.jmix.security.constraint.SecureOperations;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+
+public class SearchResultCacheTest {
+
+    TestSearchResultCache cache;
+    SearchStrategy searchStrategy;
+    AtomicInteger searches;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new TestSearchResultCache();
+        searchStrategy = mock(SearchStrategy.class);
+        when(searchStrategy.getName()).thenReturn("anyTermAnyField");
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Result of the same search is taken from cache")
+    public void sameSearchIsCached() {
+        SearchResult first = search(new SearchContext("text").setEntities("test_First"));
+        SearchResult second = search(new SearchContext("text").setEntities("test_First"));
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, searches.get());
+    }
+
+    @Test
+    @DisplayName("Searches differing only in whitespaces and order of entities share the same key")
+    public void keyIsNormalized() {
+        search(new SearchContext("some  text").setEntities("test_First", "test_Second"));
+        search(new SearchContext(" some text ").setEntities("test_Second", "test_First"));
+
+        Assert.assertEquals(1, searches.get());
+    }
+
+    @Test
+    @DisplayName("Searches with different pages, strategies or entity counts have different keys")
+    public void keyContainsSearchSettings() {
+        search(new SearchContext("text").setEntities("test_First"));
+        search(new SearchContext("text").setEntities("test_First").setSize(5));
+        search(new SearchContext("text").setEntities("test_First").setOffset(10));
+        search(new SearchContext("text").setEntities("test_First").setEntityCountsRequested(true));
+        search(new SearchContext("Text").setEntities("test_First"));
+        when(searchStrategy.getName()).thenReturn("phrase");
+        search(new SearchContext("text").setEntities("test_First"));
+
+        Assert.assertEquals(6, searches.get());
+    }
+
+    @Test
+    @DisplayName("Results of searches within invalidated entity are reloaded, others are kept")
+    public void entityInvalidation() {
+        search(new SearchContext("text").setEntities("test_First"));
+        search(new SearchContext("text").setEntities("test_Second"));
+        search(new SearchContext("text").setEntities("test_First", "test_Second"));
+
+        cache.invalidate(Collections.singletonList("test_First"));
+
+        search(new SearchContext("text").setEntities("test_First"));
+        search(new SearchContext("text").setEntities("test_Second"));
+        search(new SearchContext("text").setEntities("test_First", "test_Second"));
+        Assert.assertEquals(5, searches.get());
+    }
+
+    @Test
+    @DisplayName("All results are reloaded after full invalidation")
+    public void fullInvalidation() {
+        search(new SearchContext("text").setEntities("test_First"));
+        search(new SearchContext("text").setEntities("test_Second"));
+
+        cache.invalidateAll();
+
+        search(new SearchContext("text").setEntities("test_First"));
+        search(new SearchContext("text").setEntities("test_Second"));
+        Assert.assertEquals(4, searches.get());
+    }
+
+    @Test
+    @DisplayName("Results aren't shared between users with different read permissions")
+    public void keyContainsPermissions() {
+        search(new SearchContext("text").setEntities("test_First"));
+        when(cache.secureOperations().isEntityReadPermitted(any(), any())).thenReturn(false);
+        search(new SearchContext("text").setEntities("test_First"));
+
+        Assert.assertEquals(2, searches.get());
+    }
+
+    protected SearchResult search(SearchContext searchContext) {
+        return cache.get(searchContext, searchStrategy, () -> {
+            searches.incrementAndGet();
+            return mock(SearchResult.class);
+        });
+    }
+
+    protected static class TestSearchResultCache extends SearchResultCacheImpl {
+
+        protected TestSearchResultCache() {
+            searchProperties = mock(SearchProperties.class);
+            when(searchProperties.getSearchResultCacheMaxSize()).thenReturn(100);
+            when(searchProperties.getSearchResultCacheTtl()).thenReturn(Duration.ofMinutes(1));
+            indexConfigurationManager = mock(IndexConfigurationManager.class);
+            when(indexConfigurationManager.getAllIndexedEntities()).thenReturn(Arrays.asList("test_First", "test_Second"));
+            metadata = mock(Metadata.class);
+            when(metadata.getClass(anyString())).thenAnswer(invocation -> {
+                MetaClass metaClass = mock(MetaClass.class);
+                when(metaClass.getName()).thenReturn(invocation.getArgument(0));
+                return metaClass;
+            });
+            policyStore = mock(PolicyStore.class);
+            when(policyStore.getRowLevelPolicies(any(MetaClass.class))).thenAnswer(invocation -> Stream.empty());
+            secureOperations = mock(SecureOperations.class);
+            when(secureOperations.isEntityReadPermitted(any(), any())).thenReturn(true);
+            currentAuthentication = mock(CurrentAuthentication.class);
+            init();
+        }
+
+        protected SecureOperations secureOperations() {
+            return secureOperations;
+        }
+    }
+}
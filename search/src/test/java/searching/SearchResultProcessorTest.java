@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package searching;
+
+import io.jmix.core.*;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.searching.SearchResult;
+import io.jmix.search.searching.SearchResultEntry;
+import io.jmix.search.searching.impl.SearchResultProcessorImpl;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+public class SearchResultProcessorTest {
+
+    TestSearchResultProcessor processor;
+
+    @BeforeEach
+    public void setUp() {
+        processor = new TestSearchResultProcessor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Instances loaded concurrently are returned in order of hits")
+    public void instancesAreReturnedInHitOrder() {
+        List<SearchResultEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            entries.add(new SearchResultEntry("doc" + i, "Instance " + i, i % 3 == 0 ? "test_First" : "test_Second",
+                    Collections.emptyList()));
+        }
+
+        Collection<Object> instances = processor.loadEntityInstances(createSearchResult(entries));
+
+        List<String> expectedIds = entries.stream()
+                .map(SearchResultEntry::getDocId)
+                .collect(Collectors.toList());
+        List<String> actualIds = instances.stream()
+                .map(instance -> ((TestInstance) instance).docId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(expectedIds, actualIds);
+    }
+
+    @Test
+    @DisplayName("Hits of instances which can't be loaded are skipped")
+    public void notLoadedInstancesAreSkipped() {
+        List<SearchResultEntry> entries = Arrays.asList(
+                new SearchResultEntry("doc1", "Instance 1", "test_First", Collections.emptyList()),
+                new SearchResultEntry("removed", "Removed", "test_First", Collections.emptyList()),
+                new SearchResultEntry("doc2", "Instance 2", "test_Second", Collections.emptyList())
+        );
+
+        Collection<Object> instances = processor.loadEntityInstances(createSearchResult(entries));
+
+        Assert.assertEquals(Arrays.asList("doc1", "doc2"), instances.stream()
+                .map(instance -> ((TestInstance) instance).docId)
+                .collect(Collectors.toList()));
+    }
+
+    protected SearchResult createSearchResult(List<SearchResultEntry> entries) {
+        SearchResult searchResult = mock(SearchResult.class);
+        when(searchResult.getAllEntries()).thenReturn(entries);
+        Set<String> entityNames = entries.stream()
+                .map(SearchResultEntry::getEntityName)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        when(searchResult.getEntityNames()).thenReturn(entityNames);
+        for (String entityName : entityNames) {
+            when(searchResult.getEntriesByEntityName(entityName)).thenReturn(entries.stream()
+                    .filter(entry -> entityName.equals(entry.getEntityName()))
+                    .collect(Collectors.toList()));
+        }
+        return searchResult;
+    }
+
+    protected static class TestInstance {
+
+        protected final String docId;
+
+        protected TestInstance(String docId) {
+            this.docId = docId;
+        }
+    }
+
+    protected static class TestSearchResultProcessor extends SearchResultProcessorImpl {
+
+        @SuppressWarnings("unchecked")
+        protected TestSearchResultProcessor() {
+            searchProperties = mock(SearchProperties.class);
+            when(searchProperties.getSearchReloadEntitiesBatchSize()).thenReturn(2);
+            when(searchProperties.getSearchReloadEntitiesConcurrency()).thenReturn(3);
+            when(searchProperties.getMaxSearchReloadThreads()).thenReturn(2);
+            metadata = mock(Metadata.class);
+            when(metadata.getClass(anyString())).thenAnswer(invocation -> {
+                MetaClass metaClass = mock(MetaClass.class);
+                when(metaClass.getName()).thenReturn(invocation.getArgument(0));
+                when(metaClass.getJavaClass()).thenReturn((Class) TestInstance.class);
+                return metaClass;
+            });
+            idSerialization = mock(IdSerialization.class);
+            when(idSerialization.stringToId(anyString())).thenAnswer(invocation ->
+                    Id.of(invocation.getArgument(0), TestInstance.class));
+
+            secureDataManager = mock(DataManager.class);
+            when(secureDataManager.load(any(Class.class))).thenAnswer(invocation -> {
+                FluentLoader<Object> loader = mock(FluentLoader.class);
+                when(loader.ids(anyList())).thenAnswer(idsInvocation -> {
+                    List<Object> ids = idsInvocation.getArgument(0);
+                    FluentLoader.ByIds<Object> byIds = mock(FluentLoader.ByIds.class);
+                    when(byIds.list()).thenAnswer(listInvocation -> loadInstances(ids));
+                    return byIds;
+                });
+                return loader;
+            });
+            init();
+        }
+
+        protected List<Object> loadInstances(List<Object> ids) throws InterruptedException {
+            // Batches are completed in random order
+            Thread.sleep(ThreadLocalRandom.current().nextInt(20));
+            List<Object> instances = ids.stream()
+                    .filter(id -> !"removed".equals(id))
+                    .map(id -> new TestInstance((String) id))
+                    .collect(Collectors.toList());
+            // Order of loaded instances doesn't match order of ids
+            Collections.reverse(instances);
+            return instances;
+        }
+
+        @Override
+        protected String getDocId(Object instance) {
+            return ((TestInstance) instance).docId;
+        }
+
+        protected void shutdown() {
+            preDestroy();
+        }
+    }
+}
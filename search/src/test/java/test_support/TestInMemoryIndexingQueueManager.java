@@ -0,0 +1,164 @@
+/*
+ * Copyright 2021 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test_support;
+
+import io.jmix.core.LoadContext;
+import io.jmix.core.Metadata;
+import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.security.SystemAuthenticator;
+import io.jmix.data.StoreAwareLocator;
+import io.jmix.search.SearchProperties;
+import io.jmix.search.index.impl.IndexStateRegistry;
+import io.jmix.search.index.impl.IndexingLocker;
+import io.jmix.search.index.queue.entity.IndexingQueueItem;
+import io.jmix.search.index.queue.impl.JpaIndexingQueueManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * JpaIndexingQueueManager working with in-memory queue instead of database. Dequeue queries are evaluated
+ * against the in-memory queue and bulk removal statements remove items from it. Indexing of dequeued items
+ * is replaced with recording of processed batches.
+ */
+public class TestInMemoryIndexingQueueManager extends JpaIndexingQueueManager {
+
+    protected final List<IndexingQueueItem> queue = new ArrayList<>();
+    protected final List<LoadContext.Query> dequeueQueries = new ArrayList<>();
+    protected final List<List<IndexingQueueItem>> processedBatches = new ArrayList<>();
+    protected final Set<UUID> failingItemIds = new HashSet<>();
+    protected final EntityManager entityManager = mock(EntityManager.class);
+    protected long batchProcessingDelay;
+
+    public TestInMemoryIndexingQueueManager() {
+        searchProperties = mock(SearchProperties.class);
+        authenticator = mock(SystemAuthenticator.class);
+        indexStateRegistry = mock(IndexStateRegistry.class);
+        locker = mock(IndexingLocker.class);
+        when(locker.tryLockQueueProcessing()).thenReturn(true);
+        metadata = mock(Metadata.class);
+        when(metadata.getClass(IndexingQueueItem.class)).thenReturn(mock(MetaClass.class));
+
+        dataManager = mock(UnconstrainedDataManager.class);
+        when(dataManager.loadList(any())).thenAnswer(invocation -> {
+            LoadContext<?> loadContext = invocation.getArgument(0);
+            dequeueQueries.add(loadContext.getQuery());
+            return dequeue(loadContext.getQuery());
+        });
+        when(dataManager.getCount(any())).thenAnswer(invocation -> (long) queue.size());
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        storeAwareLocator = mock(StoreAwareLocator.class);
+        when(storeAwareLocator.getTransactionTemplate(anyString())).thenReturn(transactionTemplate);
+        when(storeAwareLocator.getEntityManager(anyString())).thenReturn(entityManager);
+        when(entityManager.createQuery(anyString())).thenAnswer(invocation -> createRemovalQuery());
+    }
+
+    public IndexingQueueItem addQueueItem(Date createdDate) {
+        IndexingQueueItem queueItem = new IndexingQueueItem();
+        queueItem.setId(UUID.randomUUID());
+        queueItem.setEntityName("test_Entity");
+        queueItem.setEntityId(queueItem.getId().toString());
+        queueItem.setCreatedDate(createdDate);
+        queue.add(queueItem);
+        return queueItem;
+    }
+
+    public void failItem(IndexingQueueItem queueItem) {
+        failingItemIds.add(queueItem.getId());
+    }
+
+    public void setBatchProcessingDelay(long batchProcessingDelay) {
+        this.batchProcessingDelay = batchProcessingDelay;
+    }
+
+    public SearchProperties getSearchProperties() {
+        return searchProperties;
+    }
+
+    public UnconstrainedDataManager getDataManager() {
+        return dataManager;
+    }
+
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    public List<IndexingQueueItem> getQueueItems() {
+        return Collections.unmodifiableList(queue);
+    }
+
+    public List<LoadContext.Query> getDequeueQueries() {
+        return dequeueQueries;
+    }
+
+    public List<List<IndexingQueueItem>> getProcessedBatches() {
+        return processedBatches;
+    }
+
+    @Override
+    protected List<IndexingQueueItem> processQueueItems(List<IndexingQueueItem> queueItems) {
+        processedBatches.add(queueItems);
+        if (batchProcessingDelay > 0) {
+            try {
+                Thread.sleep(batchProcessingDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return queueItems.stream()
+                .filter(queueItem -> !failingItemIds.contains(queueItem.getId()))
+                .collect(Collectors.toList());
+    }
+
+    protected List<IndexingQueueItem> dequeue(LoadContext.Query query) {
+        Map<String, Object> parameters = query.getParameters();
+        Date lastCreatedDate = (Date) parameters.get("lastCreatedDate");
+        UUID lastId = (UUID) parameters.get("lastId");
+        return queue.stream()
+                .sorted(Comparator.comparing(IndexingQueueItem::getCreatedDate).thenComparing(IndexingQueueItem::getId))
+                .filter(queueItem -> lastCreatedDate == null
+                        || queueItem.getCreatedDate().after(lastCreatedDate)
+                        || (queueItem.getCreatedDate().equals(lastCreatedDate) && queueItem.getId().compareTo(lastId) > 0))
+                .limit(query.getMaxResults())
+                .collect(Collectors.toList());
+    }
+
+    protected Query createRemovalQuery() {
+        Query query = mock(Query.class);
+        List<Collection<UUID>> ids = new ArrayList<>();
+        when(query.setParameter(eq("ids"), anyCollection())).thenAnswer(invocation -> {
+            ids.add(invocation.getArgument(1));
+            return query;
+        });
+        when(query.executeUpdate()).thenAnswer(invocation -> {
+            int sizeBefore = queue.size();
+            ids.forEach(removedIds -> queue.removeIf(queueItem -> removedIds.contains(queueItem.getId())));
+            return sizeBefore - queue.size();
+        });
+        return query;
+    }
+}